@@ -0,0 +1,102 @@
+package rsc.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import rsc.publisher.Px;
+import rsc.scheduler.*;
+import rsc.scheduler.Scheduler.Worker;
+import rsc.util.PerfAsyncSubscriber;
+
+/**
+ * Measures the overhead of instrumenting a Scheduler: RAW uses the Scheduler directly,
+ * DISABLED wraps it with the instrumentation turned off and ENABLED records every task.
+ * The worker benchmark runs the tasks on the caller thread to isolate the per-task cost.
+ * <br>
+ * gradle jmh -Pjmh='InstrumentedSchedulerPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class InstrumentedSchedulerPerf {
+
+    @Param({"RAW", "DISABLED", "ENABLED"})
+    String type;
+
+    @Param({"1000"})
+    int count;
+
+    Worker worker;
+
+    Scheduler parallel;
+
+    Publisher<Integer> observeOn;
+
+    Runnable task;
+
+    @Setup
+    public void setup(Blackhole bh) {
+        Scheduler immediate = ImmediateScheduler.instance();
+        parallel = new ParallelScheduler(1);
+
+        switch (type) {
+        case "DISABLED":
+            immediate = new InstrumentedScheduler(immediate, false);
+            parallel = new InstrumentedScheduler(parallel, false);
+            break;
+        case "ENABLED":
+            immediate = new InstrumentedScheduler(immediate);
+            parallel = new InstrumentedScheduler(parallel);
+            break;
+        default:
+        }
+
+        worker = immediate.createWorker();
+        task = () -> bh.consume(1);
+
+        Integer[] array = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            array[i] = i;
+        }
+        observeOn = Px.fromArray(array).hide().observeOn(parallel);
+    }
+
+    @TearDown
+    public void teardown() {
+        worker.shutdown();
+        parallel.shutdown();
+    }
+
+    @Benchmark
+    public void worker(Blackhole bh) {
+        Worker w = worker;
+        Runnable r = task;
+        for (int i = 0; i < count; i++) {
+            bh.consume(w.schedule(r));
+        }
+    }
+
+    @Benchmark
+    public void observeOn(Blackhole bh) {
+        PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
+        observeOn.subscribe(s);
+        s.await(count);
+    }
+}
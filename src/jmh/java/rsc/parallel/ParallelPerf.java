@@ -67,6 +67,12 @@ public class ParallelPerf {
 
     Px<Integer> sequential;
 
+    Px<Integer> parallelWorkStealing;
+
+    Px<Integer> parallelSkewed;
+
+    Px<Integer> parallelWorkStealingSkewed;
+
     @Setup
     public void setup() {
         
@@ -119,6 +125,30 @@ public class ParallelPerf {
                 })
                 .sequential();
 
+        this.parallelWorkStealing = ParallelPublisher.from(source, false, parallelism)
+                .runOn(scheduler, Px.bufferSize(), true)
+                .map(v -> {
+                    Blackhole.consumeCPU(compute);
+                    return v;
+                })
+                .sequential();
+
+        // every 100th element costs 100 times more
+        this.parallelSkewed = ParallelPublisher.from(source, false, parallelism)
+                .runOn(scheduler)
+                .map(v -> {
+                    Blackhole.consumeCPU(v % 100 == 0 ? compute * 100L : compute);
+                    return v;
+                })
+                .sequential();
+
+        this.parallelWorkStealingSkewed = ParallelPublisher.from(source, false, parallelism)
+                .runOn(scheduler, Px.bufferSize(), true)
+                .map(v -> {
+                    Blackhole.consumeCPU(v % 100 == 0 ? compute * 100L : compute);
+                    return v;
+                })
+                .sequential();
         
         this.sequential = ParallelPublisher.from(source, false, parallelism)
                 .map(v -> {
@@ -171,4 +201,25 @@ public class ParallelPerf {
         parallelCp.subscribe(s);
         s.await(10000);
     }
-}
\ No newline at end of file
+
+    @Benchmark
+    public void parallelWorkStealing(Blackhole bh) {
+        PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
+        parallelWorkStealing.subscribe(s);
+        s.await(10000);
+    }
+
+    @Benchmark
+    public void parallelSkewed(Blackhole bh) {
+        PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
+        parallelSkewed.subscribe(s);
+        s.await(10000);
+    }
+
+    @Benchmark
+    public void parallelWorkStealingSkewed(Blackhole bh) {
+        PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
+        parallelWorkStealingSkewed.subscribe(s);
+        s.await(10000);
+    }
+}
@@ -0,0 +1,97 @@
+package rsc.parallel;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rsc.publisher.Px;
+import rsc.scheduler.*;
+import rsc.util.PerfAsyncSubscriber;
+
+/**
+ * Benchmark the sorted join of ParallelPublisher.
+ * <p>
+ * gradle jmh -Pjmh='ParallelSortedPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class ParallelSortedPerf {
+
+    @Param({"1000", "100000", "1000000"})
+    public int count;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    Scheduler scheduler;
+
+    Px<Integer> sorted;
+
+    Px<List<Integer>> toSortedList;
+
+    Px<Integer> sortedFirst;
+
+    Px<Integer> mergeSorted;
+
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            array[i] = (int)((i * 2654435761L) % count);
+        }
+
+        scheduler = new ParallelScheduler(parallelism);
+
+        ParallelPublisher<Integer> source = Px.fromArray(array).parallel(parallelism).runOn(scheduler);
+
+        sorted = source.sorted(Comparator.naturalOrder(), count);
+
+        toSortedList = source.toSortedList(Comparator.naturalOrder(), count);
+
+        sortedFirst = sorted.take(1);
+
+        // rails that are already sorted: the merge can start before they complete
+        ParallelPublisher<Integer> sortedRails = Px.range(0, count).parallel(parallelism).runOn(scheduler);
+
+        mergeSorted = sortedRails.mergeSorted(Comparator.naturalOrder());
+    }
+
+    @TearDown
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public void sorted(Blackhole bh) {
+        PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
+        sorted.subscribe(s);
+        s.await(count);
+    }
+
+    @Benchmark
+    public void toSortedList(Blackhole bh) {
+        PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
+        toSortedList.subscribe(s);
+        s.await(count);
+    }
+
+    @Benchmark
+    public void sortedFirst(Blackhole bh) {
+        PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
+        sortedFirst.subscribe(s);
+        s.await(count);
+    }
+
+    @Benchmark
+    public void mergeSorted(Blackhole bh) {
+        PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
+        mergeSorted.subscribe(s);
+        s.await(count);
+    }
+}
@@ -0,0 +1,118 @@
+package rsc.primitive;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Subscription;
+
+import rsc.publisher.*;
+import rsc.util.PerfSubscriber;
+
+/**
+ * Compares the primitive IntPx pipelines with their boxed counterparts
+ * (see PublisherRangePerf and PublisherReducePerf). Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='IntPxPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class IntPxPerf {
+
+    @Param({"1", "1000", "1000000"})
+    public int count;
+
+    Px<Integer> boxedRange;
+
+    Px<Integer> boxedSum;
+
+    Px<Integer> boxedMapFilterSum;
+
+    IntPx range;
+
+    IntPx sum;
+
+    IntPx mapFilterSum;
+
+    IntPx mapFilterSumUnfused;
+
+    @Setup
+    public void setup() {
+        boxedRange = new PublisherRange(0, count);
+        boxedSum = boxedRange.sumInt();
+        boxedMapFilterSum = boxedRange.map(v -> v * 2).filter(v -> v % 3 == 0).reduce(() -> 0, (a, b) -> a + b);
+
+        range = IntPx.range(0, count);
+        sum = range.sum();
+        mapFilterSum = range.map(v -> v * 2).filter(v -> v % 3 == 0).sum();
+        mapFilterSumUnfused = IntPx.from(boxedRange.hide()).map(v -> v * 2).filter(v -> v % 3 == 0).sum();
+    }
+
+    @Benchmark
+    public void boxedRange(Blackhole bh) {
+        boxedRange.subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void range(Blackhole bh) {
+        range.subscribe(new PerfIntSubscriber(bh));
+    }
+
+    @Benchmark
+    public void boxedSum(Blackhole bh) {
+        boxedSum.subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void sum(Blackhole bh) {
+        sum.subscribe(new PerfIntSubscriber(bh));
+    }
+
+    @Benchmark
+    public void boxedMapFilterSum(Blackhole bh) {
+        boxedMapFilterSum.subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void mapFilterSum(Blackhole bh) {
+        mapFilterSum.subscribe(new PerfIntSubscriber(bh));
+    }
+
+    @Benchmark
+    public void mapFilterSumUnfused(Blackhole bh) {
+        mapFilterSumUnfused.subscribe(new PerfIntSubscriber(bh));
+    }
+
+    static final class PerfIntSubscriber implements IntSubscriber {
+
+        final Blackhole bh;
+
+        public PerfIntSubscriber(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(int t) {
+            bh.consume(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            bh.consume(t);
+        }
+
+        @Override
+        public void onComplete() {
+            bh.consume(true);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package rsc.processor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rsc.publisher.ConnectablePublisher;
+import rsc.publisher.Px;
+import rsc.scheduler.ImmediateScheduler;
+import rsc.scheduler.ParallelScheduler;
+import rsc.util.PerfAsyncSubscriber;
+import rsc.util.PerfSubscriber;
+
+/**
+ * Compares broadcasting a range to 1, 8 and 64 Subscribers via DirectProcessor,
+ * publish() and RingBufferProcessor on the caller thread, and via publish().observeOn()
+ * and RingBufferProcessor with each Subscriber consuming on its own Worker (DirectProcessor
+ * can't keep up with a bounded observeOn and would just signal an error).
+ * <br>
+ * gradle jmh -Pjmh='BroadcastPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class BroadcastPerf {
+
+    @Param({"1", "8", "64"})
+    public int subscribers;
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    ParallelScheduler scheduler;
+
+    @Setup
+    public void setup() {
+        scheduler = new ParallelScheduler();
+    }
+
+    @TearDown
+    public void teardown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public void direct(Blackhole bh) {
+        DirectProcessor<Integer> dp = new DirectProcessor<>();
+        for (int i = 0; i < subscribers; i++) {
+            dp.subscribe(new PerfSubscriber(bh));
+        }
+        Px.range(0, count).subscribe(dp);
+    }
+
+    @Benchmark
+    public void publish(Blackhole bh) {
+        ConnectablePublisher<Integer> cp = Px.range(0, count).publish();
+        for (int i = 0; i < subscribers; i++) {
+            cp.subscribe(new PerfSubscriber(bh));
+        }
+        cp.connect();
+    }
+
+    @Benchmark
+    public void ringBuffer(Blackhole bh) {
+        RingBufferProcessor<Integer> rp = new RingBufferProcessor<>(ImmediateScheduler.instance(), 1024);
+        for (int i = 0; i < subscribers; i++) {
+            rp.subscribe(new PerfSubscriber(bh));
+        }
+        Px.range(0, count).subscribe(rp);
+    }
+
+    @Benchmark
+    public void publishAsync(Blackhole bh) {
+        ConnectablePublisher<Integer> cp = Px.range(0, count).publish();
+        PerfAsyncSubscriber[] subs = new PerfAsyncSubscriber[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            subs[i] = new PerfAsyncSubscriber(bh);
+            cp.observeOn(scheduler).subscribe(subs[i]);
+        }
+        cp.connect();
+        for (PerfAsyncSubscriber s : subs) {
+            s.await(count);
+        }
+    }
+
+    @Benchmark
+    public void ringBufferAsync(Blackhole bh) {
+        RingBufferProcessor<Integer> rp = new RingBufferProcessor<>(scheduler, 1024);
+        PerfAsyncSubscriber[] subs = new PerfAsyncSubscriber[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            subs[i] = new PerfAsyncSubscriber(bh);
+            rp.subscribe(subs[i]);
+        }
+        Px.range(0, count).subscribe(rp);
+        for (PerfAsyncSubscriber s : subs) {
+            s.await(count);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package rsc.publisher;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import rsc.scheduler.ExecutorServiceScheduler;
+import rsc.util.PerfAsyncSubscriber;
+
+/**
+ * Compares fixed prefetch amounts of observeOn and flatMap with the adaptive 16..4096 window,
+ * once with a fast consumer (the window should grow towards the maximum) and once with a
+ * consumer burning CPU per item (the window should stay near the minimum); the adaptive
+ * variant is expected to get close to the best fixed amount of each case.
+ * <br>
+ * gradle jmh -Pjmh='AdaptivePrefetchPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class AdaptivePrefetchPerf {
+
+    @Param({"16", "256", "4096", "adaptive"})
+    public String prefetch;
+
+    @Param({"1000000"})
+    public int count;
+
+    ExecutorService exec;
+
+    ExecutorService exec2;
+
+    Publisher<Integer> observeOnFast;
+
+    Publisher<Integer> observeOnSlow;
+
+    Publisher<Integer> flatMapFast;
+
+    Publisher<Integer> flatMapSlow;
+
+    @Setup
+    public void setup() {
+        exec = Executors.newSingleThreadExecutor();
+        exec2 = Executors.newSingleThreadExecutor();
+
+        ExecutorServiceScheduler scheduler = new ExecutorServiceScheduler(exec);
+        ExecutorServiceScheduler scheduler2 = new ExecutorServiceScheduler(exec2);
+
+        int min;
+        int max;
+        if ("adaptive".equals(prefetch)) {
+            min = 16;
+            max = 4096;
+        } else {
+            min = Integer.parseInt(prefetch);
+            max = min;
+        }
+
+        Px<Integer> observeOn = Px.range(1, count).hide().observeOn(scheduler, false, min, max);
+
+        observeOnFast = observeOn;
+        observeOnSlow = observeOn.doOnNext(v -> Blackhole.consumeCPU(100));
+
+        Px<Integer> inner = Px.range(1, 1000).subscribeOn(scheduler2);
+
+        Px<Integer> flatMap = Px.range(1, count / 1000).flatMap(v -> inner, false, 4, min, max);
+
+        flatMapFast = flatMap;
+        flatMapSlow = flatMap.doOnNext(v -> Blackhole.consumeCPU(100));
+    }
+
+    @TearDown
+    public void teardown() {
+        exec.shutdownNow();
+        exec2.shutdownNow();
+    }
+
+    void run(Publisher<Integer> p, Blackhole bh) {
+        PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
+
+        p.subscribe(s);
+
+        s.await(count);
+    }
+
+    @Benchmark
+    public void observeOnFast(Blackhole bh) {
+        run(observeOnFast, bh);
+    }
+
+    @Benchmark
+    public void observeOnSlow(Blackhole bh) {
+        run(observeOnSlow, bh);
+    }
+
+    @Benchmark
+    public void flatMapFast(Blackhole bh) {
+        run(flatMapFast, bh);
+    }
+
+    @Benchmark
+    public void flatMapSlow(Blackhole bh) {
+        run(flatMapSlow, bh);
+    }
+}
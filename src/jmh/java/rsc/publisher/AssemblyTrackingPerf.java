@@ -0,0 +1,91 @@
+package rsc.publisher;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rsc.util.PerfSubscriber;
+
+
+/**
+ * Measures the cost of assembling (and running) a short operator chain with
+ * assembly tracking off, sampled 1 in 100, lazily resolved for every assembly
+ * and fully captured for every assembly.
+ * <br>
+ * gradle jmh -Pjmh='AssemblyTrackingPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class AssemblyTrackingPerf {
+
+    @Param({"off", "sampled", "lazy", "full"})
+    public String mode;
+
+    boolean trackAssembly;
+
+    int trackAssemblySampling;
+
+    @Setup
+    public void setup() {
+        trackAssembly = Px.trackAssembly;
+        trackAssemblySampling = Px.trackAssemblySampling;
+
+        switch (mode) {
+        case "sampled":
+            Px.trackAssembly = false;
+            Px.trackAssemblySampling = 100;
+            break;
+        case "lazy":
+            Px.trackAssembly = false;
+            Px.trackAssemblySampling = 1;
+            break;
+        case "full":
+            Px.trackAssembly = true;
+            Px.trackAssemblySampling = 0;
+            break;
+        default:
+            Px.trackAssembly = false;
+            Px.trackAssemblySampling = 0;
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        Px.trackAssembly = trackAssembly;
+        Px.trackAssemblySampling = trackAssemblySampling;
+    }
+
+    Px<Integer> assembleChain() {
+        return Px.range(1, 10)
+                .map(v -> v + 1)
+                .filter(v -> (v & 1) == 0)
+                .take(4);
+    }
+
+    @Benchmark
+    public Object assemble() {
+        return assembleChain();
+    }
+
+    @Benchmark
+    public void assembleAndRun(Blackhole bh) {
+        assembleChain().subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void assembleAndFail(Blackhole bh) {
+        assembleChain()
+        .map(v -> {
+            if (v == 4) {
+                throw new IllegalStateException();
+            }
+            return v;
+        })
+        .subscribe(new PerfSubscriber(bh));
+    }
+}
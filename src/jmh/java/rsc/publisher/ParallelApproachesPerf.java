@@ -5,8 +5,10 @@ import java.util.List;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.Spliterators;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -28,6 +30,10 @@ import rsc.util.PerfAsyncSubscriber;
 /**
  * Benchmark parallelization approaches.
  * <p>
+ * The pxStream benchmarks run Px.parallelStream() over a sized source, a synchronously
+ * fused source and an asynchronous source; pxStreamUnknownSize wraps the blocking
+ * iterator as Px.parallelStream() did before it got its own spliterators.
+ * <p>
  * gradle jmh -Pjmh='ParallelApproachesPerf'
  */
 @BenchmarkMode(Mode.Throughput)
@@ -59,6 +65,14 @@ public class ParallelApproachesPerf {
     
     Supplier<Stream<Integer>> stream;
     
+    Supplier<Stream<Integer>> pxStreamSized;
+    
+    Supplier<Stream<Integer>> pxStreamSync;
+    
+    Supplier<Stream<Integer>> pxStreamAsync;
+    
+    Supplier<Stream<Integer>> pxStreamUnknownSize;
+    
     ForkJoinPool fj;
     
     @Setup
@@ -96,6 +110,20 @@ public class ParallelApproachesPerf {
         stream = () -> {
             return list.parallelStream().unordered().map(work);
         };
+        
+        pxStreamSized = () -> source.parallelStream().unordered().map(work);
+        
+        Px<Integer> sync = source.map(v -> v);
+        
+        pxStreamSync = () -> sync.parallelStream().unordered().map(work);
+        
+        Px<Integer> async = source.subscribeOn(scheduler);
+        
+        pxStreamAsync = () -> async.parallelStream().unordered().map(work);
+        
+        pxStreamUnknownSize = () -> StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(source.toIterable().iterator(), 0), true)
+                .unordered().map(work);
     }
 
     @Benchmark
@@ -111,6 +139,33 @@ public class ParallelApproachesPerf {
         }).get();
     }
 
+    @Benchmark
+    public void pxStreamSized(Blackhole bh) throws Exception {
+        runStream(pxStreamSized, bh);
+    }
+
+    @Benchmark
+    public void pxStreamSync(Blackhole bh) throws Exception {
+        runStream(pxStreamSync, bh);
+    }
+
+    @Benchmark
+    public void pxStreamAsync(Blackhole bh) throws Exception {
+        runStream(pxStreamAsync, bh);
+    }
+
+    @Benchmark
+    public void pxStreamUnknownSize(Blackhole bh) throws Exception {
+        runStream(pxStreamUnknownSize, bh);
+    }
+    
+    void runStream(Supplier<Stream<Integer>> s, Blackhole bh) throws Exception {
+        fj.submit(() -> {
+            s.get().forEach(bh::consume);
+            return null;
+        }).get();
+    }
+
     @Benchmark
     public void groupBy(Blackhole bh) {
         PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
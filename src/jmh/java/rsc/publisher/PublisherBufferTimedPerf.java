@@ -0,0 +1,67 @@
+package rsc.publisher;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rsc.scheduler.*;
+import rsc.util.PerfSubscriber;
+
+/**
+ * Compares the size-or-time buffer and window operators driven by a single periodic
+ * task against the equivalent boundary operators driven by an interval Publisher.
+ * The timespan is long enough that the size limit does all the flushing, so the numbers
+ * show the per-item and per-subscription cost of each approach.
+ * <br>
+ * gradle jmh -Pjmh='PublisherBufferTimedPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class PublisherBufferTimedPerf {
+
+    @Param({"1", "1000", "1000000"})
+    public int count;
+
+    @Param({"16"})
+    public int maxSize;
+
+    TimedScheduler timer;
+
+    Px<Integer> source;
+
+    @Setup
+    public void setup() {
+        timer = new SingleTimedScheduler();
+        source = Px.range(1, count);
+    }
+
+    @TearDown
+    public void teardown() {
+        timer.shutdown();
+    }
+
+    @Benchmark
+    public void bufferTimed(Blackhole bh) {
+        source.buffer(maxSize, 1, TimeUnit.HOURS, timer).subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void bufferBoundary(Blackhole bh) {
+        source.buffer(Px.interval(1, TimeUnit.HOURS, timer), maxSize).subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void windowTimed(Blackhole bh) {
+        source.window(maxSize, 1, TimeUnit.HOURS, timer).flatMap(w -> w).subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void windowBoundary(Blackhole bh) {
+        source.window(Px.interval(1, TimeUnit.HOURS, timer), maxSize).flatMap(w -> w).subscribe(new PerfSubscriber(bh));
+    }
+}
@@ -0,0 +1,103 @@
+package rsc.publisher;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import rsc.processor.DirectProcessor;
+import rsc.util.PerfSubscriber;
+
+/**
+ * Compares the combineLatest coordinators: QUEUE queues a copy of the latest values for
+ * each value, COPY queues the values by source index and copies the latest values for
+ * each combiner call, SHARED hands the same array to the combiner each time.
+ * <p>
+ * The roundRobin benchmark pushes the values to the sources in turn so that each value
+ * produces a result; add -prof gc to see the allocation rate.
+ * <br>
+ * gradle jmh -Pjmh='PublisherCombineLatestPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class PublisherCombineLatestPerf {
+
+    @Param({"2", "8", "32"})
+    int sources;
+
+    @Param({"QUEUE", "COPY", "SHARED"})
+    String mode;
+
+    @Param({"1000"})
+    int count;
+
+    Publisher<Integer> ranges;
+
+    DirectProcessor<Integer>[] processors;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() {
+        Publisher<Integer>[] a = new Publisher[sources];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = Px.range(0, count);
+        }
+        ranges = combine(a);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Invocation)
+    public void setupProcessors() {
+        processors = new DirectProcessor[sources];
+        for (int i = 0; i < sources; i++) {
+            processors[i] = new DirectProcessor<>();
+        }
+    }
+
+    Publisher<Integer> combine(Publisher<Integer>[] a) {
+        switch (mode) {
+        case "COPY":
+            return Px.combineLatest(PublisherCombineLatestPerf::sum, true, a);
+        case "SHARED":
+            return Px.combineLatest(PublisherCombineLatestPerf::sum, false, a);
+        default:
+            return new PublisherCombineLatest<>(a, PublisherCombineLatestPerf::sum,
+                    Px.defaultUnboundedQueueSupplier(Px.BUFFER_SIZE), Px.BUFFER_SIZE);
+        }
+    }
+
+    static Integer sum(Object[] a) {
+        int s = 0;
+        for (Object o : a) {
+            s += (Integer)o;
+        }
+        return s;
+    }
+
+    @Benchmark
+    public void ranges(Blackhole bh) {
+        ranges.subscribe(new PerfSubscriber(bh));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Benchmark
+    public void roundRobin(Blackhole bh) {
+        DirectProcessor<Integer>[] a = processors;
+        int n = a.length;
+
+        combine((Publisher<Integer>[])a).subscribe(new PerfSubscriber(bh));
+
+        Integer v = 1;
+        for (int i = 0; i < count; i++) {
+            a[i % n].onNext(v);
+        }
+        for (DirectProcessor<Integer> p : a) {
+            p.onComplete();
+        }
+    }
+}
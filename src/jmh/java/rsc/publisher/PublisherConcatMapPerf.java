@@ -8,6 +8,8 @@ import org.openjdk.jmh.infra.Blackhole;
 import org.reactivestreams.Publisher;
 
 import rsc.publisher.PublisherConcatMap.ErrorMode;
+import rsc.scheduler.ParallelScheduler;
+import rsc.util.PerfAsyncSubscriber;
 import rsc.util.PerfSubscriber;
 
 
@@ -189,4 +191,120 @@ public class PublisherConcatMapPerf {
         o.rangeFlatMapArray.subscribe(new PerfSubscriber(bh));
     }
 
-}
+    @State(Scope.Thread)
+    public static class EagerRegular { 
+        @Param({"1", "1000", "1000000"})
+        int count;
+
+        Publisher<Integer> justConcatMapEagerRange;
+
+        Publisher<Integer> rangeConcatMapEagerJust;
+
+        Publisher<Integer> justConcatMapEagerArray;
+
+        @Setup
+        public void setup() {
+            justConcatMapEagerRange = Px.just(1).concatMapEager(v -> Px.range(v, count));
+
+            Integer[] arr = new Integer[count];
+            Arrays.fill(arr, 777);
+            
+            justConcatMapEagerArray = Px.just(1).concatMapEager(v -> new PublisherArray<>(arr));
+
+            rangeConcatMapEagerJust = Px.range(1, count).concatMapEager(Px::just);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EagerCrossRange { 
+        Publisher<Integer> rangeConcatMapEagerRange;
+
+        Publisher<Integer> rangeConcatMapEagerArray;
+
+        @Setup
+        public void setup() {
+            Integer[] arr = new Integer[1000];
+            Arrays.fill(arr, 777);
+
+            rangeConcatMapEagerRange = Px.range(0, 1000).concatMapEager(v -> Px.range(v, 1000));
+
+            rangeConcatMapEagerArray = Px.range(0, 1000).concatMapEager(v -> new PublisherArray<>(arr));
+        }
+    }
+
+    @Benchmark
+    public void justConcatMapEagerRange(EagerRegular o, Blackhole bh) {
+        o.justConcatMapEagerRange.subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void justConcatMapEagerArray(EagerRegular o, Blackhole bh) {
+        o.justConcatMapEagerArray.subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void rangeConcatMapEagerJust(EagerRegular o, Blackhole bh) {
+        o.rangeConcatMapEagerJust.subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void rangeConcatMapEagerRange(EagerCrossRange o, Blackhole bh) {
+        o.rangeConcatMapEagerRange.subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void rangeConcatMapEagerArray(EagerCrossRange o, Blackhole bh) {
+        o.rangeConcatMapEagerArray.subscribe(new PerfSubscriber(bh));
+    }
+
+    /**
+     * Inner sources that emit on other threads, where concatMap waits for each of them
+     * in turn while flatMap and concatMapEager run them at once.
+     */
+    @State(Scope.Thread)
+    public static class AsyncInner {
+        @Param({"concatMap", "concatMapEager", "flatMap"})
+        String type;
+
+        @Param({"16"})
+        int sources;
+
+        @Param({"1000"})
+        int count;
+
+        ParallelScheduler scheduler;
+
+        Publisher<Integer> source;
+
+        @Setup
+        public void setup() {
+            scheduler = new ParallelScheduler(4);
+
+            Px<Integer> main = Px.range(0, sources);
+
+            switch (type) {
+            case "concatMapEager":
+                source = main.concatMapEager(v -> Px.range(v, count).subscribeOn(scheduler));
+                break;
+            case "flatMap":
+                source = main.flatMap(v -> Px.range(v, count).subscribeOn(scheduler));
+                break;
+            default:
+                source = main.concatMap(v -> Px.range(v, count).subscribeOn(scheduler));
+            }
+        }
+
+        @TearDown
+        public void teardown() {
+            scheduler.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void asyncInner(AsyncInner o, Blackhole bh) {
+        PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
+        o.source.subscribe(s);
+        s.await(o.sources * o.count);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package rsc.publisher;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rsc.util.*;
+
+/**
+ * Compares reading the lines of a generated file of sizeMB megabytes through
+ * the memory-mapped file publishers with Files.lines() wrapped into a PublisherStream
+ * and a plain BufferedReader loop.
+ * <p>
+ * The file is written into the temporary directory once per trial; it should fit into
+ * the page cache, otherwise the disk is measured.
+ * <br>
+ * gradle jmh -Pjmh='PublisherFilePerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class PublisherFilePerf {
+
+    @Param({"2048"})
+    int sizeMB;
+
+    Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("PublisherFilePerf", ".log");
+
+        Random random = new Random(0);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        long size = (long)sizeMB << 20;
+        long written = 0L;
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (written < size) {
+                buffer.clear();
+                // lines of 60 to 140 bytes, 100 on average
+                while (buffer.remaining() >= 141) {
+                    int n = 60 + random.nextInt(81);
+                    for (int i = 0; i < n; i++) {
+                        buffer.put((byte)('a' + random.nextInt(26)));
+                    }
+                    buffer.put((byte)'\n');
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += ch.write(buffer);
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void records(Blackhole bh) {
+        Px.fromFileRecords(file, (byte)'\n').subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void recordsBackpressured(Blackhole bh) {
+        Px.fromFileRecords(file, (byte)'\n').subscribe(new PerfSlowPathSubscriber(bh, Long.MAX_VALUE - 1));
+    }
+
+    @Benchmark
+    public void recordsSmallRegions(Blackhole bh) {
+        Px.fromFileRecords(file, (byte)'\n', 1 << 20).subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void chunks(Blackhole bh) {
+        Px.fromFileChunks(file, 64 * 1024).subscribe(new PerfSubscriber(bh));
+    }
+
+    @Benchmark
+    public void linesStream(Blackhole bh) throws IOException {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.ISO_8859_1)) {
+            new PublisherStream<>(lines).subscribe(new PerfSubscriber(bh));
+        }
+    }
+
+    @Benchmark
+    public void bufferedReader(Blackhole bh) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                bh.consume(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package rsc.publisher;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.*;
+
+import rsc.scheduler.*;
+import rsc.util.PerfSubscriber;
+
+/**
+ * Measures groupBy over one million items with 10, 10k and 1M distinct keys, with
+ * unbounded groups, at most 1024 live groups and with idle eviction enabled.
+ * The keys either follow each other sequentially, which keeps the accesses of identity-hashed
+ * tables local, or are scattered over the key range like hashed IDs would be.
+ * <br>
+ * gradle jmh -Pjmh='PublisherGroupByPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class PublisherGroupByPerf {
+
+    @Param({"10", "10000", "1000000"})
+    public int keys;
+
+    @Param({"unbounded", "maxGroups", "idle"})
+    public String mode;
+
+    @Param({"sequential", "scattered"})
+    public String keyOrder;
+
+    final int count = 1_000_000;
+
+    TimedScheduler timer;
+
+    Px<GroupedPublisher<Integer, Integer>> source;
+
+    @Setup
+    public void setup() {
+        timer = new SingleTimedScheduler();
+
+        int k = keys;
+        Px<Integer> range = Px.range(0, count);
+        Function<Integer, Integer> keySelector;
+
+        if ("scattered".equals(keyOrder)) {
+            // multiplying by an odd number not divisible by 5 permutes the key range
+            keySelector = v -> (int)((v * 2654435761L) % k);
+        } else {
+            keySelector = v -> v % k;
+        }
+
+        switch (mode) {
+        case "maxGroups":
+            source = range.groupBy(keySelector, v -> v, 1024);
+            break;
+        case "idle":
+            source = range.groupBy(keySelector, v -> v, Integer.MAX_VALUE, 1, TimeUnit.SECONDS, timer);
+            break;
+        default:
+            source = range.groupBy(keySelector);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        timer.shutdown();
+    }
+
+    @Benchmark
+    public void groupBy(Blackhole bh) {
+        source.subscribe(new GroupSubscriber(bh));
+    }
+
+    /**
+     * Subscribes a PerfSubscriber to each group as it arrives.
+     */
+    static final class GroupSubscriber implements Subscriber<GroupedPublisher<Integer, Integer>> {
+
+        final Blackhole bh;
+
+        GroupSubscriber(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(GroupedPublisher<Integer, Integer> t) {
+            t.subscribe(new PerfSubscriber(bh));
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            bh.consume(t);
+        }
+
+        @Override
+        public void onComplete() {
+            bh.consume(true);
+        }
+    }
+}
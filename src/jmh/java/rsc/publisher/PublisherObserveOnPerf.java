@@ -1,13 +1,15 @@
 package rsc.publisher;
 
-import java.util.Arrays;
+import java.util.*;
 import java.util.concurrent.*;
 
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
-import org.reactivestreams.Publisher;
+import org.reactivestreams.*;
 
-import rsc.util.PerfAsyncSubscriber;
+import rsc.flow.Fuseable;
+import rsc.scheduler.Scheduler;
+import rsc.util.*;
 
 
 /**
@@ -35,6 +37,13 @@ public class PublisherObserveOnPerf {
     Publisher<Integer> iterable;
     Publisher<Integer> iterableHidden;
 
+    Publisher<Integer> rangePerItem;
+    Publisher<Integer> rangeHiddenPerItem;
+
+    Publisher<Integer> arrayPerItem;
+
+    Publisher<Integer> iterablePerItem;
+
     ExecutorService exec;
     
     @Setup
@@ -58,6 +67,19 @@ public class PublisherObserveOnPerf {
         
         iterable = it.observeOn(exec);
         iterableHidden = it.hide().observeOn(exec);
+        
+        // the same flows, drained through Queue.poll() one element at a time
+        
+        Scheduler scheduler = Px.fromExecutor(exec);
+        
+        rangePerItem = new PublisherObserveOn<>(new PerItemFusion<>(source), scheduler, true, 
+                Px.BUFFER_SIZE, Px.defaultQueueSupplier(Px.BUFFER_SIZE));
+        rangeHiddenPerItem = new PublisherObserveOn<>(source.hide(), scheduler, true, 
+                Px.BUFFER_SIZE, () -> new PerItemQueue<>(Px.BUFFER_SIZE));
+        arrayPerItem = new PublisherObserveOn<>(new PerItemFusion<>(arr), scheduler, true, 
+                Px.BUFFER_SIZE, Px.defaultQueueSupplier(Px.BUFFER_SIZE));
+        iterablePerItem = new PublisherObserveOn<>(new PerItemFusion<>(it), scheduler, true, 
+                Px.BUFFER_SIZE, Px.defaultQueueSupplier(Px.BUFFER_SIZE));
     }
     
     @TearDown
@@ -102,4 +124,152 @@ public class PublisherObserveOnPerf {
     public void iterableHidden(Blackhole bh) {
         run(iterableHidden, bh);
     }
+
+    @Benchmark
+    public void rangePerItem(Blackhole bh) {
+        run(rangePerItem, bh);
+    }
+
+    @Benchmark
+    public void rangeHiddenPerItem(Blackhole bh) {
+        run(rangeHiddenPerItem, bh);
+    }
+
+    @Benchmark
+    public void arrayPerItem(Blackhole bh) {
+        run(arrayPerItem, bh);
+    }
+
+    @Benchmark
+    public void iterablePerItem(Blackhole bh) {
+        run(iterablePerItem, bh);
+    }
+    
+    /**
+     * Relays a fuseable source but doesn't let the BATCH fusion flag through.
+     */
+    static final class PerItemFusion<T> extends PublisherSource<T, T> implements Fuseable {
+
+        PerItemFusion(Publisher<? extends T> source) {
+            super(source);
+        }
+        
+        @Override
+        public void subscribe(Subscriber<? super T> s) {
+            source.subscribe(new PerItemFusionSubscriber<>(s));
+        }
+        
+        static final class PerItemFusionSubscriber<T> implements Subscriber<T>, QueueSubscription<T> {
+            final Subscriber<? super T> actual;
+            
+            QueueSubscription<T> qs;
+
+            PerItemFusionSubscriber(Subscriber<? super T> actual) {
+                this.actual = actual;
+            }
+            
+            @SuppressWarnings("unchecked")
+            @Override
+            public void onSubscribe(Subscription s) {
+                qs = (QueueSubscription<T>)s;
+                actual.onSubscribe(this);
+            }
+            
+            @Override
+            public void onNext(T t) {
+                actual.onNext(t);
+            }
+            
+            @Override
+            public void onError(Throwable t) {
+                actual.onError(t);
+            }
+            
+            @Override
+            public void onComplete() {
+                actual.onComplete();
+            }
+            
+            @Override
+            public void request(long n) {
+                qs.request(n);
+            }
+            
+            @Override
+            public void cancel() {
+                qs.cancel();
+            }
+            
+            @Override
+            public int requestFusion(int requestedMode) {
+                return qs.requestFusion(requestedMode & ~Fuseable.BATCH);
+            }
+            
+            @Override
+            public T poll() {
+                return qs.poll();
+            }
+            
+            @Override
+            public boolean isEmpty() {
+                return qs.isEmpty();
+            }
+            
+            @Override
+            public int size() {
+                return qs.size();
+            }
+            
+            @Override
+            public void clear() {
+                qs.clear();
+            }
+        }
+    }
+    
+    /**
+     * A bounded queue that hides the batch-poll capability of the SpscArrayQueue it wraps.
+     */
+    static final class PerItemQueue<T> extends AbstractQueue<T> {
+        final SpscArrayQueue<T> queue;
+        
+        PerItemQueue(int capacity) {
+            this.queue = new SpscArrayQueue<>(capacity);
+        }
+        
+        @Override
+        public boolean offer(T e) {
+            return queue.offer(e);
+        }
+        
+        @Override
+        public T poll() {
+            return queue.poll();
+        }
+        
+        @Override
+        public T peek() {
+            return queue.peek();
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+        
+        @Override
+        public int size() {
+            return queue.size();
+        }
+        
+        @Override
+        public void clear() {
+            queue.clear();
+        }
+        
+        @Override
+        public Iterator<T> iterator() {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
@@ -10,7 +10,8 @@ import rsc.util.PerfSubscriber;
 
 
 /**
- * Example benchmark. Run from command line as
+ * Example benchmark. zipRangeHidden runs the regular, non-fused path for comparison
+ * with the batched path of zipRange. Run from command line as
  * <br>
  * gradle jmh -Pjmh='PublisherZipPerf'
  */
@@ -34,6 +35,12 @@ public class PublisherZipPerf {
     
     Px<Integer> zipRange;
     
+    Px<Integer> zipRangeHidden;
+    
+    Px<Integer> zipRangeArrayZipper;
+    
+    Px<Integer> zip3Range;
+    
     @Param({"1", "1000", "1000000"})
     int count;
     @Setup
@@ -52,6 +59,12 @@ public class PublisherZipPerf {
         zipArray = baselineArray.zipWith(baselineArray, (a, b) -> a + b);
 
         zipRange = baselineRange.zipWith(baselineRange, (a, b) -> a + b);
+        
+        zipRangeHidden = baselineRange.hide().zipWith(baselineRange.hide(), (a, b) -> a + b);
+        
+        zipRangeArrayZipper = Px.zip(a -> (Integer)a[0] + (Integer)a[1], baselineRange, baselineRange);
+        
+        zip3Range = zipRange.zipWith(baselineRange, (a, b) -> a + b);
     }
     
     @Benchmark
@@ -83,4 +96,19 @@ public class PublisherZipPerf {
     public void zipRange(Blackhole bh) {
         zipRange.subscribe(new PerfSubscriber(bh));
     }
-}
+
+    @Benchmark
+    public void zipRangeHidden(Blackhole bh) {
+        zipRangeHidden.subscribe(new PerfSubscriber(bh));
+    }
+    
+    @Benchmark
+    public void zipRangeArrayZipper(Blackhole bh) {
+        zipRangeArrayZipper.subscribe(new PerfSubscriber(bh));
+    }
+    
+    @Benchmark
+    public void zip3Range(Blackhole bh) {
+        zip3Range.subscribe(new PerfSubscriber(bh));
+    }
+}
\ No newline at end of file
@@ -33,6 +33,10 @@ public class SchedulerPerf {
 
         SINGLE_REACTOR(true),
         PARALLEL_REACTOR,
+
+        EVENT_LOOP_SINGLE(true),
+        EVENT_LOOP,
+        EVENT_LOOP_SPIN,
         
         EXECUTOR_SINGLE(true),
         EXECUTOR_SINGLE_TRAMPOLINE,
@@ -87,6 +91,12 @@ public class SchedulerPerf {
 
     Scheduler reactorParallel;
 
+    Scheduler eventLoopSingle;
+
+    Scheduler eventLoop;
+
+    Scheduler eventLoopSpin;
+
     // wrapping an ExecutorService
     
     Scheduler executorSingle;
@@ -141,6 +151,12 @@ public class SchedulerPerf {
 
         parallel = new ParallelScheduler();
 
+        eventLoopSingle = new EventLoopScheduler(1);
+
+        eventLoop = new EventLoopScheduler();
+
+        eventLoopSpin = new EventLoopScheduler(ncpu, EventLoopScheduler.IdleStrategy.SPIN);
+
 //        reactorSingle = new ReactorScheduler(Schedulers.newSingle("reactor-s"));
 //
 //        reactorParallel = new ReactorScheduler(Schedulers.newParallel("reactor-p"));
@@ -190,6 +206,10 @@ public class SchedulerPerf {
 
         schedulers.put(SchedulerType.SINGLE_REACTOR, reactorSingle);
         schedulers.put(SchedulerType.PARALLEL_REACTOR, reactorParallel);
+
+        schedulers.put(SchedulerType.EVENT_LOOP_SINGLE, eventLoopSingle);
+        schedulers.put(SchedulerType.EVENT_LOOP, eventLoop);
+        schedulers.put(SchedulerType.EVENT_LOOP_SPIN, eventLoopSpin);
         
         schedulers.put(SchedulerType.EXECUTOR_SINGLE, executorSingle);
         schedulers.put(SchedulerType.EXECUTOR_SINGLE_TRAMPOLINE, executorTrampolineSingle);
@@ -224,6 +244,12 @@ public class SchedulerPerf {
         
         parallel.shutdown();
 
+        eventLoopSingle.shutdown();
+
+        eventLoop.shutdown();
+
+        eventLoopSpin.shutdown();
+
         reactorSingle.shutdown();
 
         reactorParallel.shutdown();
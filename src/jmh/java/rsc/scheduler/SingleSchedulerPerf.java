@@ -12,6 +12,7 @@ import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
 import org.reactivestreams.Publisher;
@@ -39,8 +40,15 @@ public class SingleSchedulerPerf {
     @Param({/*"1", */"128", /* "256", "512", "1024", "16384"/*, "1000000"*/})
     int prefetch;
 
+    @Param({"SINGLE2", "EVENT_LOOP", "EVENT_LOOP_YIELD"})
+    String type;
+
     Publisher<Integer> source;
 
+    Scheduler s1;
+
+    Scheduler s2;
+
     @Setup
     public void setup(Blackhole bh) {
         Integer[] array = new Integer[count];
@@ -48,12 +56,29 @@ public class SingleSchedulerPerf {
             array[i] = i;
         }
         
-        Scheduler s1 = new SingleScheduler2();
-        Scheduler s2 = new SingleScheduler2();
+        switch (type) {
+        case "EVENT_LOOP":
+            s1 = new EventLoopScheduler(1);
+            s2 = new EventLoopScheduler(1);
+            break;
+        case "EVENT_LOOP_YIELD":
+            s1 = new EventLoopScheduler(1, EventLoopScheduler.IdleStrategy.YIELD);
+            s2 = new EventLoopScheduler(1, EventLoopScheduler.IdleStrategy.YIELD);
+            break;
+        default:
+            s1 = new SingleScheduler2();
+            s2 = new SingleScheduler2();
+        }
         
         source = Px.fromArray(array).subscribeOn(s1).observeOn(s2, false, prefetch);
     }
 
+    @TearDown
+    public void teardown() {
+        s1.shutdown();
+        s2.shutdown();
+    }
+
     @Benchmark
     public void pipeline(Blackhole bh) {
         PerfAsyncSubscriber ps = new PerfAsyncSubscriber(bh);
@@ -0,0 +1,93 @@
+package rsc.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rsc.flow.Cancellation;
+import rsc.scheduler.TimedScheduler.TimedWorker;
+
+/**
+ * Measures the schedule/cancel churn of timeouts that never fire (i.e., PublisherTimeout
+ * and PublisherThrottleTimeout rearming their timers for each item) on the hashed-wheel and
+ * the ScheduledThreadPoolExecutor-based TimedSchedulers. Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='TimedSchedulerChurnPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class TimedSchedulerChurnPerf {
+
+    @Param({"wheel", "single"})
+    public String type;
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    TimedScheduler scheduler;
+
+    @Setup
+    public void setup() {
+        if ("wheel".equals(type)) {
+            scheduler = new HashedWheelTimedScheduler(true);
+        } else {
+            scheduler = new SingleTimedScheduler(true);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        scheduler.shutdown();
+    }
+
+    void churn(TimedScheduler s, Blackhole bh) {
+        Runnable task = () -> bh.consume(true);
+        int n = count;
+        Cancellation[] timers = new Cancellation[n];
+        for (int i = 0; i < n; i++) {
+            timers[i] = s.schedule(task, 10, TimeUnit.SECONDS);
+        }
+        for (int i = 0; i < n; i++) {
+            timers[i].dispose();
+        }
+    }
+
+    /**
+     * Rearms a single timer over and over, the way a timeout operator does per item.
+     */
+    void rearm(TimedWorker w, Blackhole bh) {
+        Runnable task = () -> bh.consume(true);
+        Cancellation c = w.schedule(task, 10, TimeUnit.SECONDS);
+        for (int i = 1; i < count; i++) {
+            c.dispose();
+            c = w.schedule(task, 10, TimeUnit.SECONDS);
+        }
+        c.dispose();
+    }
+
+    @Benchmark
+    public void scheduleCancel(Blackhole bh) {
+        churn(scheduler, bh);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void scheduleCancel4Threads(Blackhole bh) {
+        churn(scheduler, bh);
+    }
+
+    @Benchmark
+    public void workerRearm(Blackhole bh) {
+        TimedWorker w = scheduler.createWorker();
+        try {
+            rearm(w, bh);
+        } finally {
+            w.shutdown();
+        }
+    }
+}
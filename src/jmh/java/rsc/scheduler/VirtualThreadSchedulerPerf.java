@@ -0,0 +1,67 @@
+package rsc.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import rsc.publisher.Px;
+import rsc.util.PerfAsyncSubscriber;
+
+/**
+ * Runs 10k sources blocking for a millisecond each concurrently via subscribeOn on
+ * CachedScheduler, which needs a platform thread per blocked source, and on
+ * VirtualThreadScheduler; the latter only uses virtual threads when run on Java 21+
+ * from the multi-release jar.
+ * <br>
+ * gradle jmh -Pjmh='VirtualThreadSchedulerPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class VirtualThreadSchedulerPerf {
+
+    @Param({"CACHED", "VIRTUAL"})
+    public String type;
+
+    @Param({"10000"})
+    public int count;
+
+    Scheduler scheduler;
+
+    Publisher<Integer> blocking;
+
+    @Setup
+    public void setup() {
+        if ("VIRTUAL".equals(type)) {
+            scheduler = new VirtualThreadScheduler();
+        } else {
+            scheduler = new CachedScheduler(true);
+        }
+
+        Px<Integer> source = Px.fromCallable(() -> {
+            Thread.sleep(1);
+            return 1;
+        }).subscribeOn(scheduler);
+
+        blocking = Px.range(0, count).flatMap(v -> source, false, count);
+    }
+
+    @TearDown
+    public void teardown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public void blockingSources(Blackhole bh) {
+        PerfAsyncSubscriber s = new PerfAsyncSubscriber(bh);
+
+        blocking.subscribe(s);
+
+        s.await(count);
+    }
+}
@@ -0,0 +1,116 @@
+package rsc.subscriber;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.reactivestreams.*;
+
+/**
+ * Measures the throughput of onNext calls from 1 to 8 concurrent emitter threads
+ * through the lock-free SerializedSubscriber and through a Subscriber guarded by
+ * {@code synchronized}.
+ * <br>
+ * gradle jmh -Pjmh='SerializedSubscriberPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class SerializedSubscriberPerf {
+
+    @Param({"serialized", "synchronized"})
+    public String type;
+
+    Subscriber<Integer> subscriber;
+
+    CountingSubscriber counter;
+
+    @Setup
+    public void setup() {
+        counter = new CountingSubscriber();
+        if ("synchronized".equals(type)) {
+            subscriber = new SynchronizedSubscriber<>(counter);
+        } else {
+            subscriber = new SerializedSubscriber<>(counter);
+        }
+        subscriber.onSubscribe(SubscriptionHelper.empty());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void emit1() {
+        subscriber.onNext(1);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void emit2() {
+        subscriber.onNext(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void emit4() {
+        subscriber.onNext(1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void emit8() {
+        subscriber.onNext(1);
+    }
+
+    /**
+     * Counts the values, relying on the serialization of its caller.
+     */
+    static final class CountingSubscriber implements Subscriber<Integer> {
+        long count;
+
+        @Override
+        public void onSubscribe(Subscription s) {
+        }
+
+        @Override
+        public void onNext(Integer t) {
+            count++;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    static final class SynchronizedSubscriber<T> implements Subscriber<T> {
+        final Subscriber<? super T> actual;
+
+        SynchronizedSubscriber(Subscriber<? super T> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public synchronized void onSubscribe(Subscription s) {
+            actual.onSubscribe(s);
+        }
+
+        @Override
+        public synchronized void onNext(T t) {
+            actual.onNext(t);
+        }
+
+        @Override
+        public synchronized void onError(Throwable t) {
+            actual.onError(t);
+        }
+
+        @Override
+        public synchronized void onComplete() {
+            actual.onComplete();
+        }
+    }
+}
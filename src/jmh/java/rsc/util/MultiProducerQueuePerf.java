@@ -0,0 +1,90 @@
+package rsc.util;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the throughput of the multi-producer queues with 1, 2, 4 and 8 producer threads
+ * feeding a single consumer (the benchmark thread). Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='MultiProducerQueuePerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MultiProducerQueuePerf {
+    @Param({ "1", "2", "4", "8" })
+    public int producers;
+    
+    @Param({ "1000000" })
+    public int count;
+    
+    @Param({ "1024" })
+    public int capacity;
+
+    ExecutorService exec;
+    
+    Integer value;
+    
+    @Setup
+    public void setup() {
+        exec = Executors.newFixedThreadPool(producers);
+        value = 777;
+    }
+    
+    @TearDown
+    public void teardown() {
+        exec.shutdown();
+    }
+    
+    void run(Queue<Integer> q, Blackhole bh) {
+        int n = producers;
+        int perProducer = count / n;
+        Integer v = value;
+        
+        for (int k = 0; k < n; k++) {
+            exec.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!q.offer(v)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        
+        int remaining = perProducer * n;
+        while (remaining != 0) {
+            Integer o = q.poll();
+            if (o != null) {
+                bh.consume(o);
+                remaining--;
+            }
+        }
+    }
+    
+    @Benchmark
+    public void mpscArray(Blackhole bh) {
+        run(new MpscArrayQueue<>(capacity), bh);
+    }
+    
+    @Benchmark
+    public void mpscLinked(Blackhole bh) {
+        run(new MpscLinkedArrayQueue<>(capacity), bh);
+    }
+    
+    @Benchmark
+    public void mpmcArray(Blackhole bh) {
+        run(new MpmcArrayQueue<>(capacity), bh);
+    }
+
+    @Benchmark
+    public void concurrentLinked(Blackhole bh) {
+        run(new ConcurrentLinkedQueue<>(), bh);
+    }
+}
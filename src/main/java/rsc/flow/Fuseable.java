@@ -29,6 +29,15 @@ public interface Fuseable {
      * thread bound this way.
      */
     int THREAD_BARRIER = 4;
+    /**
+     * Indicates that the caller is able to drain the {@link QueueSubscription} in batches
+     * via {@link BatchQueue#poll(Object[], int)}.
+     * <p>
+     * A {@code QueueSubscription} that is also a {@link BatchQueue} may return this flag
+     * along with the established SYNC or ASYNC mode. Intermediate operators which don't
+     * implement {@link BatchQueue} themselves should not forward this flag upstream.
+     */
+    int BATCH = 8;
 
     /**
      * A subscriber variant that can immediately tell if it consumed
@@ -155,6 +164,27 @@ public interface Fuseable {
         }
     }
 
+    /**
+     * A queue that can hand out multiple elements in one call, saving on the
+     * per-element call and index-update overhead of {@link Queue#poll()}.
+     *
+     * @param <T> the value type
+     */
+    interface BatchQueue<T> extends Queue<T> {
+
+        /**
+         * Polls at most {@code max} elements into the target array, starting from index 0.
+         * <p>
+         * Returning 0 indicates the queue is empty at the moment (or, for synchronous
+         * sources, that it has been exhausted).
+         *
+         * @param target the array to fill in, its length should be at least {@code max}
+         * @param max the maximum number of elements to poll, positive
+         * @return the number of elements polled
+         */
+        int poll(Object[] target, int max);
+    }
+
     /**
      * Base class for synchronous sources which have fixed size and can
      * emit its items in a pull fashion, thus avoiding the request-accounting
@@ -0,0 +1,90 @@
+package rsc.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The state of a {@link LatencyHistogram} at the time it was taken.
+ */
+public final class HistogramSnapshot {
+
+    final long[] counts;
+
+    final long count;
+
+    final long sum;
+
+    final long max;
+
+    HistogramSnapshot(long[] counts, long count, long sum, long max) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return the largest value recorded, 0 if none
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * @return the average of the values recorded, 0 if none
+     */
+    public double mean() {
+        return count == 0L ? 0d : (double)sum / count;
+    }
+
+    /**
+     * Returns the value at or below which the given fraction of the recorded values fall,
+     * within the precision of the histogram.
+     * @param fraction the fraction in [0, 1], for example 0.99 for the 99th percentile
+     * @return the value, 0 if there are no values
+     */
+    public long percentile(double fraction) {
+        if (fraction < 0d || fraction > 1d) {
+            throw new IllegalArgumentException("fraction in [0, 1] required but it was " + fraction);
+        }
+        long n = count;
+        if (n == 0L) {
+            return 0L;
+        }
+        long target = Math.max(1L, (long)Math.ceil(fraction * n));
+        long[] a = counts;
+        long c = 0L;
+        for (int i = 0; i < a.length; i++) {
+            c += a[i];
+            if (c >= target) {
+                return Math.min(LatencyHistogram.upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return toString(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns a summary of the snapshot assuming the values are nanoseconds.
+     * @param unit the unit to display the values in
+     * @return the summary
+     */
+    public String toString(TimeUnit unit) {
+        return "{count=" + count
+                + ", mean=" + unit.convert((long)mean(), TimeUnit.NANOSECONDS)
+                + ", p50=" + unit.convert(percentile(0.5), TimeUnit.NANOSECONDS)
+                + ", p99=" + unit.convert(percentile(0.99), TimeUnit.NANOSECONDS)
+                + ", max=" + unit.convert(max, TimeUnit.NANOSECONDS)
+                + "}";
+    }
+}
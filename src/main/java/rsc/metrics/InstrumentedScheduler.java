@@ -0,0 +1,117 @@
+package rsc.metrics;
+
+import java.util.Objects;
+
+import rsc.flow.Cancellation;
+import rsc.metrics.SchedulerMetrics.*;
+import rsc.scheduler.Scheduler;
+
+/**
+ * Decorates a Scheduler and its Workers and records the time tasks wait between being
+ * submitted and starting, the time they take to execute, the number of pending tasks and
+ * how busy each thread running them is, see {@link #snapshot()}.
+ * <p>
+ * The counters are lock-free and shared by all threads. When the instrumentation is
+ * disabled, tasks are handed to the actual Scheduler or Worker as they are and the only
+ * overhead is a volatile read per task; tasks submitted while enabled are still accounted
+ * for when they run.
+ * <p>
+ * A queue latency growing with a busy ratio near 1 indicates the Scheduler is saturated;
+ * a growing latency with idle threads rather hints at uneven distribution of work.
+ */
+public final class InstrumentedScheduler implements Scheduler {
+
+    final Scheduler actual;
+
+    final SchedulerMetrics metrics;
+
+    final TaskOwner direct;
+
+    /**
+     * Constructs an enabled instrumentation of the given Scheduler.
+     * @param actual the Scheduler to instrument
+     */
+    public InstrumentedScheduler(Scheduler actual) {
+        this(actual, true);
+    }
+
+    /**
+     * Constructs an instrumentation of the given Scheduler.
+     * @param actual the Scheduler to instrument
+     * @param enabled record the tasks from the start?
+     */
+    public InstrumentedScheduler(Scheduler actual, boolean enabled) {
+        this.actual = Objects.requireNonNull(actual, "actual");
+        this.metrics = new SchedulerMetrics(enabled);
+        this.direct = new TaskOwner(metrics);
+    }
+
+    public boolean isEnabled() {
+        return metrics.enabled;
+    }
+
+    /**
+     * Enables or disables recording the tasks submitted from now on.
+     * @param enabled record the tasks?
+     */
+    public void setEnabled(boolean enabled) {
+        metrics.enabled = enabled;
+    }
+
+    /**
+     * Returns the current state of the counters.
+     * @return the snapshot
+     */
+    public SchedulerSnapshot snapshot() {
+        return metrics.snapshot();
+    }
+
+    @Override
+    public Cancellation schedule(Runnable task) {
+        if (!metrics.enabled) {
+            return actual.schedule(task);
+        }
+        InstrumentedTask t = new InstrumentedTask(task, direct, 0L, 0L);
+        return direct.accept(t, actual.schedule(t));
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new InstrumentedWorker(actual.createWorker(), metrics);
+    }
+
+    @Override
+    public void start() {
+        actual.start();
+    }
+
+    @Override
+    public void shutdown() {
+        actual.shutdown();
+        direct.drop();
+    }
+
+    static final class InstrumentedWorker extends TaskOwner implements Worker {
+        final Worker actual;
+
+        InstrumentedWorker(Worker actual, SchedulerMetrics metrics) {
+            super(metrics);
+            this.actual = actual;
+        }
+
+        @Override
+        public Cancellation schedule(Runnable task) {
+            if (!metrics.enabled) {
+                return actual.schedule(task);
+            }
+            InstrumentedTask t = new InstrumentedTask(task, this, 0L, 0L);
+            return accept(t, actual.schedule(t));
+        }
+
+        @Override
+        public void shutdown() {
+            actual.shutdown();
+            drop();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package rsc.metrics;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import rsc.flow.Cancellation;
+import rsc.metrics.SchedulerMetrics.*;
+import rsc.scheduler.TimedScheduler;
+
+/**
+ * Decorates a TimedScheduler and its TimedWorkers the same way {@link InstrumentedScheduler}
+ * does; the queue latency of delayed and periodic tasks is measured from the time they
+ * became due, thus it shows how late the timer runs them.
+ */
+public final class InstrumentedTimedScheduler implements TimedScheduler {
+
+    final TimedScheduler actual;
+
+    final SchedulerMetrics metrics;
+
+    final TaskOwner direct;
+
+    /**
+     * Constructs an enabled instrumentation of the given TimedScheduler.
+     * @param actual the TimedScheduler to instrument
+     */
+    public InstrumentedTimedScheduler(TimedScheduler actual) {
+        this(actual, true);
+    }
+
+    /**
+     * Constructs an instrumentation of the given TimedScheduler.
+     * @param actual the TimedScheduler to instrument
+     * @param enabled record the tasks from the start?
+     */
+    public InstrumentedTimedScheduler(TimedScheduler actual, boolean enabled) {
+        this.actual = Objects.requireNonNull(actual, "actual");
+        this.metrics = new SchedulerMetrics(enabled);
+        this.direct = new TaskOwner(metrics);
+    }
+
+    public boolean isEnabled() {
+        return metrics.enabled;
+    }
+
+    /**
+     * Enables or disables recording the tasks submitted from now on.
+     * @param enabled record the tasks?
+     */
+    public void setEnabled(boolean enabled) {
+        metrics.enabled = enabled;
+    }
+
+    /**
+     * Returns the current state of the counters.
+     * @return the snapshot
+     */
+    public SchedulerSnapshot snapshot() {
+        return metrics.snapshot();
+    }
+
+    @Override
+    public Cancellation schedule(Runnable task) {
+        if (!metrics.enabled) {
+            return actual.schedule(task);
+        }
+        InstrumentedTask t = new InstrumentedTask(task, direct, 0L, 0L);
+        return direct.accept(t, actual.schedule(t));
+    }
+
+    @Override
+    public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!metrics.enabled) {
+            return actual.schedule(task, delay, unit);
+        }
+        InstrumentedTask t = new InstrumentedTask(task, direct, unit.toNanos(delay), 0L);
+        return direct.accept(t, actual.schedule(t, delay, unit));
+    }
+
+    @Override
+    public Cancellation schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (!metrics.enabled) {
+            return actual.schedulePeriodically(task, initialDelay, period, unit);
+        }
+        InstrumentedTask t = new InstrumentedTask(task, direct, unit.toNanos(initialDelay), unit.toNanos(period));
+        return direct.accept(t, actual.schedulePeriodically(t, initialDelay, period, unit));
+    }
+
+    @Override
+    public long now(TimeUnit unit) {
+        return actual.now(unit);
+    }
+
+    @Override
+    public TimedWorker createWorker() {
+        return new InstrumentedTimedWorker(actual.createWorker(), metrics);
+    }
+
+    @Override
+    public void start() {
+        actual.start();
+    }
+
+    @Override
+    public void shutdown() {
+        actual.shutdown();
+        direct.drop();
+    }
+
+    static final class InstrumentedTimedWorker extends TaskOwner implements TimedWorker {
+        final TimedWorker actual;
+
+        InstrumentedTimedWorker(TimedWorker actual, SchedulerMetrics metrics) {
+            super(metrics);
+            this.actual = actual;
+        }
+
+        @Override
+        public Cancellation schedule(Runnable task) {
+            if (!metrics.enabled) {
+                return actual.schedule(task);
+            }
+            InstrumentedTask t = new InstrumentedTask(task, this, 0L, 0L);
+            return accept(t, actual.schedule(t));
+        }
+
+        @Override
+        public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+            if (!metrics.enabled) {
+                return actual.schedule(task, delay, unit);
+            }
+            InstrumentedTask t = new InstrumentedTask(task, this, unit.toNanos(delay), 0L);
+            return accept(t, actual.schedule(t, delay, unit));
+        }
+
+        @Override
+        public Cancellation schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            if (!metrics.enabled) {
+                return actual.schedulePeriodically(task, initialDelay, period, unit);
+            }
+            InstrumentedTask t = new InstrumentedTask(task, this, unit.toNanos(initialDelay), unit.toNanos(period));
+            return accept(t, actual.schedulePeriodically(t, initialDelay, period, unit));
+        }
+
+        @Override
+        public long now(TimeUnit unit) {
+            return actual.now(unit);
+        }
+
+        @Override
+        public void shutdown() {
+            actual.shutdown();
+            drop();
+        }
+    }
+}
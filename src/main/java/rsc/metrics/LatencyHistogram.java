@@ -0,0 +1,95 @@
+package rsc.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative long values, typically durations in nanoseconds,
+ * that can be recorded from any number of threads concurrently.
+ * <p>
+ * Values below 8 are counted exactly, larger values are counted in 8 linear sub-buckets
+ * per power of two, thus the percentiles reported are at most 12.5% above the actual
+ * value. Recording is a couple of arithmetic operations and an atomic increment.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BITS = 3;
+
+    static final int SUB_COUNT = 1 << SUB_BITS;
+
+    static final int BUCKETS = SUB_COUNT + (63 - SUB_BITS) * SUB_COUNT;
+
+    final AtomicLongArray buckets;
+
+    final LongAdder sum;
+
+    volatile long max;
+    static final AtomicLongFieldUpdater<LatencyHistogram> MAX =
+            AtomicLongFieldUpdater.newUpdater(LatencyHistogram.class, "max");
+
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.sum = new LongAdder();
+    }
+
+    /**
+     * Records a value, negative values are recorded as zero.
+     * @param value the value to record
+     */
+    public void record(long value) {
+        if (value < 0L) {
+            value = 0L;
+        }
+        buckets.getAndIncrement(indexOf(value));
+        sum.add(value);
+        long m = max;
+        while (value > m) {
+            if (MAX.compareAndSet(this, m, value)) {
+                break;
+            }
+            m = max;
+        }
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int)value;
+        }
+        int e = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int)(value >>> (e - SUB_BITS)) & (SUB_COUNT - 1);
+        return SUB_COUNT + (e - SUB_BITS) * SUB_COUNT + sub;
+    }
+
+    /**
+     * Returns the largest value counted into the bucket of the given index.
+     * @param index the bucket index
+     * @return the upper bound of the bucket, inclusive
+     */
+    static long upperBoundOf(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int e = (index - SUB_COUNT) / SUB_COUNT + SUB_BITS;
+        long sub = (index - SUB_COUNT) % SUB_COUNT;
+        long next = (SUB_COUNT + sub + 1) << (e - SUB_BITS);
+        return next < 0L ? Long.MAX_VALUE : next - 1;
+    }
+
+    /**
+     * Returns the current state of the histogram; values recorded concurrently may or
+     * may not be included.
+     * @return the snapshot
+     */
+    public HistogramSnapshot snapshot() {
+        AtomicLongArray b = buckets;
+        long[] counts = new long[BUCKETS];
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = b.get(i);
+            counts[i] = c;
+            count += c;
+        }
+        return new HistogramSnapshot(counts, count, sum.sum(), max);
+    }
+}
@@ -0,0 +1,199 @@
+package rsc.metrics;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import rsc.flow.*;
+import rsc.scheduler.TimedScheduler;
+
+/**
+ * Periodically samples the state of the components of live flows by walking
+ * their {@link Receiver}, {@link Producer}, {@link MultiReceiver}, {@link MultiProducer}
+ * and {@link Loopback} links starting from a tracked root and reading the
+ * {@link Trackable} properties of the components found.
+ * <p>
+ * The operators themselves don't know about the sampler: it only reads the state
+ * they already expose, thus flows cost nothing extra unless they are tracked and
+ * the cost of sampling is paid on the timer's thread.
+ * <p>
+ * A tracked root is dropped automatically after a sample found all of its
+ * Trackable stages terminated or cancelled.
+ */
+public final class PipelineSampler implements Cancellation {
+
+    /** The maximum number of components visited from a root in one sample. */
+    static final int MAX_STAGES = 1024;
+
+    static final TrackedRoot[] EMPTY = new TrackedRoot[0];
+
+    final TimedScheduler timer;
+
+    volatile TrackedRoot[] roots = EMPTY;
+
+    final Cancellation task;
+
+    /**
+     * Constructs a sampler that samples the tracked flows on the given timer.
+     * @param timer the timer to run the sampling on
+     * @param period the time between two samples
+     * @param unit the time unit of the period
+     */
+    public PipelineSampler(TimedScheduler timer, long period, TimeUnit unit) {
+        this.timer = timer;
+        this.task = timer.schedulePeriodically(this::sampleAll, period, period, unit);
+    }
+
+    /**
+     * Starts tracking the flow reachable from the given component, typically the
+     * end Subscriber or its Subscription.
+     * @param root the component to start the walk from
+     * @return the Cancellation to stop tracking the flow
+     */
+    public Cancellation track(Object root) {
+        Objects.requireNonNull(root, "root");
+        TrackedRoot tr = new TrackedRoot(root);
+        add(tr);
+        return () -> remove(tr);
+    }
+
+    /**
+     * Returns the most recent snapshot of each tracked flow that has been sampled at least once.
+     * @return the list of snapshots
+     */
+    public List<PipelineSnapshot> snapshot() {
+        TrackedRoot[] a = roots;
+        List<PipelineSnapshot> list = new ArrayList<>(a.length);
+        for (TrackedRoot tr : a) {
+            PipelineSnapshot s = tr.last;
+            if (s != null) {
+                list.add(s);
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void dispose() {
+        task.dispose();
+        synchronized (this) {
+            roots = EMPTY;
+        }
+    }
+
+    void sampleAll() {
+        long now = timer.now(TimeUnit.MILLISECONDS);
+        for (TrackedRoot tr : roots) {
+            PipelineSnapshot s = sample(tr.root, now);
+            tr.last = s;
+            if (s.isTerminated()) {
+                remove(tr);
+            }
+        }
+    }
+
+    synchronized void add(TrackedRoot tr) {
+        TrackedRoot[] a = roots;
+        TrackedRoot[] b = Arrays.copyOf(a, a.length + 1);
+        b[a.length] = tr;
+        roots = b;
+    }
+
+    synchronized void remove(TrackedRoot tr) {
+        TrackedRoot[] a = roots;
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            if (a[i] == tr) {
+                if (n == 1) {
+                    roots = EMPTY;
+                } else {
+                    TrackedRoot[] b = new TrackedRoot[n - 1];
+                    System.arraycopy(a, 0, b, 0, i);
+                    System.arraycopy(a, i + 1, b, i, n - i - 1);
+                    roots = b;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Samples the flow reachable from the given component once, on the current thread.
+     * @param root the component to start the walk from
+     * @return the snapshot of the flow
+     */
+    public static PipelineSnapshot sample(Object root) {
+        return sample(root, System.currentTimeMillis());
+    }
+
+    static PipelineSnapshot sample(Object root, long now) {
+        IdentityHashMap<Object, Integer> levels = new IdentityHashMap<>();
+        ArrayDeque<Object> queue = new ArrayDeque<>();
+        List<StageSnapshot> stages = new ArrayList<>();
+
+        levels.put(root, 0);
+        queue.offer(root);
+
+        Object c;
+        while ((c = queue.poll()) != null && stages.size() < MAX_STAGES) {
+            int level = levels.get(c);
+
+            StageSnapshot stage;
+            try {
+                stage = new StageSnapshot(c, level);
+            } catch (RuntimeException ex) {
+                // the getters run on the live component, keep sampling the rest if one fails
+                stage = new StageSnapshot(c, level, null);
+            }
+            stages.add(stage);
+
+            try {
+                if (c instanceof Receiver) {
+                    visit(((Receiver) c).upstream(), level - 1, levels, queue);
+                }
+                if (c instanceof MultiReceiver) {
+                    Iterator<?> it = ((MultiReceiver) c).upstreams();
+                    while (it != null && it.hasNext()) {
+                        visit(it.next(), level - 1, levels, queue);
+                    }
+                }
+                if (c instanceof Producer) {
+                    visit(((Producer) c).downstream(), level + 1, levels, queue);
+                }
+                if (c instanceof MultiProducer) {
+                    Iterator<?> it = ((MultiProducer) c).downstreams();
+                    while (it != null && it.hasNext()) {
+                        visit(it.next(), level + 1, levels, queue);
+                    }
+                }
+                if (c instanceof Loopback) {
+                    Loopback lb = (Loopback) c;
+                    visit(lb.connectedInput(), level, levels, queue);
+                    visit(lb.connectedOutput(), level, levels, queue);
+                }
+            } catch (RuntimeException ex) {
+                // the links are read racily, skip the rest of this component's links
+            }
+        }
+
+        stages.sort((a, b) -> Integer.compare(a.level, b.level));
+
+        return new PipelineSnapshot(now, stages);
+    }
+
+    static void visit(Object o, int level, IdentityHashMap<Object, Integer> levels, ArrayDeque<Object> queue) {
+        if (o != null && !levels.containsKey(o)) {
+            levels.put(o, level);
+            queue.offer(o);
+        }
+    }
+
+    static final class TrackedRoot {
+        final Object root;
+
+        volatile PipelineSnapshot last;
+
+        TrackedRoot(Object root) {
+            this.root = root;
+        }
+    }
+}
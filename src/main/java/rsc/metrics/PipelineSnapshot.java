@@ -0,0 +1,86 @@
+package rsc.metrics;
+
+import java.util.*;
+
+/**
+ * The state of the components reachable from a root component of a live flow,
+ * ordered from the most upstream to the most downstream component.
+ */
+public final class PipelineSnapshot {
+
+    final long timestamp;
+
+    final List<StageSnapshot> stages;
+
+    PipelineSnapshot(long timestamp, List<StageSnapshot> stages) {
+        this.timestamp = timestamp;
+        this.stages = Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * @return the time the snapshot was taken, in milliseconds
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public List<StageSnapshot> stages() {
+        return stages;
+    }
+
+    /**
+     * @return the stages whose buffer is full
+     * @see StageSnapshot#isSaturated()
+     */
+    public List<StageSnapshot> saturated() {
+        List<StageSnapshot> list = new ArrayList<>();
+        for (StageSnapshot s : stages) {
+            if (s.isSaturated()) {
+                list.add(s);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return the stages waiting for their upstream
+     * @see StageSnapshot#isStarving()
+     */
+    public List<StageSnapshot> starving() {
+        List<StageSnapshot> list = new ArrayList<>();
+        for (StageSnapshot s : stages) {
+            if (s.isStarving()) {
+                list.add(s);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns true if there is at least one Trackable stage and all of them have
+     * terminated or have been cancelled.
+     * @return true if the flow is over
+     */
+    public boolean isTerminated() {
+        boolean any = false;
+        for (StageSnapshot s : stages) {
+            if (s.isTrackable()) {
+                if (!s.isTerminated() && !s.isCancelled()) {
+                    return false;
+                }
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append("PipelineSnapshot@").append(timestamp);
+        for (StageSnapshot s : stages) {
+            b.append("\n  ").append(s);
+        }
+        return b.toString();
+    }
+}
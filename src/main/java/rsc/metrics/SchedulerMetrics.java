@@ -0,0 +1,257 @@
+package rsc.metrics;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.*;
+
+import rsc.flow.Cancellation;
+import rsc.scheduler.Scheduler;
+
+/**
+ * The counters shared by an instrumented Scheduler and its Workers.
+ */
+final class SchedulerMetrics {
+
+    final long startNanos;
+
+    final LatencyHistogram queueLatency;
+
+    final LatencyHistogram executionTime;
+
+    final LongAdder submitted;
+
+    final LongAdder executed;
+
+    final LongAdder failed;
+
+    final LongAdder cancelled;
+
+    final LongAdder pending;
+
+    /** The registry size from which dead threads are pruned when a new thread registers. */
+    static final int MIN_PRUNE_THRESHOLD = 64;
+
+    final ConcurrentHashMap<Thread, ThreadUsage> threads;
+
+    final ThreadLocal<ThreadUsage> local;
+
+    /** Grows with the live threads so that pruning stays amortized constant time per registration. */
+    volatile int pruneThreshold;
+
+    volatile boolean enabled;
+
+    SchedulerMetrics(boolean enabled) {
+        this.startNanos = System.nanoTime();
+        this.queueLatency = new LatencyHistogram();
+        this.executionTime = new LatencyHistogram();
+        this.submitted = new LongAdder();
+        this.executed = new LongAdder();
+        this.failed = new LongAdder();
+        this.cancelled = new LongAdder();
+        this.pending = new LongAdder();
+        this.threads = new ConcurrentHashMap<>();
+        this.local = new ThreadLocal<>();
+        this.pruneThreshold = MIN_PRUNE_THRESHOLD;
+        this.enabled = enabled;
+    }
+
+    void busy(long startNanos, long endNanos) {
+        ThreadUsage u = local.get();
+        if (u == null) {
+            Thread t = Thread.currentThread();
+            u = new ThreadUsage(t, startNanos);
+            local.set(u);
+            threads.put(t, u);
+            // workers come and go with cached and virtual threads, don't keep the dead ones until a snapshot
+            if (threads.size() >= pruneThreshold) {
+                pruneThreads();
+            }
+        }
+        u.add(endNanos - startNanos);
+    }
+
+    void pruneThreads() {
+        threads.keySet().removeIf(t -> !t.isAlive());
+        pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, threads.size() << 1);
+    }
+
+    SchedulerSnapshot snapshot() {
+        long now = System.nanoTime();
+        List<SchedulerSnapshot.ThreadUsage> list = new ArrayList<>();
+        for (ThreadUsage u : threads.values()) {
+            list.add(new SchedulerSnapshot.ThreadUsage(u.thread.getName(), u.tasks, u.busyNanos, now - u.firstSeenNanos));
+            if (!u.thread.isAlive()) {
+                threads.remove(u.thread);
+            }
+        }
+        return new SchedulerSnapshot(System.currentTimeMillis(), now - startNanos,
+                submitted.sum(), executed.sum(), failed.sum(), cancelled.sum(), Math.max(0L, pending.sum()),
+                queueLatency.snapshot(), executionTime.snapshot(), list);
+    }
+
+    /**
+     * The busy time of a thread running tasks, written by that thread only.
+     */
+    static final class ThreadUsage {
+        final Thread thread;
+
+        final long firstSeenNanos;
+
+        volatile long busyNanos;
+        static final AtomicLongFieldUpdater<ThreadUsage> BUSY_NANOS =
+                AtomicLongFieldUpdater.newUpdater(ThreadUsage.class, "busyNanos");
+
+        volatile long tasks;
+        static final AtomicLongFieldUpdater<ThreadUsage> TASKS =
+                AtomicLongFieldUpdater.newUpdater(ThreadUsage.class, "tasks");
+
+        ThreadUsage(Thread thread, long firstSeenNanos) {
+            this.thread = thread;
+            this.firstSeenNanos = firstSeenNanos;
+        }
+
+        void add(long nanos) {
+            BUSY_NANOS.lazySet(this, busyNanos + nanos);
+            TASKS.lazySet(this, tasks + 1);
+        }
+    }
+
+    /**
+     * Counts the tasks submitted through it that haven't started or been cancelled yet;
+     * the pending tasks of a Worker that is shut down are dropped all at once as the
+     * Worker no longer runs them.
+     */
+    static class TaskOwner {
+        final SchedulerMetrics metrics;
+
+        volatile long pending;
+        static final AtomicLongFieldUpdater<TaskOwner> PENDING =
+                AtomicLongFieldUpdater.newUpdater(TaskOwner.class, "pending");
+
+        TaskOwner(SchedulerMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        /**
+         * Completes the submission of the task once the actual Scheduler or Worker
+         * accepted or rejected it.
+         * @param task the instrumented task
+         * @param c the Cancellation returned by the actual Scheduler or Worker
+         * @return the Cancellation to return to the caller
+         */
+        Cancellation accept(InstrumentedTask task, Cancellation c) {
+            if (c == Scheduler.REJECTED) {
+                if (InstrumentedTask.STATE.compareAndSet(task, InstrumentedTask.NEW, InstrumentedTask.CANCELLED)) {
+                    left();
+                }
+                return c;
+            }
+            metrics.submitted.increment();
+            task.upstream = c;
+            if (task.state == InstrumentedTask.CANCELLED) {
+                c.dispose();
+            }
+            return task;
+        }
+
+        void added() {
+            PENDING.getAndIncrement(this);
+            metrics.pending.increment();
+        }
+
+        void left() {
+            for (;;) {
+                long p = pending;
+                if (p <= 0L) {
+                    return;
+                }
+                if (PENDING.compareAndSet(this, p, p - 1)) {
+                    metrics.pending.decrement();
+                    return;
+                }
+            }
+        }
+
+        void drop() {
+            long p = PENDING.getAndSet(this, 0L);
+            if (p > 0L) {
+                metrics.pending.add(-p);
+            }
+        }
+    }
+
+    static final class InstrumentedTask implements Runnable, Cancellation {
+
+        static final int NEW = 0;
+        static final int STARTED = 1;
+        static final int CANCELLED = 2;
+
+        final Runnable actual;
+
+        final TaskOwner owner;
+
+        final long periodNanos;
+
+        /** The time the next run is due, accessed by the running thread only once submitted. */
+        long dueNanos;
+
+        volatile Cancellation upstream;
+
+        volatile int state;
+        static final AtomicIntegerFieldUpdater<InstrumentedTask> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(InstrumentedTask.class, "state");
+
+        InstrumentedTask(Runnable actual, TaskOwner owner, long delayNanos, long periodNanos) {
+            this.actual = Objects.requireNonNull(actual, "task");
+            this.owner = owner;
+            this.periodNanos = periodNanos;
+            this.dueNanos = System.nanoTime() + Math.max(0L, delayNanos);
+            owner.added();
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            int s = state;
+            if (s == NEW) {
+                if (!STATE.compareAndSet(this, NEW, STARTED)) {
+                    return;
+                }
+                owner.left();
+            } else
+            if (s == CANCELLED) {
+                return;
+            }
+
+            SchedulerMetrics m = owner.metrics;
+            m.queueLatency.record(start - dueNanos);
+            dueNanos += periodNanos;
+
+            try {
+                actual.run();
+            } catch (Throwable ex) {
+                m.failed.increment();
+                throw ex;
+            } finally {
+                long end = System.nanoTime();
+                m.executionTime.record(end - start);
+                m.executed.increment();
+                m.busy(start, end);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (state == NEW && STATE.compareAndSet(this, NEW, CANCELLED)) {
+                owner.left();
+                owner.metrics.cancelled.increment();
+            } else {
+                state = CANCELLED;
+            }
+            Cancellation c = upstream;
+            if (c != null) {
+                c.dispose();
+            }
+        }
+    }
+}
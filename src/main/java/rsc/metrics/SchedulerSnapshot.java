@@ -0,0 +1,197 @@
+package rsc.metrics;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The state of the counters of an instrumented Scheduler at the time the snapshot was taken.
+ * <p>
+ * The durations are in nanoseconds. Counters are read one after the other while tasks
+ * may be running, thus they are not necessarily consistent with each other.
+ */
+public final class SchedulerSnapshot {
+
+    final long timestamp;
+
+    final long uptimeNanos;
+
+    final long submitted;
+
+    final long executed;
+
+    final long failed;
+
+    final long cancelled;
+
+    final long pending;
+
+    final HistogramSnapshot queueLatency;
+
+    final HistogramSnapshot executionTime;
+
+    final List<ThreadUsage> threads;
+
+    SchedulerSnapshot(long timestamp, long uptimeNanos, long submitted, long executed, long failed,
+            long cancelled, long pending, HistogramSnapshot queueLatency, HistogramSnapshot executionTime,
+            List<ThreadUsage> threads) {
+        this.timestamp = timestamp;
+        this.uptimeNanos = uptimeNanos;
+        this.submitted = submitted;
+        this.executed = executed;
+        this.failed = failed;
+        this.cancelled = cancelled;
+        this.pending = pending;
+        this.queueLatency = queueLatency;
+        this.executionTime = executionTime;
+        this.threads = Collections.unmodifiableList(threads);
+    }
+
+    /**
+     * @return the time the snapshot was taken, in milliseconds
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the time elapsed since the instrumentation was created
+     */
+    public long uptimeNanos() {
+        return uptimeNanos;
+    }
+
+    /**
+     * @return the number of tasks accepted by the Scheduler or its Workers
+     */
+    public long submitted() {
+        return submitted;
+    }
+
+    /**
+     * @return the number of task executions finished, periodic tasks count once per run
+     */
+    public long executed() {
+        return executed;
+    }
+
+    /**
+     * @return the number of task executions that threw
+     */
+    public long failed() {
+        return failed;
+    }
+
+    /**
+     * @return the number of tasks cancelled before they started
+     */
+    public long cancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return the number of tasks waiting to start, including delayed tasks not due yet
+     */
+    public long pending() {
+        return pending;
+    }
+
+    /**
+     * @return the time between a task becoming due and starting
+     */
+    public HistogramSnapshot queueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * @return the time the task executions took
+     */
+    public HistogramSnapshot executionTime() {
+        return executionTime;
+    }
+
+    /**
+     * @return the usage of each thread that ran tasks, threads that died since the
+     * previous snapshot may be missing
+     */
+    public List<ThreadUsage> threads() {
+        return threads;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append("SchedulerSnapshot@").append(timestamp)
+        .append("{submitted=").append(submitted)
+        .append(", executed=").append(executed)
+        .append(", failed=").append(failed)
+        .append(", cancelled=").append(cancelled)
+        .append(", pending=").append(pending)
+        .append(", queueLatencyMicros=").append(queueLatency.toString(TimeUnit.MICROSECONDS))
+        .append(", executionTimeMicros=").append(executionTime.toString(TimeUnit.MICROSECONDS))
+        .append('}');
+        for (ThreadUsage u : threads) {
+            b.append("\n  ").append(u);
+        }
+        return b.toString();
+    }
+
+    /**
+     * The time a thread spent running tasks of the instrumented Scheduler.
+     */
+    public static final class ThreadUsage {
+
+        final String name;
+
+        final long tasks;
+
+        final long busyNanos;
+
+        final long elapsedNanos;
+
+        ThreadUsage(String name, long tasks, long busyNanos, long elapsedNanos) {
+            this.name = name;
+            this.tasks = tasks;
+            this.busyNanos = busyNanos;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return the number of task executions run by the thread
+         */
+        public long tasks() {
+            return tasks;
+        }
+
+        /**
+         * @return the time the thread spent running tasks
+         */
+        public long busyNanos() {
+            return busyNanos;
+        }
+
+        /**
+         * @return the time elapsed since the thread ran its first task
+         */
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the fraction of time the thread spent running tasks since it ran
+         * its first one; a value near 1 means the thread is saturated.
+         * @return the busy ratio in [0, 1]
+         */
+        public double busyRatio() {
+            return elapsedNanos <= 0L ? 0d : Math.min(1d, (double)busyNanos / elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return name + "{tasks=" + tasks + ", busyRatio=" + String.format("%.3f", busyRatio()) + "}";
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package rsc.metrics;
+
+import rsc.flow.Trackable;
+
+/**
+ * The state of a single component of a live flow at the time it was sampled.
+ * <p>
+ * The numeric properties are the values reported by the component's {@link Trackable}
+ * methods, -1 indicates the component doesn't track that property (or isn't Trackable at all,
+ * or one of its methods failed when sampled).
+ */
+public final class StageSnapshot {
+
+    final String name;
+
+    final int id;
+
+    final int level;
+
+    final boolean trackable;
+
+    final long pending;
+
+    final long capacity;
+
+    final long requestedFromDownstream;
+
+    final long expectedFromUpstream;
+
+    final long limit;
+
+    final boolean started;
+
+    final boolean terminated;
+
+    final boolean cancelled;
+
+    final Throwable error;
+
+    StageSnapshot(Object component, int level) {
+        this(component, level, component instanceof Trackable ? (Trackable) component : null);
+    }
+
+    /**
+     * Creates a StageSnapshot reading the properties from the given Trackable.
+     * @param component the sampled component
+     * @param level the position relative to the sampled root
+     * @param t the Trackable view of the component, null to record it as untrackable
+     */
+    StageSnapshot(Object component, int level, Trackable t) {
+        this.name = nameOf(component);
+        this.id = System.identityHashCode(component);
+        this.level = level;
+        if (t != null) {
+            this.trackable = true;
+            this.pending = t.getPending();
+            this.capacity = t.getCapacity();
+            this.requestedFromDownstream = t.requestedFromDownstream();
+            this.expectedFromUpstream = t.expectedFromUpstream();
+            this.limit = t.limit();
+            this.started = t.isStarted();
+            this.terminated = t.isTerminated();
+            this.cancelled = t.isCancelled();
+            this.error = t.getError();
+        } else {
+            this.trackable = false;
+            this.pending = -1L;
+            this.capacity = -1L;
+            this.requestedFromDownstream = -1L;
+            this.expectedFromUpstream = -1L;
+            this.limit = -1L;
+            this.started = false;
+            this.terminated = false;
+            this.cancelled = false;
+            this.error = null;
+        }
+    }
+
+    static String nameOf(Object component) {
+        String n = component.getClass().getName();
+        return n.substring(n.lastIndexOf('.') + 1).replace('$', '.');
+    }
+
+    /**
+     * @return the class name of the component without its package
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the identity hash code of the component, to tell apart components of the same type
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * @return the position relative to the sampled root: negative values are upstream
+     * of it, positive values are downstream of it
+     */
+    public int level() {
+        return level;
+    }
+
+    public boolean isTrackable() {
+        return trackable;
+    }
+
+    public long pending() {
+        return pending;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public long requestedFromDownstream() {
+        return requestedFromDownstream;
+    }
+
+    public long expectedFromUpstream() {
+        return expectedFromUpstream;
+    }
+
+    public long limit() {
+        return limit;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public Throwable error() {
+        return error;
+    }
+
+    /**
+     * Returns true if the component's buffer is full: its upstream can't make progress
+     * until the downstream consumes.
+     * @return true if the buffer is full
+     */
+    public boolean isSaturated() {
+        return capacity > 0L && pending >= capacity;
+    }
+
+    /**
+     * Returns true if the component has outstanding demand but nothing buffered: its
+     * downstream is waiting for the upstream to produce.
+     * @return true if the component is waiting for values
+     */
+    public boolean isStarving() {
+        return pending == 0L && requestedFromDownstream > 0L && !terminated && !cancelled;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append(name).append('@').append(Integer.toHexString(id));
+        if (trackable) {
+            b.append("{pending=").append(pending)
+            .append(", capacity=").append(capacity)
+            .append(", requested=").append(requestedFromDownstream)
+            .append(", started=").append(started)
+            .append(", terminated=").append(terminated)
+            .append(", cancelled=").append(cancelled);
+            if (error != null) {
+                b.append(", error=").append(error);
+            }
+            b.append('}');
+        }
+        return b.toString();
+    }
+}
@@ -213,6 +213,38 @@ public abstract class ParallelPublisher<T> {
         return new ParallelUnorderedRunOn<>(this, scheduler, prefetch, Px.defaultQueueSupplier(prefetch));
     }
 
+    /**
+     * Specifies where each 'rail' will observe its incoming values with
+     * possibly work-stealing and a given prefetch amount.
+     * <p>
+     * With work-stealing, a rail that has run out of work takes values queued up
+     * on the other rails so a costly value doesn't hold up the values behind it while
+     * the other rails are idle. Each rail still requests at most {@code prefetch}
+     * values from its own upstream rail.
+     * <p>
+     * Ordered ParallelPublishers ignore the work-stealing flag as moving values
+     * between rails would break their ordering.
+     * <p>
+     * The operator will call {@code Scheduler.createWorker()} as many
+     * times as this ParallelPublisher's parallelism level is.
+     *
+     * @param scheduler the scheduler to use
+     * @param prefetch the number of values to request on each 'rail' from the source
+     * @param workStealing if true, a rail may take values from the other rails once
+     * that rail's worker has run out of work.
+     * @return the new ParallelPublisher instance
+     */
+    public final ParallelPublisher<T> runOn(Scheduler scheduler, int prefetch, boolean workStealing) {
+        if (!workStealing || isOrdered()) {
+            return runOn(scheduler, prefetch);
+        }
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        Objects.requireNonNull(scheduler, "scheduler");
+        return new ParallelUnorderedWorkStealingRunOn<>(this, scheduler, prefetch);
+    }
+
     /**
      * Reduces all values within a 'rail' and across 'rails' with a reducer function into a single
      * sequential value.
@@ -303,10 +335,37 @@ public abstract class ParallelPublisher<T> {
         int ch = capacityHint / parallelism() + 1;
         ParallelPublisher<List<T>> railReduced = reduce(() -> new ArrayList<>(ch), (a, b) -> { a.add(b); return a; });
         ParallelPublisher<List<T>> railSorted = railReduced.map(list -> { list.sort(comparator); return list; });
+        ParallelPublisher<T> railStreamed = railSorted.concatMap(list -> Px.fromIterable(list));
         
-        Px<T> merged = new ParallelSortedJoin<>(railSorted, comparator);
-        
-        return merged;
+        return railStreamed.mergeSorted(comparator);
+    }
+    
+    /**
+     * Merges the 'rails' of this ParallelPublisher, each of them already sorted according
+     * to the comparator, by sequentially picking the smallest next value from the rails.
+     * <p>
+     * Values are emitted as soon as each active rail has a value available and the rails
+     * are consumed with the default prefetch returned by {@code Px.bufferSize()}.
+     * 
+     * @param comparator the comparator the rails are sorted by
+     * @return the new Px instance
+     */
+    public final Px<T> mergeSorted(Comparator<? super T> comparator) {
+        return mergeSorted(comparator, Px.bufferSize());
+    }
+
+    /**
+     * Merges the 'rails' of this ParallelPublisher, each of them already sorted according
+     * to the comparator, by sequentially picking the smallest next value from the rails.
+     * <p>
+     * Values are emitted as soon as each active rail has a value available.
+     * 
+     * @param comparator the comparator the rails are sorted by
+     * @param prefetch the prefetch amount to use for each rail
+     * @return the new Px instance
+     */
+    public final Px<T> mergeSorted(Comparator<? super T> comparator, int prefetch) {
+        return new ParallelSortedJoin<>(this, comparator, prefetch);
     }
     
     /**
@@ -330,50 +389,7 @@ public abstract class ParallelPublisher<T> {
      * @return the new Px instannce
      */
     public final Px<List<T>> toSortedList(Comparator<? super T> comparator, int capacityHint) {
-        int ch = capacityHint / parallelism() + 1;
-        ParallelPublisher<List<T>> railReduced = reduce(() -> new ArrayList<>(ch), (a, b) -> { a.add(b); return a; });
-        ParallelPublisher<List<T>> railSorted = railReduced.map(list -> { list.sort(comparator); return list; });
-
-        Px<List<T>> merged = railSorted.reduce((a, b) -> {
-            int n = a.size() + b.size();
-            if (n == 0) {
-                return new ArrayList<>();
-            }
-            List<T> both = new ArrayList<>(n);
-            
-            Iterator<T> at = a.iterator();
-            Iterator<T> bt = b.iterator();
-            
-            T s1 = at.hasNext() ? at.next() : null;
-            T s2 = bt.hasNext() ? bt.next() : null;
-            
-            while (s1 != null && s2 != null) {
-                if (comparator.compare(s1, s2) < 0) { // s1 comes before s2
-                    both.add(s1);
-                    s1 = at.hasNext() ? at.next() : null;
-                } else {
-                    both.add(s2);
-                    s2 = bt.hasNext() ? bt.next() : null;
-                }
-            }
-
-            if (s1 != null) {
-                both.add(s1);
-                while (at.hasNext()) {
-                    both.add(at.next());
-                }
-            } else 
-            if (s2 != null) {
-                both.add(s2);
-                while (bt.hasNext()) {
-                    both.add(bt.next());
-                }
-            }
-            
-            return both;
-        });
-        
-        return merged;
+        return sorted(comparator, capacityHint).collect(() -> new ArrayList<>(), (a, b) -> a.add(b));
     }
 
     /**
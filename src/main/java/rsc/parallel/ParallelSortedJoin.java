@@ -10,64 +10,78 @@ import rsc.subscriber.SubscriptionHelper;
 import rsc.util.*;
 
 /**
- * Given sorted rail sequences (according to the provided comparator) as List
- * emit the smallest item from these parallel Lists to the Subscriber.
+ * Given sorted rail sequences (according to the provided comparator), emit the
+ * smallest item from these rails to the Subscriber.
  * <p>
- * It expects the source to emit exactly one list (which could be empty).
- * 
+ * Each rail is consumed as a stream with a bounded prefetch and the current head
+ * of every rail is kept in a binary heap, thus picking the next value takes
+ * O(log parallelism) comparisons and only the prefetch-sized buffers are resident.
+ * A value can be emitted as soon as every rail that hasn't completed yet has
+ * a value available; ties are resolved in favor of the lower rail index.
+ *
  * @param <T> the value type
  */
 public final class ParallelSortedJoin<T> extends Px<T> {
 
-    final ParallelPublisher<List<T>> source;
-    
+    final ParallelPublisher<? extends T> source;
+
     final Comparator<? super T> comparator;
 
-    public ParallelSortedJoin(ParallelPublisher<List<T>> source, Comparator<? super T> comparator) {
+    final int prefetch;
+
+    public ParallelSortedJoin(ParallelPublisher<? extends T> source, Comparator<? super T> comparator, int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
         this.source = source;
         this.comparator = comparator;
+        this.prefetch = prefetch;
     }
 
     @Override
     public long getPrefetch() {
-        return Long.MAX_VALUE;
+        return prefetch;
     }
 
     @Override
     public void subscribe(Subscriber<? super T> s) {
-        SortedJoinSubscription<T> parent = new SortedJoinSubscription<>(s, source.parallelism(), comparator);
+        SortedJoinSubscription<T> parent = new SortedJoinSubscription<>(s, source.parallelism(), prefetch, comparator);
         s.onSubscribe(parent);
-        
+
         source.subscribe(parent.subscribers);
     }
-    
+
     static final class SortedJoinSubscription<T> implements Subscription {
         final Subscriber<? super T> actual;
-        
+
         final SortedJoinInnerSubscriber<T>[] subscribers;
-        
-        final List<T>[] lists;
-        
-        final int[] indexes;
-        
+
         final Comparator<? super T> comparator;
-        
+
+        /** The current smallest value of each rail, accessed from the drain loop only. */
+        final T[] heads;
+
+        /** Binary min-heap of the rail indexes having a head value. */
+        final int[] heap;
+
+        int heapSize;
+
+        /** The rails that haven't completed but have no head value yet. */
+        final int[] pending;
+
+        int pendingCount;
+
         volatile int wip;
         @SuppressWarnings("rawtypes")
         static final AtomicIntegerFieldUpdater<SortedJoinSubscription> WIP =
                 AtomicIntegerFieldUpdater.newUpdater(SortedJoinSubscription.class, "wip");
-        
+
         volatile long requested;
         @SuppressWarnings("rawtypes")
         static final AtomicLongFieldUpdater<SortedJoinSubscription> REQUESTED =
                 AtomicLongFieldUpdater.newUpdater(SortedJoinSubscription.class, "requested");
-        
-        volatile boolean cancelled;
 
-        volatile int remaining;
-        @SuppressWarnings("rawtypes")
-        static final AtomicIntegerFieldUpdater<SortedJoinSubscription> REMAINING =
-                AtomicIntegerFieldUpdater.newUpdater(SortedJoinSubscription.class, "remaining");
+        volatile boolean cancelled;
 
         volatile Throwable error;
         @SuppressWarnings("rawtypes")
@@ -75,28 +89,29 @@ public final class ParallelSortedJoin<T> extends Px<T> {
                 AtomicReferenceFieldUpdater.newUpdater(SortedJoinSubscription.class, Throwable.class, "error");
 
         @SuppressWarnings("unchecked")
-        public SortedJoinSubscription(Subscriber<? super T> actual, int n, Comparator<? super T> comparator) {
+        public SortedJoinSubscription(Subscriber<? super T> actual, int n, int prefetch, Comparator<? super T> comparator) {
             this.actual = actual;
             this.comparator = comparator;
-            
+
             SortedJoinInnerSubscriber<T>[] s = new SortedJoinInnerSubscriber[n];
-            
+            int[] p = new int[n];
+
             for (int i = 0; i < n; i++) {
-                s[i] = new SortedJoinInnerSubscriber<>(this, i);
+                s[i] = new SortedJoinInnerSubscriber<>(this, prefetch);
+                p[i] = i;
             }
             this.subscribers = s;
-            this.lists = new List[n];
-            this.indexes = new int[n];
-            REMAINING.lazySet(this, n);
+            this.heads = (T[])new Object[n];
+            this.heap = new int[n];
+            this.pending = p;
+            this.pendingCount = n;
         }
-        
+
         @Override
         public void request(long n) {
             if (SubscriptionHelper.validate(n)) {
                 BackpressureHelper.getAndAddCap(REQUESTED, this, n);
-                if (remaining == 0) {
-                    drain();
-                }
+                drain();
             }
         }
 
@@ -106,132 +121,182 @@ public final class ParallelSortedJoin<T> extends Px<T> {
                 cancelled = true;
                 cancelAll();
                 if (WIP.getAndIncrement(this) == 0) {
-                    Arrays.fill(lists, null);
+                    cleanup();
                 }
             }
         }
-        
+
         void cancelAll() {
             for (SortedJoinInnerSubscriber<T> s : subscribers) {
                 s.cancel();
             }
         }
-        
-        void innerNext(List<T> value, int index) {
-            lists[index] = value;
-            if (REMAINING.decrementAndGet(this) == 0) {
-                drain();
+
+        void cleanup() {
+            Arrays.fill(heads, null);
+            for (SortedJoinInnerSubscriber<T> s : subscribers) {
+                s.queue.clear();
             }
         }
-        
+
         void innerError(Throwable e) {
-            if (ExceptionHelper.addThrowable(ERROR, this, e)) {
-                drain();
-            } else {
+            if (!ExceptionHelper.addThrowable(ERROR, this, e)) {
                 UnsignalledExceptions.onErrorDropped(e);
             }
         }
-        
+
+        /**
+         * Try to get a head value for each pending rail, dropping the completed ones.
+         * @return true if all the rails that haven't completed have a head value
+         */
+        boolean fillPending() {
+            int[] p = pending;
+            int c = pendingCount;
+
+            for (int k = c - 1; k >= 0; k--) {
+                int i = p[k];
+                SortedJoinInnerSubscriber<T> inner = subscribers[i];
+
+                boolean d = inner.done;
+                T v = inner.queue.poll();
+
+                if (v != null) {
+                    heads[i] = v;
+                    offer(i);
+                } else
+                if (!d) {
+                    continue;
+                }
+                p[k] = p[--c];
+            }
+
+            pendingCount = c;
+            return c == 0;
+        }
+
+        boolean less(int i, int j) {
+            int c = comparator.compare(heads[i], heads[j]);
+            return c < 0 || (c == 0 && i < j);
+        }
+
+        void offer(int rail) {
+            int[] h = heap;
+            int k = heapSize++;
+
+            while (k > 0) {
+                int parent = (k - 1) >> 1;
+                int r = h[parent];
+                if (!less(rail, r)) {
+                    break;
+                }
+                h[k] = r;
+                k = parent;
+            }
+            h[k] = rail;
+        }
+
+        void siftDownRoot(int rail) {
+            int[] h = heap;
+            int n = heapSize;
+            int k = 0;
+            int half = n >> 1;
+
+            while (k < half) {
+                int child = (k << 1) + 1;
+                int c = h[child];
+                int right = child + 1;
+                if (right < n && less(h[right], c)) {
+                    child = right;
+                    c = h[child];
+                }
+                if (!less(c, rail)) {
+                    break;
+                }
+                h[k] = c;
+                k = child;
+            }
+            h[k] = rail;
+        }
+
         void drain() {
             if (WIP.getAndIncrement(this) != 0) {
                 return;
             }
-            
+
             int missed = 1;
             Subscriber<? super T> a = actual;
-            List<T>[] lists = this.lists;
-            int[] indexes = this.indexes;
-            int n = indexes.length;
-            
+            SortedJoinInnerSubscriber<T>[] s = subscribers;
+            T[] heads = this.heads;
+
             for (;;) {
-                
+
                 long r = requested;
                 long e = 0L;
-                
-                while (e != r) {
+
+                for (;;) {
                     if (cancelled) {
-                        Arrays.fill(lists, null);
+                        cleanup();
                         return;
                     }
-                    
+
                     Throwable ex = error;
                     if (ex != null) {
                         ex = ExceptionHelper.terminate(ERROR, this);
                         cancelAll();
-                        Arrays.fill(lists, null);
+                        cleanup();
                         a.onError(ex);
                         return;
                     }
-                    
-                    T min = null;
-                    int minIndex = -1;
-
-                    for (int i = 0; i < n; i++) {
-                        List<T> list = lists[i];
-                        int index = indexes[i];
-                        
-                        if (list.size() != index) {
-                            if (min == null) {
-                                min = list.get(index);
-                                minIndex = i;
-                            } else {
-                                T b = list.get(index);
-                                if (comparator.compare(min, b) > 0) {
-                                    min = b;
-                                    minIndex = i;
-                                }
-                            }
-                        }
+
+                    if (pendingCount != 0 && !fillPending()) {
+                        break;
                     }
-                    
-                    if (min == null) {
-                        Arrays.fill(lists, null);
+
+                    if (heapSize == 0) {
+                        if (error != null) {
+                            // a rail may have failed after the error check above
+                            continue;
+                        }
                         a.onComplete();
                         return;
                     }
-                    
-                    a.onNext(min);
-                    
-                    indexes[minIndex]++;
-                    
-                    e++;
-                }
-                
-                if (e == r) {
-                    if (cancelled) {
-                        Arrays.fill(lists, null);
-                        return;
-                    }
-                    
-                    Throwable ex = error;
-                    if (ex != null) {
-                        ex = ExceptionHelper.terminate(ERROR, this);
-                        cancelAll();
-                        Arrays.fill(lists, null);
-                        a.onError(ex);
-                        return;
+
+                    if (e == r) {
+                        break;
                     }
 
-                    boolean empty = true;
-                    
-                    for (int i = 0; i < n; i++) {
-                        if (indexes[i] != lists[i].size()) {
-                            empty = false;
-                            break;
+                    int i = heap[0];
+                    T v = heads[i];
+                    SortedJoinInnerSubscriber<T> inner = s[i];
+
+                    inner.requestOne();
+
+                    boolean d = inner.done;
+                    T next = inner.queue.poll();
+
+                    if (next != null) {
+                        heads[i] = next;
+                        siftDownRoot(i);
+                    } else {
+                        heads[i] = null;
+                        int last = heap[--heapSize];
+                        if (heapSize != 0) {
+                            siftDownRoot(last);
+                        }
+                        if (!d) {
+                            pending[pendingCount++] = i;
                         }
                     }
-                    
-                    if (empty) {
-                        Arrays.fill(lists, null);
-                        a.onComplete();
-                        return;
-                    }
+
+                    a.onNext(v);
+
+                    e++;
                 }
-                
+
                 if (e != 0 && r != Long.MAX_VALUE) {
                     REQUESTED.addAndGet(this, -e);
                 }
-                
+
                 int w = wip;
                 if (w == missed) {
                     missed = WIP.addAndGet(this, -missed);
@@ -244,45 +309,85 @@ public final class ParallelSortedJoin<T> extends Px<T> {
             }
         }
     }
-    
-    static final class SortedJoinInnerSubscriber<T> implements Subscriber<List<T>> {
+
+    static final class SortedJoinInnerSubscriber<T> implements Subscriber<T> {
 
         final SortedJoinSubscription<T> parent;
-        
-        final int index;
-        
+
+        final int prefetch;
+
+        final int limit;
+
+        final Queue<T> queue;
+
         volatile Subscription s;
         @SuppressWarnings("rawtypes")
         static final AtomicReferenceFieldUpdater<SortedJoinInnerSubscriber, Subscription> S =
                 AtomicReferenceFieldUpdater.newUpdater(SortedJoinInnerSubscriber.class, Subscription.class, "s");
-        
-        public SortedJoinInnerSubscriber(SortedJoinSubscription<T> parent, int index) {
+
+        volatile boolean done;
+
+        int produced;
+
+        public SortedJoinInnerSubscriber(SortedJoinSubscription<T> parent, int prefetch) {
             this.parent = parent;
-            this.index = index;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = new SpscArrayQueue<>(prefetch);
         }
-        
+
         @Override
         public void onSubscribe(Subscription s) {
             if (SubscriptionHelper.setOnce(S, this, s)) {
-                s.request(Long.MAX_VALUE);
+                s.request(prefetch);
             }
         }
 
         @Override
-        public void onNext(List<T> t) {
-            parent.innerNext(t, index);
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            if (!queue.offer(t)) {
+                cancel();
+                onError(new IllegalStateException("Queue is full?!"));
+                return;
+            }
+            parent.drain();
         }
 
         @Override
         public void onError(Throwable t) {
+            if (done) {
+                UnsignalledExceptions.onErrorDropped(t);
+                return;
+            }
+            // the error has to be visible before done, see the completion check of the drain loop
             parent.innerError(t);
+            done = true;
+            parent.drain();
         }
 
         @Override
         public void onComplete() {
-            // ignored
+            if (done) {
+                return;
+            }
+            done = true;
+            parent.drain();
+        }
+
+        /** Called from the drain loop after the rail's head value has been consumed. */
+        void requestOne() {
+            int p = produced + 1;
+            if (p == limit) {
+                produced = 0;
+                s.request(p);
+            } else {
+                produced = p;
+            }
         }
-        
+
         void cancel() {
             SubscriptionHelper.terminate(S, this);
         }
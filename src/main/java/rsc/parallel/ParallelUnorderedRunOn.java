@@ -6,6 +6,7 @@ import java.util.function.Supplier;
 
 import org.reactivestreams.*;
 
+import rsc.flow.Fuseable;
 import rsc.scheduler.Scheduler;
 import rsc.scheduler.Scheduler.Worker;
 import rsc.subscriber.SubscriptionHelper;
@@ -80,6 +81,9 @@ public final class ParallelUnorderedRunOn<T> extends ParallelPublisher<T> {
         
         final Worker worker;
         
+        /** If not null, the queue is a {@link Fuseable.BatchQueue} drained through this array. */
+        final Object[] batch;
+        
         Subscription s;
         
         volatile boolean done;
@@ -106,6 +110,11 @@ public final class ParallelUnorderedRunOn<T> extends ParallelPublisher<T> {
             this.queue = queue;
             this.limit = prefetch - (prefetch >> 2);
             this.worker = worker;
+            if (queue instanceof Fuseable.BatchQueue) {
+                this.batch = new Object[Math.min(limit, 128)];
+            } else {
+                this.batch = null;
+            }
         }
         
         @Override
@@ -180,6 +189,10 @@ public final class ParallelUnorderedRunOn<T> extends ParallelPublisher<T> {
         
         @Override
         public void run() {
+            if (batch != null) {
+                runBatch();
+                return;
+            }
             int missed = 1;
             int c = consumed;
             Queue<T> q = queue;
@@ -278,5 +291,113 @@ public final class ParallelUnorderedRunOn<T> extends ParallelPublisher<T> {
                 }
             }
         }
+
+        void runBatch() {
+            int missed = 1;
+            int c = consumed;
+            @SuppressWarnings("unchecked")
+            Fuseable.BatchQueue<T> q = (Fuseable.BatchQueue<T>)queue;
+            Subscriber<? super T> a = actual;
+            Object[] b = batch;
+            int lim = limit;
+            
+            for (;;) {
+                
+                long r = requested;
+                long e = 0L;
+                
+                while (e != r) {
+                    if (cancelled) {
+                        q.clear();
+                        return;
+                    }
+                    
+                    boolean d = done;
+                    
+                    if (d) {
+                        Throwable ex = error;
+                        if (ex != null) {
+                            q.clear();
+                            
+                            a.onError(ex);
+                            
+                            worker.shutdown();
+                            return;
+                        }
+                    }
+                    
+                    int n = q.poll(b, (int)Math.min(Math.min(r - e, lim - c), b.length));
+                    
+                    boolean empty = n == 0;
+                    
+                    if (d && empty) {
+                        a.onComplete();
+                        
+                        worker.shutdown();
+                        return;
+                    }
+                    
+                    if (empty) {
+                        break;
+                    }
+                    
+                    for (int i = 0; i < n; i++) {
+                        @SuppressWarnings("unchecked")
+                        T v = (T)b[i];
+                        b[i] = null;
+                        
+                        a.onNext(v);
+                    }
+                    
+                    e += n;
+                    
+                    c += n;
+                    if (c == lim) {
+                        c = 0;
+                        s.request(lim);
+                    }
+                }
+                
+                if (e == r) {
+                    if (cancelled) {
+                        q.clear();
+                        return;
+                    }
+                    
+                    if (done) {
+                        Throwable ex = error;
+                        if (ex != null) {
+                            q.clear();
+                            
+                            a.onError(ex);
+                            
+                            worker.shutdown();
+                            return;
+                        }
+                        if (q.isEmpty()) {
+                            a.onComplete();
+                            
+                            worker.shutdown();
+                            return;
+                        }
+                    }
+                }
+                
+                if (e != 0L && r != Long.MAX_VALUE) {
+                    REQUESTED.addAndGet(this, -e);
+                }
+                
+                int w = wip;
+                if (w == missed) {
+                    consumed = c;
+                    missed = WIP.addAndGet(this, -missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
     }
 }
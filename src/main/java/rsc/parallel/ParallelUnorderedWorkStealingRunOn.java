@@ -0,0 +1,381 @@
+package rsc.parallel;
+
+import java.util.Queue;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import rsc.scheduler.Scheduler;
+import rsc.scheduler.Scheduler.Worker;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.*;
+
+/**
+ * Ensures each 'rail' from upstream runs on a Worker from a Scheduler and lets
+ * a rail that has run out of work take values from the queues of the other rails.
+ * <p>
+ * Each rail still requests from its own upstream rail, in the amount its own queue
+ * can hold; values taken by other rails count as consumed by the rail they were queued
+ * on. Thus a slow value on one rail doesn't hold up the values queued up behind it
+ * while the other rails are idle.
+ *
+ * @param <T> the value type
+ */
+public final class ParallelUnorderedWorkStealingRunOn<T> extends ParallelPublisher<T> {
+    final ParallelPublisher<? extends T> source;
+
+    final Scheduler scheduler;
+
+    final int prefetch;
+
+    public ParallelUnorderedWorkStealingRunOn(ParallelPublisher<? extends T> parent,
+            Scheduler scheduler, int prefetch) {
+        this.source = parent;
+        this.scheduler = scheduler;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T>[] subscribers) {
+        if (!validate(subscribers)) {
+            return;
+        }
+
+        int n = subscribers.length;
+
+        @SuppressWarnings("unchecked")
+        WorkStealingSubscriber<T>[] parents = (WorkStealingSubscriber<T>[])new WorkStealingSubscriber<?>[n];
+
+        for (int i = 0; i < n; i++) {
+            Subscriber<? super T> a = subscribers[i];
+
+            Worker w = scheduler.createWorker();
+            Queue<T> q = new MpmcArrayQueue<>(prefetch);
+
+            parents[i] = new WorkStealingSubscriber<>(a, prefetch, q, w, parents, i);
+        }
+
+        source.subscribe(parents);
+    }
+
+
+    @Override
+    public int parallelism() {
+        return source.parallelism();
+    }
+
+    @Override
+    public boolean isOrdered() {
+        return false;
+    }
+
+    static final class WorkStealingSubscriber<T> implements Subscriber<T>, Subscription, Runnable {
+
+        final Subscriber<? super T> actual;
+
+        final int prefetch;
+
+        final int limit;
+
+        /** Multi-consumer as the other rails may poll it. */
+        final Queue<T> queue;
+
+        final Worker worker;
+
+        /** All the rails, including this one. */
+        final WorkStealingSubscriber<T>[] rails;
+
+        final int railIndex;
+
+        Subscription s;
+
+        volatile boolean done;
+
+        Throwable error;
+
+        volatile int wip;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<WorkStealingSubscriber> WIP =
+                AtomicIntegerFieldUpdater.newUpdater(WorkStealingSubscriber.class, "wip");
+
+        volatile long requested;
+        @SuppressWarnings("rawtypes")
+        static final AtomicLongFieldUpdater<WorkStealingSubscriber> REQUESTED =
+                AtomicLongFieldUpdater.newUpdater(WorkStealingSubscriber.class, "requested");
+
+        /** The number of values the other rails took from this rail's queue, replenished by this rail. */
+        volatile int stolen;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<WorkStealingSubscriber> STOLEN =
+                AtomicIntegerFieldUpdater.newUpdater(WorkStealingSubscriber.class, "stolen");
+
+        volatile boolean cancelled;
+
+        /** Set once this rail has signalled a terminal event, the other rails no longer wake it up. */
+        volatile boolean terminated;
+
+        int consumed;
+
+        /** The rail to try stealing from first next time. */
+        int victimIndex;
+
+        public WorkStealingSubscriber(Subscriber<? super T> actual, int prefetch, Queue<T> queue, Worker worker,
+                WorkStealingSubscriber<T>[] rails, int railIndex) {
+            this.actual = actual;
+            this.prefetch = prefetch;
+            this.queue = queue;
+            this.limit = prefetch - (prefetch >> 2);
+            this.worker = worker;
+            this.rails = rails;
+            this.railIndex = railIndex;
+            this.victimIndex = railIndex + 1;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(this.s, s)) {
+                this.s = s;
+
+                actual.onSubscribe(this);
+
+                s.request(prefetch);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            if (!queue.offer(t)) {
+                onError(new IllegalStateException("Queue is full?!"));
+                return;
+            }
+            if (WIP.getAndIncrement(this) == 0) {
+                worker.schedule(this);
+            } else
+            if (queue.size() > 1) {
+                // this rail is busy and values are piling up: let an idle rail help out
+                wakeIdle();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                UnsignalledExceptions.onErrorDropped(t);
+                return;
+            }
+            error = t;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.getAndAddCap(REQUESTED, this, n);
+                schedule();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                terminated = true;
+                s.cancel();
+                worker.shutdown();
+
+                if (WIP.getAndIncrement(this) == 0) {
+                    queue.clear();
+                }
+            }
+        }
+
+        void schedule() {
+            if (WIP.getAndIncrement(this) == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        void wakeIdle() {
+            WorkStealingSubscriber<T>[] a = rails;
+            int n = a.length;
+            int j = railIndex;
+            for (int k = 1; k < n; k++) {
+                if (++j == n) {
+                    j = 0;
+                }
+                WorkStealingSubscriber<T> r = a[j];
+                if (r.wip == 0 && r.requested != 0L && !r.terminated) {
+                    r.schedule();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Called by the other rails after they have taken a value from this rail's queue.
+         */
+        void onStolen() {
+            STOLEN.getAndIncrement(this);
+            schedule();
+        }
+
+        /**
+         * Try taking a value from the other rails' queues.
+         * @return the value or null if all the other queues appear to be empty
+         */
+        T steal() {
+            WorkStealingSubscriber<T>[] a = rails;
+            int n = a.length;
+            int self = railIndex;
+            int j = victimIndex;
+            for (int k = 0; k < n; k++, j++) {
+                if (j >= n) {
+                    j = 0;
+                }
+                if (j == self) {
+                    continue;
+                }
+                WorkStealingSubscriber<T> r = a[j];
+                T v = r.queue.poll();
+                if (v != null) {
+                    victimIndex = j;
+                    r.onStolen();
+                    return v;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            int c = consumed;
+            Queue<T> q = queue;
+            Subscriber<? super T> a = actual;
+            int lim = limit;
+
+            for (;;) {
+
+                int st = stolen;
+                if (st != 0) {
+                    STOLEN.addAndGet(this, -st);
+                    c += st;
+                    if (c >= lim) {
+                        s.request(c);
+                        c = 0;
+                    }
+                }
+
+                long r = requested;
+                long e = 0L;
+
+                while (e != r) {
+                    if (cancelled) {
+                        q.clear();
+                        return;
+                    }
+
+                    boolean d = done;
+
+                    if (d) {
+                        Throwable ex = error;
+                        if (ex != null) {
+                            q.clear();
+
+                            terminated = true;
+                            a.onError(ex);
+
+                            worker.shutdown();
+                            return;
+                        }
+                    }
+
+                    T v = q.poll();
+
+                    if (v != null) {
+                        int p = ++c;
+                        if (p == lim) {
+                            c = 0;
+                            s.request(p);
+                        }
+                    } else {
+                        v = steal();
+                    }
+
+                    boolean empty = v == null;
+
+                    if (d && empty) {
+                        terminated = true;
+                        a.onComplete();
+
+                        worker.shutdown();
+                        return;
+                    }
+
+                    if (empty) {
+                        break;
+                    }
+
+                    a.onNext(v);
+
+                    e++;
+                }
+
+                if (e == r) {
+                    if (cancelled) {
+                        q.clear();
+                        return;
+                    }
+
+                    if (done) {
+                        Throwable ex = error;
+                        if (ex != null) {
+                            q.clear();
+
+                            terminated = true;
+                            a.onError(ex);
+
+                            worker.shutdown();
+                            return;
+                        }
+                        if (q.isEmpty()) {
+                            terminated = true;
+                            a.onComplete();
+
+                            worker.shutdown();
+                            return;
+                        }
+                    }
+                }
+
+                if (e != 0L && r != Long.MAX_VALUE) {
+                    REQUESTED.addAndGet(this, -e);
+                }
+
+                int w = wip;
+                if (w == missed) {
+                    consumed = c;
+                    missed = WIP.addAndGet(this, -missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+    }
+}
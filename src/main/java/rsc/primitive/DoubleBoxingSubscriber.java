@@ -0,0 +1,18 @@
+package rsc.primitive;
+
+import org.reactivestreams.Subscriber;
+
+/**
+ * Boxes the primitive double values for a regular Subscriber of Double.
+ */
+final class DoubleBoxingSubscriber extends PrimitiveBoxingSubscriber<Double> implements DoubleSubscriber {
+
+    public DoubleBoxingSubscriber(Subscriber<? super Double> actual) {
+        super(actual);
+    }
+
+    @Override
+    public void onNext(double t) {
+        actual.onNext(t);
+    }
+}
@@ -0,0 +1,136 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.*;
+
+import org.reactivestreams.*;
+
+import rsc.publisher.Px;
+
+/**
+ * Abstract base class for Publishers of primitive double values.
+ * <p>
+ * Operators of this family talk to each other via {@link DoubleSubscriber#onNext(double)} and,
+ * where the source is synchronous, via batches of {@link DoubleQueueSubscription#poll(double[], int)},
+ * thus a numeric pipeline such as {@code DoublePx.fromArray(values).map(...).filter(...).sum()} doesn't box
+ * its values. Regular Subscribers of Double are served by boxing the values at the very end.
+ * <p>
+ * Use {@link #from(Publisher)} to unbox a Publisher of Doubles and {@link #boxed()} to
+ * continue with the regular {@link Px} operators.
+ */
+public abstract class DoublePx implements Publisher<Double> {
+
+    /**
+     * Subscribes a primitive DoubleSubscriber to this DoublePx.
+     * @param s the DoubleSubscriber, not null
+     */
+    public abstract void subscribe(DoubleSubscriber s);
+
+    @Override
+    public final void subscribe(Subscriber<? super Double> s) {
+        Objects.requireNonNull(s, "s");
+        if (s instanceof DoubleSubscriber) {
+            subscribe((DoubleSubscriber)s);
+        } else {
+            subscribe(new DoubleBoxingSubscriber(s));
+        }
+    }
+
+    /**
+     * Emits the values of the given array.
+     * @param values the values to emit, the array is not copied
+     * @return the new DoublePx instance
+     */
+    public static DoublePx fromArray(double... values) {
+        return new DoublePxArray(Objects.requireNonNull(values, "values"));
+    }
+
+    /**
+     * Unboxes the Double values of the given Publisher.
+     * @param source the source Publisher
+     * @return the DoublePx instance
+     */
+    public static DoublePx from(Publisher<? extends Double> source) {
+        if (source instanceof DoublePx) {
+            return (DoublePx)source;
+        }
+        return new DoublePxFromPublisher(source);
+    }
+
+    /**
+     * Maps each value to another double value.
+     * @param mapper the mapper function
+     * @return the new DoublePx instance
+     */
+    public final DoublePx map(DoubleUnaryOperator mapper) {
+        return new DoublePxMap(this, mapper);
+    }
+
+    /**
+     * Keeps only those values for which the predicate returns true.
+     * @param predicate the predicate
+     * @return the new DoublePx instance
+     */
+    public final DoublePx filter(DoublePredicate predicate) {
+        return new DoublePxFilter(this, predicate);
+    }
+
+    /**
+     * Aggregates the values into a single value via the reducer function or completes empty
+     * if the sequence is empty.
+     * @param reducer the function receiving the accumulated value so far and the current value
+     * @return the new DoublePx instance
+     */
+    public final DoublePx reduce(DoubleBinaryOperator reducer) {
+        return new DoublePxReduce(this, reducer);
+    }
+
+    /**
+     * Sums up the values or completes empty if the sequence is empty.
+     * @return the new DoublePx instance
+     */
+    public final DoublePx sum() {
+        return reduce((a, b) -> a + b);
+    }
+
+    /**
+     * Converts this DoublePx into a regular Px of boxed Doubles.
+     * @return the Px instance
+     */
+    public final Px<Double> boxed() {
+        return Px.wrap(this);
+    }
+
+    /**
+     * Subscribes with the given primitive callbacks and requests an unbounded amount.
+     * @param onNext the callback for the values
+     * @param onError the callback for the error
+     * @param onComplete the callback for the completion
+     */
+    public final void subscribe(DoubleConsumer onNext, Consumer<Throwable> onError, Runnable onComplete) {
+        Objects.requireNonNull(onNext, "onNext");
+        Objects.requireNonNull(onError, "onError");
+        Objects.requireNonNull(onComplete, "onComplete");
+        subscribe(new DoubleSubscriber() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(double t) {
+                onNext.accept(t);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                onError.accept(t);
+            }
+
+            @Override
+            public void onComplete() {
+                onComplete.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package rsc.primitive;
+
+import rsc.subscriber.SubscriptionHelper;
+
+/**
+ * Emits the primitive double values of an array.
+ */
+public final class DoublePxArray extends DoublePx {
+
+    final double[] array;
+
+    public DoublePxArray(double[] array) {
+        this.array = array;
+    }
+
+    @Override
+    public void subscribe(DoubleSubscriber s) {
+        if (array.length == 0) {
+            SubscriptionHelper.complete(s);
+            return;
+        }
+        s.onSubscribe(new ArraySubscription(s, array));
+    }
+
+    static final class ArraySubscription extends PrimitiveSourceSubscription<DoubleSubscriber>
+    implements DoubleQueueSubscription {
+
+        final double[] array;
+
+        int index;
+
+        public ArraySubscription(DoubleSubscriber actual, double[] array) {
+            super(actual);
+            this.array = array;
+        }
+
+        @Override
+        long emit(long n) {
+            final double[] a = array;
+            final int len = a.length;
+            final DoubleSubscriber s = actual;
+
+            int i = index;
+            long e = 0L;
+
+            while (e != n && i != len) {
+                if (cancelled) {
+                    break;
+                }
+
+                s.onNext(a[i]);
+
+                e++;
+                i++;
+            }
+
+            index = i;
+            return e;
+        }
+
+        @Override
+        public int poll(double[] target, int max) {
+            int i = index;
+            int n = Math.min(array.length - i, max);
+            System.arraycopy(array, i, target, 0, n);
+            index = i + n;
+            return n;
+        }
+
+        @Override
+        public boolean isStarted() {
+            return index != 0;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return index == array.length;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.DoublePredicate;
+
+import org.reactivestreams.Subscription;
+
+/**
+ * Filters the primitive double values of the source via a predicate.
+ */
+public final class DoublePxFilter extends DoublePx {
+
+    final DoublePx source;
+
+    final DoublePredicate predicate;
+
+    public DoublePxFilter(DoublePx source, DoublePredicate predicate) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.predicate = Objects.requireNonNull(predicate, "predicate");
+    }
+
+    @Override
+    public void subscribe(DoubleSubscriber s) {
+        source.subscribe(new FilterSubscriber(s, predicate));
+    }
+
+    static final class FilterSubscriber extends PrimitiveOperatorSubscriber<DoubleSubscriber, DoubleQueueSubscription>
+    implements DoubleSubscriber, DoubleQueueSubscription {
+
+        final DoublePredicate predicate;
+
+        public FilterSubscriber(DoubleSubscriber actual, DoublePredicate predicate) {
+            super(actual);
+            this.predicate = predicate;
+        }
+
+        @Override
+        DoubleQueueSubscription asQueueSubscription(Subscription s) {
+            return s instanceof DoubleQueueSubscription ? (DoubleQueueSubscription)s : null;
+        }
+
+        @Override
+        public void onNext(double t) {
+            if (done) {
+                return;
+            }
+
+            boolean b;
+
+            try {
+                b = predicate.test(t);
+            } catch (Throwable e) {
+                fail(e);
+                return;
+            }
+
+            if (b) {
+                actual.onNext(t);
+            } else {
+                s.request(1);
+            }
+        }
+
+        @Override
+        public int poll(double[] target, int max) {
+            DoubleQueueSubscription a = qs;
+            DoublePredicate p = predicate;
+            for (;;) {
+                int n = a.poll(target, max);
+                if (n == 0) {
+                    return 0;
+                }
+                int j = 0;
+                for (int i = 0; i < n; i++) {
+                    double v = target[i];
+                    if (p.test(v)) {
+                        target[j++] = v;
+                    }
+                }
+                if (j != 0) {
+                    return j;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package rsc.primitive;
+
+import java.util.Objects;
+
+import org.reactivestreams.Publisher;
+
+import rsc.flow.Fuseable.QueueSubscription;
+
+/**
+ * Unboxes the Double values of a regular Publisher into primitive double values.
+ * <p>
+ * A synchronously fuseable source is polled directly so downstream primitive operators
+ * can keep running in fused mode.
+ */
+public final class DoublePxFromPublisher extends DoublePx {
+
+    final Publisher<? extends Double> source;
+
+    public DoublePxFromPublisher(Publisher<? extends Double> source) {
+        this.source = Objects.requireNonNull(source, "source");
+    }
+
+    @Override
+    public void subscribe(DoubleSubscriber s) {
+        source.subscribe(new UnboxingSubscriber(s));
+    }
+
+    static final class UnboxingSubscriber extends PrimitiveUnboxingSubscriber<Double, DoubleSubscriber>
+    implements DoubleQueueSubscription {
+
+        public UnboxingSubscriber(DoubleSubscriber actual) {
+            super(actual);
+        }
+
+        @Override
+        public void onNext(Double t) {
+            actual.onNext(t.doubleValue());
+        }
+
+        @Override
+        public int poll(double[] target, int max) {
+            QueueSubscription<? extends Double> a = qs;
+            int n = 0;
+            while (n != max) {
+                Double v = a.poll();
+                if (v == null) {
+                    break;
+                }
+                target[n++] = v;
+            }
+            return n;
+        }
+    }
+}
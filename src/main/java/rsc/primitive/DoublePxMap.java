@@ -0,0 +1,70 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
+
+import org.reactivestreams.Subscription;
+
+/**
+ * Maps the primitive double values of the source via a mapper function.
+ */
+public final class DoublePxMap extends DoublePx {
+
+    final DoublePx source;
+
+    final DoubleUnaryOperator mapper;
+
+    public DoublePxMap(DoublePx source, DoubleUnaryOperator mapper) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.mapper = Objects.requireNonNull(mapper, "mapper");
+    }
+
+    @Override
+    public void subscribe(DoubleSubscriber s) {
+        source.subscribe(new MapSubscriber(s, mapper));
+    }
+
+    static final class MapSubscriber extends PrimitiveOperatorSubscriber<DoubleSubscriber, DoubleQueueSubscription>
+    implements DoubleSubscriber, DoubleQueueSubscription {
+
+        final DoubleUnaryOperator mapper;
+
+        public MapSubscriber(DoubleSubscriber actual, DoubleUnaryOperator mapper) {
+            super(actual);
+            this.mapper = mapper;
+        }
+
+        @Override
+        DoubleQueueSubscription asQueueSubscription(Subscription s) {
+            return s instanceof DoubleQueueSubscription ? (DoubleQueueSubscription)s : null;
+        }
+
+        @Override
+        public void onNext(double t) {
+            if (done) {
+                return;
+            }
+
+            double v;
+
+            try {
+                v = mapper.applyAsDouble(t);
+            } catch (Throwable e) {
+                fail(e);
+                return;
+            }
+
+            actual.onNext(v);
+        }
+
+        @Override
+        public int poll(double[] target, int max) {
+            int n = qs.poll(target, max);
+            DoubleUnaryOperator f = mapper;
+            for (int i = 0; i < n; i++) {
+                target[i] = f.applyAsDouble(target[i]);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.DoubleBinaryOperator;
+
+import org.reactivestreams.Subscription;
+
+import rsc.publisher.Px;
+
+/**
+ * Aggregates the primitive double values of the source into a single value via a reducer
+ * function; completes without a value if the source is empty.
+ * <p>
+ * If the source supports synchronous fusion, its values are pulled in batches into a
+ * primitive buffer and reduced in a tight loop.
+ */
+public final class DoublePxReduce extends DoublePx {
+
+    final DoublePx source;
+
+    final DoubleBinaryOperator reducer;
+
+    public DoublePxReduce(DoublePx source, DoubleBinaryOperator reducer) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.reducer = Objects.requireNonNull(reducer, "reducer");
+    }
+
+    @Override
+    public void subscribe(DoubleSubscriber s) {
+        source.subscribe(new ReduceSubscriber(s, reducer));
+    }
+
+    static final class ReduceSubscriber extends PrimitiveReduceSubscriber<DoubleSubscriber, DoubleQueueSubscription>
+    implements DoubleSubscriber {
+
+        final DoubleBinaryOperator reducer;
+
+        double value;
+
+        double[] buffer;
+
+        public ReduceSubscriber(DoubleSubscriber actual, DoubleBinaryOperator reducer) {
+            super(actual);
+            this.reducer = reducer;
+        }
+
+        @Override
+        DoubleQueueSubscription asQueueSubscription(Subscription s) {
+            return s instanceof DoubleQueueSubscription ? (DoubleQueueSubscription)s : null;
+        }
+
+        @Override
+        boolean reduceNext(DoubleQueueSubscription qs) {
+            double[] b = buffer;
+            if (b == null) {
+                b = new double[Px.bufferSize()];
+                buffer = b;
+            }
+
+            int n = qs.poll(b, b.length);
+            if (n == 0) {
+                return false;
+            }
+
+            DoubleBinaryOperator f = reducer;
+            double acc = value;
+            int i = 0;
+            if (!hasValue) {
+                hasValue = true;
+                acc = b[0];
+                i = 1;
+            }
+            for (; i < n; i++) {
+                acc = f.applyAsDouble(acc, b[i]);
+            }
+            value = acc;
+            return true;
+        }
+
+        @Override
+        void emitValue() {
+            actual.onNext(value);
+        }
+
+        @Override
+        public void onNext(double t) {
+            if (done) {
+                return;
+            }
+
+            if (hasValue) {
+                try {
+                    value = reducer.applyAsDouble(value, t);
+                } catch (Throwable e) {
+                    fail(e);
+                }
+            } else {
+                hasValue = true;
+                value = t;
+            }
+        }
+    }
+}
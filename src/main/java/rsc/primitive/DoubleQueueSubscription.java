@@ -0,0 +1,15 @@
+package rsc.primitive;
+
+/**
+ * The primitive double {@link PrimitiveQueueSubscription}.
+ */
+public interface DoubleQueueSubscription extends PrimitiveQueueSubscription {
+
+    /**
+     * Fill the target array with at most {@code max} values, starting at index 0.
+     * @param target the array to fill
+     * @param max the maximum number of values to poll
+     * @return the number of values written, 0 indicates the sequence has completed
+     */
+    int poll(double[] target, int max);
+}
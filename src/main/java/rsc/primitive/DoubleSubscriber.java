@@ -0,0 +1,23 @@
+package rsc.primitive;
+
+import org.reactivestreams.Subscriber;
+
+/**
+ * A Subscriber that receives primitive double values without boxing them.
+ * <p>
+ * The boxed {@link #onNext(Double)} is routed to the primitive {@link #onNext(double)}
+ * so that regular Publishers of Double can still talk to it.
+ */
+public interface DoubleSubscriber extends Subscriber<Double> {
+
+    /**
+     * Receive the next primitive value.
+     * @param t the value
+     */
+    void onNext(double t);
+
+    @Override
+    default void onNext(Double t) {
+        onNext(t.doubleValue());
+    }
+}
@@ -0,0 +1,18 @@
+package rsc.primitive;
+
+import org.reactivestreams.Subscriber;
+
+/**
+ * Boxes the primitive int values for a regular Subscriber of Integer.
+ */
+final class IntBoxingSubscriber extends PrimitiveBoxingSubscriber<Integer> implements IntSubscriber {
+
+    public IntBoxingSubscriber(Subscriber<? super Integer> actual) {
+        super(actual);
+    }
+
+    @Override
+    public void onNext(int t) {
+        actual.onNext(t);
+    }
+}
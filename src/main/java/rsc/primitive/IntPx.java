@@ -0,0 +1,146 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.*;
+
+import org.reactivestreams.*;
+
+import rsc.publisher.Px;
+
+/**
+ * Abstract base class for Publishers of primitive int values.
+ * <p>
+ * Operators of this family talk to each other via {@link IntSubscriber#onNext(int)} and,
+ * where the source is synchronous, via batches of {@link IntQueueSubscription#poll(int[], int)},
+ * thus a numeric pipeline such as {@code IntPx.range(1, n).map(...).filter(...).sum()} doesn't box
+ * its values. Regular Subscribers of Integer are served by boxing the values at the very end.
+ * <p>
+ * Use {@link #from(Publisher)} to unbox a Publisher of Integers and {@link #boxed()} to
+ * continue with the regular {@link Px} operators.
+ */
+public abstract class IntPx implements Publisher<Integer> {
+
+    /**
+     * Subscribes a primitive IntSubscriber to this IntPx.
+     * @param s the IntSubscriber, not null
+     */
+    public abstract void subscribe(IntSubscriber s);
+
+    @Override
+    public final void subscribe(Subscriber<? super Integer> s) {
+        Objects.requireNonNull(s, "s");
+        if (s instanceof IntSubscriber) {
+            subscribe((IntSubscriber)s);
+        } else {
+            subscribe(new IntBoxingSubscriber(s));
+        }
+    }
+
+    /**
+     * Emits a range of int values.
+     * @param start the first value
+     * @param count the number of values to emit
+     * @return the new IntPx instance
+     */
+    public static IntPx range(int start, int count) {
+        return new IntPxRange(start, count);
+    }
+
+    /**
+     * Emits the values of the given array.
+     * @param values the values to emit, the array is not copied
+     * @return the new IntPx instance
+     */
+    public static IntPx fromArray(int... values) {
+        return new IntPxArray(Objects.requireNonNull(values, "values"));
+    }
+
+    /**
+     * Unboxes the Integer values of the given Publisher.
+     * @param source the source Publisher
+     * @return the IntPx instance
+     */
+    public static IntPx from(Publisher<? extends Integer> source) {
+        if (source instanceof IntPx) {
+            return (IntPx)source;
+        }
+        return new IntPxFromPublisher(source);
+    }
+
+    /**
+     * Maps each value to another int value.
+     * @param mapper the mapper function
+     * @return the new IntPx instance
+     */
+    public final IntPx map(IntUnaryOperator mapper) {
+        return new IntPxMap(this, mapper);
+    }
+
+    /**
+     * Keeps only those values for which the predicate returns true.
+     * @param predicate the predicate
+     * @return the new IntPx instance
+     */
+    public final IntPx filter(IntPredicate predicate) {
+        return new IntPxFilter(this, predicate);
+    }
+
+    /**
+     * Aggregates the values into a single value via the reducer function or completes empty
+     * if the sequence is empty.
+     * @param reducer the function receiving the accumulated value so far and the current value
+     * @return the new IntPx instance
+     */
+    public final IntPx reduce(IntBinaryOperator reducer) {
+        return new IntPxReduce(this, reducer);
+    }
+
+    /**
+     * Sums up the values or completes empty if the sequence is empty.
+     * @return the new IntPx instance
+     */
+    public final IntPx sum() {
+        return reduce((a, b) -> a + b);
+    }
+
+    /**
+     * Converts this IntPx into a regular Px of boxed Integers.
+     * @return the Px instance
+     */
+    public final Px<Integer> boxed() {
+        return Px.wrap(this);
+    }
+
+    /**
+     * Subscribes with the given primitive callbacks and requests an unbounded amount.
+     * @param onNext the callback for the values
+     * @param onError the callback for the error
+     * @param onComplete the callback for the completion
+     */
+    public final void subscribe(IntConsumer onNext, Consumer<Throwable> onError, Runnable onComplete) {
+        Objects.requireNonNull(onNext, "onNext");
+        Objects.requireNonNull(onError, "onError");
+        Objects.requireNonNull(onComplete, "onComplete");
+        subscribe(new IntSubscriber() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(int t) {
+                onNext.accept(t);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                onError.accept(t);
+            }
+
+            @Override
+            public void onComplete() {
+                onComplete.run();
+            }
+        });
+    }
+}
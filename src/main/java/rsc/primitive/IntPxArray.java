@@ -0,0 +1,80 @@
+package rsc.primitive;
+
+import rsc.subscriber.SubscriptionHelper;
+
+/**
+ * Emits the primitive int values of an array.
+ */
+public final class IntPxArray extends IntPx {
+
+    final int[] array;
+
+    public IntPxArray(int[] array) {
+        this.array = array;
+    }
+
+    @Override
+    public void subscribe(IntSubscriber s) {
+        if (array.length == 0) {
+            SubscriptionHelper.complete(s);
+            return;
+        }
+        s.onSubscribe(new ArraySubscription(s, array));
+    }
+
+    static final class ArraySubscription extends PrimitiveSourceSubscription<IntSubscriber>
+    implements IntQueueSubscription {
+
+        final int[] array;
+
+        int index;
+
+        public ArraySubscription(IntSubscriber actual, int[] array) {
+            super(actual);
+            this.array = array;
+        }
+
+        @Override
+        long emit(long n) {
+            final int[] a = array;
+            final int len = a.length;
+            final IntSubscriber s = actual;
+
+            int i = index;
+            long e = 0L;
+
+            while (e != n && i != len) {
+                if (cancelled) {
+                    break;
+                }
+
+                s.onNext(a[i]);
+
+                e++;
+                i++;
+            }
+
+            index = i;
+            return e;
+        }
+
+        @Override
+        public int poll(int[] target, int max) {
+            int i = index;
+            int n = Math.min(array.length - i, max);
+            System.arraycopy(array, i, target, 0, n);
+            index = i + n;
+            return n;
+        }
+
+        @Override
+        public boolean isStarted() {
+            return index != 0;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return index == array.length;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+import org.reactivestreams.Subscription;
+
+/**
+ * Filters the primitive int values of the source via a predicate.
+ */
+public final class IntPxFilter extends IntPx {
+
+    final IntPx source;
+
+    final IntPredicate predicate;
+
+    public IntPxFilter(IntPx source, IntPredicate predicate) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.predicate = Objects.requireNonNull(predicate, "predicate");
+    }
+
+    @Override
+    public void subscribe(IntSubscriber s) {
+        source.subscribe(new FilterSubscriber(s, predicate));
+    }
+
+    static final class FilterSubscriber extends PrimitiveOperatorSubscriber<IntSubscriber, IntQueueSubscription>
+    implements IntSubscriber, IntQueueSubscription {
+
+        final IntPredicate predicate;
+
+        public FilterSubscriber(IntSubscriber actual, IntPredicate predicate) {
+            super(actual);
+            this.predicate = predicate;
+        }
+
+        @Override
+        IntQueueSubscription asQueueSubscription(Subscription s) {
+            return s instanceof IntQueueSubscription ? (IntQueueSubscription)s : null;
+        }
+
+        @Override
+        public void onNext(int t) {
+            if (done) {
+                return;
+            }
+
+            boolean b;
+
+            try {
+                b = predicate.test(t);
+            } catch (Throwable e) {
+                fail(e);
+                return;
+            }
+
+            if (b) {
+                actual.onNext(t);
+            } else {
+                s.request(1);
+            }
+        }
+
+        @Override
+        public int poll(int[] target, int max) {
+            IntQueueSubscription a = qs;
+            IntPredicate p = predicate;
+            for (;;) {
+                int n = a.poll(target, max);
+                if (n == 0) {
+                    return 0;
+                }
+                int j = 0;
+                for (int i = 0; i < n; i++) {
+                    int v = target[i];
+                    if (p.test(v)) {
+                        target[j++] = v;
+                    }
+                }
+                if (j != 0) {
+                    return j;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package rsc.primitive;
+
+import java.util.Objects;
+
+import org.reactivestreams.Publisher;
+
+import rsc.flow.Fuseable.QueueSubscription;
+
+/**
+ * Unboxes the Integer values of a regular Publisher into primitive int values.
+ * <p>
+ * A synchronously fuseable source is polled directly so downstream primitive operators
+ * can keep running in fused mode.
+ */
+public final class IntPxFromPublisher extends IntPx {
+
+    final Publisher<? extends Integer> source;
+
+    public IntPxFromPublisher(Publisher<? extends Integer> source) {
+        this.source = Objects.requireNonNull(source, "source");
+    }
+
+    @Override
+    public void subscribe(IntSubscriber s) {
+        source.subscribe(new UnboxingSubscriber(s));
+    }
+
+    static final class UnboxingSubscriber extends PrimitiveUnboxingSubscriber<Integer, IntSubscriber>
+    implements IntQueueSubscription {
+
+        public UnboxingSubscriber(IntSubscriber actual) {
+            super(actual);
+        }
+
+        @Override
+        public void onNext(Integer t) {
+            actual.onNext(t.intValue());
+        }
+
+        @Override
+        public int poll(int[] target, int max) {
+            QueueSubscription<? extends Integer> a = qs;
+            int n = 0;
+            while (n != max) {
+                Integer v = a.poll();
+                if (v == null) {
+                    break;
+                }
+                target[n++] = v;
+            }
+            return n;
+        }
+    }
+}
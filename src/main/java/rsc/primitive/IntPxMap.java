@@ -0,0 +1,70 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+
+import org.reactivestreams.Subscription;
+
+/**
+ * Maps the primitive int values of the source via a mapper function.
+ */
+public final class IntPxMap extends IntPx {
+
+    final IntPx source;
+
+    final IntUnaryOperator mapper;
+
+    public IntPxMap(IntPx source, IntUnaryOperator mapper) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.mapper = Objects.requireNonNull(mapper, "mapper");
+    }
+
+    @Override
+    public void subscribe(IntSubscriber s) {
+        source.subscribe(new MapSubscriber(s, mapper));
+    }
+
+    static final class MapSubscriber extends PrimitiveOperatorSubscriber<IntSubscriber, IntQueueSubscription>
+    implements IntSubscriber, IntQueueSubscription {
+
+        final IntUnaryOperator mapper;
+
+        public MapSubscriber(IntSubscriber actual, IntUnaryOperator mapper) {
+            super(actual);
+            this.mapper = mapper;
+        }
+
+        @Override
+        IntQueueSubscription asQueueSubscription(Subscription s) {
+            return s instanceof IntQueueSubscription ? (IntQueueSubscription)s : null;
+        }
+
+        @Override
+        public void onNext(int t) {
+            if (done) {
+                return;
+            }
+
+            int v;
+
+            try {
+                v = mapper.applyAsInt(t);
+            } catch (Throwable e) {
+                fail(e);
+                return;
+            }
+
+            actual.onNext(v);
+        }
+
+        @Override
+        public int poll(int[] target, int max) {
+            int n = qs.poll(target, max);
+            IntUnaryOperator f = mapper;
+            for (int i = 0; i < n; i++) {
+                target[i] = f.applyAsInt(target[i]);
+            }
+            return n;
+        }
+    }
+}
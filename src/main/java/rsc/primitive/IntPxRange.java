@@ -0,0 +1,93 @@
+package rsc.primitive;
+
+import rsc.subscriber.SubscriptionHelper;
+
+/**
+ * Emits a range of primitive int values.
+ */
+public final class IntPxRange extends IntPx {
+
+    final long start;
+
+    final long end;
+
+    public IntPxRange(int start, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count >= required but it was " + count);
+        }
+        long e = (long) start + count;
+        if (e - 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("start + count must be less than Integer.MAX_VALUE + 1");
+        }
+
+        this.start = start;
+        this.end = e;
+    }
+
+    @Override
+    public void subscribe(IntSubscriber s) {
+        if (start == end) {
+            SubscriptionHelper.complete(s);
+            return;
+        }
+        s.onSubscribe(new RangeSubscription(s, start, end));
+    }
+
+    static final class RangeSubscription extends PrimitiveSourceSubscription<IntSubscriber>
+    implements IntQueueSubscription {
+
+        final long end;
+
+        long index;
+
+        public RangeSubscription(IntSubscriber actual, long start, long end) {
+            super(actual);
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        long emit(long n) {
+            final long f = end;
+            final IntSubscriber a = actual;
+
+            long i = index;
+            long e = 0L;
+
+            while (e != n && i != f) {
+                if (cancelled) {
+                    break;
+                }
+
+                a.onNext((int) i);
+
+                e++;
+                i++;
+            }
+
+            index = i;
+            return e;
+        }
+
+        @Override
+        public int poll(int[] target, int max) {
+            long i = index;
+            int n = (int)Math.min(end - i, max);
+            for (int j = 0; j < n; j++) {
+                target[j] = (int)(i + j);
+            }
+            index = i + n;
+            return n;
+        }
+
+        @Override
+        public boolean isStarted() {
+            return end != index;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return end == index;
+        }
+    }
+}
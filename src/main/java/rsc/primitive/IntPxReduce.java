@@ -0,0 +1,103 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.IntBinaryOperator;
+
+import org.reactivestreams.Subscription;
+
+import rsc.publisher.Px;
+
+/**
+ * Aggregates the primitive int values of the source into a single value via a reducer
+ * function; completes without a value if the source is empty.
+ * <p>
+ * If the source supports synchronous fusion, its values are pulled in batches into a
+ * primitive buffer and reduced in a tight loop.
+ */
+public final class IntPxReduce extends IntPx {
+
+    final IntPx source;
+
+    final IntBinaryOperator reducer;
+
+    public IntPxReduce(IntPx source, IntBinaryOperator reducer) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.reducer = Objects.requireNonNull(reducer, "reducer");
+    }
+
+    @Override
+    public void subscribe(IntSubscriber s) {
+        source.subscribe(new ReduceSubscriber(s, reducer));
+    }
+
+    static final class ReduceSubscriber extends PrimitiveReduceSubscriber<IntSubscriber, IntQueueSubscription>
+    implements IntSubscriber {
+
+        final IntBinaryOperator reducer;
+
+        int value;
+
+        int[] buffer;
+
+        public ReduceSubscriber(IntSubscriber actual, IntBinaryOperator reducer) {
+            super(actual);
+            this.reducer = reducer;
+        }
+
+        @Override
+        IntQueueSubscription asQueueSubscription(Subscription s) {
+            return s instanceof IntQueueSubscription ? (IntQueueSubscription)s : null;
+        }
+
+        @Override
+        boolean reduceNext(IntQueueSubscription qs) {
+            int[] b = buffer;
+            if (b == null) {
+                b = new int[Px.bufferSize()];
+                buffer = b;
+            }
+
+            int n = qs.poll(b, b.length);
+            if (n == 0) {
+                return false;
+            }
+
+            IntBinaryOperator f = reducer;
+            int acc = value;
+            int i = 0;
+            if (!hasValue) {
+                hasValue = true;
+                acc = b[0];
+                i = 1;
+            }
+            for (; i < n; i++) {
+                acc = f.applyAsInt(acc, b[i]);
+            }
+            value = acc;
+            return true;
+        }
+
+        @Override
+        void emitValue() {
+            actual.onNext(value);
+        }
+
+        @Override
+        public void onNext(int t) {
+            if (done) {
+                return;
+            }
+
+            if (hasValue) {
+                try {
+                    value = reducer.applyAsInt(value, t);
+                } catch (Throwable e) {
+                    fail(e);
+                }
+            } else {
+                hasValue = true;
+                value = t;
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package rsc.primitive;
+
+/**
+ * The primitive int {@link PrimitiveQueueSubscription}.
+ */
+public interface IntQueueSubscription extends PrimitiveQueueSubscription {
+
+    /**
+     * Fill the target array with at most {@code max} values, starting at index 0.
+     * @param target the array to fill
+     * @param max the maximum number of values to poll
+     * @return the number of values written, 0 indicates the sequence has completed
+     */
+    int poll(int[] target, int max);
+}
@@ -0,0 +1,23 @@
+package rsc.primitive;
+
+import org.reactivestreams.Subscriber;
+
+/**
+ * A Subscriber that receives primitive int values without boxing them.
+ * <p>
+ * The boxed {@link #onNext(Integer)} is routed to the primitive {@link #onNext(int)}
+ * so that regular Publishers of Integer can still talk to it.
+ */
+public interface IntSubscriber extends Subscriber<Integer> {
+
+    /**
+     * Receive the next primitive value.
+     * @param t the value
+     */
+    void onNext(int t);
+
+    @Override
+    default void onNext(Integer t) {
+        onNext(t.intValue());
+    }
+}
@@ -0,0 +1,18 @@
+package rsc.primitive;
+
+import org.reactivestreams.Subscriber;
+
+/**
+ * Boxes the primitive long values for a regular Subscriber of Long.
+ */
+final class LongBoxingSubscriber extends PrimitiveBoxingSubscriber<Long> implements LongSubscriber {
+
+    public LongBoxingSubscriber(Subscriber<? super Long> actual) {
+        super(actual);
+    }
+
+    @Override
+    public void onNext(long t) {
+        actual.onNext(t);
+    }
+}
@@ -0,0 +1,146 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.*;
+
+import org.reactivestreams.*;
+
+import rsc.publisher.Px;
+
+/**
+ * Abstract base class for Publishers of primitive long values.
+ * <p>
+ * Operators of this family talk to each other via {@link LongSubscriber#onNext(long)} and,
+ * where the source is synchronous, via batches of {@link LongQueueSubscription#poll(long[], int)},
+ * thus a numeric pipeline such as {@code LongPx.range(1, n).map(...).filter(...).sum()} doesn't box
+ * its values. Regular Subscribers of Long are served by boxing the values at the very end.
+ * <p>
+ * Use {@link #from(Publisher)} to unbox a Publisher of Longs and {@link #boxed()} to
+ * continue with the regular {@link Px} operators.
+ */
+public abstract class LongPx implements Publisher<Long> {
+
+    /**
+     * Subscribes a primitive LongSubscriber to this LongPx.
+     * @param s the LongSubscriber, not null
+     */
+    public abstract void subscribe(LongSubscriber s);
+
+    @Override
+    public final void subscribe(Subscriber<? super Long> s) {
+        Objects.requireNonNull(s, "s");
+        if (s instanceof LongSubscriber) {
+            subscribe((LongSubscriber)s);
+        } else {
+            subscribe(new LongBoxingSubscriber(s));
+        }
+    }
+
+    /**
+     * Emits a range of long values.
+     * @param start the first value
+     * @param count the number of values to emit
+     * @return the new LongPx instance
+     */
+    public static LongPx range(long start, long count) {
+        return new LongPxRange(start, count);
+    }
+
+    /**
+     * Emits the values of the given array.
+     * @param values the values to emit, the array is not copied
+     * @return the new LongPx instance
+     */
+    public static LongPx fromArray(long... values) {
+        return new LongPxArray(Objects.requireNonNull(values, "values"));
+    }
+
+    /**
+     * Unboxes the Long values of the given Publisher.
+     * @param source the source Publisher
+     * @return the LongPx instance
+     */
+    public static LongPx from(Publisher<? extends Long> source) {
+        if (source instanceof LongPx) {
+            return (LongPx)source;
+        }
+        return new LongPxFromPublisher(source);
+    }
+
+    /**
+     * Maps each value to another long value.
+     * @param mapper the mapper function
+     * @return the new LongPx instance
+     */
+    public final LongPx map(LongUnaryOperator mapper) {
+        return new LongPxMap(this, mapper);
+    }
+
+    /**
+     * Keeps only those values for which the predicate returns true.
+     * @param predicate the predicate
+     * @return the new LongPx instance
+     */
+    public final LongPx filter(LongPredicate predicate) {
+        return new LongPxFilter(this, predicate);
+    }
+
+    /**
+     * Aggregates the values into a single value via the reducer function or completes empty
+     * if the sequence is empty.
+     * @param reducer the function receiving the accumulated value so far and the current value
+     * @return the new LongPx instance
+     */
+    public final LongPx reduce(LongBinaryOperator reducer) {
+        return new LongPxReduce(this, reducer);
+    }
+
+    /**
+     * Sums up the values or completes empty if the sequence is empty.
+     * @return the new LongPx instance
+     */
+    public final LongPx sum() {
+        return reduce((a, b) -> a + b);
+    }
+
+    /**
+     * Converts this LongPx into a regular Px of boxed Longs.
+     * @return the Px instance
+     */
+    public final Px<Long> boxed() {
+        return Px.wrap(this);
+    }
+
+    /**
+     * Subscribes with the given primitive callbacks and requests an unbounded amount.
+     * @param onNext the callback for the values
+     * @param onError the callback for the error
+     * @param onComplete the callback for the completion
+     */
+    public final void subscribe(LongConsumer onNext, Consumer<Throwable> onError, Runnable onComplete) {
+        Objects.requireNonNull(onNext, "onNext");
+        Objects.requireNonNull(onError, "onError");
+        Objects.requireNonNull(onComplete, "onComplete");
+        subscribe(new LongSubscriber() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(long t) {
+                onNext.accept(t);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                onError.accept(t);
+            }
+
+            @Override
+            public void onComplete() {
+                onComplete.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package rsc.primitive;
+
+import rsc.subscriber.SubscriptionHelper;
+
+/**
+ * Emits the primitive long values of an array.
+ */
+public final class LongPxArray extends LongPx {
+
+    final long[] array;
+
+    public LongPxArray(long[] array) {
+        this.array = array;
+    }
+
+    @Override
+    public void subscribe(LongSubscriber s) {
+        if (array.length == 0) {
+            SubscriptionHelper.complete(s);
+            return;
+        }
+        s.onSubscribe(new ArraySubscription(s, array));
+    }
+
+    static final class ArraySubscription extends PrimitiveSourceSubscription<LongSubscriber>
+    implements LongQueueSubscription {
+
+        final long[] array;
+
+        int index;
+
+        public ArraySubscription(LongSubscriber actual, long[] array) {
+            super(actual);
+            this.array = array;
+        }
+
+        @Override
+        long emit(long n) {
+            final long[] a = array;
+            final int len = a.length;
+            final LongSubscriber s = actual;
+
+            int i = index;
+            long e = 0L;
+
+            while (e != n && i != len) {
+                if (cancelled) {
+                    break;
+                }
+
+                s.onNext(a[i]);
+
+                e++;
+                i++;
+            }
+
+            index = i;
+            return e;
+        }
+
+        @Override
+        public int poll(long[] target, int max) {
+            int i = index;
+            int n = Math.min(array.length - i, max);
+            System.arraycopy(array, i, target, 0, n);
+            index = i + n;
+            return n;
+        }
+
+        @Override
+        public boolean isStarted() {
+            return index != 0;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return index == array.length;
+        }
+    }
+}
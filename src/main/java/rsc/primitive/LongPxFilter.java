@@ -0,0 +1,86 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.LongPredicate;
+
+import org.reactivestreams.Subscription;
+
+/**
+ * Filters the primitive long values of the source via a predicate.
+ */
+public final class LongPxFilter extends LongPx {
+
+    final LongPx source;
+
+    final LongPredicate predicate;
+
+    public LongPxFilter(LongPx source, LongPredicate predicate) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.predicate = Objects.requireNonNull(predicate, "predicate");
+    }
+
+    @Override
+    public void subscribe(LongSubscriber s) {
+        source.subscribe(new FilterSubscriber(s, predicate));
+    }
+
+    static final class FilterSubscriber extends PrimitiveOperatorSubscriber<LongSubscriber, LongQueueSubscription>
+    implements LongSubscriber, LongQueueSubscription {
+
+        final LongPredicate predicate;
+
+        public FilterSubscriber(LongSubscriber actual, LongPredicate predicate) {
+            super(actual);
+            this.predicate = predicate;
+        }
+
+        @Override
+        LongQueueSubscription asQueueSubscription(Subscription s) {
+            return s instanceof LongQueueSubscription ? (LongQueueSubscription)s : null;
+        }
+
+        @Override
+        public void onNext(long t) {
+            if (done) {
+                return;
+            }
+
+            boolean b;
+
+            try {
+                b = predicate.test(t);
+            } catch (Throwable e) {
+                fail(e);
+                return;
+            }
+
+            if (b) {
+                actual.onNext(t);
+            } else {
+                s.request(1);
+            }
+        }
+
+        @Override
+        public int poll(long[] target, int max) {
+            LongQueueSubscription a = qs;
+            LongPredicate p = predicate;
+            for (;;) {
+                int n = a.poll(target, max);
+                if (n == 0) {
+                    return 0;
+                }
+                int j = 0;
+                for (int i = 0; i < n; i++) {
+                    long v = target[i];
+                    if (p.test(v)) {
+                        target[j++] = v;
+                    }
+                }
+                if (j != 0) {
+                    return j;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package rsc.primitive;
+
+import java.util.Objects;
+
+import org.reactivestreams.Publisher;
+
+import rsc.flow.Fuseable.QueueSubscription;
+
+/**
+ * Unboxes the Long values of a regular Publisher into primitive long values.
+ * <p>
+ * A synchronously fuseable source is polled directly so downstream primitive operators
+ * can keep running in fused mode.
+ */
+public final class LongPxFromPublisher extends LongPx {
+
+    final Publisher<? extends Long> source;
+
+    public LongPxFromPublisher(Publisher<? extends Long> source) {
+        this.source = Objects.requireNonNull(source, "source");
+    }
+
+    @Override
+    public void subscribe(LongSubscriber s) {
+        source.subscribe(new UnboxingSubscriber(s));
+    }
+
+    static final class UnboxingSubscriber extends PrimitiveUnboxingSubscriber<Long, LongSubscriber>
+    implements LongQueueSubscription {
+
+        public UnboxingSubscriber(LongSubscriber actual) {
+            super(actual);
+        }
+
+        @Override
+        public void onNext(Long t) {
+            actual.onNext(t.longValue());
+        }
+
+        @Override
+        public int poll(long[] target, int max) {
+            QueueSubscription<? extends Long> a = qs;
+            int n = 0;
+            while (n != max) {
+                Long v = a.poll();
+                if (v == null) {
+                    break;
+                }
+                target[n++] = v;
+            }
+            return n;
+        }
+    }
+}
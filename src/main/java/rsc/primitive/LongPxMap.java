@@ -0,0 +1,70 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.LongUnaryOperator;
+
+import org.reactivestreams.Subscription;
+
+/**
+ * Maps the primitive long values of the source via a mapper function.
+ */
+public final class LongPxMap extends LongPx {
+
+    final LongPx source;
+
+    final LongUnaryOperator mapper;
+
+    public LongPxMap(LongPx source, LongUnaryOperator mapper) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.mapper = Objects.requireNonNull(mapper, "mapper");
+    }
+
+    @Override
+    public void subscribe(LongSubscriber s) {
+        source.subscribe(new MapSubscriber(s, mapper));
+    }
+
+    static final class MapSubscriber extends PrimitiveOperatorSubscriber<LongSubscriber, LongQueueSubscription>
+    implements LongSubscriber, LongQueueSubscription {
+
+        final LongUnaryOperator mapper;
+
+        public MapSubscriber(LongSubscriber actual, LongUnaryOperator mapper) {
+            super(actual);
+            this.mapper = mapper;
+        }
+
+        @Override
+        LongQueueSubscription asQueueSubscription(Subscription s) {
+            return s instanceof LongQueueSubscription ? (LongQueueSubscription)s : null;
+        }
+
+        @Override
+        public void onNext(long t) {
+            if (done) {
+                return;
+            }
+
+            long v;
+
+            try {
+                v = mapper.applyAsLong(t);
+            } catch (Throwable e) {
+                fail(e);
+                return;
+            }
+
+            actual.onNext(v);
+        }
+
+        @Override
+        public int poll(long[] target, int max) {
+            int n = qs.poll(target, max);
+            LongUnaryOperator f = mapper;
+            for (int i = 0; i < n; i++) {
+                target[i] = f.applyAsLong(target[i]);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package rsc.primitive;
+
+import rsc.subscriber.SubscriptionHelper;
+
+/**
+ * Emits a range of primitive long values.
+ */
+public final class LongPxRange extends LongPx {
+
+    final long start;
+
+    final long end;
+
+    public LongPxRange(long start, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count >= required but it was " + count);
+        }
+        if (count != 0 && start > Long.MAX_VALUE - (count - 1)) {
+            throw new IllegalArgumentException("start + count must be less than Long.MAX_VALUE + 1");
+        }
+
+        this.start = start;
+        // may overflow to Long.MIN_VALUE if the last value is Long.MAX_VALUE, the index wraps around the same way
+        this.end = start + count;
+    }
+
+    @Override
+    public void subscribe(LongSubscriber s) {
+        if (start == end) {
+            SubscriptionHelper.complete(s);
+            return;
+        }
+        s.onSubscribe(new RangeSubscription(s, start, end));
+    }
+
+    static final class RangeSubscription extends PrimitiveSourceSubscription<LongSubscriber>
+    implements LongQueueSubscription {
+
+        final long end;
+
+        long index;
+
+        public RangeSubscription(LongSubscriber actual, long start, long end) {
+            super(actual);
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        long emit(long n) {
+            final long f = end;
+            final LongSubscriber a = actual;
+
+            long i = index;
+            long e = 0L;
+
+            while (e != n && i != f) {
+                if (cancelled) {
+                    break;
+                }
+
+                a.onNext(i);
+
+                e++;
+                i++;
+            }
+
+            index = i;
+            return e;
+        }
+
+        @Override
+        public int poll(long[] target, int max) {
+            long i = index;
+            int n = (int)Math.min(end - i, max);
+            for (int j = 0; j < n; j++) {
+                target[j] = i + j;
+            }
+            index = i + n;
+            return n;
+        }
+
+        @Override
+        public boolean isStarted() {
+            return end != index;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return end == index;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package rsc.primitive;
+
+import java.util.Objects;
+import java.util.function.LongBinaryOperator;
+
+import org.reactivestreams.Subscription;
+
+import rsc.publisher.Px;
+
+/**
+ * Aggregates the primitive long values of the source into a single value via a reducer
+ * function; completes without a value if the source is empty.
+ * <p>
+ * If the source supports synchronous fusion, its values are pulled in batches into a
+ * primitive buffer and reduced in a tight loop.
+ */
+public final class LongPxReduce extends LongPx {
+
+    final LongPx source;
+
+    final LongBinaryOperator reducer;
+
+    public LongPxReduce(LongPx source, LongBinaryOperator reducer) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.reducer = Objects.requireNonNull(reducer, "reducer");
+    }
+
+    @Override
+    public void subscribe(LongSubscriber s) {
+        source.subscribe(new ReduceSubscriber(s, reducer));
+    }
+
+    static final class ReduceSubscriber extends PrimitiveReduceSubscriber<LongSubscriber, LongQueueSubscription>
+    implements LongSubscriber {
+
+        final LongBinaryOperator reducer;
+
+        long value;
+
+        long[] buffer;
+
+        public ReduceSubscriber(LongSubscriber actual, LongBinaryOperator reducer) {
+            super(actual);
+            this.reducer = reducer;
+        }
+
+        @Override
+        LongQueueSubscription asQueueSubscription(Subscription s) {
+            return s instanceof LongQueueSubscription ? (LongQueueSubscription)s : null;
+        }
+
+        @Override
+        boolean reduceNext(LongQueueSubscription qs) {
+            long[] b = buffer;
+            if (b == null) {
+                b = new long[Px.bufferSize()];
+                buffer = b;
+            }
+
+            int n = qs.poll(b, b.length);
+            if (n == 0) {
+                return false;
+            }
+
+            LongBinaryOperator f = reducer;
+            long acc = value;
+            int i = 0;
+            if (!hasValue) {
+                hasValue = true;
+                acc = b[0];
+                i = 1;
+            }
+            for (; i < n; i++) {
+                acc = f.applyAsLong(acc, b[i]);
+            }
+            value = acc;
+            return true;
+        }
+
+        @Override
+        void emitValue() {
+            actual.onNext(value);
+        }
+
+        @Override
+        public void onNext(long t) {
+            if (done) {
+                return;
+            }
+
+            if (hasValue) {
+                try {
+                    value = reducer.applyAsLong(value, t);
+                } catch (Throwable e) {
+                    fail(e);
+                }
+            } else {
+                hasValue = true;
+                value = t;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package rsc.primitive;
+
+import org.reactivestreams.Subscriber;
+
+/**
+ * A Subscriber that receives primitive long values without boxing them.
+ * <p>
+ * The boxed {@link #onNext(Long)} is routed to the primitive {@link #onNext(long)}
+ * so that regular Publishers of Long can still talk to it.
+ */
+public interface LongSubscriber extends Subscriber<Long> {
+
+    /**
+     * Receive the next primitive value.
+     * @param t the value
+     */
+    void onNext(long t);
+
+    @Override
+    default void onNext(Long t) {
+        onNext(t.longValue());
+    }
+}
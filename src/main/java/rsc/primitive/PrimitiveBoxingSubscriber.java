@@ -0,0 +1,60 @@
+package rsc.primitive;
+
+import org.reactivestreams.*;
+
+import rsc.flow.*;
+import rsc.subscriber.SubscriptionHelper;
+
+/**
+ * Base class of the primitive Subscribers boxing the values for a regular Subscriber:
+ * relays the subscription and the terminal signals while the typed subclasses box the
+ * values in {@code onNext}.
+ *
+ * @param <T> the boxed value type
+ */
+abstract class PrimitiveBoxingSubscriber<T> implements Subscription, Receiver, Producer {
+
+    final Subscriber<? super T> actual;
+
+    Subscription s;
+
+    PrimitiveBoxingSubscriber(Subscriber<? super T> actual) {
+        this.actual = actual;
+    }
+
+    public final void onSubscribe(Subscription s) {
+        if (SubscriptionHelper.validate(this.s, s)) {
+            this.s = s;
+
+            actual.onSubscribe(this);
+        }
+    }
+
+    public final void onError(Throwable t) {
+        actual.onError(t);
+    }
+
+    public final void onComplete() {
+        actual.onComplete();
+    }
+
+    @Override
+    public final void request(long n) {
+        s.request(n);
+    }
+
+    @Override
+    public final void cancel() {
+        s.cancel();
+    }
+
+    @Override
+    public final Object upstream() {
+        return s;
+    }
+
+    @Override
+    public final Object downstream() {
+        return actual;
+    }
+}
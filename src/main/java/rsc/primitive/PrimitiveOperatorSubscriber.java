@@ -0,0 +1,104 @@
+package rsc.primitive;
+
+import org.reactivestreams.*;
+
+import rsc.flow.*;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.*;
+
+/**
+ * Base class of the one-to-one primitive operators: relays the subscription, the terminal
+ * signals and the fusion negotiation while the typed subclasses handle {@code onNext}
+ * and the fused {@code poll}.
+ *
+ * @param <S> the downstream primitive Subscriber type
+ * @param <Q> the upstream primitive QueueSubscription type
+ */
+abstract class PrimitiveOperatorSubscriber<S extends Subscriber<?>, Q extends PrimitiveQueueSubscription>
+implements PrimitiveQueueSubscription, Receiver, Producer {
+
+    final S actual;
+
+    Subscription s;
+
+    Q qs;
+
+    boolean done;
+
+    PrimitiveOperatorSubscriber(S actual) {
+        this.actual = actual;
+    }
+
+    /**
+     * @param s the upstream Subscription
+     * @return the upstream as the typed QueueSubscription or null if it isn't one
+     */
+    abstract Q asQueueSubscription(Subscription s);
+
+    public final void onSubscribe(Subscription s) {
+        if (SubscriptionHelper.validate(this.s, s)) {
+            this.s = s;
+            this.qs = asQueueSubscription(s);
+
+            actual.onSubscribe(this);
+        }
+    }
+
+    /**
+     * Cancels the upstream and signals the error thrown by a callback.
+     * @param e the error thrown
+     */
+    final void fail(Throwable e) {
+        ExceptionHelper.throwIfFatal(e);
+        s.cancel();
+        onError(ExceptionHelper.unwrap(e));
+    }
+
+    public final void onError(Throwable t) {
+        if (done) {
+            UnsignalledExceptions.onErrorDropped(t);
+            return;
+        }
+        done = true;
+
+        actual.onError(t);
+    }
+
+    public final void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+
+        actual.onComplete();
+    }
+
+    @Override
+    public final void request(long n) {
+        s.request(n);
+    }
+
+    @Override
+    public final void cancel() {
+        s.cancel();
+    }
+
+    @Override
+    public final int requestFusion(int requestedMode) {
+        Q a = qs;
+        if (a != null && (requestedMode & Fuseable.THREAD_BARRIER) == 0) {
+            return a.requestFusion(requestedMode);
+        }
+        return Fuseable.NONE;
+    }
+
+    @Override
+    public final Object upstream() {
+        return s;
+    }
+
+    @Override
+    public final Object downstream() {
+        return actual;
+    }
+}
@@ -0,0 +1,24 @@
+package rsc.primitive;
+
+import org.reactivestreams.Subscription;
+
+import rsc.flow.Fuseable;
+
+/**
+ * The fusion contract shared by {@link IntQueueSubscription}, {@link LongQueueSubscription}
+ * and {@link DoubleQueueSubscription}, the primitive counterparts of
+ * {@link Fuseable.QueueSubscription}, supporting synchronous fusion only.
+ * <p>
+ * Once {@link Fuseable#SYNC} mode has been established, the consumer no longer calls
+ * {@code request} but pulls batches of values via the typed {@code poll} until it returns 0,
+ * which indicates the sequence has completed. Errors are thrown from {@code poll} itself.
+ */
+public interface PrimitiveQueueSubscription extends Subscription {
+
+    /**
+     * Request a specific fusion mode from this QueueSubscription.
+     * @param requestedMode the requested mode, only {@link Fuseable#SYNC} is considered
+     * @return the established mode, {@link Fuseable#SYNC} or {@link Fuseable#NONE}
+     */
+    int requestFusion(int requestedMode);
+}
@@ -0,0 +1,203 @@
+package rsc.primitive;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.reactivestreams.*;
+
+import rsc.flow.*;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.*;
+
+/**
+ * Base class of the primitive reducers: runs the fused or the regular consumption of the
+ * source and holds back the single result until requested while the typed subclasses
+ * accumulate the values and emit the result.
+ *
+ * @param <S> the downstream primitive Subscriber type
+ * @param <Q> the upstream primitive QueueSubscription type
+ */
+abstract class PrimitiveReduceSubscriber<S extends Subscriber<?>, Q extends PrimitiveQueueSubscription>
+implements Subscription, Receiver, Producer, Trackable {
+
+    static final int NO_REQUEST_NO_VALUE   = 0;
+    static final int NO_REQUEST_HAS_VALUE  = 1;
+    static final int HAS_REQUEST_NO_VALUE  = 2;
+    static final int HAS_REQUEST_HAS_VALUE = 3;
+
+    final S actual;
+
+    Subscription s;
+
+    boolean hasValue;
+
+    boolean done;
+
+    volatile int state;
+    @SuppressWarnings("rawtypes")
+    static final AtomicIntegerFieldUpdater<PrimitiveReduceSubscriber> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(PrimitiveReduceSubscriber.class, "state");
+
+    PrimitiveReduceSubscriber(S actual) {
+        this.actual = actual;
+    }
+
+    /**
+     * @param s the upstream Subscription
+     * @return the upstream as the typed QueueSubscription or null if it isn't one
+     */
+    abstract Q asQueueSubscription(Subscription s);
+
+    /**
+     * Polls the next batch of values from the fused source and reduces them into the value.
+     * @param qs the fused source
+     * @return false if the source has completed
+     */
+    abstract boolean reduceNext(Q qs);
+
+    /**
+     * Emits the reduced value to the actual Subscriber.
+     */
+    abstract void emitValue();
+
+    public final void onSubscribe(Subscription s) {
+        if (SubscriptionHelper.validate(this.s, s)) {
+            this.s = s;
+
+            actual.onSubscribe(this);
+
+            Q qs = asQueueSubscription(s);
+            if (qs != null && qs.requestFusion(Fuseable.SYNC) == Fuseable.SYNC) {
+                drainFused(qs);
+                return;
+            }
+
+            s.request(Long.MAX_VALUE);
+        }
+    }
+
+    final void drainFused(Q qs) {
+        for (;;) {
+            if (isCancelled()) {
+                return;
+            }
+
+            try {
+                if (!reduceNext(qs)) {
+                    break;
+                }
+            } catch (Throwable e) {
+                ExceptionHelper.throwIfFatal(e);
+                qs.cancel();
+                actual.onError(ExceptionHelper.unwrap(e));
+                return;
+            }
+        }
+
+        onComplete();
+    }
+
+    /**
+     * Cancels the upstream and signals the error thrown by the reducer.
+     * @param e the error thrown
+     */
+    final void fail(Throwable e) {
+        ExceptionHelper.throwIfFatal(e);
+        s.cancel();
+        onError(ExceptionHelper.unwrap(e));
+    }
+
+    public final void onError(Throwable t) {
+        if (done) {
+            UnsignalledExceptions.onErrorDropped(t);
+            return;
+        }
+        done = true;
+
+        actual.onError(t);
+    }
+
+    public final void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+
+        if (hasValue) {
+            complete();
+        } else {
+            actual.onComplete();
+        }
+    }
+
+    final void complete() {
+        for (;;) {
+            int s = state;
+            if (s == NO_REQUEST_HAS_VALUE || s == HAS_REQUEST_HAS_VALUE) {
+                return;
+            }
+            if (s == HAS_REQUEST_NO_VALUE) {
+                emitValue();
+                if (state != HAS_REQUEST_HAS_VALUE) {
+                    actual.onComplete();
+                }
+                return;
+            }
+            if (STATE.compareAndSet(this, NO_REQUEST_NO_VALUE, NO_REQUEST_HAS_VALUE)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public final void request(long n) {
+        if (SubscriptionHelper.validate(n)) {
+            for (;;) {
+                int s = state;
+                if (s == HAS_REQUEST_NO_VALUE || s == HAS_REQUEST_HAS_VALUE) {
+                    return;
+                }
+                if (s == NO_REQUEST_HAS_VALUE) {
+                    if (STATE.compareAndSet(this, NO_REQUEST_HAS_VALUE, HAS_REQUEST_HAS_VALUE)) {
+                        emitValue();
+                        actual.onComplete();
+                    }
+                    return;
+                }
+                if (STATE.compareAndSet(this, NO_REQUEST_NO_VALUE, HAS_REQUEST_NO_VALUE)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public final void cancel() {
+        state = HAS_REQUEST_HAS_VALUE;
+        s.cancel();
+    }
+
+    @Override
+    public final boolean isCancelled() {
+        return state == HAS_REQUEST_HAS_VALUE;
+    }
+
+    @Override
+    public final boolean isStarted() {
+        return s != null && !done;
+    }
+
+    @Override
+    public final boolean isTerminated() {
+        return done;
+    }
+
+    @Override
+    public final Object upstream() {
+        return s;
+    }
+
+    @Override
+    public final Object downstream() {
+        return actual;
+    }
+}
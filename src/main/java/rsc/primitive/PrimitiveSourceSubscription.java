@@ -0,0 +1,107 @@
+package rsc.primitive;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.reactivestreams.Subscriber;
+
+import rsc.flow.*;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.BackpressureHelper;
+
+/**
+ * Base class of the subscriptions of the synchronous primitive sources: handles the
+ * request accounting and the emission loop while the typed subclasses emit the values
+ * in runs via {@link #emit(long)} and serve the fused {@code poll}.
+ *
+ * @param <S> the primitive Subscriber type
+ */
+abstract class PrimitiveSourceSubscription<S extends Subscriber<?>>
+implements PrimitiveQueueSubscription, Producer, Trackable {
+
+    final S actual;
+
+    volatile boolean cancelled;
+
+    volatile long requested;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<PrimitiveSourceSubscription> REQUESTED =
+      AtomicLongFieldUpdater.newUpdater(PrimitiveSourceSubscription.class, "requested");
+
+    PrimitiveSourceSubscription(S actual) {
+        this.actual = actual;
+    }
+
+    /**
+     * Emits at most n values, fewer if the source runs out of values or this gets cancelled,
+     * and saves the position reached before returning.
+     * @param n the maximum number of values to emit, Long.MAX_VALUE for all of them
+     * @return the number of values emitted
+     */
+    abstract long emit(long n);
+
+    /**
+     * @return true if all values have been emitted or polled
+     */
+    @Override
+    public abstract boolean isTerminated();
+
+    @Override
+    public final void request(long n) {
+        if (SubscriptionHelper.validate(n)) {
+            if (BackpressureHelper.getAndAddCap(REQUESTED, this, n) == 0) {
+                drain(n);
+            }
+        }
+    }
+
+    final void drain(long n) {
+        long e = 0L;
+
+        for (;;) {
+            e += emit(n - e);
+
+            if (cancelled) {
+                return;
+            }
+
+            if (isTerminated()) {
+                actual.onComplete();
+                return;
+            }
+
+            n = requested;
+            if (n == e) {
+                n = REQUESTED.addAndGet(this, -e);
+                if (n == 0) {
+                    return;
+                }
+                e = 0L;
+            }
+        }
+    }
+
+    @Override
+    public final void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public final int requestFusion(int requestedMode) {
+        return requestedMode & Fuseable.SYNC;
+    }
+
+    @Override
+    public final boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public final Object downstream() {
+        return actual;
+    }
+
+    @Override
+    public final long requestedFromDownstream() {
+        return requested;
+    }
+}
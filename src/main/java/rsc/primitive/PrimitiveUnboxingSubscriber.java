@@ -0,0 +1,81 @@
+package rsc.primitive;
+
+import org.reactivestreams.*;
+
+import rsc.flow.*;
+import rsc.flow.Fuseable.QueueSubscription;
+import rsc.subscriber.SubscriptionHelper;
+
+/**
+ * Base class of the Subscribers unboxing a regular Publisher for a primitive Subscriber:
+ * relays the subscription, the terminal signals and the synchronous fusion with the source
+ * while the typed subclasses unbox the values in {@code onNext} and the fused {@code poll}.
+ *
+ * @param <T> the boxed value type
+ * @param <S> the downstream primitive Subscriber type
+ */
+abstract class PrimitiveUnboxingSubscriber<T, S extends Subscriber<?>>
+implements Subscriber<T>, PrimitiveQueueSubscription, Receiver, Producer {
+
+    final S actual;
+
+    Subscription s;
+
+    QueueSubscription<? extends T> qs;
+
+    PrimitiveUnboxingSubscriber(S actual) {
+        this.actual = actual;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final void onSubscribe(Subscription s) {
+        if (SubscriptionHelper.validate(this.s, s)) {
+            this.s = s;
+            if (s instanceof QueueSubscription) {
+                this.qs = (QueueSubscription<? extends T>)s;
+            }
+
+            actual.onSubscribe(this);
+        }
+    }
+
+    @Override
+    public final void onError(Throwable t) {
+        actual.onError(t);
+    }
+
+    @Override
+    public final void onComplete() {
+        actual.onComplete();
+    }
+
+    @Override
+    public final void request(long n) {
+        s.request(n);
+    }
+
+    @Override
+    public final void cancel() {
+        s.cancel();
+    }
+
+    @Override
+    public final int requestFusion(int requestedMode) {
+        QueueSubscription<? extends T> a = qs;
+        if (a != null && (requestedMode & Fuseable.SYNC) != 0) {
+            return a.requestFusion(Fuseable.SYNC | (requestedMode & Fuseable.THREAD_BARRIER));
+        }
+        return Fuseable.NONE;
+    }
+
+    @Override
+    public final Object upstream() {
+        return s;
+    }
+
+    @Override
+    public final Object downstream() {
+        return actual;
+    }
+}
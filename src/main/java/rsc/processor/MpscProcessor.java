@@ -0,0 +1,437 @@
+package rsc.processor;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import org.reactivestreams.Processor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import rsc.documentation.BackpressureMode;
+import rsc.documentation.BackpressureSupport;
+import rsc.documentation.FusionMode;
+import rsc.documentation.FusionSupport;
+import rsc.flow.Cancellation;
+import rsc.flow.Fuseable;
+import rsc.flow.Producer;
+import rsc.flow.Receiver;
+import rsc.flow.Trackable;
+import rsc.publisher.Px;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.BackpressureHelper;
+import rsc.util.MpscArrayQueue;
+import rsc.util.MpscLinkedArrayQueue;
+import rsc.util.UnsignalledExceptions;
+
+/**
+ * A Processor implementation that allows only a single subscriber but whose
+ * onNext, onError and onComplete methods may be called concurrently from any
+ * number of threads, for example, by several Publishers subscribed to it.
+ * <p>
+ * The producers offer into a multi-producer single-consumer queue and the single
+ * drain loop, entered by whichever thread wins the work-in-progress counter,
+ * emits to the Subscriber; the first terminal signal wins and the rest are dropped.
+ * Since the producers are not serialized, the order of values coming from
+ * different threads is the order in which they claimed their slot in the queue.
+ * <p>
+ * The processor supports ASYNC fusion, in which case the Subscriber polls the queue directly.
+ *
+ * @param <T> the input and output type
+ */
+@BackpressureSupport(input = BackpressureMode.UNBOUNDED, output = BackpressureMode.BOUNDED)
+@FusionSupport(input = { FusionMode.NONE }, output = { FusionMode.ASYNC })
+public final class MpscProcessor<T>
+extends Px<T>
+implements Processor<T, T>, Fuseable.QueueSubscription<T>, Fuseable, Producer, Receiver,
+           Trackable {
+
+    final Queue<T> queue;
+
+    volatile Cancellation onTerminate;
+    @SuppressWarnings("rawtypes")
+    static final AtomicReferenceFieldUpdater<MpscProcessor, Cancellation> ON_TERMINATE =
+            AtomicReferenceFieldUpdater.newUpdater(MpscProcessor.class, Cancellation.class, "onTerminate");
+
+    volatile int terminated;
+    @SuppressWarnings("rawtypes")
+    static final AtomicIntegerFieldUpdater<MpscProcessor> TERMINATED =
+            AtomicIntegerFieldUpdater.newUpdater(MpscProcessor.class, "terminated");
+
+    volatile boolean done;
+    Throwable error;
+
+    volatile Subscriber<? super T> actual;
+
+    volatile boolean cancelled;
+
+    volatile int once;
+    @SuppressWarnings("rawtypes")
+    static final AtomicIntegerFieldUpdater<MpscProcessor> ONCE =
+            AtomicIntegerFieldUpdater.newUpdater(MpscProcessor.class, "once");
+
+    volatile int wip;
+    @SuppressWarnings("rawtypes")
+    static final AtomicIntegerFieldUpdater<MpscProcessor> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(MpscProcessor.class, "wip");
+
+    volatile long requested;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<MpscProcessor> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(MpscProcessor.class, "requested");
+
+    volatile boolean enableOperatorFusion;
+
+    /**
+     * Constructs an MpscProcessor with an unbounded queue.
+     */
+    public MpscProcessor() {
+        this.queue = new MpscLinkedArrayQueue<>(Px.bufferSize());
+        this.onTerminate = null;
+    }
+
+    /**
+     * Constructs an MpscProcessor with a bounded queue; overflowing it
+     * terminates the processor with an IllegalStateException.
+     * @param capacity the queue capacity, rounded up to the next power of 2
+     */
+    public MpscProcessor(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+        }
+        this.queue = new MpscArrayQueue<>(capacity);
+        this.onTerminate = null;
+    }
+
+    /**
+     * Constructs an MpscProcessor with the given queue, which must support
+     * concurrent offers and a single consumer and whose isEmpty() must account
+     * for the elements being offered.
+     * @param queue the multi-producer single-consumer queue
+     * @param onTerminate called once the processor terminates or gets cancelled
+     */
+    public MpscProcessor(Queue<T> queue, Cancellation onTerminate) {
+        this.queue = Objects.requireNonNull(queue, "queue");
+        this.onTerminate = Objects.requireNonNull(onTerminate, "onTerminate");
+    }
+
+    void doTerminate() {
+        Cancellation r = onTerminate;
+        if (r != null && ON_TERMINATE.compareAndSet(this, r, null)) {
+            r.dispose();
+        }
+    }
+
+    /**
+     * Polls the queue and, unlike the relaxed poll of the queue itself, keeps trying
+     * while a producer has claimed the next slot but hasn't stored its value yet so
+     * that a null means the queue is truly empty.
+     */
+    static <T> T pollStrict(Queue<T> q) {
+        for (;;) {
+            T t = q.poll();
+            if (t != null || q.isEmpty()) {
+                return t;
+            }
+        }
+    }
+
+    void drainRegular(Subscriber<? super T> a) {
+        int missed = 1;
+
+        final Queue<T> q = queue;
+
+        for (;;) {
+
+            long r = requested;
+            long e = 0L;
+
+            while (r != e) {
+                boolean d = done;
+
+                T t = pollStrict(q);
+                boolean empty = t == null;
+
+                if (checkTerminated(d, empty, a, q)) {
+                    return;
+                }
+
+                if (empty) {
+                    break;
+                }
+
+                a.onNext(t);
+
+                e++;
+            }
+
+            if (r == e) {
+                if (checkTerminated(done, q.isEmpty(), a, q)) {
+                    return;
+                }
+            }
+
+            if (e != 0 && r != Long.MAX_VALUE) {
+                REQUESTED.addAndGet(this, -e);
+            }
+
+            missed = WIP.addAndGet(this, -missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    void drainFused(Subscriber<? super T> a) {
+        int missed = 1;
+
+        final Queue<T> q = queue;
+
+        for (;;) {
+
+            if (cancelled) {
+                q.clear();
+                actual = null;
+                return;
+            }
+
+            boolean d = done;
+
+            a.onNext(null);
+
+            if (d) {
+                actual = null;
+
+                Throwable ex = error;
+                if (ex != null) {
+                    a.onError(ex);
+                } else {
+                    a.onComplete();
+                }
+                return;
+            }
+
+            missed = WIP.addAndGet(this, -missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    void drain() {
+        if (WIP.getAndIncrement(this) != 0) {
+            return;
+        }
+
+        int missed = 1;
+
+        for (;;) {
+            Subscriber<? super T> a = actual;
+            if (a != null) {
+
+                if (enableOperatorFusion) {
+                    drainFused(a);
+                } else {
+                    drainRegular(a);
+                }
+                return;
+            }
+
+            missed = WIP.addAndGet(this, -missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    boolean checkTerminated(boolean d, boolean empty, Subscriber<? super T> a, Queue<T> q) {
+        if (cancelled) {
+            q.clear();
+            actual = null;
+            return true;
+        }
+        if (d && empty) {
+            Throwable e = error;
+            actual = null;
+            if (e != null) {
+                a.onError(e);
+            } else {
+                a.onComplete();
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        if (done || cancelled) {
+            s.cancel();
+        } else {
+            s.request(Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public long getPrefetch() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void onNext(T t) {
+        if (done || cancelled) {
+            UnsignalledExceptions.onNextDropped(t);
+            return;
+        }
+
+        if (!queue.offer(t)) {
+            onError(new IllegalStateException("The queue is full"));
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (done || cancelled || !TERMINATED.compareAndSet(this, 0, 1)) {
+            UnsignalledExceptions.onErrorDropped(t);
+            return;
+        }
+
+        error = t;
+        done = true;
+
+        doTerminate();
+
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        if (done || cancelled || !TERMINATED.compareAndSet(this, 0, 1)) {
+            return;
+        }
+
+        done = true;
+
+        doTerminate();
+
+        drain();
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> s) {
+        if (once == 0 && ONCE.compareAndSet(this, 0, 1)) {
+
+            s.onSubscribe(this);
+            actual = s;
+            if (cancelled) {
+                actual = null;
+            } else {
+                drain();
+            }
+        } else {
+            SubscriptionHelper.error(s, new IllegalStateException("This processor allows only a single Subscriber"));
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        if (SubscriptionHelper.validate(n)) {
+            BackpressureHelper.getAndAddCap(REQUESTED, this, n);
+            drain();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+
+        doTerminate();
+
+        if (!enableOperatorFusion) {
+            if (WIP.getAndIncrement(this) == 0) {
+                queue.clear();
+            }
+        }
+    }
+
+    @Override
+    public T poll() {
+        return pollStrict(queue);
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        queue.clear();
+    }
+
+    @Override
+    public int requestFusion(int requestedMode) {
+        if ((requestedMode & Fuseable.ASYNC) != 0) {
+            enableOperatorFusion = true;
+            return Fuseable.ASYNC;
+        }
+        return Fuseable.NONE;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return once == 1 && !done && !cancelled;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return done;
+    }
+
+    @Override
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public Object downstream() {
+        return actual;
+    }
+
+    @Override
+    public Object upstream() {
+        return onTerminate;
+    }
+
+    @Override
+    public long getCapacity() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public long getPending() {
+        return queue.size();
+    }
+
+    @Override
+    public long requestedFromDownstream() {
+        return requested;
+    }
+}
@@ -2,6 +2,8 @@ package rsc.processor;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReference;
@@ -20,12 +22,13 @@ import rsc.flow.Producer;
 import rsc.flow.Receiver;
 import rsc.publisher.Px;
 import rsc.flow.Trackable;
+import rsc.scheduler.TimedScheduler;
 import rsc.subscriber.SubscriptionHelper;
 import rsc.util.BackpressureHelper;
 import rsc.util.UnsignalledExceptions;
 
 /**
- * Replays all or the last N items to Subscribers.
+ * Replays all, the last N or the not-too-old items to Subscribers.
  * 
  * @param <T> the value type
  */
@@ -64,6 +67,34 @@ extends Px<T> implements Processor<T, T>, Fuseable, MultiProducer, Receiver, Tra
         SUBSCRIBERS.lazySet(this, EMPTY);
     }
     
+    /**
+     * Constructs a ReplayProcessor that retains at most the last {@code maxSize} items
+     * not older than {@code maxAge}; late Subscribers don't receive items that have
+     * become older than that by the time they subscribe.
+     * <p>
+     * The items are stored in chunks of arrays and the chunks holding only items 
+     * evicted due to age or size are dropped as a whole.
+     * 
+     * @param maxSize the maximum number of retained items, Integer.MAX_VALUE for no size limit
+     * @param maxAge the maximum age of the retained items, Long.MAX_VALUE for no age limit
+     * @param unit the time unit of maxAge
+     * @param scheduler the source of the current time, may be null if maxAge is Long.MAX_VALUE
+     */
+    public ReplayProcessor(int maxSize, long maxAge, TimeUnit unit, TimedScheduler scheduler) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize > 0 required but it was " + maxSize);
+        }
+        if (maxAge <= 0L) {
+            throw new IllegalArgumentException("maxAge > 0 required but it was " + maxAge);
+        }
+        if (maxAge != Long.MAX_VALUE) {
+            Objects.requireNonNull(unit, "unit");
+            Objects.requireNonNull(scheduler, "scheduler");
+        }
+        this.buffer = new SizeAndTimeBoundedBuffer<>(Math.min(maxSize, Px.bufferSize()), maxSize, maxAge, unit, scheduler);
+        SUBSCRIBERS.lazySet(this, EMPTY);
+    }
+    
     @Override
     public void subscribe(Subscriber<? super T> s) {
         
@@ -736,6 +767,359 @@ extends Px<T> implements Processor<T, T>, Fuseable, MultiProducer, Receiver, Tra
         }
     }
     
+    static final class SizeAndTimeBoundedBuffer<T> implements Buffer<T> {
+
+        final int chunkSize;
+
+        final int maxSize;
+
+        final long maxAge;
+
+        final TimeUnit unit;
+
+        final TimedScheduler scheduler;
+
+        /** The chunk holding the oldest retained item, may lag behind headIndex. */
+        volatile Chunk head;
+
+        /** The absolute index of the oldest retained item. */
+        volatile long headIndex;
+
+        /** The absolute index of the next item to be written, published after the item. */
+        volatile long producerIndex;
+        @SuppressWarnings("rawtypes")
+        static final AtomicLongFieldUpdater<SizeAndTimeBoundedBuffer> PRODUCER_INDEX =
+                AtomicLongFieldUpdater.newUpdater(SizeAndTimeBoundedBuffer.class, "producerIndex");
+
+        Chunk tail;
+
+        volatile boolean done;
+        Throwable error;
+
+        public SizeAndTimeBoundedBuffer(int chunkSize, int maxSize, long maxAge, TimeUnit unit, TimedScheduler scheduler) {
+            this.chunkSize = chunkSize;
+            this.maxSize = maxSize;
+            this.maxAge = maxAge;
+            this.unit = unit;
+            this.scheduler = scheduler;
+            Chunk c = new Chunk(chunkSize, 0L, maxAge != Long.MAX_VALUE);
+            this.tail = c;
+            this.head = c;
+        }
+
+        @Override
+        public int capacity() {
+            return maxSize;
+        }
+
+        boolean isTimed() {
+            return maxAge != Long.MAX_VALUE;
+        }
+
+        @Override
+        public void onNext(T value) {
+            long pi = producerIndex;
+            Chunk c = tail;
+            int offset = (int)(pi - c.start);
+            if (offset == chunkSize) {
+                Chunk n = new Chunk(chunkSize, pi, isTimed());
+                c.next = n;
+                tail = n;
+                c = n;
+                offset = 0;
+            }
+            c.values[offset] = value;
+            long now = 0L;
+            if (isTimed()) {
+                now = scheduler.now(unit);
+                c.times[offset] = now;
+            }
+            PRODUCER_INDEX.lazySet(this, pi + 1);
+
+            trim(pi + 1, now);
+        }
+
+        /**
+         * Evicts the items beyond the size limit and those older than the age limit by moving
+         * headIndex; the head chunk is moved, thus dropped, only once all its items are evicted.
+         * Called from the producer only.
+         */
+        void trim(long pi, long now) {
+            long h = headIndex;
+            long oldHead = h;
+
+            if (maxSize != Integer.MAX_VALUE) {
+                h = Math.max(h, pi - maxSize);
+            }
+
+            Chunk c = head;
+            int n = chunkSize;
+
+            if (isTimed()) {
+                long limit = now - maxAge;
+                while (h != pi) {
+                    while (h - c.start >= n) {
+                        c = c.next;
+                    }
+                    if (c.times[(int)(h - c.start)] > limit) {
+                        break;
+                    }
+                    h++;
+                }
+            }
+
+            if (h != oldHead) {
+                headIndex = h;
+                while (h - c.start >= n && c.next != null) {
+                    c = c.next;
+                }
+                head = c;
+            }
+        }
+
+        @Override
+        public void onError(Throwable ex) {
+            error = ex;
+            done = true;
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+        }
+
+        /**
+         * Positions a new Subscriber on the oldest item that is still retained and
+         * is not too old right now.
+         */
+        void start(ReplaySubscription<T> rp) {
+            Chunk c = head;
+            long h = Math.max(headIndex, c.start);
+            long pi = producerIndex;
+            int n = chunkSize;
+
+            if (isTimed()) {
+                long limit = scheduler.now(unit) - maxAge;
+                while (h != pi) {
+                    while (h - c.start >= n) {
+                        c = c.next;
+                    }
+                    if (c.times[(int)(h - c.start)] > limit) {
+                        break;
+                    }
+                    h++;
+                }
+            }
+            while (h - c.start >= n && c.next != null) {
+                c = c.next;
+            }
+
+            rp.node = c;
+            rp.tailIndex = (int)(h - c.start);
+        }
+
+        void drainNormal(ReplaySubscription<T> rp) {
+            int missed = 1;
+
+            final Subscriber<? super T> a = rp.actual;
+            final int n = chunkSize;
+
+            for (;;) {
+
+                long r = rp.requested;
+                long e = 0L;
+
+                if (rp.node == null) {
+                    start(rp);
+                }
+                Chunk node = (Chunk)rp.node;
+                int offset = rp.tailIndex;
+
+                while (e != r) {
+                    if (rp.cancelled) {
+                        rp.node = null;
+                        return;
+                    }
+
+                    boolean d = done;
+                    boolean empty = node.start + offset == producerIndex;
+
+                    if (d && empty) {
+                        rp.node = null;
+                        Throwable ex = error;
+                        if (ex != null) {
+                            a.onError(ex);
+                        } else {
+                            a.onComplete();
+                        }
+                        return;
+                    }
+
+                    if (empty) {
+                        break;
+                    }
+
+                    if (offset == n) {
+                        node = node.next;
+                        offset = 0;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    T v = (T)node.values[offset];
+
+                    a.onNext(v);
+
+                    e++;
+                    offset++;
+                }
+
+                if (e == r) {
+                    if (rp.cancelled) {
+                        rp.node = null;
+                        return;
+                    }
+
+                    boolean d = done;
+                    boolean empty = node.start + offset == producerIndex;
+
+                    if (d && empty) {
+                        rp.node = null;
+                        Throwable ex = error;
+                        if (ex != null) {
+                            a.onError(ex);
+                        } else {
+                            a.onComplete();
+                        }
+                        return;
+                    }
+                }
+
+                if (e != 0L) {
+                    if (r != Long.MAX_VALUE) {
+                        rp.produced(e);
+                    }
+                }
+
+                rp.tailIndex = offset;
+                rp.node = node;
+
+                missed = rp.leave(missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void drainFused(ReplaySubscription<T> rp) {
+            int missed = 1;
+
+            final Subscriber<? super T> a = rp.actual;
+
+            for (;;) {
+
+                if (rp.cancelled) {
+                    rp.node = null;
+                    return;
+                }
+
+                boolean d = done;
+
+                a.onNext(null);
+
+                if (d) {
+                    Throwable ex = error;
+                    if (ex != null) {
+                        a.onError(ex);
+                    } else {
+                        a.onComplete();
+                    }
+                    return;
+                }
+
+                missed = rp.leave(missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void drain(ReplaySubscription<T> rp) {
+            if (!rp.enter()) {
+                return;
+            }
+
+            if (rp.fusionMode == NONE) {
+                drainNormal(rp);
+            } else {
+                drainFused(rp);
+            }
+        }
+
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        @Override
+        public T poll(ReplaySubscription<T> rp) {
+            if (rp.node == null) {
+                start(rp);
+            }
+            Chunk node = (Chunk)rp.node;
+            int offset = rp.tailIndex;
+            if (node.start + offset == producerIndex) {
+                return null;
+            }
+            if (offset == chunkSize) {
+                node = node.next;
+                offset = 0;
+                rp.node = node;
+            }
+            @SuppressWarnings("unchecked")
+            T v = (T)node.values[offset];
+            rp.tailIndex = offset + 1;
+            return v;
+        }
+
+        @Override
+        public void clear(ReplaySubscription<T> rp) {
+            rp.node = null;
+        }
+
+        @Override
+        public boolean isEmpty(ReplaySubscription<T> rp) {
+            return size(rp) == 0;
+        }
+
+        @Override
+        public int size(ReplaySubscription<T> rp) {
+            if (rp.node == null) {
+                start(rp);
+            }
+            Chunk node = (Chunk)rp.node;
+            return (int)Math.min(Integer.MAX_VALUE, producerIndex - (node.start + rp.tailIndex));
+        }
+
+        static final class Chunk {
+            final Object[] values;
+
+            /** The arrival time of each value, null if the buffer is not time-bounded. */
+            final long[] times;
+
+            /** The absolute index of values[0]. */
+            final long start;
+
+            volatile Chunk next;
+
+            Chunk(int size, long start, boolean timed) {
+                this.values = new Object[size];
+                this.times = timed ? new long[size] : null;
+                this.start = start;
+            }
+        }
+    }
+    
     static final class ReplaySubscription<T> implements QueueSubscription<T>, Producer,
                                                         Trackable, Receiver {
         final Subscriber<? super T> actual;
@@ -0,0 +1,513 @@
+package rsc.processor;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.reactivestreams.Processor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import rsc.documentation.BackpressureMode;
+import rsc.documentation.BackpressureSupport;
+import rsc.flow.MultiProducer;
+import rsc.flow.Producer;
+import rsc.flow.Receiver;
+import rsc.flow.Trackable;
+import rsc.publisher.Px;
+import rsc.scheduler.Scheduler;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.BackpressureHelper;
+import rsc.util.PowerOf2;
+import rsc.util.UnsignalledExceptions;
+
+/**
+ * Broadcasts the values to zero-to-many Subscribers through a single, pre-allocated
+ * ring buffer in which each Subscriber keeps its own read sequence and drains on
+ * its own Worker of the given Scheduler.
+ * <p>
+ * Publishing a value costs a store into the ring buffer and a volatile write of the
+ * producer sequence, independent of the number of Subscribers; only the Subscribers
+ * which ran out of values and parked get woken up and scheduled.
+ * <p>
+ * The upstream is requested as far as the slowest Subscriber allows: at most
+ * capacity values ahead of it. Values published while there are no Subscribers
+ * are lost, the upstream is still requested meanwhile, and a Subscriber receives
+ * only the values published after it subscribed.
+ * Calling onNext directly without upstream Subscription when the ring buffer is full
+ * terminates the processor with an IllegalStateException.
+ * <p>
+ * A terminated RingBufferProcessor will emit the terminal signal to late subscribers.
+ *
+ * @param <T> the input and output value type
+ */
+@BackpressureSupport(input = BackpressureMode.BOUNDED, output = BackpressureMode.BOUNDED)
+public final class RingBufferProcessor<T>
+extends Px<T>
+implements Processor<T, T>, Receiver, MultiProducer, Trackable {
+
+    @SuppressWarnings("rawtypes")
+    static final RingBufferInner[] EMPTY = new RingBufferInner[0];
+
+    final Scheduler scheduler;
+
+    final Object[] buffer;
+
+    final int mask;
+
+    final int capacity;
+
+    final int limit;
+
+    volatile RingBufferInner<T>[] subscribers;
+
+    volatile Subscription s;
+
+    volatile long producerIndex;
+
+    /** The number of Subscribers parked waiting for a value. */
+    volatile int parkedCount;
+    @SuppressWarnings("rawtypes")
+    static final AtomicIntegerFieldUpdater<RingBufferProcessor> PARKED_COUNT =
+            AtomicIntegerFieldUpdater.newUpdater(RingBufferProcessor.class, "parkedCount");
+
+    /** The cached minimum of the Subscribers' read sequence plus the capacity, accessed by the producer only. */
+    long producerLimit;
+
+    volatile long upstreamLimit;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<RingBufferProcessor> UPSTREAM_LIMIT =
+            AtomicLongFieldUpdater.newUpdater(RingBufferProcessor.class, "upstreamLimit");
+
+    volatile boolean done;
+    Throwable error;
+
+    /**
+     * Constructs a RingBufferProcessor with the default capacity whose Subscribers
+     * drain on their own Worker of the given Scheduler.
+     * @param scheduler the scheduler providing a Worker for each Subscriber
+     */
+    public RingBufferProcessor(Scheduler scheduler) {
+        this(scheduler, Px.bufferSize());
+    }
+
+    /**
+     * Constructs a RingBufferProcessor with the given capacity whose Subscribers
+     * drain on their own Worker of the given Scheduler.
+     * @param scheduler the scheduler providing a Worker for each Subscriber
+     * @param capacity the ring buffer capacity, rounded up to the next power of 2
+     */
+    @SuppressWarnings("unchecked")
+    public RingBufferProcessor(Scheduler scheduler, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+        }
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+        int c = PowerOf2.roundUp(capacity);
+        this.buffer = new Object[c];
+        this.mask = c - 1;
+        this.capacity = c;
+        this.limit = Math.max(1, c >> 2);
+        this.producerLimit = c;
+        this.subscribers = EMPTY;
+    }
+
+    @Override
+    public long getPrefetch() {
+        return capacity;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        if (done || this.s != null) {
+            s.cancel();
+            return;
+        }
+        upstreamLimit = producerIndex;
+        this.s = s;
+        replenish();
+    }
+
+    @Override
+    public void onNext(T t) {
+        Objects.requireNonNull(t, "t");
+        if (done) {
+            UnsignalledExceptions.onNextDropped(t);
+            return;
+        }
+
+        long pi = producerIndex;
+        if (pi == producerLimit) {
+            long lim = minIndex(pi) + capacity;
+            producerLimit = lim;
+            if (pi == lim) {
+                Subscription a = s;
+                if (a != null) {
+                    a.cancel();
+                }
+                onError(new IllegalStateException("The ring buffer is full"));
+                return;
+            }
+        }
+
+        buffer[(int)pi & mask] = t;
+        producerIndex = pi + 1;
+
+        if (parkedCount != 0) {
+            for (RingBufferInner<T> inner : subscribers) {
+                inner.wakeForValue();
+            }
+        } else
+        if (((pi + 1) & (limit - 1)) == 0 && subscribers.length == 0) {
+            // the values are dropped, nobody else moves the upstream on
+            replenish();
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        Objects.requireNonNull(t, "t");
+        if (done) {
+            UnsignalledExceptions.onErrorDropped(t);
+            return;
+        }
+        error = t;
+        done = true;
+        for (RingBufferInner<T> inner : subscribers) {
+            inner.wake();
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        for (RingBufferInner<T> inner : subscribers) {
+            inner.wake();
+        }
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> s) {
+        Objects.requireNonNull(s, "s");
+        RingBufferInner<T> inner = new RingBufferInner<>(s, this, scheduler.createWorker());
+        inner.index = producerIndex;
+
+        s.onSubscribe(inner);
+
+        if (inner.cancelled) {
+            return;
+        }
+
+        add(inner);
+
+        // the producer may have moved on while the inner wasn't visible to it
+        inner.index = producerIndex;
+
+        replenish();
+
+        inner.worker.schedule(inner);
+    }
+
+    long minIndex(long pi) {
+        long min = pi;
+        for (RingBufferInner<T> inner : subscribers) {
+            min = Math.min(min, inner.index);
+        }
+        return min;
+    }
+
+    /**
+     * Requests more from the upstream if the slowest Subscriber has moved on.
+     */
+    void replenish() {
+        Subscription a = s;
+        if (a == null) {
+            return;
+        }
+        long target = minIndex(producerIndex) + capacity;
+        for (;;) {
+            long u = upstreamLimit;
+            if (target <= u) {
+                return;
+            }
+            if (UPSTREAM_LIMIT.compareAndSet(this, u, target)) {
+                a.request(target - u);
+                return;
+            }
+        }
+    }
+
+    synchronized void add(RingBufferInner<T> inner) {
+        RingBufferInner<T>[] a = subscribers;
+        int len = a.length;
+        RingBufferInner<T>[] b = Arrays.copyOf(a, len + 1);
+        b[len] = inner;
+        subscribers = b;
+    }
+
+    @SuppressWarnings("unchecked")
+    void remove(RingBufferInner<T> inner) {
+        synchronized (this) {
+            RingBufferInner<T>[] a = subscribers;
+            int len = a.length;
+            int j = -1;
+            for (int i = 0; i < len; i++) {
+                if (a[i] == inner) {
+                    j = i;
+                    break;
+                }
+            }
+            if (j < 0) {
+                return;
+            }
+            if (len == 1) {
+                subscribers = EMPTY;
+            } else {
+                RingBufferInner<T>[] b = Arrays.copyOf(a, len - 1);
+                System.arraycopy(a, j + 1, b, j, len - j - 1);
+                subscribers = b;
+            }
+        }
+        replenish();
+    }
+
+    @Override
+    public Object upstream() {
+        return s;
+    }
+
+    @Override
+    public Iterator<?> downstreams() {
+        return Arrays.asList(subscribers).iterator();
+    }
+
+    @Override
+    public long downstreamCount() {
+        return subscribers.length;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return s != null;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return done;
+    }
+
+    @Override
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public long getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getPending() {
+        return producerIndex - minIndex(producerIndex);
+    }
+
+    static final class RingBufferInner<T> implements Subscription, Runnable, Receiver, Producer, Trackable {
+
+        final Subscriber<? super T> actual;
+
+        final RingBufferProcessor<T> parent;
+
+        final Scheduler.Worker worker;
+
+        /** The sequence of the next value to read; the producer doesn't overwrite it until it is moved past. */
+        volatile long index;
+        @SuppressWarnings("rawtypes")
+        static final AtomicLongFieldUpdater<RingBufferInner> INDEX =
+                AtomicLongFieldUpdater.newUpdater(RingBufferInner.class, "index");
+
+        volatile long requested;
+        @SuppressWarnings("rawtypes")
+        static final AtomicLongFieldUpdater<RingBufferInner> REQUESTED =
+                AtomicLongFieldUpdater.newUpdater(RingBufferInner.class, "requested");
+
+        /**
+         * 0 if the drain is running or scheduled, {@link #WAIT_VALUE} or {@link #WAIT_REQUEST}
+         * if it is parked; whoever resets it to 0 schedules the drain.
+         */
+        volatile int parked;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<RingBufferInner> PARKED =
+                AtomicIntegerFieldUpdater.newUpdater(RingBufferInner.class, "parked");
+
+        static final int WAIT_VALUE = 1;
+
+        static final int WAIT_REQUEST = 2;
+
+        volatile boolean cancelled;
+
+        long emitted;
+
+        int consumed;
+
+        RingBufferInner(Subscriber<? super T> actual, RingBufferProcessor<T> parent, Scheduler.Worker worker) {
+            this.actual = actual;
+            this.parent = parent;
+            this.worker = worker;
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.getAndAddCap(REQUESTED, this, n);
+                wake();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                parent.remove(this);
+                worker.shutdown();
+            }
+        }
+
+        void wakeForValue() {
+            if (parked == WAIT_VALUE && PARKED.compareAndSet(this, WAIT_VALUE, 0)) {
+                PARKED_COUNT.decrementAndGet(parent);
+                worker.schedule(this);
+            }
+        }
+
+        void wake() {
+            int w = parked;
+            if (w != 0 && PARKED.compareAndSet(this, w, 0)) {
+                if (w == WAIT_VALUE) {
+                    PARKED_COUNT.decrementAndGet(parent);
+                }
+                worker.schedule(this);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void run() {
+            final RingBufferProcessor<T> p = parent;
+            final Subscriber<? super T> a = actual;
+            final Object[] b = p.buffer;
+            final int m = p.mask;
+            final int lim = p.limit;
+
+            long idx = index;
+            long e = emitted;
+            int c = consumed;
+
+            for (;;) {
+                long r = requested;
+                long pi = p.producerIndex;
+
+                while (idx != pi && e != r) {
+                    if (cancelled) {
+                        return;
+                    }
+
+                    T v = (T)b[(int)idx & m];
+
+                    a.onNext(v);
+
+                    INDEX.lazySet(this, ++idx);
+                    e++;
+
+                    if (++c == lim) {
+                        c = 0;
+                        p.replenish();
+                    }
+                }
+
+                if (cancelled) {
+                    return;
+                }
+
+                boolean d = p.done;
+                pi = p.producerIndex;
+
+                if (d && idx == pi) {
+                    cancelled = true;
+                    p.remove(this);
+
+                    Throwable ex = p.error;
+                    if (ex != null) {
+                        a.onError(ex);
+                    } else {
+                        a.onComplete();
+                    }
+                    worker.shutdown();
+                    return;
+                }
+
+                r = requested;
+                if (idx != pi && e != r) {
+                    continue;
+                }
+
+                emitted = e;
+                if (c != 0) {
+                    c = 0;
+                    p.replenish();
+                }
+                consumed = c;
+
+                // a value, request or terminal signal may have slipped in before this got parked
+                if (e != r) {
+                    parked = WAIT_VALUE;
+                    PARKED_COUNT.incrementAndGet(p);
+
+                    if (cancelled || p.done || p.producerIndex != idx) {
+                        if (PARKED.compareAndSet(this, WAIT_VALUE, 0)) {
+                            PARKED_COUNT.decrementAndGet(p);
+                            continue;
+                        }
+                    }
+                } else {
+                    parked = WAIT_REQUEST;
+
+                    if (cancelled || requested != e || (p.done && p.producerIndex == idx)) {
+                        if (PARKED.compareAndSet(this, WAIT_REQUEST, 0)) {
+                            continue;
+                        }
+                    }
+                }
+                return;
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public Subscriber<? super T> downstream() {
+            return actual;
+        }
+
+        @Override
+        public Object upstream() {
+            return parent;
+        }
+
+        @Override
+        public long requestedFromDownstream() {
+            return requested;
+        }
+
+        @Override
+        public long getPending() {
+            return parent.producerIndex - index;
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package rsc.processor;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.reactivestreams.Processor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import rsc.documentation.BackpressureMode;
+import rsc.documentation.BackpressureSupport;
+import rsc.flow.MultiProducer;
+import rsc.flow.Producer;
+import rsc.flow.Receiver;
+import rsc.flow.Trackable;
+import rsc.publisher.Px;
+import rsc.scheduler.Scheduler;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.BackpressureHelper;
+import rsc.util.MpmcArrayQueue;
+import rsc.util.UnsignalledExceptions;
+
+/**
+ * Distributes the values among zero-to-many competing Subscribers so that each value
+ * is delivered to exactly one of them.
+ * <p>
+ * The values are buffered in a single, bounded multi-consumer queue from which each
+ * Subscriber claims values, on its own Worker of the given Scheduler, as far as its
+ * own requests allow; thus Subscribers that consume and request faster get more values.
+ * A publisher only wakes up one parked Subscriber per value.
+ * <p>
+ * The upstream is requested as the Subscribers take the values out of the queue; values
+ * published while there are no Subscribers stay in the queue for the next Subscriber.
+ * Calling onNext directly without upstream Subscription when the queue is full
+ * terminates the processor with an IllegalStateException.
+ * <p>
+ * The terminal signal is emitted to every Subscriber once the queue has been drained, including
+ * late subscribers.
+ *
+ * @param <T> the input and output value type
+ */
+@BackpressureSupport(input = BackpressureMode.BOUNDED, output = BackpressureMode.BOUNDED)
+public final class WorkQueueProcessor<T>
+extends Px<T>
+implements Processor<T, T>, Receiver, MultiProducer, Trackable {
+
+    @SuppressWarnings("rawtypes")
+    static final WorkQueueInner[] EMPTY = new WorkQueueInner[0];
+
+    final Scheduler scheduler;
+
+    final Queue<T> queue;
+
+    final int capacity;
+
+    final int limit;
+
+    volatile WorkQueueInner<T>[] subscribers;
+
+    volatile Subscription s;
+
+    /** The amount to be requested from upstream, requests are issued by whoever increments it from zero. */
+    volatile long replenish;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<WorkQueueProcessor> REPLENISH =
+            AtomicLongFieldUpdater.newUpdater(WorkQueueProcessor.class, "replenish");
+
+    /** The number of Subscribers parked waiting for a value. */
+    volatile int parkedCount;
+    @SuppressWarnings("rawtypes")
+    static final AtomicIntegerFieldUpdater<WorkQueueProcessor> PARKED_COUNT =
+            AtomicIntegerFieldUpdater.newUpdater(WorkQueueProcessor.class, "parkedCount");
+
+    /** Where to start looking for a parked Subscriber, accessed by the producer only. */
+    int wakeIndex;
+
+    volatile boolean done;
+    Throwable error;
+
+    /**
+     * Constructs a WorkQueueProcessor with the default capacity whose Subscribers
+     * drain on their own Worker of the given Scheduler.
+     * @param scheduler the scheduler providing a Worker for each Subscriber
+     */
+    public WorkQueueProcessor(Scheduler scheduler) {
+        this(scheduler, Px.bufferSize());
+    }
+
+    /**
+     * Constructs a WorkQueueProcessor with the given capacity whose Subscribers
+     * drain on their own Worker of the given Scheduler.
+     * @param scheduler the scheduler providing a Worker for each Subscriber
+     * @param capacity the queue capacity, rounded up to the next power of 2
+     */
+    @SuppressWarnings("unchecked")
+    public WorkQueueProcessor(Scheduler scheduler, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+        }
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+        this.queue = new MpmcArrayQueue<>(capacity);
+        this.capacity = capacity;
+        this.limit = Math.max(1, capacity >> 2);
+        this.subscribers = EMPTY;
+    }
+
+    @Override
+    public long getPrefetch() {
+        return capacity;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        if (done || this.s != null) {
+            s.cancel();
+            return;
+        }
+        this.s = s;
+        replenish(capacity);
+    }
+
+    @Override
+    public void onNext(T t) {
+        Objects.requireNonNull(t, "t");
+        if (done) {
+            UnsignalledExceptions.onNextDropped(t);
+            return;
+        }
+
+        if (!queue.offer(t)) {
+            Subscription a = s;
+            if (a != null) {
+                a.cancel();
+            }
+            onError(new IllegalStateException("The queue is full"));
+            return;
+        }
+
+        if (parkedCount != 0) {
+            wakeOne();
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        Objects.requireNonNull(t, "t");
+        if (done) {
+            UnsignalledExceptions.onErrorDropped(t);
+            return;
+        }
+        error = t;
+        done = true;
+        for (WorkQueueInner<T> inner : subscribers) {
+            inner.wake();
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        for (WorkQueueInner<T> inner : subscribers) {
+            inner.wake();
+        }
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> s) {
+        Objects.requireNonNull(s, "s");
+        WorkQueueInner<T> inner = new WorkQueueInner<>(s, this, scheduler.createWorker());
+
+        s.onSubscribe(inner);
+
+        if (inner.cancelled) {
+            return;
+        }
+
+        add(inner);
+
+        inner.worker.schedule(inner);
+    }
+
+    /**
+     * Wakes up the next Subscriber parked waiting for a value, starting after
+     * the one woken up last time so the values get spread among idle Subscribers.
+     */
+    void wakeOne() {
+        WorkQueueInner<T>[] a = subscribers;
+        int n = a.length;
+        int j = wakeIndex;
+        for (int i = 0; i < n; i++) {
+            if (j >= n) {
+                j = 0;
+            }
+            if (a[j++].wakeForValue()) {
+                break;
+            }
+        }
+        wakeIndex = j;
+    }
+
+    /**
+     * Requests the given amount from upstream, serializing the calls coming from
+     * the Subscribers' Workers.
+     * @param n the amount to request
+     */
+    void replenish(long n) {
+        Subscription a = s;
+        if (a == null) {
+            return;
+        }
+        if (REPLENISH.getAndAdd(this, n) != 0L) {
+            return;
+        }
+        for (;;) {
+            long r = replenish;
+            a.request(r);
+            if (REPLENISH.addAndGet(this, -r) == 0L) {
+                return;
+            }
+        }
+    }
+
+    synchronized void add(WorkQueueInner<T> inner) {
+        WorkQueueInner<T>[] a = subscribers;
+        int len = a.length;
+        WorkQueueInner<T>[] b = Arrays.copyOf(a, len + 1);
+        b[len] = inner;
+        subscribers = b;
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized void remove(WorkQueueInner<T> inner) {
+        WorkQueueInner<T>[] a = subscribers;
+        int len = a.length;
+        int j = -1;
+        for (int i = 0; i < len; i++) {
+            if (a[i] == inner) {
+                j = i;
+                break;
+            }
+        }
+        if (j < 0) {
+            return;
+        }
+        if (len == 1) {
+            subscribers = EMPTY;
+        } else {
+            WorkQueueInner<T>[] b = Arrays.copyOf(a, len - 1);
+            System.arraycopy(a, j + 1, b, j, len - j - 1);
+            subscribers = b;
+        }
+    }
+
+    @Override
+    public Object upstream() {
+        return s;
+    }
+
+    @Override
+    public Iterator<?> downstreams() {
+        return Arrays.asList(subscribers).iterator();
+    }
+
+    @Override
+    public long downstreamCount() {
+        return subscribers.length;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return s != null;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return done;
+    }
+
+    @Override
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public long getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getPending() {
+        return queue.size();
+    }
+
+    static final class WorkQueueInner<T> implements Subscription, Runnable, Receiver, Producer, Trackable {
+
+        final Subscriber<? super T> actual;
+
+        final WorkQueueProcessor<T> parent;
+
+        final Scheduler.Worker worker;
+
+        volatile long requested;
+        @SuppressWarnings("rawtypes")
+        static final AtomicLongFieldUpdater<WorkQueueInner> REQUESTED =
+                AtomicLongFieldUpdater.newUpdater(WorkQueueInner.class, "requested");
+
+        /**
+         * 0 if the drain is running or scheduled, {@link #WAIT_VALUE} or {@link #WAIT_REQUEST}
+         * if it is parked; whoever resets it to 0 schedules the drain.
+         */
+        volatile int parked;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<WorkQueueInner> PARKED =
+                AtomicIntegerFieldUpdater.newUpdater(WorkQueueInner.class, "parked");
+
+        static final int WAIT_VALUE = 1;
+
+        static final int WAIT_REQUEST = 2;
+
+        volatile boolean cancelled;
+
+        long emitted;
+
+        WorkQueueInner(Subscriber<? super T> actual, WorkQueueProcessor<T> parent, Scheduler.Worker worker) {
+            this.actual = actual;
+            this.parent = parent;
+            this.worker = worker;
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.getAndAddCap(REQUESTED, this, n);
+                wake();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                parent.remove(this);
+                worker.shutdown();
+            }
+        }
+
+        boolean wakeForValue() {
+            if (parked == WAIT_VALUE && PARKED.compareAndSet(this, WAIT_VALUE, 0)) {
+                PARKED_COUNT.decrementAndGet(parent);
+                worker.schedule(this);
+                return true;
+            }
+            return false;
+        }
+
+        void wake() {
+            int w = parked;
+            if (w != 0 && PARKED.compareAndSet(this, w, 0)) {
+                if (w == WAIT_VALUE) {
+                    PARKED_COUNT.decrementAndGet(parent);
+                }
+                worker.schedule(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            final WorkQueueProcessor<T> p = parent;
+            final Subscriber<? super T> a = actual;
+            final Queue<T> q = p.queue;
+            final int lim = p.limit;
+
+            long e = emitted;
+            int c = 0;
+
+            for (;;) {
+                long r = requested;
+
+                while (e != r) {
+                    if (cancelled) {
+                        return;
+                    }
+
+                    T v = q.poll();
+
+                    if (v == null) {
+                        break;
+                    }
+
+                    a.onNext(v);
+
+                    e++;
+
+                    if (++c == lim) {
+                        p.replenish(c);
+                        c = 0;
+                    }
+                }
+
+                if (c != 0) {
+                    p.replenish(c);
+                    c = 0;
+                }
+
+                if (cancelled) {
+                    return;
+                }
+
+                if (p.done && q.isEmpty()) {
+                    cancelled = true;
+                    p.remove(this);
+
+                    // the ones parked without requests won't notice the queue got drained otherwise
+                    for (WorkQueueInner<T> inner : p.subscribers) {
+                        inner.wake();
+                    }
+
+                    Throwable ex = p.error;
+                    if (ex != null) {
+                        a.onError(ex);
+                    } else {
+                        a.onComplete();
+                    }
+                    worker.shutdown();
+                    return;
+                }
+
+                emitted = e;
+
+                r = requested;
+                // a value, request or terminal signal may have slipped in before this got parked
+                if (e != r) {
+                    if (!q.isEmpty()) {
+                        continue;
+                    }
+
+                    parked = WAIT_VALUE;
+                    PARKED_COUNT.incrementAndGet(p);
+
+                    if (cancelled || p.done || !q.isEmpty()) {
+                        if (PARKED.compareAndSet(this, WAIT_VALUE, 0)) {
+                            PARKED_COUNT.decrementAndGet(p);
+                            continue;
+                        }
+                    }
+                } else {
+                    parked = WAIT_REQUEST;
+
+                    if (cancelled || requested != e || (p.done && q.isEmpty())) {
+                        if (PARKED.compareAndSet(this, WAIT_REQUEST, 0)) {
+                            continue;
+                        }
+                    }
+                }
+                return;
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public Subscriber<? super T> downstream() {
+            return actual;
+        }
+
+        @Override
+        public Object upstream() {
+            return parent;
+        }
+
+        @Override
+        public long requestedFromDownstream() {
+            return requested;
+        }
+    }
+}
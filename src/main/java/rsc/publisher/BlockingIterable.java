@@ -1,15 +1,18 @@
 package rsc.publisher;
 
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -17,15 +20,22 @@ import java.util.stream.StreamSupport;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
+import rsc.flow.Fuseable;
 import rsc.flow.Receiver;
 import rsc.flow.Trackable;
 import rsc.subscriber.SubscriptionHelper;
+import rsc.util.ExceptionHelper;
 
 /**
  * An iterable that consumes a Publisher in a blocking fashion.
  * 
  * <p> It also implements methods to stream the contents via Stream
  * that also supports cancellation.
+ * <p>
+ * The Stream of an array, range or Callable source knows its exact size and, when
+ * parallel, splits the source directly. Synchronously fuseable sources are polled
+ * directly instead of through the blocking queue. Other sources are consumed through
+ * the blocking queue and split into the batches prefetched so far.
  *
  * @param <T> the value type
  */
@@ -61,27 +71,50 @@ public final class BlockingIterable<T> implements Iterable<T>, Receiver, Trackab
     }
 
     /**
-     * @return a {@link Stream} of unknown size with onClose attached to {@link Subscription#cancel()}
+     * @return a {@link Stream} with onClose attached to {@link Subscription#cancel()}
      */
     public Stream<T> stream() {
-        BlockingIterable.SubscriberIterator<T> it = createIterator();
-        source.subscribe(it);
-
-        Spliterator<T> sp = Spliterators.spliteratorUnknownSize(it, 0);
-
-        return StreamSupport.stream(sp, false).onClose(it);
+        return stream(false);
     }
 
     /**
-     * @return a {@link Stream} of unknown size with onClose attached to {@link Subscription#cancel()}
+     * @return a parallel {@link Stream} with onClose attached to {@link Subscription#cancel()}
      */
     public Stream<T> parallelStream() {
-        BlockingIterable.SubscriberIterator<T> it = createIterator();
+        return stream(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    Stream<T> stream(boolean parallel) {
+        Publisher<? extends T> p = source;
+
+        if (p instanceof PublisherArray) {
+            T[] a = ((PublisherArray<T>)p).array;
+            return StreamSupport.stream(new ArraySpliterator<>(a, 0, a.length), parallel);
+        }
+        if (p instanceof PublisherRange) {
+            PublisherRange r = (PublisherRange)p;
+            return (Stream<T>)StreamSupport.stream(new RangeSpliterator(r.start, r.end), parallel);
+        }
+        if (p instanceof Callable) {
+            Publisher<?> q = p instanceof PublisherCallableOnAssembly ? ((PublisherCallableOnAssembly<?>)p).source : p;
+            // only the empty scalar completes on null, other Callables signal an error
+            return StreamSupport.stream(new CallableSpliterator<>((Callable<T>)p, q instanceof PublisherEmpty), parallel);
+        }
+
+        SubscriberIterator<T> it = createIterator();
+        it.fuseSync = true;
         source.subscribe(it);
 
-        Spliterator<T> sp = Spliterators.spliteratorUnknownSize(it, 0);
+        Fuseable.QueueSubscription<T> qs = it.fused;
+        Spliterator<T> sp;
+        if (qs != null) {
+            sp = new SyncSpliterator<>(qs, batchSize);
+        } else {
+            sp = new AsyncSpliterator<>(it, batchSize);
+        }
 
-        return StreamSupport.stream(sp, true).onClose(it);
+        return StreamSupport.stream(sp, parallel).onClose(it);
     }
     
     SubscriberIterator<T> createIterator() {
@@ -148,6 +181,12 @@ public final class BlockingIterable<T> implements Iterable<T>, Receiver, Trackab
 
         volatile boolean cancelled;
         
+        /** If set, synchronous fusion is requested and the source is polled directly. */
+        boolean fuseSync;
+        
+        /** The source queue if synchronous fusion was established, set within subscribe(). */
+        Fuseable.QueueSubscription<T> fused;
+        
         public SubscriberIterator(Queue<T> queue, long batchSize) {
             this.queue = queue;
             this.batchSize = batchSize;
@@ -217,9 +256,55 @@ public final class BlockingIterable<T> implements Iterable<T>, Receiver, Trackab
             throw new NoSuchElementException();
         }
 
+        /**
+         * Waits for at least one value and moves the values available, at most
+         * {@code max}, into a new array.
+         * @param max the maximum number of values to take, positive
+         * @return the array of the values taken or null if the source has terminated
+         */
+        Object[] nextBatch(int max) {
+            if (!hasNext()) {
+                return null;
+            }
+            int n = Math.min(max, Math.max(1, queue.size()));
+            Object[] a = new Object[n];
+            int c = 0;
+            while (c < n) {
+                T v = queue.poll();
+                if (v == null) {
+                    break;
+                }
+                a[c++] = v;
+            }
+            
+            long p = produced + c;
+            if (p >= limit) {
+                produced = 0;
+                s.request(p);
+            } else {
+                produced = p;
+            }
+            
+            if (c != n) {
+                Object[] b = new Object[c];
+                System.arraycopy(a, 0, b, 0, c);
+                a = b;
+            }
+            return a;
+        }
+
+        @SuppressWarnings("unchecked")
         @Override
         public void onSubscribe(Subscription s) {
             if (SubscriptionHelper.setOnce(S, this, s)) {
+                if (fuseSync && s instanceof Fuseable.QueueSubscription) {
+                    Fuseable.QueueSubscription<T> qs = (Fuseable.QueueSubscription<T>)s;
+                    
+                    if (qs.requestFusion(Fuseable.SYNC) == Fuseable.SYNC) {
+                        fused = qs;
+                        return;
+                    }
+                }
                 s.request(batchSize);
             }
         }
@@ -284,4 +369,328 @@ public final class BlockingIterable<T> implements Iterable<T>, Receiver, Trackab
         }
     }
 
+    /**
+     * The size of the first batch a SyncSpliterator or AsyncSpliterator splits off,
+     * when no larger batchSize was given, the same as the JDK's iterator-based spliterators.
+     */
+    static final int MIN_BATCH = 1 << 10;
+
+    /** The maximum size of the batches split off. */
+    static final int MAX_BATCH = 1 << 25;
+
+    /**
+     * Splits an array source by index ranges, failing on null elements just like
+     * {@link PublisherArray} does.
+     *
+     * @param <T> the value type
+     */
+    static final class ArraySpliterator<T> implements Spliterator<T> {
+
+        final T[] array;
+
+        final int end;
+
+        int index;
+
+        ArraySpliterator(T[] array, int index, int end) {
+            this.array = array;
+            this.index = index;
+            this.end = end;
+        }
+
+        T element(int i) {
+            T v = array[i];
+            if (v == null) {
+                throw new NullPointerException("The " + i + "th array element was null");
+            }
+            return v;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            int i = index;
+            if (i < end) {
+                index = i + 1;
+                action.accept(element(i));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            int e = end;
+            int i = index;
+            index = e;
+            for (; i < e; i++) {
+                action.accept(element(i));
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int lo = index;
+            int mid = (lo + end) >>> 1;
+            if (lo >= mid) {
+                return null;
+            }
+            index = mid;
+            return new ArraySpliterator<>(array, lo, mid);
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * Splits a range source by halving the remaining range.
+     */
+    static final class RangeSpliterator implements Spliterator<Integer> {
+
+        final long end;
+
+        long index;
+
+        RangeSpliterator(long index, long end) {
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Integer> action) {
+            long i = index;
+            if (i < end) {
+                index = i + 1;
+                action.accept((int)i);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Integer> action) {
+            long e = end;
+            long i = index;
+            index = e;
+            for (; i < e; i++) {
+                action.accept((int)i);
+            }
+        }
+
+        @Override
+        public Spliterator<Integer> trySplit() {
+            long lo = index;
+            long mid = (lo + end) >>> 1;
+            if (lo >= mid) {
+                return null;
+            }
+            index = mid;
+            return new RangeSpliterator(lo, mid);
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE | DISTINCT | SORTED;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+    }
+
+    /**
+     * Calls the Callable when created, the Publisher would call it when subscribed to,
+     * and holds its value, if any, or the error to throw when traversed.
+     *
+     * @param <T> the value type
+     */
+    static final class CallableSpliterator<T> implements Spliterator<T> {
+
+        T value;
+
+        Throwable error;
+
+        CallableSpliterator(Callable<? extends T> callable, boolean emptyOnNull) {
+            try {
+                value = callable.call();
+            } catch (Throwable e) {
+                ExceptionHelper.throwIfFatal(e);
+                error = e;
+                return;
+            }
+            if (value == null && !emptyOnNull) {
+                error = new NullPointerException("The callable returned null");
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Throwable e = error;
+            if (e != null) {
+                error = null;
+                throwError(e);
+            }
+            T v = value;
+            if (v != null) {
+                value = null;
+                action.accept(v);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return value != null ? 1 : 0;
+        }
+
+        @Override
+        public int characteristics() {
+            // not sized when failed, otherwise count() would skip the traversal that throws
+            if (error != null) {
+                return ORDERED | NONNULL | IMMUTABLE;
+            }
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * Polls a synchronously fused source directly, without blocking, and splits off
+     * growing batches of the values polled.
+     *
+     * @param <T> the value type
+     */
+    static final class SyncSpliterator<T> implements Spliterator<T> {
+
+        final Queue<T> queue;
+
+        int batch;
+
+        SyncSpliterator(Queue<T> queue, long batchSize) {
+            this.queue = queue;
+            this.batch = (int)Math.min(MAX_BATCH, Math.max(MIN_BATCH, batchSize));
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            T v = queue.poll();
+            if (v != null) {
+                action.accept(v);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Queue<T> q = queue;
+            T v;
+            while ((v = q.poll()) != null) {
+                action.accept(v);
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Queue<T> q = queue;
+            int n = batch;
+            Object[] a = new Object[n];
+            int c = 0;
+            while (c < n) {
+                T v = q.poll();
+                if (v == null) {
+                    break;
+                }
+                a[c++] = v;
+            }
+            if (c == 0) {
+                return null;
+            }
+            batch = Math.min(MAX_BATCH, n + MIN_BATCH);
+            return Spliterators.spliterator(a, 0, c, ORDERED | NONNULL);
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+
+    /**
+     * Consumes the blocking queue of a SubscriberIterator and splits off the batches of
+     * values prefetched by the time the split is requested, waiting only for the first.
+     *
+     * @param <T> the value type
+     */
+    static final class AsyncSpliterator<T> implements Spliterator<T> {
+
+        final SubscriberIterator<T> iterator;
+
+        final int batch;
+
+        AsyncSpliterator(SubscriberIterator<T> iterator, long batchSize) {
+            this.iterator = iterator;
+            this.batch = (int)Math.min(MAX_BATCH, batchSize);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            SubscriberIterator<T> it = iterator;
+            if (it.hasNext()) {
+                action.accept(it.next());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            SubscriberIterator<T> it = iterator;
+            while (it.hasNext()) {
+                action.accept(it.next());
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Object[] a = iterator.nextBatch(batch);
+            if (a == null) {
+                return null;
+            }
+            return Spliterators.spliterator(a, ORDERED | NONNULL);
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
 }
@@ -28,7 +28,11 @@ public final class ConnectablePublisherOnAssembly<T> extends ConnectablePublishe
 
     final ConnectablePublisher<T> source;
     
-    final String stacktrace;
+    /** The readable stacktrace, resolved from the site on first use if captured lazily. */
+    String stacktrace;
+
+    /** The cheaply captured assembly call site if the stacktrace is resolved lazily, null otherwise. */
+    final Throwable site;
     
     /**
      * If set to true, the creation of PublisherOnAssembly will capture the raw
@@ -37,13 +41,27 @@ public final class ConnectablePublisherOnAssembly<T> extends ConnectablePublishe
     public static volatile boolean fullStackTrace;
 
     public ConnectablePublisherOnAssembly(ConnectablePublisher<T> source) {
-        this.source = source;
-        this.stacktrace = takeStacktrace();
+        this(source, false);
     }
 
-    private String takeStacktrace() {
-        StackTraceElement[] stes = Thread.currentThread().getStackTrace();
+    /**
+     * Constructs the operator, capturing the stacktrace now or, if {@code lazy} is set,
+     * capturing only the call site now and producing the readable stacktrace when it is
+     * first needed, i.e., an error passes through.
+     * @param source the source to wrap
+     * @param lazy capture the call site only and resolve the stacktrace on demand
+     */
+    public ConnectablePublisherOnAssembly(ConnectablePublisher<T> source, boolean lazy) {
+        this.source = source;
+        if (lazy) {
+            this.site = new AssemblySite();
+        } else {
+            this.site = null;
+            this.stacktrace = takeStacktrace(Thread.currentThread().getStackTrace());
+        }
+    }
 
+    static String takeStacktrace(StackTraceElement[] stes) {
         StringBuilder sb = new StringBuilder("Assembly trace:\n");
         
         for (StackTraceElement e : stes) {
@@ -58,6 +76,9 @@ public final class ConnectablePublisherOnAssembly<T> extends ConnectablePublishe
                 if (row.contains("PublisherOnAssembly.")) {
                     continue;
                 }
+                if (row.contains("AssemblySite.")) {
+                    continue;
+                }
                 if (row.contains(".junit.runner")) {
                     continue;
                 }
@@ -94,16 +115,22 @@ public final class ConnectablePublisherOnAssembly<T> extends ConnectablePublishe
      * @return the stacktrace
      */
     public String stacktrace() {
-        return stacktrace;
+        String st = stacktrace;
+        if (st == null) {
+            // racy but idempotent, Strings are safely published
+            st = takeStacktrace(site.getStackTrace());
+            stacktrace = st;
+        }
+        return st;
     }
     
     @Override
     public void subscribe(Subscriber<? super T> s) {
         if (s instanceof Fuseable.ConditionalSubscriber) {
             Fuseable.ConditionalSubscriber<? super T> cs = (Fuseable.ConditionalSubscriber<? super T>) s;
-            source.subscribe(new OnAssemblyConditionalSubscriber<>(cs, stacktrace));
+            source.subscribe(new OnAssemblyConditionalSubscriber<>(cs, this::stacktrace));
         } else {
-            source.subscribe(new OnAssemblySubscriber<>(s, stacktrace));
+            source.subscribe(new OnAssemblySubscriber<>(s, this::stacktrace));
         }
     }
 
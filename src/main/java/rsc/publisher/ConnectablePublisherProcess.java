@@ -292,7 +292,7 @@ public final class ConnectablePublisherProcess<T, U> extends ConnectablePublishe
 
         @Override
         public int requestFusion(int requestedMode) {
-            int m = s.requestFusion(requestedMode);
+            int m = s.requestFusion(requestedMode & ~Fuseable.BATCH);
             sourceMode = m;
             return m;
         }
@@ -0,0 +1,272 @@
+package rsc.publisher;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.reactivestreams.Subscriber;
+
+import rsc.flow.*;
+import rsc.flow.Fuseable.SynchronousSubscription;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.*;
+
+/**
+ * Base class of the file sources emitting read-only slices of the regions of a file
+ * they memory-map one after the other.
+ * <p>
+ * A region is mapped only when a value is requested that isn't in the current region,
+ * thus a file is mapped as far as it was requested. The file size is taken when
+ * subscribed, bytes appended later are not emitted. The mapped regions stay valid after
+ * the channel is closed and are released when they are garbage collected.
+ */
+abstract class MappedFileSubscription
+        implements Trackable, Producer, SynchronousSubscription<ByteBuffer> {
+
+    /** The default size of the regions mapped at once. */
+    static final int DEFAULT_REGION_SIZE = 16 * 1024 * 1024;
+
+    final Subscriber<? super ByteBuffer> actual;
+
+    final FileChannel channel;
+
+    final long fileSize;
+
+    volatile boolean cancelled;
+
+    volatile long requested;
+    static final AtomicLongFieldUpdater<MappedFileSubscription> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(MappedFileSubscription.class, "requested");
+
+    /** The region currently mapped, in little endian order for the word-wise scans. */
+    ByteBuffer region;
+
+    /** The file position of the region. */
+    long regionStart;
+
+    /** The file position of the next value. */
+    long cursor;
+
+    MappedFileSubscription(Subscriber<? super ByteBuffer> actual, FileChannel channel, long fileSize) {
+        this.actual = actual;
+        this.channel = channel;
+        this.fileSize = fileSize;
+    }
+
+    /**
+     * Returns the next value, mapping the next region if necessary.
+     * @return the next value or null if the end of the file was reached
+     * @throws IOException if the mapping failed
+     */
+    abstract ByteBuffer next() throws IOException;
+
+    final ByteBuffer map(long position, int size) throws IOException {
+        ByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+        region = b;
+        regionStart = position;
+        return b;
+    }
+
+    /**
+     * Returns a view of the given part of the region, with big endian order, position
+     * zero and the part's length as limit and capacity.
+     * @param region the region to slice
+     * @param start the start index, inclusive
+     * @param end the end index, exclusive
+     * @return the slice
+     */
+    static ByteBuffer slice(ByteBuffer region, int start, int end) {
+        // go through Buffer, the covariant overrides of Java 9+ don't exist on Java 8
+        Buffer b = region;
+        b.limit(end);
+        b.position(start);
+        ByteBuffer s = region.slice();
+        b.limit(b.capacity());
+        return s;
+    }
+
+    void close() {
+        region = null;
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            UnsignalledExceptions.onErrorDropped(ex);
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        if (SubscriptionHelper.validate(n)) {
+            if (BackpressureHelper.getAndAddCap(REQUESTED, this, n) == 0) {
+                if (n == Long.MAX_VALUE) {
+                    fastPath();
+                } else {
+                    slowPath(n);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            // close right away unless an emission loop is running, which closes when it sees the flag
+            if (BackpressureHelper.getAndAddCap(REQUESTED, this, 1) == 0) {
+                close();
+            }
+        }
+    }
+
+    void fastPath() {
+        final Subscriber<? super ByteBuffer> a = actual;
+
+        for (;;) {
+            if (cancelled) {
+                close();
+                return;
+            }
+
+            ByteBuffer v;
+
+            try {
+                v = next();
+            } catch (Throwable ex) {
+                ExceptionHelper.throwIfFatal(ex);
+                close();
+                a.onError(ex);
+                return;
+            }
+
+            if (v == null) {
+                close();
+                a.onComplete();
+                return;
+            }
+
+            a.onNext(v);
+        }
+    }
+
+    void slowPath(long n) {
+        final Subscriber<? super ByteBuffer> a = actual;
+
+        long e = 0L;
+
+        for (;;) {
+
+            while (e != n) {
+                if (cancelled) {
+                    close();
+                    return;
+                }
+
+                ByteBuffer v;
+
+                try {
+                    v = next();
+                } catch (Throwable ex) {
+                    ExceptionHelper.throwIfFatal(ex);
+                    close();
+                    a.onError(ex);
+                    return;
+                }
+
+                if (v == null) {
+                    close();
+                    a.onComplete();
+                    return;
+                }
+
+                a.onNext(v);
+
+                e++;
+            }
+
+            if (cancelled) {
+                close();
+                return;
+            }
+
+            // complete without waiting for more requests
+            if (isEmpty()) {
+                close();
+                a.onComplete();
+                return;
+            }
+
+            n = requested;
+            if (n == e) {
+                n = REQUESTED.addAndGet(this, -e);
+                if (n == 0L) {
+                    return;
+                }
+                e = 0L;
+            }
+        }
+    }
+
+    @Override
+    public ByteBuffer poll() {
+        ByteBuffer v;
+        try {
+            v = next();
+        } catch (IOException ex) {
+            close();
+            throw ExceptionHelper.propagate(ex);
+        }
+        if (v == null) {
+            close();
+        }
+        return v;
+    }
+
+    @Override
+    public int requestFusion(int requestedMode) {
+        return Fuseable.SYNC;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return cursor >= fileSize;
+    }
+
+    @Override
+    public void clear() {
+        cursor = fileSize;
+        close();
+    }
+
+    @Override
+    public int size() {
+        return isEmpty() ? 0 : 1;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isStarted() {
+        return cursor != 0L;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return isEmpty();
+    }
+
+    @Override
+    public Object downstream() {
+        return actual;
+    }
+
+    @Override
+    public long requestedFromDownstream() {
+        return requested;
+    }
+}
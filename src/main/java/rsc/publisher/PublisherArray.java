@@ -51,7 +51,7 @@ extends Px<T>
 
     static final class ArraySubscription<T>
             implements Producer, Trackable, MultiReceiver,
-                       SynchronousSubscription<T> {
+                       SynchronousSubscription<T>, BatchQueue<T> {
         final Subscriber<? super T> actual;
 
         final T[] array;
@@ -202,6 +202,31 @@ extends Px<T>
             return null;
         }
 
+        @Override
+        public int poll(Object[] target, int max) {
+            int i = index;
+            T[] a = array;
+            int n = Math.min(a.length - i, max);
+            for (int j = 0; j < n; j++) {
+                T t = a[i + j];
+                if (t == null) {
+                    if (j == 0) {
+                        throw new NullPointerException();
+                    }
+                    n = j;
+                    break;
+                }
+                target[j] = t;
+            }
+            index = i + n;
+            return n;
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return Fuseable.SYNC | (requestedMode & Fuseable.BATCH);
+        }
+
         @Override
         public boolean isEmpty() {
             return index == array.length;
@@ -219,7 +244,7 @@ extends Px<T>
     }
 
     static final class ArrayConditionalSubscription<T>
-    implements Producer, Trackable, MultiReceiver, SynchronousSubscription<T> {
+    implements Producer, Trackable, MultiReceiver, SynchronousSubscription<T>, BatchQueue<T> {
         final ConditionalSubscriber<? super T> actual;
 
         final T[] array;
@@ -372,6 +397,31 @@ extends Px<T>
             return null;
         }
 
+        @Override
+        public int poll(Object[] target, int max) {
+            int i = index;
+            T[] a = array;
+            int n = Math.min(a.length - i, max);
+            for (int j = 0; j < n; j++) {
+                T t = a[i + j];
+                if (t == null) {
+                    if (j == 0) {
+                        throw new NullPointerException();
+                    }
+                    n = j;
+                    break;
+                }
+                target[j] = t;
+            }
+            index = i + n;
+            return n;
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return Fuseable.SYNC | (requestedMode & Fuseable.BATCH);
+        }
+
         @Override
         public boolean isEmpty() {
             return index == array.length;
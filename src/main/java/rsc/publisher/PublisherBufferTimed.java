@@ -0,0 +1,429 @@
+package rsc.publisher;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import rsc.flow.Cancellation;
+import rsc.scheduler.TimedScheduler;
+import rsc.util.BackpressureHelper;
+
+import rsc.util.ExceptionHelper;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.UnsignalledExceptions;
+
+/**
+ * Buffers elements into custom collections which are emitted periodically or
+ * when the buffer reaches a size limit, whichever happens first.
+ * <p>
+ * Each Subscriber uses a single periodic task of the TimedScheduler instead of a
+ * separate boundary Publisher and Subscriber. The period is not restarted when the
+ * size limit flushes a buffer and empty buffers are not emitted.
+ *
+ * @param <T> the source value type
+ * @param <C> the output collection type
+ */
+public final class PublisherBufferTimed<T, C extends Collection<? super T>> 
+extends PublisherSource<T, C> {
+
+    final long timespan;
+    
+    final TimeUnit unit;
+    
+    final TimedScheduler timer;
+    
+    final Supplier<C> bufferSupplier;
+    
+    final int maxSize;
+    
+    final Supplier<? extends Queue<C>> queueSupplier;
+
+    public PublisherBufferTimed(Publisher<? extends T> source, 
+            int maxSize, long timespan, TimeUnit unit, TimedScheduler timer,
+            Supplier<C> bufferSupplier, Supplier<? extends Queue<C>> queueSupplier) {
+        super(source);
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize > 0 required but it was " + maxSize);
+        }
+        if (timespan <= 0L) {
+            throw new IllegalArgumentException("timespan > 0 required but it was " + timespan);
+        }
+        this.timespan = timespan;
+        this.unit = Objects.requireNonNull(unit, "unit");
+        this.timer = Objects.requireNonNull(timer, "timer");
+        this.bufferSupplier = Objects.requireNonNull(bufferSupplier, "bufferSupplier");
+        this.maxSize = maxSize;
+        this.queueSupplier = Objects.requireNonNull(queueSupplier, "queueSupplier");
+    }
+
+    @Override
+    public long getPrefetch() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super C> s) {
+        C buffer;
+        
+        try {
+            buffer = bufferSupplier.get();
+        } catch (Throwable e) {
+            SubscriptionHelper.error(s, e);
+            return;
+        }
+        
+        if (buffer == null) {
+            SubscriptionHelper.error(s, new NullPointerException("The bufferSupplier returned a null buffer"));
+            return;
+        }
+        
+        Queue<C> q;
+        
+        try {
+            q = queueSupplier.get();
+        } catch (Throwable e) {
+            SubscriptionHelper.error(s, e);
+            return;
+        }
+        
+        if (q == null) {
+            SubscriptionHelper.error(s, new NullPointerException("The queueSupplier returned a null queue"));
+            return;
+        }
+        
+        PublisherBufferTimedMain<T, C> parent = new PublisherBufferTimedMain<>(
+                s, buffer, bufferSupplier, maxSize, q);
+        
+        s.onSubscribe(parent);
+        
+        parent.setTimer(timer.schedulePeriodically(parent, timespan, timespan, unit));
+        
+        source.subscribe(parent);
+    }
+    
+    static final class PublisherBufferTimedMain<T, C extends Collection<? super T>>
+    implements Subscriber<T>, Subscription, Runnable {
+
+        final Subscriber<? super C> actual;
+        
+        final Supplier<C> bufferSupplier;
+        
+        C buffer;
+        
+        final Queue<C> queue;
+        
+        final int maxSize;
+        
+        volatile Subscription s;
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<PublisherBufferTimedMain, Subscription> S =
+                AtomicReferenceFieldUpdater.newUpdater(PublisherBufferTimedMain.class, Subscription.class, "s");
+        
+        volatile long requested;
+        @SuppressWarnings("rawtypes")
+        static final AtomicLongFieldUpdater<PublisherBufferTimedMain> REQUESTED =
+                AtomicLongFieldUpdater.newUpdater(PublisherBufferTimedMain.class, "requested");
+        
+        volatile int wip;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<PublisherBufferTimedMain> WIP =
+                AtomicIntegerFieldUpdater.newUpdater(PublisherBufferTimedMain.class, "wip");
+        
+        volatile boolean done;
+        Throwable error;
+        
+        volatile boolean cancelled;
+        
+        volatile Cancellation timer;
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<PublisherBufferTimedMain, Cancellation> TIMER =
+                AtomicReferenceFieldUpdater.newUpdater(PublisherBufferTimedMain.class, Cancellation.class, "timer");
+        
+        static final Cancellation CANCELLED = () -> { };
+        
+        public PublisherBufferTimedMain(Subscriber<? super C> actual, C buffer, 
+                Supplier<C> bufferSupplier, int maxSize, Queue<C> queue) {
+            this.actual = actual;
+            this.buffer = buffer;
+            this.bufferSupplier = bufferSupplier;
+            this.queue = queue;
+            this.maxSize = maxSize;
+        }
+        
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.getAndAddCap(REQUESTED, this, n);
+            }
+        }
+
+        void cancelMain() {
+            SubscriptionHelper.terminate(S, this);
+        }
+        
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                
+                cancelMain();
+                cancelTimer();
+            }
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(S, this, s)) {
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            Throwable e = null;
+            boolean flush = false;
+            synchronized (this) {
+                C b = buffer;
+                if (b != null) {
+                    b.add(t);
+                    if (Integer.MAX_VALUE != maxSize && b.size() == maxSize) {
+                        queue.offer(b);
+                        
+                        try {
+                            b = bufferSupplier.get();
+                            
+                            if (b == null) {
+                                e = new NullPointerException("The bufferSupplier returned a null value");
+                            } else {
+                                buffer = b;
+                                flush = true;
+                            }
+                        } catch (Throwable ex) {
+                            ExceptionHelper.throwIfFatal(ex);
+                            e = ExceptionHelper.unwrap(ex);
+                        }
+                    } else {
+                        return;
+                    }
+                } else {
+                    UnsignalledExceptions.onNextDropped(t);
+                    return;
+                }
+            }
+            
+            if (e != null) {
+                UnsignalledExceptions.onNextDropped(t);
+                onError(e);
+            } else if (flush) {
+                // emit the full buffer now instead of waiting for the timer or the completion
+                drain();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            cancelTimer();
+
+            boolean report;
+            synchronized (this) {
+                if (buffer == null) {
+                    report = true;
+                } else {
+                    buffer = null;
+                    report = false;
+                }
+            }
+            
+            if (report) {
+                UnsignalledExceptions.onErrorDropped(t);
+            } else {
+                error = t;
+                done = true;
+                drain();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            cancelTimer();
+
+            C b;
+            synchronized (this) {
+                b = buffer;
+                if (b == null) {
+                    return;
+                }
+                
+                buffer = null;
+                queue.offer(b);
+            }
+
+            done = true;
+            drain();
+        }
+        
+        void setTimer(Cancellation c) {
+            if (!TIMER.compareAndSet(this, null, c)) {
+                c.dispose();
+            }
+        }
+        
+        void cancelTimer() {
+            Cancellation c = timer;
+            if (c != CANCELLED) {
+                c = TIMER.getAndSet(this, CANCELLED);
+                if (c != null && c != CANCELLED) {
+                    c.dispose();
+                }
+            }
+        }
+        
+        @Override
+        public void run() {
+            boolean empty;
+            synchronized (this) {
+                C b = buffer;
+                if (b == null) {
+                    return;
+                }
+                empty = b.isEmpty();
+            }
+            if (empty) {
+                // buffers flushed by the size limit may not have been emitted yet
+                if (!queue.isEmpty()) {
+                    drain();
+                }
+                return;
+            }
+
+            C c;
+
+            try {
+                c = bufferSupplier.get();
+            } catch (Throwable e) {
+                ExceptionHelper.throwIfFatal(e);
+                cancelTimer();
+
+                otherError(ExceptionHelper.unwrap(e));
+                return;
+            }
+
+            if (c == null) {
+                cancelTimer();
+
+                otherError(new NullPointerException("The bufferSupplier returned a null buffer"));
+                return;
+            }
+
+            synchronized (this) {
+                C b = buffer;
+                // the size limit may have flushed the buffer in the meantime
+                if (b == null) {
+                    return;
+                }
+                if (b.isEmpty()) {
+                    empty = true;
+                } else {
+                    buffer = c;
+                    queue.offer(b);
+                }
+            }
+            if (empty && queue.isEmpty()) {
+                return;
+            }
+            drain();
+        }
+        
+        void otherError(Throwable e) {
+            cancelMain();
+            
+            boolean report;
+            synchronized (this) {
+                if (buffer == null) {
+                    report = true;
+                } else {
+                    buffer = null;
+                    report = false;
+                }
+            }
+            
+            if (report) {
+                UnsignalledExceptions.onErrorDropped(e);
+            } else {
+                error = e;
+                done = true;
+                drain();
+            }
+        }
+        
+        void drain() {
+            if (WIP.getAndIncrement(this) != 0) {
+                return;
+            }
+            
+            int missed = 1;
+            final Queue<C> q = queue;
+            final Subscriber<? super C> a = actual;
+
+            for (;;) {
+                
+                for (;;) {
+                    boolean d = done;
+                    
+                    C b = q.poll();
+                    
+                    boolean empty = b == null;
+                    
+                    if (cancelled) {
+                        q.clear();
+                        return;
+                    }
+                    if (d) {
+                        Throwable e = error;
+                        if (e != null) {
+                            q.clear();
+                            
+                            a.onError(e);
+                            return;
+                        } else
+                        if (empty) {
+                            a.onComplete();
+                            return;
+                        }
+                    }
+                    
+                    if (empty) {
+                        break;
+                    }
+                    
+                    long r = requested;
+                    if (r != 0L) {
+                        a.onNext(b);
+                        if (r != Long.MAX_VALUE) {
+                            REQUESTED.decrementAndGet(this);
+                        }
+                    } else {
+                        cancel();
+                        q.clear();
+                        
+                        a.onError(new IllegalStateException("Could not emit value due to lack of requests"));
+                        return;
+                    }
+                }
+                
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -26,7 +26,11 @@ import rsc.publisher.PublisherOnAssembly.*;
  */
 public final class PublisherCallableOnAssembly<T> extends PublisherSource<T, T> implements Fuseable, Callable<T> {
 
-    final String stacktrace;
+    /** The readable stacktrace, resolved from the site on first use if captured lazily. */
+    String stacktrace;
+
+    /** The cheaply captured assembly call site if the stacktrace is resolved lazily, null otherwise. */
+    final Throwable site;
     
     /**
      * If set to true, the creation of PublisherOnAssembly will capture the raw
@@ -35,13 +39,27 @@ public final class PublisherCallableOnAssembly<T> extends PublisherSource<T, T>
     public static volatile boolean fullStackTrace;
 
     public PublisherCallableOnAssembly(Publisher<? extends T> source) {
-        super(source);
-        this.stacktrace = takeStacktrace();
+        this(source, false);
     }
 
-    private String takeStacktrace() {
-        StackTraceElement[] stes = Thread.currentThread().getStackTrace();
+    /**
+     * Constructs the operator, capturing the stacktrace now or, if {@code lazy} is set,
+     * capturing only the call site now and producing the readable stacktrace when it is
+     * first needed, i.e., an error passes through.
+     * @param source the source to wrap
+     * @param lazy capture the call site only and resolve the stacktrace on demand
+     */
+    public PublisherCallableOnAssembly(Publisher<? extends T> source, boolean lazy) {
+        super(source);
+        if (lazy) {
+            this.site = new AssemblySite();
+        } else {
+            this.site = null;
+            this.stacktrace = takeStacktrace(Thread.currentThread().getStackTrace());
+        }
+    }
 
+    static String takeStacktrace(StackTraceElement[] stes) {
         StringBuilder sb = new StringBuilder("Assembly trace:\n");
         
         for (StackTraceElement e : stes) {
@@ -56,6 +74,9 @@ public final class PublisherCallableOnAssembly<T> extends PublisherSource<T, T>
                 if (row.contains("PublisherOnAssembly.")) {
                     continue;
                 }
+                if (row.contains("AssemblySite.")) {
+                    continue;
+                }
                 if (row.contains(".junit.runner")) {
                     continue;
                 }
@@ -92,16 +113,22 @@ public final class PublisherCallableOnAssembly<T> extends PublisherSource<T, T>
      * @return the stacktrace
      */
     public String stacktrace() {
-        return stacktrace;
+        String st = stacktrace;
+        if (st == null) {
+            // racy but idempotent, Strings are safely published
+            st = takeStacktrace(site.getStackTrace());
+            stacktrace = st;
+        }
+        return st;
     }
     
     @Override
     public void subscribe(Subscriber<? super T> s) {
         if (s instanceof Fuseable.ConditionalSubscriber) {
             Fuseable.ConditionalSubscriber<? super T> cs = (Fuseable.ConditionalSubscriber<? super T>) s;
-            source.subscribe(new OnAssemblyConditionalSubscriber<>(cs, stacktrace));
+            source.subscribe(new OnAssemblyConditionalSubscriber<>(cs, this::stacktrace));
         } else {
-            source.subscribe(new OnAssemblySubscriber<>(s, stacktrace));
+            source.subscribe(new OnAssemblySubscriber<>(s, this::stacktrace));
         }
     }
     
@@ -30,10 +30,14 @@ extends Px<R>
 
     final Function<Object[], R> combiner;
     
+    /** If null, the values are queued into a pre-sized array and the latest values are kept in a single array. */
     final Supplier<? extends Queue<SourceAndArray>> queueSupplier;
     
     final int bufferSize;
 
+    /** Copy the latest values for each call to the combiner when running without a queueSupplier. */
+    final boolean copyLatest;
+
     public PublisherCombineLatest(Publisher<? extends T>[] array,
             Function<Object[], R> combiner, Supplier<? extends Queue<SourceAndArray>> queueSupplier,
                     int bufferSize) {
@@ -46,6 +50,34 @@ extends Px<R>
         this.combiner = Objects.requireNonNull(combiner, "combiner");
         this.queueSupplier = Objects.requireNonNull(queueSupplier, "queueSupplier");
         this.bufferSize = bufferSize;
+        this.copyLatest = true;
+    }
+
+    /**
+     * Constructs a PublisherCombineLatest that doesn't allocate per value: the values are
+     * queued along with the index of their source into arrays sized for the prefetch of
+     * all sources and the combiner is called with the same array of latest values each time.
+     * <p>
+     * Unless copyLatest is set, the combiner must not modify the array nor keep a reference
+     * to it beyond its call.
+     * 
+     * @param array the sources
+     * @param combiner the function receiving the latest values
+     * @param bufferSize the prefetch amount of each source
+     * @param copyLatest call the combiner with a copy of the latest values which it can keep?
+     */
+    public PublisherCombineLatest(Publisher<? extends T>[] array,
+            Function<Object[], R> combiner, int bufferSize, boolean copyLatest) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("BUFFER_SIZE > 0 required but it was " + bufferSize);
+        }
+
+        this.array = Objects.requireNonNull(array, "array");
+        this.iterable = null;
+        this.combiner = Objects.requireNonNull(combiner, "combiner");
+        this.queueSupplier = null;
+        this.bufferSize = bufferSize;
+        this.copyLatest = copyLatest;
     }
     
     public PublisherCombineLatest(Iterable<? extends Publisher<? extends T>> iterable,
@@ -60,6 +92,30 @@ extends Px<R>
         this.combiner = Objects.requireNonNull(combiner, "combiner");
         this.queueSupplier = Objects.requireNonNull(queueSupplier, "queueSupplier");
         this.bufferSize = bufferSize;
+        this.copyLatest = true;
+    }
+
+    /**
+     * Constructs a PublisherCombineLatest that doesn't allocate per value, see
+     * {@link #PublisherCombineLatest(Publisher[], Function, int, boolean)}.
+     * 
+     * @param iterable the sources
+     * @param combiner the function receiving the latest values
+     * @param bufferSize the prefetch amount of each source
+     * @param copyLatest call the combiner with a copy of the latest values which it can keep?
+     */
+    public PublisherCombineLatest(Iterable<? extends Publisher<? extends T>> iterable,
+            Function<Object[], R> combiner, int bufferSize, boolean copyLatest) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("BUFFER_SIZE > 0 required but it was " + bufferSize);
+        }
+
+        this.array = null;
+        this.iterable = Objects.requireNonNull(iterable, "iterable");
+        this.combiner = Objects.requireNonNull(combiner, "combiner");
+        this.queueSupplier = null;
+        this.bufferSize = bufferSize;
+        this.copyLatest = copyLatest;
     }
 
     @Override
@@ -151,10 +207,23 @@ extends Px<R>
             return;
         }
         
+        if (queueSupplier == null) {
+            if ((long)n * bufferSize <= PublisherCombineLatestIndexedCoordinator.MAX_CAPACITY) {
+                PublisherCombineLatestIndexedCoordinator<T, R> coordinator =
+                        new PublisherCombineLatestIndexedCoordinator<>(s, combiner, n, bufferSize, copyLatest);
+
+                s.onSubscribe(coordinator);
+
+                coordinator.subscribe(a, n);
+                return;
+            }
+            // the values may not fit into the pre-sized arrays, fall back to the linked queue
+        }
+        
         Queue<SourceAndArray> queue;
         
         try {
-            queue = queueSupplier.get();
+            queue = queueSupplier != null ? queueSupplier.get() : new SpscLinkedArrayQueue<>(bufferSize);
         } catch (Throwable e) {
             SubscriptionHelper.error(s, e);
             return;
@@ -173,8 +242,22 @@ extends Px<R>
         coordinator.subscribe(a, n);
     }
     
+    /**
+     * The signals of the inner subscribers, implemented by the coordinators.
+     *
+     * @param <T> the value type of the sources
+     */
+    interface PublisherCombineLatestSupport<T> {
+
+        void innerValue(int index, T value);
+
+        void innerComplete(int index);
+
+        void innerError(Throwable e);
+    }
+
     static final class PublisherCombineLatestCoordinator<T, R> 
-    implements QueueSubscription<R>, MultiReceiver, Trackable {
+    implements QueueSubscription<R>, MultiReceiver, Trackable, PublisherCombineLatestSupport<T> {
 
         final Subscriber<? super R> actual;
         
@@ -274,7 +357,8 @@ extends Px<R>
             }
         }
         
-        void innerValue(int index, T value) {
+        @Override
+        public void innerValue(int index, T value) {
             
             boolean replenishInsteadOfDrain;
             
@@ -308,7 +392,8 @@ extends Px<R>
             }
         }
         
-        void innerComplete(int index) {
+        @Override
+        public void innerComplete(int index) {
             synchronized (this) {
                 Object[] os = latest;
                 
@@ -328,7 +413,8 @@ extends Px<R>
             drain();
         }
         
-        void innerError(Throwable e) {
+        @Override
+        public void innerError(Throwable e) {
             
             if (ExceptionHelper.addThrowable(ERROR, this, e)) {
                 done = true;
@@ -525,10 +611,433 @@ extends Px<R>
         }
     }
     
+    /**
+     * Coordinates the sources without allocating per value: the values are queued along
+     * with the index of their source into arrays sized for the prefetch of all sources,
+     * under the same lock PublisherCombineLatestCoordinator uses, and the drain loop applies
+     * them one by one to the single array of latest values before calling the combiner.
+     * <p>
+     * The arrays can't overflow as each source has at most bufferSize values that were
+     * not consumed and replenished yet.
+     *
+     * @param <T> the value type of the sources
+     * @param <R> the result type
+     */
+    static final class PublisherCombineLatestIndexedCoordinator<T, R>
+    implements QueueSubscription<R>, MultiReceiver, Trackable, PublisherCombineLatestSupport<T> {
+
+        /** The largest number of queued values allowed, beyond that the linked queue is used. */
+        static final int MAX_CAPACITY = 1 << 22;
+
+        final Subscriber<? super R> actual;
+
+        final Function<Object[], R> combiner;
+
+        final PublisherCombineLatestInner<T>[] subscribers;
+
+        final boolean copyLatest;
+
+        /** The latest values, accessed from the drain loop or poll() only. */
+        final Object[] latest;
+
+        /** The source index of each queued value. */
+        final int[] indexes;
+
+        final Object[] values;
+
+        final int mask;
+
+        volatile long producerIndex;
+        @SuppressWarnings("rawtypes")
+        static final AtomicLongFieldUpdater<PublisherCombineLatestIndexedCoordinator> PRODUCER_INDEX =
+                AtomicLongFieldUpdater.newUpdater(PublisherCombineLatestIndexedCoordinator.class, "producerIndex");
+
+        volatile long consumerIndex;
+        @SuppressWarnings("rawtypes")
+        static final AtomicLongFieldUpdater<PublisherCombineLatestIndexedCoordinator> CONSUMER_INDEX =
+                AtomicLongFieldUpdater.newUpdater(PublisherCombineLatestIndexedCoordinator.class, "consumerIndex");
+
+        /** The number of sources with a latest value, accessed from the drain loop or poll() only. */
+        int nonEmptySources;
+
+        int completedSources;
+
+        boolean outputFused;
+
+        volatile boolean cancelled;
+
+        volatile long requested;
+        @SuppressWarnings("rawtypes")
+        static final AtomicLongFieldUpdater<PublisherCombineLatestIndexedCoordinator> REQUESTED =
+                AtomicLongFieldUpdater.newUpdater(PublisherCombineLatestIndexedCoordinator.class, "requested");
+
+        volatile int wip;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<PublisherCombineLatestIndexedCoordinator> WIP =
+                AtomicIntegerFieldUpdater.newUpdater(PublisherCombineLatestIndexedCoordinator.class, "wip");
+
+        volatile boolean done;
+
+        volatile Throwable error;
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<PublisherCombineLatestIndexedCoordinator, Throwable> ERROR =
+                AtomicReferenceFieldUpdater.newUpdater(PublisherCombineLatestIndexedCoordinator.class, Throwable.class, "error");
+
+        public PublisherCombineLatestIndexedCoordinator(Subscriber<? super R> actual,
+                Function<Object[], R> combiner, int n, int bufferSize, boolean copyLatest) {
+            this.actual = actual;
+            this.combiner = combiner;
+            this.copyLatest = copyLatest;
+            @SuppressWarnings("unchecked")
+            PublisherCombineLatestInner<T>[] a = (PublisherCombineLatestInner<T>[])new PublisherCombineLatestInner<?>[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = new PublisherCombineLatestInner<>(this, i, bufferSize);
+            }
+            this.subscribers = a;
+            this.latest = new Object[n];
+            int c = PowerOf2.roundUp(n * bufferSize);
+            this.indexes = new int[c];
+            this.values = new Object[c];
+            this.mask = c - 1;
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.getAndAddCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            cancelAll();
+
+            if (WIP.getAndIncrement(this) == 0) {
+                clear();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public Iterator<?> upstreams() {
+            return Arrays.asList(subscribers).iterator();
+        }
+
+        @Override
+        public long upstreamCount() {
+            return subscribers.length;
+        }
+
+        void subscribe(Publisher<? extends T>[] sources, int n) {
+            PublisherCombineLatestInner<T>[] a = subscribers;
+
+            for (int i = 0; i < n; i++) {
+                if (done || cancelled) {
+                    return;
+                }
+                sources[i].subscribe(a[i]);
+            }
+        }
+
+        @Override
+        public void innerValue(int index, T value) {
+            subscribers[index].hasValue = true;
+
+            synchronized (this) {
+                long pi = producerIndex;
+                int offset = (int)pi & mask;
+                values[offset] = value;
+                indexes[offset] = index;
+                PRODUCER_INDEX.lazySet(this, pi + 1);
+            }
+
+            drain();
+        }
+
+        @Override
+        public void innerComplete(int index) {
+            if (subscribers[index].hasValue) {
+                synchronized (this) {
+                    int localCompletedSources = completedSources + 1;
+
+                    if (localCompletedSources != subscribers.length) {
+                        completedSources = localCompletedSources;
+                        return;
+                    }
+                }
+            }
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void innerError(Throwable e) {
+            if (ExceptionHelper.addThrowable(ERROR, this, e)) {
+                done = true;
+                drain();
+            } else {
+                UnsignalledExceptions.onErrorDropped(e);
+            }
+        }
+
+        /**
+         * Checks if all sources have a latest value once the next queued value is consumed.
+         * @param ci the current consumer index, not equal to the producer index
+         * @param n the number of sources
+         * @return true if consuming the value calls the combiner
+         */
+        boolean completesLatest(long ci, int n) {
+            int k = nonEmptySources;
+            return k == n || (k == n - 1 && latest[indexes[(int)ci & mask]] == null);
+        }
+
+        /**
+         * Moves the next queued value into the latest values.
+         * @param ci the current consumer index, not equal to the producer index
+         * @return the source of the value
+         */
+        PublisherCombineLatestInner<T> consume(long ci) {
+            int offset = (int)ci & mask;
+            int index = indexes[offset];
+            Object v = values[offset];
+            values[offset] = null;
+            CONSUMER_INDEX.lazySet(this, ci + 1);
+
+            Object[] os = latest;
+            if (os[index] == null) {
+                nonEmptySources++;
+            }
+            os[index] = v;
+            return subscribers[index];
+        }
+
+        void drainOutput() {
+            final Subscriber<? super R> a = actual;
+
+            int missed = 1;
+
+            for (;;) {
+
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+
+                Throwable ex = error;
+                if (ex != null) {
+                    clear();
+
+                    a.onError(ex);
+                    return;
+                }
+
+                boolean d = done;
+
+                boolean empty = isEmpty();
+
+                if (!empty) {
+                    a.onNext(null);
+                }
+
+                // some of the queued values may not produce a result, let the consumer drain them
+                if (d) {
+                    a.onComplete();
+                    return;
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void drainAsync() {
+            final Subscriber<? super R> a = actual;
+            final int n = subscribers.length;
+
+            int missed = 1;
+
+            for (;;) {
+
+                long r = requested;
+                long e = 0L;
+
+                for (;;) {
+                    boolean d = done;
+
+                    long ci = consumerIndex;
+
+                    boolean empty = ci == producerIndex;
+
+                    if (checkTerminated(d, empty, a)) {
+                        return;
+                    }
+
+                    if (empty) {
+                        break;
+                    }
+
+                    // values arriving before all sources have one don't need demand
+                    if (e == r && completesLatest(ci, n)) {
+                        break;
+                    }
+
+                    PublisherCombineLatestInner<T> inner = consume(ci);
+
+                    if (nonEmptySources != n) {
+                        inner.requestOne();
+                        continue;
+                    }
+
+                    R w;
+
+                    try {
+                        w = combiner.apply(copyLatest ? latest.clone() : latest);
+                    } catch (Throwable ex) {
+                        ExceptionHelper.throwIfFatal(ex);
+                        innerError(ExceptionHelper.unwrap(ex));
+                        continue;
+                    }
+
+                    if (w == null) {
+                        innerError(new NullPointerException("The combiner returned a null value"));
+                        continue;
+                    }
+
+                    a.onNext(w);
+
+                    inner.requestOne();
+
+                    e++;
+                }
+
+                if (e != 0L && r != Long.MAX_VALUE) {
+                    REQUESTED.addAndGet(this, -e);
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void drain() {
+            if (WIP.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            if (outputFused) {
+                drainOutput();
+            } else {
+                drainAsync();
+            }
+        }
+
+        boolean checkTerminated(boolean d, boolean empty, Subscriber<?> a) {
+            if (cancelled) {
+                cancelAll();
+                clear();
+                return true;
+            }
+
+            if (d) {
+                Throwable e = ExceptionHelper.terminate(ERROR, this);
+
+                if (e != null && e != ExceptionHelper.TERMINATED) {
+                    cancelAll();
+                    clear();
+                    a.onError(e);
+                    return true;
+                } else
+                if (empty) {
+                    cancelAll();
+
+                    a.onComplete();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void cancelAll() {
+            for (PublisherCombineLatestInner<T> inner : subscribers) {
+                inner.cancel();
+            }
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            if ((requestedMode & THREAD_BARRIER) != 0) {
+                return NONE;
+            }
+            int m = requestedMode & ASYNC;
+            outputFused = m != 0;
+            return m;
+        }
+
+        @Override
+        public R poll() {
+            final int n = subscribers.length;
+            for (;;) {
+                long ci = consumerIndex;
+                if (ci == producerIndex) {
+                    return null;
+                }
+
+                PublisherCombineLatestInner<T> inner = consume(ci);
+
+                if (nonEmptySources != n) {
+                    inner.requestOne();
+                    continue;
+                }
+
+                R r = Objects.requireNonNull(combiner.apply(copyLatest ? latest.clone() : latest), "The combiner returned a null value");
+                inner.requestOne();
+                return r;
+            }
+        }
+
+        @Override
+        public void clear() {
+            long ci = consumerIndex;
+            long pi = producerIndex;
+            Object[] a = values;
+            int m = mask;
+            while (ci != pi) {
+                a[(int)ci & m] = null;
+                ci++;
+            }
+            CONSUMER_INDEX.lazySet(this, ci);
+            Arrays.fill(latest, null);
+            nonEmptySources = 0;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return consumerIndex == producerIndex;
+        }
+
+        @Override
+        public int size() {
+            return (int)(producerIndex - consumerIndex);
+        }
+    }
+    
     static final class PublisherCombineLatestInner<T>
             implements Subscriber<T>, Receiver, Producer, Trackable {
 
-        final PublisherCombineLatestCoordinator<T, ?> parent;
+        final PublisherCombineLatestSupport<T> parent;
 
         final int index;
 
@@ -544,7 +1053,10 @@ extends Px<R>
         int produced;
         
         
-        public PublisherCombineLatestInner(PublisherCombineLatestCoordinator<T, ?> parent, int index, int prefetch) {
+        /** Set once the source signalled a value, accessed from the signal methods of the source only. */
+        boolean hasValue;
+        
+        public PublisherCombineLatestInner(PublisherCombineLatestSupport<T> parent, int index, int prefetch) {
             this.parent = parent;
             this.index = index;
             this.prefetch = prefetch;
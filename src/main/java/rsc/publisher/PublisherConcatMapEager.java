@@ -0,0 +1,494 @@
+package rsc.publisher;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+import org.reactivestreams.*;
+
+import rsc.documentation.BackpressureMode;
+import rsc.documentation.BackpressureSupport;
+import rsc.documentation.FusionMode;
+import rsc.documentation.FusionSupport;
+import rsc.flow.*;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.*;
+
+/**
+ * Maps each upstream value into a Publisher, subscribes to up to maxConcurrency of them
+ * at once and relays their values in the order of the upstream values.
+ * <p>
+ * The values of the inner Publishers that are not the current one are buffered in their
+ * own queue, or in the inner Publisher itself if it supports fusion, until the preceding
+ * inner Publishers completed.
+ *
+ * @param <T> the source value type
+ * @param <R> the output value type
+ */
+@BackpressureSupport(input = BackpressureMode.BOUNDED, innerInput = BackpressureMode.BOUNDED, output = BackpressureMode.BOUNDED)
+@FusionSupport(innerInput = { FusionMode.SYNC, FusionMode.ASYNC })
+public final class PublisherConcatMapEager<T, R> extends PublisherSource<T, R> {
+
+    final Function<? super T, ? extends Publisher<? extends R>> mapper;
+
+    final int maxConcurrency;
+
+    final int prefetch;
+
+    final Supplier<? extends Queue<R>> queueSupplier;
+
+    final boolean delayError;
+
+    public PublisherConcatMapEager(Publisher<? extends T> source,
+            Function<? super T, ? extends Publisher<? extends R>> mapper,
+            int maxConcurrency, int prefetch,
+            Supplier<? extends Queue<R>> queueSupplier, boolean delayError) {
+        super(source);
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency > 0 required but it was " + maxConcurrency);
+        }
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        this.mapper = Objects.requireNonNull(mapper, "mapper");
+        this.maxConcurrency = maxConcurrency;
+        this.prefetch = prefetch;
+        this.queueSupplier = Objects.requireNonNull(queueSupplier, "queueSupplier");
+        this.delayError = delayError;
+    }
+
+    @Override
+    public long getPrefetch() {
+        return prefetch;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super R> s) {
+
+        if (PublisherFlatMap.trySubscribeScalarMap(source, s, mapper, false)) {
+            return;
+        }
+
+        source.subscribe(new PublisherConcatMapEagerMain<>(s, mapper, maxConcurrency, prefetch, queueSupplier, delayError));
+    }
+
+    static final class PublisherConcatMapEagerMain<T, R> implements Subscriber<T>, Subscription, Receiver, Producer {
+
+        final Subscriber<? super R> actual;
+
+        final Function<? super T, ? extends Publisher<? extends R>> mapper;
+
+        final int maxConcurrency;
+
+        final int prefetch;
+
+        final Supplier<? extends Queue<R>> queueSupplier;
+
+        final boolean delayError;
+
+        /** The inner subscribers in the order of the upstream values, offered by onNext, polled by the drain loop. */
+        final Queue<PublisherConcatMapEagerInner<R>> subscribers;
+
+        /** The inner subscriber whose values are relayed, accessed from the drain loop only. */
+        PublisherConcatMapEagerInner<R> current;
+
+        Subscription s;
+
+        volatile boolean done;
+
+        volatile boolean cancelled;
+
+        volatile Throwable error;
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<PublisherConcatMapEagerMain, Throwable> ERROR =
+                AtomicReferenceFieldUpdater.newUpdater(PublisherConcatMapEagerMain.class, Throwable.class, "error");
+
+        volatile long requested;
+        @SuppressWarnings("rawtypes")
+        static final AtomicLongFieldUpdater<PublisherConcatMapEagerMain> REQUESTED =
+                AtomicLongFieldUpdater.newUpdater(PublisherConcatMapEagerMain.class, "requested");
+
+        volatile int wip;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<PublisherConcatMapEagerMain> WIP =
+                AtomicIntegerFieldUpdater.newUpdater(PublisherConcatMapEagerMain.class, "wip");
+
+        public PublisherConcatMapEagerMain(Subscriber<? super R> actual,
+                Function<? super T, ? extends Publisher<? extends R>> mapper,
+                int maxConcurrency, int prefetch,
+                Supplier<? extends Queue<R>> queueSupplier, boolean delayError) {
+            this.actual = actual;
+            this.mapper = mapper;
+            this.maxConcurrency = maxConcurrency;
+            this.prefetch = prefetch;
+            this.queueSupplier = queueSupplier;
+            this.delayError = delayError;
+            this.subscribers = new SpscLinkedArrayQueue<>(Math.min(maxConcurrency, Px.BUFFER_SIZE));
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(this.s, s)) {
+                this.s = s;
+
+                actual.onSubscribe(this);
+
+                s.request(maxConcurrency == Integer.MAX_VALUE ? Long.MAX_VALUE : maxConcurrency);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+
+            Publisher<? extends R> p;
+
+            try {
+                p = mapper.apply(t);
+            } catch (Throwable e) {
+                ExceptionHelper.throwIfFatal(e);
+                s.cancel();
+                onError(e);
+                return;
+            }
+
+            if (p == null) {
+                s.cancel();
+                onError(new NullPointerException("The mapper returned a null Publisher"));
+                return;
+            }
+
+            PublisherConcatMapEagerInner<R> inner = new PublisherConcatMapEagerInner<>(this, prefetch);
+
+            subscribers.offer(inner);
+
+            // the drain loop may have already cleaned up, let it cancel this one too
+            if (cancelled) {
+                drain();
+                return;
+            }
+
+            p.subscribe(inner);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                UnsignalledExceptions.onErrorDropped(t);
+                return;
+            }
+            if (ExceptionHelper.addThrowable(ERROR, this, t)) {
+                done = true;
+                drain();
+            } else {
+                UnsignalledExceptions.onErrorDropped(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.getAndAddCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                s.cancel();
+
+                if (WIP.getAndIncrement(this) == 0) {
+                    cancelAll();
+                }
+            }
+        }
+
+        void innerError(PublisherConcatMapEagerInner<R> inner, Throwable e) {
+            if (ExceptionHelper.addThrowable(ERROR, this, e)) {
+                inner.done = true;
+                drain();
+            } else {
+                UnsignalledExceptions.onErrorDropped(e);
+            }
+        }
+
+        void cancelAll() {
+            PublisherConcatMapEagerInner<R> inner = current;
+            current = null;
+            if (inner != null) {
+                inner.cancel();
+            }
+            while ((inner = subscribers.poll()) != null) {
+                inner.cancel();
+            }
+        }
+
+        /**
+         * Replaces an inner Publisher that completed with the next upstream value.
+         */
+        void innerDone() {
+            if (maxConcurrency != Integer.MAX_VALUE) {
+                s.request(1);
+            }
+        }
+
+        boolean checkTerminated(Subscriber<? super R> a) {
+            if (cancelled) {
+                cancelAll();
+                return true;
+            }
+            if (!delayError && error != null) {
+                s.cancel();
+                cancelAll();
+                Throwable e = ExceptionHelper.terminate(ERROR, this);
+                if (e != ExceptionHelper.TERMINATED) {
+                    a.onError(e);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        void drain() {
+            if (WIP.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            int missed = 1;
+            final Subscriber<? super R> a = actual;
+
+            for (;;) {
+
+                if (checkTerminated(a)) {
+                    return;
+                }
+
+                PublisherConcatMapEagerInner<R> inner = current;
+
+                if (inner == null) {
+                    boolean d = done;
+
+                    inner = subscribers.poll();
+
+                    if (d && inner == null) {
+                        Throwable e = ExceptionHelper.terminate(ERROR, this);
+                        if (e != null && e != ExceptionHelper.TERMINATED) {
+                            a.onError(e);
+                        } else {
+                            a.onComplete();
+                        }
+                        return;
+                    }
+
+                    current = inner;
+                }
+
+                if (inner != null) {
+                    Queue<R> q = inner.queue;
+
+                    long r = requested;
+                    long e = 0L;
+
+                    boolean finished = false;
+
+                    while (e != r) {
+                        if (checkTerminated(a)) {
+                            return;
+                        }
+
+                        boolean d = inner.done;
+
+                        R v;
+
+                        try {
+                            v = q != null ? q.poll() : null;
+                        } catch (Throwable ex) {
+                            ExceptionHelper.throwIfFatal(ex);
+                            inner.cancel();
+                            if (!ExceptionHelper.addThrowable(ERROR, this, ex)) {
+                                UnsignalledExceptions.onErrorDropped(ex);
+                            }
+                            v = null;
+                            d = true;
+                        }
+
+                        boolean empty = v == null;
+
+                        if (d && empty) {
+                            finished = true;
+                            break;
+                        }
+
+                        if (empty) {
+                            break;
+                        }
+
+                        a.onNext(v);
+
+                        e++;
+
+                        inner.requestOne();
+                    }
+
+                    if (e == r && !finished) {
+                        if (checkTerminated(a)) {
+                            return;
+                        }
+
+                        finished = inner.done && (q == null || q.isEmpty());
+                    }
+
+                    if (e != 0L && r != Long.MAX_VALUE) {
+                        REQUESTED.addAndGet(this, -e);
+                    }
+
+                    if (finished) {
+                        current = null;
+                        innerDone();
+                        continue;
+                    }
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public Object upstream() {
+            return s;
+        }
+
+        @Override
+        public Object downstream() {
+            return actual;
+        }
+    }
+
+    static final class PublisherConcatMapEagerInner<R> implements Subscriber<R>, Receiver {
+
+        final PublisherConcatMapEagerMain<?, R> parent;
+
+        final int prefetch;
+
+        final int limit;
+
+        volatile Subscription s;
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<PublisherConcatMapEagerInner, Subscription> S =
+                AtomicReferenceFieldUpdater.newUpdater(PublisherConcatMapEagerInner.class, Subscription.class, "s");
+
+        volatile Queue<R> queue;
+
+        volatile boolean done;
+
+        /** Represents the optimization mode of this inner subscriber, accessed from the drain loop once the queue is visible. */
+        int sourceMode;
+
+        int produced;
+
+        static final int SYNC = 1;
+        static final int ASYNC = 2;
+
+        public PublisherConcatMapEagerInner(PublisherConcatMapEagerMain<?, R> parent, int prefetch) {
+            this.parent = parent;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(S, this, s)) {
+                if (s instanceof Fuseable.QueueSubscription) {
+                    @SuppressWarnings("unchecked") Fuseable.QueueSubscription<R> f = (Fuseable.QueueSubscription<R>)s;
+                    int m = f.requestFusion(Fuseable.ANY);
+                    if (m == Fuseable.SYNC) {
+                        sourceMode = SYNC;
+                        queue = f;
+                        done = true;
+                        parent.drain();
+                        return;
+                    } else
+                    if (m == Fuseable.ASYNC) {
+                        sourceMode = ASYNC;
+                        queue = f;
+                        s.request(prefetch);
+                        return;
+                    }
+                }
+
+                try {
+                    queue = parent.queueSupplier.get();
+                } catch (Throwable ex) {
+                    ExceptionHelper.throwIfFatal(ex);
+                    s.cancel();
+                    onError(ex);
+                    return;
+                }
+
+                s.request(prefetch);
+            }
+        }
+
+        @Override
+        public void onNext(R t) {
+            if (sourceMode == ASYNC) {
+                parent.drain();
+                return;
+            }
+            if (!queue.offer(t)) {
+                s.cancel();
+                onError(new IllegalStateException("Queue full?!"));
+                return;
+            }
+            parent.drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            parent.innerError(this, t);
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            parent.drain();
+        }
+
+        void requestOne() {
+            if (sourceMode != SYNC) {
+                int p = produced + 1;
+                if (p == limit) {
+                    produced = 0;
+                    s.request(p);
+                } else {
+                    produced = p;
+                }
+            }
+        }
+
+        void cancel() {
+            SubscriptionHelper.terminate(S, this);
+        }
+
+        @Override
+        public Object upstream() {
+            return s;
+        }
+    }
+}
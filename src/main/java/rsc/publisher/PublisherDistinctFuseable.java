@@ -210,7 +210,7 @@ extends PublisherSource<T, T> implements Fuseable {
             if ((requestedMode & Fuseable.THREAD_BARRIER) != 0) {
                 m = Fuseable.NONE;
             } else {
-                m = qs.requestFusion(requestedMode);
+                m = qs.requestFusion(requestedMode & ~Fuseable.BATCH);
             }
             sourceMode = m;
             return m;
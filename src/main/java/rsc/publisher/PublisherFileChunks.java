@@ -0,0 +1,128 @@
+package rsc.publisher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Objects;
+
+import org.reactivestreams.Subscriber;
+
+import rsc.documentation.*;
+import rsc.flow.Fuseable;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.ExceptionHelper;
+
+/**
+ * Emits the content of a file in consecutive windows of a fixed number of bytes, as
+ * read-only ByteBuffer slices of the file regions it memory-maps as the windows are
+ * requested; the last window may be shorter.
+ * <p>
+ * The regions are mapped at window boundaries thus no window spans two regions.
+ * The slices share the mapped memory, a consumer has to copy what it keeps beyond
+ * the file's lifetime or changes.
+ */
+@BackpressureSupport(input = BackpressureMode.NOT_APPLICABLE, output = BackpressureMode.BOUNDED)
+@FusionSupport(input = { FusionMode.NOT_APPLICABLE }, output = { FusionMode.SYNC })
+public final class PublisherFileChunks extends Px<ByteBuffer> implements Fuseable {
+
+    final Path path;
+
+    final int chunkSize;
+
+    final int regionSize;
+
+    public PublisherFileChunks(Path path, int chunkSize) {
+        this(path, chunkSize, Math.max(chunkSize, MappedFileSubscription.DEFAULT_REGION_SIZE));
+    }
+
+    /**
+     * Constructs a PublisherFileChunks.
+     * @param path the file to read
+     * @param chunkSize the number of bytes per window, positive
+     * @param regionSize the number of bytes to map at once, rounded down to a multiple
+     * of the chunkSize, not less than the chunkSize
+     */
+    public PublisherFileChunks(Path path, int chunkSize, int regionSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize > 0 required but it was " + chunkSize);
+        }
+        if (regionSize < chunkSize) {
+            throw new IllegalArgumentException("regionSize >= chunkSize required but it was " + regionSize);
+        }
+        this.path = Objects.requireNonNull(path, "path");
+        this.chunkSize = chunkSize;
+        this.regionSize = regionSize / chunkSize * chunkSize;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ByteBuffer> s) {
+        FileChannel ch;
+        long size;
+
+        try {
+            ch = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (Throwable ex) {
+            ExceptionHelper.throwIfFatal(ex);
+            SubscriptionHelper.error(s, ex);
+            return;
+        }
+
+        try {
+            size = ch.size();
+        } catch (Throwable ex) {
+            ExceptionHelper.throwIfFatal(ex);
+            PublisherFileRecords.closeQuietly(ch);
+            SubscriptionHelper.error(s, ex);
+            return;
+        }
+
+        if (size == 0L) {
+            PublisherFileRecords.closeQuietly(ch);
+            SubscriptionHelper.complete(s);
+            return;
+        }
+
+        s.onSubscribe(new FileChunksSubscription(s, ch, size, chunkSize, regionSize));
+    }
+
+    static final class FileChunksSubscription extends MappedFileSubscription {
+
+        final int chunkSize;
+
+        final int regionSize;
+
+        FileChunksSubscription(Subscriber<? super ByteBuffer> actual, FileChannel channel, long fileSize,
+                int chunkSize, int regionSize) {
+            super(actual, channel, fileSize);
+            this.chunkSize = chunkSize;
+            this.regionSize = regionSize;
+        }
+
+        @Override
+        ByteBuffer next() throws IOException {
+            final long c = cursor;
+            final long size = fileSize;
+            if (c >= size) {
+                return null;
+            }
+
+            ByteBuffer r = region;
+            if (r == null || c >= regionStart + r.limit()) {
+                r = map(c, (int)Math.min(size - c, regionSize));
+            }
+
+            int start = (int)(c - regionStart);
+            int end = Math.min(start + chunkSize, r.limit());
+
+            cursor = regionStart + end;
+            return slice(r, start, end);
+        }
+
+        @Override
+        public int size() {
+            long n = (fileSize - cursor + chunkSize - 1) / chunkSize;
+            return (int)Math.min(Integer.MAX_VALUE, Math.max(0L, n));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package rsc.publisher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Objects;
+
+import org.reactivestreams.Subscriber;
+
+import rsc.documentation.*;
+import rsc.flow.Fuseable;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.ExceptionHelper;
+
+/**
+ * Emits the records of a file, separated by a delimiter byte, as read-only ByteBuffer
+ * slices of the file regions it memory-maps as the records are requested.
+ * <p>
+ * The slices don't contain the delimiter. A delimiter at the end of the file doesn't
+ * start another record, consecutive delimiters produce empty records. A record that
+ * doesn't fit into the rest of the current region makes the next region start at the
+ * record, larger than the region size if the record is.
+ * <p>
+ * The slices share the mapped memory, a consumer has to copy what it keeps beyond
+ * the file's lifetime or changes.
+ */
+@BackpressureSupport(input = BackpressureMode.NOT_APPLICABLE, output = BackpressureMode.BOUNDED)
+@FusionSupport(input = { FusionMode.NOT_APPLICABLE }, output = { FusionMode.SYNC })
+public final class PublisherFileRecords extends Px<ByteBuffer> implements Fuseable {
+
+    final Path path;
+
+    final byte delimiter;
+
+    final int regionSize;
+
+    public PublisherFileRecords(Path path, byte delimiter) {
+        this(path, delimiter, MappedFileSubscription.DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Constructs a PublisherFileRecords.
+     * @param path the file to read
+     * @param delimiter the byte separating the records
+     * @param regionSize the number of bytes to map at once, positive
+     */
+    public PublisherFileRecords(Path path, byte delimiter, int regionSize) {
+        if (regionSize <= 0) {
+            throw new IllegalArgumentException("regionSize > 0 required but it was " + regionSize);
+        }
+        this.path = Objects.requireNonNull(path, "path");
+        this.delimiter = delimiter;
+        this.regionSize = regionSize;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ByteBuffer> s) {
+        FileChannel ch;
+        long size;
+
+        try {
+            ch = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (Throwable ex) {
+            ExceptionHelper.throwIfFatal(ex);
+            SubscriptionHelper.error(s, ex);
+            return;
+        }
+
+        try {
+            size = ch.size();
+        } catch (Throwable ex) {
+            ExceptionHelper.throwIfFatal(ex);
+            closeQuietly(ch);
+            SubscriptionHelper.error(s, ex);
+            return;
+        }
+
+        if (size == 0L) {
+            closeQuietly(ch);
+            SubscriptionHelper.complete(s);
+            return;
+        }
+
+        s.onSubscribe(new FileRecordsSubscription(s, ch, size, delimiter, regionSize));
+    }
+
+    static void closeQuietly(FileChannel ch) {
+        try {
+            ch.close();
+        } catch (IOException ex) {
+            // nothing was read, the error of closing doesn't matter
+        }
+    }
+
+    /**
+     * Returns the index of the first occurrence of the delimiter between from and to,
+     * scanning eight bytes at a time.
+     * @param b the buffer in little endian order
+     * @param from the start index, inclusive
+     * @param to the end index, exclusive
+     * @param delimiter the byte to look for
+     * @return the index of the delimiter or -1 if not found
+     */
+    static int indexOf(ByteBuffer b, int from, int to, byte delimiter) {
+        final long pattern = (delimiter & 0xFFL) * 0x0101010101010101L;
+
+        int i = from;
+        for (; i <= to - 8; i += 8) {
+            long w = b.getLong(i) ^ pattern;
+            // the lowest set bit marks the first zero byte, the higher ones may be false positives
+            long t = (w - 0x0101010101010101L) & ~w & 0x8080808080808080L;
+            if (t != 0L) {
+                return i + (Long.numberOfTrailingZeros(t) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (b.get(i) == delimiter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static final class FileRecordsSubscription extends MappedFileSubscription {
+
+        final byte delimiter;
+
+        final int regionSize;
+
+        FileRecordsSubscription(Subscriber<? super ByteBuffer> actual, FileChannel channel, long fileSize,
+                byte delimiter, int regionSize) {
+            super(actual, channel, fileSize);
+            this.delimiter = delimiter;
+            this.regionSize = regionSize;
+        }
+
+        @Override
+        ByteBuffer next() throws IOException {
+            final long c = cursor;
+            final long size = fileSize;
+            if (c >= size) {
+                return null;
+            }
+
+            ByteBuffer r = region;
+            if (r == null || c >= regionStart + r.limit()) {
+                r = map(c, (int)Math.min(size - c, regionSize));
+            }
+
+            int start = (int)(c - regionStart);
+            int from = start;
+
+            for (;;) {
+                int limit = r.limit();
+
+                int i = indexOf(r, from, limit, delimiter);
+                if (i >= 0) {
+                    cursor = regionStart + i + 1;
+                    return slice(r, start, i);
+                }
+
+                if (regionStart + limit == size) {
+                    // the last record isn't followed by a delimiter
+                    cursor = size;
+                    return slice(r, start, limit);
+                }
+
+                long len = limit - start;
+                long m = Math.min(size - c, Math.max(regionSize, Math.min(Integer.MAX_VALUE, len << 1)));
+                if (m <= len) {
+                    throw new IOException("The record at " + c + " is longer than " + Integer.MAX_VALUE + " bytes");
+                }
+
+                r = map(c, (int)m);
+                start = 0;
+                from = (int)len;
+            }
+        }
+    }
+}
@@ -238,7 +238,7 @@ public final class PublisherFilterFuseable<T> extends PublisherSource<T, T>
             if ((requestedMode & Fuseable.THREAD_BARRIER) != 0) {
                 m = Fuseable.NONE;
             } else {
-                m = s.requestFusion(requestedMode);
+                m = s.requestFusion(requestedMode & ~Fuseable.BATCH);
             }
             sourceMode = m;
             return m;
@@ -442,7 +442,7 @@ public final class PublisherFilterFuseable<T> extends PublisherSource<T, T>
             if ((requestedMode & Fuseable.THREAD_BARRIER) != 0) {
                 m = Fuseable.NONE;
             } else {
-                m = s.requestFusion(requestedMode);
+                m = s.requestFusion(requestedMode & ~Fuseable.BATCH);
             }
             sourceMode = m;
             return m;
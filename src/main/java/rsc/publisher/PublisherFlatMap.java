@@ -40,20 +40,45 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
 
     final int prefetch;
     
+    final int maxPrefetch;
+    
     final Supplier<? extends Queue<R>> innerQueueSupplier;
     
     public PublisherFlatMap(Publisher<? extends T> source, Function<? super T, ? extends Publisher<? extends R>> mapper,
             boolean delayError, int maxConcurrency, Supplier<? extends Queue<R>> mainQueueSupplier, int prefetch, Supplier<? extends Queue<R>> innerQueueSupplier) {
+        this(source, mapper, delayError, maxConcurrency, mainQueueSupplier, prefetch, prefetch, innerQueueSupplier);
+    }
+
+    /**
+     * Constructs a PublisherFlatMap whose inner subscribers, if maxPrefetch is greater than prefetch, adapt
+     * the amount they keep requested between the two at runtime, see {@link AdaptivePrefetch};
+     * the inner queues should be unbounded or hold maxPrefetch values in this case.
+     * @param source the source Publisher
+     * @param mapper the mapper from Ts to a Publisher of Rs
+     * @param delayError delay the errors?
+     * @param maxConcurrency maximum number of simultaneous subscriptions to the generated sources
+     * @param mainQueueSupplier the supplier for the main queue
+     * @param prefetch the (minimum) prefetch amount for the inner sources
+     * @param maxPrefetch the maximum prefetch amount for the inner sources
+     * @param innerQueueSupplier the queue supplier for the inner sources
+     */
+    public PublisherFlatMap(Publisher<? extends T> source, Function<? super T, ? extends Publisher<? extends R>> mapper,
+            boolean delayError, int maxConcurrency, Supplier<? extends Queue<R>> mainQueueSupplier, int prefetch, int maxPrefetch,
+            Supplier<? extends Queue<R>> innerQueueSupplier) {
         super(source);
         if (prefetch <= 0) {
             throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
         }
+        if (maxPrefetch < prefetch) {
+            throw new IllegalArgumentException("maxPrefetch >= prefetch required but it was " + maxPrefetch);
+        }
         if (maxConcurrency <= 0) {
             throw new IllegalArgumentException("maxConcurrency > 0 required but it was " + maxConcurrency);
         }
         this.mapper = Objects.requireNonNull(mapper, "mapper");
         this.delayError = delayError;
         this.prefetch = prefetch;
+        this.maxPrefetch = maxPrefetch;
         this.maxConcurrency = maxConcurrency;
         this.mainQueueSupplier = Objects.requireNonNull(mainQueueSupplier, "mainQueueSupplier");
         this.innerQueueSupplier = Objects.requireNonNull(innerQueueSupplier, "innerQueueSupplier");
@@ -83,7 +108,7 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
             boolean delayError, 
             int maxConcurrency, Supplier<? extends Queue<R>> mainQueueSupplier, 
             int prefetch, Supplier<? extends Queue<R>> innerQueueSupplier) {
-        return new PublisherFlatMapMain<>(s, mapper, delayError, maxConcurrency, mainQueueSupplier, prefetch, innerQueueSupplier);
+        return new PublisherFlatMapMain<>(s, mapper, delayError, maxConcurrency, mainQueueSupplier, prefetch, prefetch, innerQueueSupplier);
     }
     
     @Override
@@ -93,7 +118,7 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
             return;
         }
         
-        source.subscribe(new PublisherFlatMapMain<>(s, mapper, delayError, maxConcurrency, mainQueueSupplier, prefetch, innerQueueSupplier));
+        source.subscribe(new PublisherFlatMapMain<>(s, mapper, delayError, maxConcurrency, mainQueueSupplier, prefetch, maxPrefetch, innerQueueSupplier));
     }
 
     /**
@@ -190,6 +215,8 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
 
         final int prefetch;
 
+        final int maxPrefetch;
+
         final Supplier<? extends Queue<R>> innerQueueSupplier;
         
         final int limit;
@@ -227,15 +254,20 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
         
         int produced;
         
+        /** Lazily allocated array for draining inner {@link Fuseable.BatchQueue}s, accessed from the drain loop only. */
+        Object[] batch;
+        
         public PublisherFlatMapMain(Subscriber<? super R> actual,
                 Function<? super T, ? extends Publisher<? extends R>> mapper, boolean delayError, int maxConcurrency,
-                Supplier<? extends Queue<R>> mainQueueSupplier, int prefetch, Supplier<? extends Queue<R>> innerQueueSupplier) {
+                Supplier<? extends Queue<R>> mainQueueSupplier, int prefetch, int maxPrefetch,
+                Supplier<? extends Queue<R>> innerQueueSupplier) {
             this.actual = actual;
             this.mapper = mapper;
             this.delayError = delayError;
             this.maxConcurrency = maxConcurrency;
             this.mainQueueSupplier = mainQueueSupplier;
             this.prefetch = prefetch;
+            this.maxPrefetch = maxPrefetch;
             this.innerQueueSupplier = innerQueueSupplier;
             this.limit = maxConcurrency - (maxConcurrency >> 2);
         }
@@ -341,7 +373,7 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
                 }
                 emitScalar(v);
             } else {
-                PublisherFlatMapInner<R> inner = new PublisherFlatMapInner<>(this, prefetch);
+                PublisherFlatMapInner<R> inner = new PublisherFlatMapInner<>(this, prefetch, maxPrefetch);
                 if (add(inner)) {
                     
                     p.subscribe(inner);
@@ -579,43 +611,108 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
                                 replenishMain++;
                             } else 
                             if (q != null) {
-                                while (e != r) {
-                                    d = inner.done;
-                                    
-                                    R v;
-                                    
-                                    try {
-                                        v = q.poll();
-                                    } catch (Throwable ex) {
-                                        ExceptionHelper.throwIfFatal(ex);
-                                        inner.cancel();
-                                        if (!ExceptionHelper.addThrowable(ERROR, this, ex)) {
-                                            UnsignalledExceptions.onErrorDropped(ex);
-                                        }
-                                        v = null;
-                                        d = true;
+                                if (inner.batched) {
+                                    @SuppressWarnings("unchecked")
+                                    Fuseable.BatchQueue<R> bq = (Fuseable.BatchQueue<R>)q;
+                                    Object[] b = batch;
+                                    if (b == null) {
+                                        b = new Object[Math.min(prefetch, Px.BUFFER_SIZE)];
+                                        batch = b;
                                     }
                                     
-                                    boolean empty = v == null;
-                                    
-                                    if (checkTerminated(d, false, a)) {
-                                        return;
-                                    }
-    
-                                    if (d && empty) {
-                                        remove(inner.index);
-                                        again = true;
-                                        replenishMain++;
-                                        break;
+                                    while (e != r) {
+                                        d = inner.done;
+                                        
+                                        int c;
+                                        
+                                        try {
+                                            c = bq.poll(b, (int)Math.min(r - e, b.length));
+                                        } catch (Throwable ex) {
+                                            ExceptionHelper.throwIfFatal(ex);
+                                            inner.cancel();
+                                            if (!ExceptionHelper.addThrowable(ERROR, this, ex)) {
+                                                UnsignalledExceptions.onErrorDropped(ex);
+                                            }
+                                            c = 0;
+                                            d = true;
+                                        }
+                                        
+                                        boolean empty = c == 0;
+                                        
+                                        if (checkTerminated(d, false, a)) {
+                                            Arrays.fill(b, 0, c, null);
+                                            return;
+                                        }
+                                        
+                                        if (d && empty) {
+                                            remove(inner.index);
+                                            again = true;
+                                            replenishMain++;
+                                            break;
+                                        }
+                                        
+                                        if (empty) {
+                                            inner.starved();
+                                            break;
+                                        }
+                                        
+                                        for (int k = 0; k < c; k++) {
+                                            @SuppressWarnings("unchecked")
+                                            R v = (R)b[k];
+                                            b[k] = null;
+                                            
+                                            a.onNext(v);
+                                            
+                                            // stop mid-batch like the per-item path would stop before the next poll
+                                            if (cancelled || (!delayError && error != null)) {
+                                                Arrays.fill(b, k + 1, c, null);
+                                                checkTerminated(true, false, a);
+                                                return;
+                                            }
+                                        }
+                                        
+                                        e += c;
                                     }
-                                    
-                                    if (empty) {
-                                        break;
+                                } else {
+                                    while (e != r) {
+                                        d = inner.done;
+                                        
+                                        R v;
+                                        
+                                        try {
+                                            v = q.poll();
+                                        } catch (Throwable ex) {
+                                            ExceptionHelper.throwIfFatal(ex);
+                                            inner.cancel();
+                                            if (!ExceptionHelper.addThrowable(ERROR, this, ex)) {
+                                                UnsignalledExceptions.onErrorDropped(ex);
+                                            }
+                                            v = null;
+                                            d = true;
+                                        }
+                                        
+                                        boolean empty = v == null;
+                                        
+                                        if (checkTerminated(d, false, a)) {
+                                            return;
+                                        }
+        
+                                        if (d && empty) {
+                                            remove(inner.index);
+                                            again = true;
+                                            replenishMain++;
+                                            break;
+                                        }
+                                        
+                                        if (empty) {
+                                            inner.starved();
+                                            break;
+                                        }
+                                        
+                                        a.onNext(v);
+                                        
+                                        e++;
                                     }
-                                    
-                                    a.onNext(v);
-                                    
-                                    e++;
                                 }
                                 
                                 if (e == r) {
@@ -783,6 +880,8 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
                         REQUESTED.decrementAndGet(this);
                     }
                     
+                    // the value went straight through, the downstream was waiting for it
+                    inner.starved();
                     inner.request(1);
                 } else {
                     Queue<R> q;
@@ -855,7 +954,8 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
         void innerComplete(PublisherFlatMapInner<R> inner) {
             if (wip == 0 && WIP.compareAndSet(this, 0, 1)) {
                 Queue<R> q = inner.queue;
-                if (q == null || q.isEmpty()) {
+                // a drain loop may have seen the done flag and removed the inner already
+                if ((q == null || q.isEmpty()) && isActive(inner)) {
                     remove(inner.index);
                     
                     boolean d = done;
@@ -880,10 +980,17 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
             }
         }
         
+        boolean isActive(PublisherFlatMapInner<R> inner) {
+            PublisherFlatMapInner<R>[] as = get();
+            int index = inner.index;
+            return index < as.length && as[index] == inner;
+        }
+        
         Queue<R> getOrCreateScalarQueue(PublisherFlatMapInner<R> inner) {
             Queue<R> q = inner.queue;
             if (q == null) {
                 q = innerQueueSupplier.get();
+                inner.batched = q instanceof Fuseable.BatchQueue;
                 inner.queue = q;
             }
             return q;
@@ -952,7 +1059,10 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
         
         final int prefetch;
         
-        final int limit;
+        int limit;
+        
+        /** If not null, adjusts the prefetch amount and the limit at runtime, accessed from the drain loop. */
+        final AdaptivePrefetch adaptive;
         
         volatile Subscription s;
         @SuppressWarnings("rawtypes")
@@ -968,6 +1078,9 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
         /** Represents the optimization mode of this inner subscriber. */
         int sourceMode;
         
+        /** Indicates the queue is a {@link Fuseable.BatchQueue}, set before the queue field is written. */
+        boolean batched;
+        
         /** Running with regular, arbitrary source. */
         static final int NORMAL = 0;
         /** Running with a source that implements SynchronousSource. */
@@ -983,9 +1096,19 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
         int index;
         
         public PublisherFlatMapInner(PublisherFlatMapMain<?, R> parent, int prefetch) {
+            this(parent, prefetch, prefetch);
+        }
+
+        public PublisherFlatMapInner(PublisherFlatMapMain<?, R> parent, int prefetch, int maxPrefetch) {
             this.parent = parent;
             this.prefetch = prefetch;
-            this.limit = prefetch - (prefetch >> 2);
+            if (maxPrefetch != prefetch) {
+                this.adaptive = new AdaptivePrefetch(prefetch, maxPrefetch);
+                this.limit = adaptive.limit();
+            } else {
+                this.adaptive = null;
+                this.limit = prefetch - (prefetch >> 2);
+            }
         }
 
         @Override
@@ -993,7 +1116,9 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
             if (SubscriptionHelper.setOnce(S, this, s)) {
                 if (s instanceof Fuseable.QueueSubscription) {
                     @SuppressWarnings("unchecked") Fuseable.QueueSubscription<R> f = (Fuseable.QueueSubscription<R>)s;
-                    int m = f.requestFusion(Fuseable.ANY);
+                    int m = f.requestFusion(Fuseable.ANY | Fuseable.BATCH);
+                    batched = (m & Fuseable.BATCH) != 0;
+                    m &= ~Fuseable.BATCH;
                     if (m == Fuseable.SYNC){
                         sourceMode = SYNC;
                         queue = f;
@@ -1007,7 +1132,8 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
                     }
                     // NONE is just fall-through as the queue will be created on demand
                 }
-                s.request(prefetch);
+                AdaptivePrefetch ap = adaptive;
+                s.request(ap != null ? ap.initialRequest() : prefetch);
             }
         }
 
@@ -1041,6 +1167,16 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
                 long p = produced + n;
                 if (p >= limit) {
                     produced = 0L;
+                    AdaptivePrefetch ap = adaptive;
+                    if (ap != null) {
+                        Queue<R> q = queue;
+                        // fused sources don't necessarily track their size
+                        p = ap.replenish(p, q == null || sourceMode == ASYNC ? 0 : q.size());
+                        limit = ap.limit();
+                        if (p == 0L) {
+                            return;
+                        }
+                    }
                     s.request(p);
                 } else {
                     produced = p;
@@ -1053,9 +1189,20 @@ public final class PublisherFlatMap<T, R> extends PublisherSource<T, R> {
             SubscriptionHelper.terminate(S, this);
         }
 
+        /**
+         * Indicates the drain loop found the queue empty while the downstream had demand.
+         */
+        void starved() {
+            AdaptivePrefetch ap = adaptive;
+            if (ap != null) {
+                ap.starved();
+            }
+        }
+
         @Override
         public long getCapacity() {
-            return prefetch;
+            AdaptivePrefetch ap = adaptive;
+            return ap != null ? ap.window() : prefetch;
         }
 
         @Override
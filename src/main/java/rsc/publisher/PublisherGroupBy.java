@@ -1,10 +1,11 @@
 package rsc.publisher;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
@@ -18,19 +19,32 @@ import rsc.documentation.BackpressureMode;
 import rsc.documentation.BackpressureSupport;
 import rsc.documentation.FusionMode;
 import rsc.documentation.FusionSupport;
+import rsc.flow.Cancellation;
 import rsc.flow.Fuseable;
 import rsc.flow.MultiProducer;
 import rsc.flow.Producer;
 import rsc.flow.Receiver;
-
 import rsc.flow.Trackable;
+import rsc.scheduler.TimedScheduler;
 import rsc.subscriber.SubscriptionHelper;
 import rsc.util.BackpressureHelper;
 import rsc.util.ExceptionHelper;
+import rsc.util.MpscLinkedArrayQueue;
+import rsc.util.OpenHashMap;
 import rsc.util.UnsignalledExceptions;
 
 /**
  * Groups upstream items into their own Publisher sequence based on a key selector.
+ * <p>
+ * The number of live groups can be bounded, in which case a new key completes the
+ * least recently active group first, and groups which haven't received a value for
+ * a given amount of time can be completed by a TimedScheduler. A completed or cancelled
+ * group is replaced by a fresh group if its key shows up again.
+ * <p>
+ * The groups are tracked in a non-concurrent hash table owned by the upstream's
+ * onNext thread; groups cancelled from other threads are handed back to it through a queue.
+ * With idle eviction enabled, the onNext path and the eviction task are serialized
+ * by synchronizing on the main subscriber.
  *
  * @param <T> the source value type
  * @param <K> the key value type
@@ -51,6 +65,14 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
 
     final int prefetch;
 
+    final int maxGroups;
+
+    final long idleTimeout;
+
+    final TimeUnit unit;
+
+    final TimedScheduler timer;
+
     public PublisherGroupBy(
             Publisher<? extends T> source, 
             Function<? super T, ? extends K> keySelector,
@@ -58,15 +80,59 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
             Supplier<? extends Queue<GroupedPublisher<K, V>>> mainQueueSupplier, 
             Supplier<? extends Queue<V>> groupQueueSupplier, 
             int prefetch) {
+        this(source, keySelector, valueSelector, mainQueueSupplier, groupQueueSupplier, prefetch,
+                Integer.MAX_VALUE, Long.MAX_VALUE, null, null);
+    }
+
+    /**
+     * Constructs a GroupBy with bounded live groups and/or idle group eviction.
+     * @param source the source Publisher
+     * @param keySelector the function computing the group key of a value
+     * @param valueSelector the function computing the value emitted by the group
+     * @param mainQueueSupplier the queue supplier for the groups waiting to be emitted
+     * @param groupQueueSupplier the queue supplier for the values of a group
+     * @param prefetch the number of values to prefetch from the source
+     * @param maxGroups the maximum number of live groups, Integer.MAX_VALUE means unbounded
+     * @param idleTimeout the time after which a group without new values is completed,
+     * Long.MAX_VALUE disables idle eviction
+     * @param unit the time unit of the idleTimeout, may be null if idle eviction is disabled
+     * @param timer the TimedScheduler to run the idle checks on, may be null if idle eviction is disabled
+     */
+    public PublisherGroupBy(
+            Publisher<? extends T> source, 
+            Function<? super T, ? extends K> keySelector,
+            Function<? super T, ? extends V> valueSelector,
+            Supplier<? extends Queue<GroupedPublisher<K, V>>> mainQueueSupplier, 
+            Supplier<? extends Queue<V>> groupQueueSupplier, 
+            int prefetch,
+            int maxGroups,
+            long idleTimeout,
+            TimeUnit unit,
+            TimedScheduler timer) {
         super(source);
         if (prefetch <= 0) {
             throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
         }
+        if (maxGroups <= 0) {
+            throw new IllegalArgumentException("maxGroups > 0 required but it was " + maxGroups);
+        }
+        if (idleTimeout <= 0L) {
+            throw new IllegalArgumentException("idleTimeout > 0 required but it was " + idleTimeout);
+        }
         this.keySelector = Objects.requireNonNull(keySelector, "keySelector");
         this.valueSelector = Objects.requireNonNull(valueSelector, "valueSelector");
         this.mainQueueSupplier = Objects.requireNonNull(mainQueueSupplier, "mainQueueSupplier");
         this.groupQueueSupplier = Objects.requireNonNull(groupQueueSupplier, "groupQueueSupplier");
         this.prefetch = prefetch;
+        this.maxGroups = maxGroups;
+        this.idleTimeout = idleTimeout;
+        if (idleTimeout != Long.MAX_VALUE) {
+            this.unit = Objects.requireNonNull(unit, "unit");
+            this.timer = Objects.requireNonNull(timer, "timer");
+        } else {
+            this.unit = null;
+            this.timer = null;
+        }
     }
     
     @Override
@@ -86,7 +152,10 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
             return;
         }
         
-        source.subscribe(new PublisherGroupByMain<>(s, q, groupQueueSupplier, prefetch, keySelector, valueSelector));
+        long idlePeriod = timer != null ? Math.max(1L, unit.toNanos(idleTimeout) / 2) : 0L;
+        
+        source.subscribe(new PublisherGroupByMain<>(s, q, groupQueueSupplier, prefetch, keySelector, valueSelector,
+                maxGroups, timer, idlePeriod));
     }
 
     @Override
@@ -111,7 +180,42 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
 
         final int prefetch;
         
-        final ConcurrentMap<K, UnicastGroupedPublisher<K, V>> groupMap; 
+        /** Accessed by the onNext thread only, see {@link #route(Object, Object)}. */
+        final OpenHashMap<K, UnicastGroupedPublisher<K, V>> groupMap; 
+        
+        /** The groups terminated on any thread, to be removed from the groupMap by the onNext thread. */
+        final Queue<UnicastGroupedPublisher<K, V>> terminatedGroups;
+        
+        /** Set after offering to terminatedGroups so the onNext path doesn't have to poll it for every value. */
+        volatile boolean hasTerminatedGroups;
+        
+        final int maxGroups;
+        
+        final TimedScheduler timer;
+        
+        final long idlePeriod;
+        
+        /** Maintain the least recently active order of the groups? */
+        final boolean trackActivity;
+        
+        /** Set once terminateGroups has run, groups terminating afterwards need no removal. */
+        volatile boolean groupsTaken;
+        
+        /** The least recently active group. */
+        UnicastGroupedPublisher<K, V> head;
+        
+        /** The most recently active group. */
+        UnicastGroupedPublisher<K, V> tail;
+        
+        /** The number of idle checks run so far. */
+        long period;
+        
+        volatile Cancellation idleTask;
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<PublisherGroupByMain, Cancellation> IDLE_TASK =
+                AtomicReferenceFieldUpdater.newUpdater(PublisherGroupByMain.class, Cancellation.class, "idleTask");
+        
+        static final Cancellation TASK_CANCELLED = () -> { };
         
         volatile int wip;
         @SuppressWarnings("rawtypes")
@@ -149,15 +253,23 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
                 Supplier<? extends Queue<V>> groupQueueSupplier, 
                 int prefetch,
                 Function<? super T, ? extends K> keySelector,
-                Function<? super T, ? extends V> valueSelector
+                Function<? super T, ? extends V> valueSelector,
+                int maxGroups,
+                TimedScheduler timer,
+                long idlePeriod
                 ) {
             this.actual = actual;
             this.queue = queue;
             this.groupQueueSupplier = groupQueueSupplier;
             this.prefetch = prefetch;
-            this.groupMap = new ConcurrentHashMap<>();
+            this.groupMap = new OpenHashMap<>();
+            this.terminatedGroups = new MpscLinkedArrayQueue<>(16);
             this.keySelector = keySelector;
             this.valueSelector = valueSelector;
+            this.maxGroups = maxGroups;
+            this.timer = timer;
+            this.idlePeriod = idlePeriod;
+            this.trackActivity = maxGroups != Integer.MAX_VALUE || timer != null;
             GROUP_COUNT.lazySet(this, 1);
         }
 
@@ -166,12 +278,19 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
             if (SubscriptionHelper.validate(this.s, s)) {
                 this.s = s;
                 actual.onSubscribe(this);
+                if (timer != null) {
+                    setIdleTask(timer.schedulePeriodically(this::evictIdle, idlePeriod, idlePeriod, TimeUnit.NANOSECONDS));
+                }
                 s.request(prefetch);
             }
         }
         
         @Override
         public void onNext(T t) {
+            if (done) {
+                UnsignalledExceptions.onNextDropped(t);
+                return;
+            }
             K key;
             V value;
             
@@ -196,8 +315,33 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
                 return;
             }
             
+            if (timer != null) {
+                synchronized (this) {
+                    route(key, value);
+                }
+            } else {
+                route(key, value);
+            }
+        }
+        
+        /**
+         * Routes the value to the group of the key, creating the group if necessary.
+         * <p>
+         * Runs on the onNext thread, holding the lock of this if idle eviction is enabled.
+         * @param key the group key
+         * @param value the value
+         */
+        void route(K key, V value) {
+            purge();
+            
             UnicastGroupedPublisher<K, V> g = groupMap.get(key);
             
+            // the group may have been cancelled but not yet handed back via terminatedGroups
+            if (g != null && g.parent == null) {
+                removeGroup(g);
+                g = null;
+            }
+            
             if (g == null) {
                 // if the main is cancelled, don't create new groups
                 if (cancelled == 0) {
@@ -211,21 +355,150 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
                         return;
                     }
                     
+                    if (trackActivity) {
+                        UnicastGroupedPublisher<K, V> h;
+                        while (groupMap.size() >= maxGroups && (h = head) != null) {
+                            evict(h);
+                        }
+                    }
+                    
                     GROUP_COUNT.getAndIncrement(this);
                     g = new UnicastGroupedPublisher<>(key, q, this, prefetch);
                     g.onNext(value);
                     groupMap.put(key, g);
+                    if (trackActivity) {
+                        g.lastActive = period;
+                        linkLast(g);
+                    }
                     
                     queue.offer(g);
                     drain();
                 }
             } else {
+                if (trackActivity) {
+                    g.lastActive = period;
+                    if (g != tail) {
+                        unlink(g);
+                        linkLast(g);
+                    }
+                }
                 g.onNext(value);
             }
         }
         
+        void purge() {
+            if (hasTerminatedGroups) {
+                hasTerminatedGroups = false;
+                
+                UnicastGroupedPublisher<K, V> g;
+                while ((g = terminatedGroups.poll()) != null) {
+                    removeGroup(g);
+                }
+            }
+        }
+        
+        void removeGroup(UnicastGroupedPublisher<K, V> g) {
+            if (groupMap.remove(g.key, g) && trackActivity) {
+                unlink(g);
+            }
+        }
+        
+        void evict(UnicastGroupedPublisher<K, V> g) {
+            removeGroup(g);
+            g.onComplete();
+        }
+        
+        void linkLast(UnicastGroupedPublisher<K, V> g) {
+            UnicastGroupedPublisher<K, V> t = tail;
+            g.prev = t;
+            g.next = null;
+            if (t == null) {
+                head = g;
+            } else {
+                t.next = g;
+            }
+            tail = g;
+        }
+        
+        void unlink(UnicastGroupedPublisher<K, V> g) {
+            UnicastGroupedPublisher<K, V> p = g.prev;
+            UnicastGroupedPublisher<K, V> n = g.next;
+            if (p == null) {
+                head = n;
+            } else {
+                p.next = n;
+            }
+            if (n == null) {
+                tail = p;
+            } else {
+                n.prev = p;
+            }
+            g.prev = null;
+            g.next = null;
+        }
+        
+        /**
+         * Completes the groups which haven't received a value for more than two full idle
+         * periods of half the idle timeout, i.e., between the idle timeout and 1.5 times
+         * the idle timeout.
+         */
+        void evictIdle() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                purge();
+                
+                long p = ++period;
+                UnicastGroupedPublisher<K, V> g;
+                while ((g = head) != null && p - g.lastActive > 2) {
+                    evict(g);
+                }
+            }
+        }
+        
+        void setIdleTask(Cancellation c) {
+            if (!IDLE_TASK.compareAndSet(this, null, c)) {
+                c.dispose();
+            }
+        }
+        
+        void cancelIdleTask() {
+            Cancellation c = idleTask;
+            if (c != TASK_CANCELLED) {
+                c = IDLE_TASK.getAndSet(this, TASK_CANCELLED);
+                if (c != null && c != TASK_CANCELLED) {
+                    c.dispose();
+                }
+            }
+        }
+        
+        /**
+         * Terminates and removes all live groups.
+         * @param e the error to signal or null to complete the groups
+         */
+        @SuppressWarnings("unchecked")
+        synchronized void terminateGroups(Throwable e) {
+            groupsTaken = true;
+            for (Object o : groupMap.values()) {
+                if (o != null) {
+                    UnicastGroupedPublisher<K, V> g = (UnicastGroupedPublisher<K, V>)o;
+                    if (e != null) {
+                        g.onError(e);
+                    } else {
+                        g.onComplete();
+                    }
+                }
+            }
+            groupMap.clear();
+            terminatedGroups.clear();
+            head = null;
+            tail = null;
+        }
+        
         @Override
         public void onError(Throwable t) {
+            cancelIdleTask();
             if (ExceptionHelper.addThrowable(ERROR, this, t)) {
                 done = true;
                 drain();
@@ -236,10 +509,8 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
         
         @Override
         public void onComplete() {
-            for (UnicastGroupedPublisher<K, V> g : groupMap.values()) {
-                g.onComplete();
-            }
-            groupMap.clear();
+            cancelIdleTask();
+            terminateGroups(null);
             GROUP_COUNT.decrementAndGet(this);
             done = true;
             drain();
@@ -277,7 +548,14 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
 
         @Override
         public Iterator<?> downstreams() {
-            return groupMap.values().iterator();
+            // the groupMap is read racily, the result is a best effort snapshot
+            List<Object> list = new ArrayList<>();
+            for (Object o : groupMap.values()) {
+                if (o != null) {
+                    list.add(o);
+                }
+            }
+            return list.iterator();
         }
 
         @Override
@@ -303,11 +581,8 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
         void signalAsyncError() {
             Throwable e = ExceptionHelper.terminate(ERROR, this);
             groupCount = 0;
-            for (UnicastGroupedPublisher<K, V> g : groupMap.values()) {
-                g.onError(e);
-            }
+            terminateGroups(e);
             actual.onError(e);
-            groupMap.clear();
         }
         
         @Override
@@ -322,6 +597,7 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
         public void cancel() {
             if (CANCELLED.compareAndSet(this, 0, 1)) {
                 if (GROUP_COUNT.decrementAndGet(this) == 0) {
+                    cancelIdleTask();
                     s.cancel();
                 } else {
                     if (!enableAsyncFusion) {
@@ -343,12 +619,16 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
             }
         }
         
-        void groupTerminated(K key) {
+        void groupTerminated(UnicastGroupedPublisher<K, V> g) {
             if (groupCount == 0) {
                 return;
             }
-            groupMap.remove(key);
+            if (!groupsTaken) {
+                terminatedGroups.offer(g);
+                hasTerminatedGroups = true;
+            }
             if (GROUP_COUNT.decrementAndGet(this) == 0) {
+                cancelIdleTask();
                 s.cancel();
             }
         }
@@ -516,6 +796,12 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
         
         final Queue<V> queue;
         
+        /**
+         * Replenishes the upstream for the values consumed; unlike parent, it is kept when the
+         * group terminates as an evicted group may still have values buffered.
+         */
+        final PublisherGroupByMain<?, K, V> main;
+        
         volatile PublisherGroupByMain<?, K, V> parent;
         @SuppressWarnings("rawtypes")
         static final AtomicReferenceFieldUpdater<UnicastGroupedPublisher, PublisherGroupByMain> PARENT =
@@ -550,9 +836,19 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
 
         int produced;
         
+        /** The previous group in the activity order, accessed by the parent's onNext thread. */
+        UnicastGroupedPublisher<K, V> prev;
+        
+        /** The next group in the activity order, accessed by the parent's onNext thread. */
+        UnicastGroupedPublisher<K, V> next;
+        
+        /** The parent's idle check count when this group last received a value. */
+        long lastActive;
+        
         public UnicastGroupedPublisher(K key, Queue<V> queue, PublisherGroupByMain<?, K, V> parent, int prefetch) {
             this.key = key;
             this.queue = queue;
+            this.main = parent;
             this.parent = parent;
             this.limit = prefetch - (prefetch >> 2);
         }
@@ -560,7 +856,7 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
         void doTerminate() {
             PublisherGroupByMain<?, K, V> r = parent;
             if (r != null && PARENT.compareAndSet(this, r, null)) {
-                r.groupTerminated(key);
+                r.groupTerminated(this);
             }
         }
         
@@ -581,6 +877,10 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
                     boolean empty = t == null;
                     
                     if (checkTerminated(d, empty, a, q)) {
+                        // an evicted group completes with the values it emitted still owed upstream
+                        if (e != 0) {
+                            main.requestInner(e);
+                        }
                         return;
                     }
                     
@@ -595,15 +895,15 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
                 
                 if (r == e) {
                     if (checkTerminated(done, q.isEmpty(), a, q)) {
+                        if (e != 0) {
+                            main.requestInner(e);
+                        }
                         return;
                     }
                 }
                 
                 if (e != 0) {
-                    PublisherGroupByMain<?, K, V> main = parent;
-                    if (main != null) {
-                        main.requestInner(e);
-                    }
+                    main.requestInner(e);
                     if (r != Long.MAX_VALUE) {
                         REQUESTED.addAndGet(this, -e);
                     }
@@ -781,10 +1081,7 @@ public final class PublisherGroupBy<T, K, V> extends PublisherSource<T, GroupedP
                 int p = produced;
                 if (p != 0) {
                     produced = 0;
-                    PublisherGroupByMain<?, K, V> main = parent;
-                    if (main != null) {
-                        main.requestInner(p);
-                    }
+                    main.requestInner(p);
                 }
             }
             return v;
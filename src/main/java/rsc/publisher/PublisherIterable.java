@@ -86,7 +86,7 @@ extends Px<T>
     }
 
     static final class IterableSubscription<T>
-            implements Producer, Trackable, SynchronousSubscription<T> {
+            implements Producer, Trackable, SynchronousSubscription<T>, BatchQueue<T> {
 
         final Subscriber<? super T> actual;
 
@@ -112,6 +112,9 @@ extends Px<T>
         
         T current;
         
+        /** Error thrown by the iterator during a batch poll after some values have been already polled. */
+        RuntimeException pollError;
+        
         public IterableSubscription(Subscriber<? super T> actual, Iterator<? extends T> iterator) {
             this.actual = actual;
             this.iterator = iterator;
@@ -321,6 +324,40 @@ extends Px<T>
             return null;
         }
         
+        @Override
+        public int poll(Object[] target, int max) {
+            RuntimeException ex = pollError;
+            if (ex != null) {
+                pollError = null;
+                throw ex;
+            }
+            int n = 0;
+            while (n != max) {
+                T v;
+                
+                try {
+                    v = poll();
+                } catch (RuntimeException exc) {
+                    if (n == 0) {
+                        throw exc;
+                    }
+                    pollError = exc;
+                    break;
+                }
+                
+                if (v == null) {
+                    break;
+                }
+                target[n++] = v;
+            }
+            return n;
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return Fuseable.SYNC | (requestedMode & Fuseable.BATCH);
+        }
+        
         @Override
         public int size() {
             if (state == STATE_NO_NEXT) {
@@ -331,7 +368,7 @@ extends Px<T>
     }
 
     static final class IterableSubscriptionConditional<T>
-            implements Producer, Trackable, Subscription, SynchronousSubscription<T> {
+            implements Producer, Trackable, Subscription, SynchronousSubscription<T>, BatchQueue<T> {
 
         final ConditionalSubscriber<? super T> actual;
 
@@ -357,6 +394,9 @@ extends Px<T>
         
         T current;
         
+        /** Error thrown by the iterator during a batch poll after some values have been already polled. */
+        RuntimeException pollError;
+        
         public IterableSubscriptionConditional(ConditionalSubscriber<? super T> actual, Iterator<? extends T> iterator) {
             this.actual = actual;
             this.iterator = iterator;
@@ -565,6 +605,40 @@ extends Px<T>
             return null;
         }
         
+        @Override
+        public int poll(Object[] target, int max) {
+            RuntimeException ex = pollError;
+            if (ex != null) {
+                pollError = null;
+                throw ex;
+            }
+            int n = 0;
+            while (n != max) {
+                T v;
+                
+                try {
+                    v = poll();
+                } catch (RuntimeException exc) {
+                    if (n == 0) {
+                        throw exc;
+                    }
+                    pollError = exc;
+                    break;
+                }
+                
+                if (v == null) {
+                    break;
+                }
+                target[n++] = v;
+            }
+            return n;
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return Fuseable.SYNC | (requestedMode & Fuseable.BATCH);
+        }
+        
         @Override
         public int size() {
             if (state == STATE_NO_NEXT) {
@@ -207,7 +207,7 @@ public final class PublisherMapFuseable<T, R> extends PublisherSource<T, R>
             if ((requestedMode & Fuseable.THREAD_BARRIER) != 0) {
                 m = Fuseable.NONE;
             } else {
-                m = s.requestFusion(requestedMode);
+                m = s.requestFusion(requestedMode & ~Fuseable.BATCH);
             }
             sourceMode = m;
             return m;
@@ -403,7 +403,7 @@ public final class PublisherMapFuseable<T, R> extends PublisherSource<T, R>
             if ((requestedMode & Fuseable.THREAD_BARRIER) != 0) {
                 m = Fuseable.NONE;
             } else {
-                m = s.requestFusion(requestedMode);
+                m = s.requestFusion(requestedMode & ~Fuseable.BATCH);
             }
             sourceMode = m;
             return m;
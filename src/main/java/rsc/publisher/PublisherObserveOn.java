@@ -1,5 +1,6 @@
 package rsc.publisher;
 
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
@@ -18,6 +19,7 @@ import rsc.flow.*;
 import rsc.scheduler.Scheduler;
 import rsc.scheduler.Scheduler.Worker;
 import rsc.flow.Trackable;
+import rsc.util.AdaptivePrefetch;
 import rsc.util.BackpressureHelper;
 
 import rsc.util.ExceptionHelper;
@@ -40,19 +42,46 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
     
     final int prefetch;
     
+    final int maxPrefetch;
+    
     public PublisherObserveOn(
             Publisher<? extends T> source, 
             Scheduler scheduler, 
             boolean delayError,
             int prefetch,
             Supplier<? extends Queue<T>> queueSupplier) {
+        this(source, scheduler, delayError, prefetch, prefetch, queueSupplier);
+    }
+
+    /**
+     * Constructs a PublisherObserveOn which, if maxPrefetch is greater than prefetch, adapts the
+     * amount it keeps requested from the source between the two at runtime, see {@link AdaptivePrefetch};
+     * the queue should be unbounded or hold maxPrefetch values in this case.
+     * @param source the source Publisher
+     * @param scheduler the scheduler to emit the events on
+     * @param delayError delay the error until all values have been emitted?
+     * @param prefetch the (minimum) prefetch amount
+     * @param maxPrefetch the maximum prefetch amount
+     * @param queueSupplier the queue supplier
+     */
+    public PublisherObserveOn(
+            Publisher<? extends T> source, 
+            Scheduler scheduler, 
+            boolean delayError,
+            int prefetch,
+            int maxPrefetch,
+            Supplier<? extends Queue<T>> queueSupplier) {
         super(source);
         if (prefetch <= 0) {
             throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
         }
+        if (maxPrefetch < prefetch) {
+            throw new IllegalArgumentException("maxPrefetch >= prefetch required but it was " + maxPrefetch);
+        }
         this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
         this.delayError = delayError;
         this.prefetch = prefetch;
+        this.maxPrefetch = maxPrefetch;
         this.queueSupplier = Objects.requireNonNull(queueSupplier, "queueSupplier");
     }
 
@@ -85,10 +114,10 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
         
         if (s instanceof Fuseable.ConditionalSubscriber) {
             Fuseable.ConditionalSubscriber<? super T> cs = (Fuseable.ConditionalSubscriber<? super T>) s;
-            source.subscribe(new PublisherObserveOnConditionalSubscriber<>(cs, worker, delayError, prefetch, queueSupplier));
+            source.subscribe(new PublisherObserveOnConditionalSubscriber<>(cs, worker, delayError, prefetch, maxPrefetch, queueSupplier));
             return;
         }
-        source.subscribe(new PublisherObserveOnSubscriber<>(s, worker, delayError, prefetch, queueSupplier));
+        source.subscribe(new PublisherObserveOnSubscriber<>(s, worker, delayError, prefetch, maxPrefetch, queueSupplier));
     }
 
 
@@ -96,6 +125,10 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
     public Object connectedOutput() {
         return scheduler;
     }
+    
+    static Object[] newBatch(int prefetch) {
+        return new Object[Math.min(prefetch, Px.BUFFER_SIZE)];
+    }
 
     static final class PublisherObserveOnSubscriber<T>
     implements Subscriber<T>, QueueSubscription<T>, Runnable, Producer, Loopback, Receiver,
@@ -109,7 +142,10 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
         
         final int prefetch;
         
-        final int limit;
+        int limit;
+        
+        /** If not null, adjusts the prefetch amount and the limit at runtime. */
+        final AdaptivePrefetch adaptive;
         
         final Supplier<? extends Queue<T>> queueSupplier;
         
@@ -139,21 +175,31 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
         
         boolean outputFused;
         
+        /** If not null, the queue is a {@link Fuseable.BatchQueue} drained through this array. */
+        Object[] batch;
+        
         public PublisherObserveOnSubscriber(
                 Subscriber<? super T> actual,
                 Worker worker,
                 boolean delayError,
                 int prefetch,
+                int maxPrefetch,
                 Supplier<? extends Queue<T>> queueSupplier) {
             this.actual = actual;
             this.worker = worker;
             this.delayError = delayError;
             this.prefetch = prefetch;
             this.queueSupplier = queueSupplier;
-            if (prefetch != Integer.MAX_VALUE) {
-                this.limit = prefetch - (prefetch >> 2);
+            if (maxPrefetch != prefetch) {
+                this.adaptive = new AdaptivePrefetch(prefetch, maxPrefetch);
+                this.limit = adaptive.limit();
             } else {
-                this.limit = Integer.MAX_VALUE;
+                this.adaptive = null;
+                if (prefetch != Integer.MAX_VALUE) {
+                    this.limit = prefetch - (prefetch >> 2);
+                } else {
+                    this.limit = Integer.MAX_VALUE;
+                }
             }
         }
         
@@ -166,12 +212,18 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                     @SuppressWarnings("unchecked")
                     Fuseable.QueueSubscription<T> f = (Fuseable.QueueSubscription<T>) s;
                     
-                    int m = f.requestFusion(Fuseable.ANY | Fuseable.THREAD_BARRIER);
+                    int m = f.requestFusion(Fuseable.ANY | Fuseable.THREAD_BARRIER | Fuseable.BATCH);
+                    
+                    boolean batched = (m & Fuseable.BATCH) != 0;
+                    m &= ~Fuseable.BATCH;
                     
                     if (m == Fuseable.SYNC) {
                         sourceMode = Fuseable.SYNC;
                         queue = f;
                         done = true;
+                        if (batched) {
+                            batch = newBatch(prefetch);
+                        }
                         
                         actual.onSubscribe(this);
                         return;
@@ -179,6 +231,9 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                     if (m == Fuseable.ASYNC) {
                         sourceMode = Fuseable.ASYNC;
                         queue = f;
+                        if (batched) {
+                            batch = newBatch(prefetch);
+                        }
                         
                         actual.onSubscribe(this);
                         
@@ -200,6 +255,10 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                     }
                     return;
                 }
+                
+                if (queue instanceof Fuseable.BatchQueue) {
+                    batch = newBatch(prefetch);
+                }
 
                 actual.onSubscribe(this);
 
@@ -208,6 +267,9 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
         }
         
         void initialRequest() {
+            if (adaptive != null) {
+                s.request(adaptive.initialRequest());
+            } else
             if (prefetch == Integer.MAX_VALUE) {
                 s.request(Long.MAX_VALUE);
             } else {
@@ -215,6 +277,26 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
             }
         }
         
+        void replenish(long n) {
+            AdaptivePrefetch ap = adaptive;
+            if (ap != null) {
+                // fused sources don't necessarily track their size
+                n = ap.replenish(n, sourceMode == Fuseable.ASYNC ? 0 : queue.size());
+                limit = ap.limit();
+                if (n == 0L) {
+                    return;
+                }
+            }
+            s.request(n);
+        }
+        
+        void starved() {
+            AdaptivePrefetch ap = adaptive;
+            if (ap != null) {
+                ap.starved();
+            }
+        }
+        
         @Override
         public void onNext(T t) {
             if (sourceMode == Fuseable.ASYNC) {
@@ -378,6 +460,7 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                     }
 
                     if (empty) {
+                        starved();
                         break;
                     }
 
@@ -388,7 +471,190 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                         if (r != Long.MAX_VALUE) {
                             r = REQUESTED.addAndGet(this, -e);
                         }
-                        s.request(e);
+                        replenish(e);
+                        e = 0L;
+                    }
+                }
+
+                if (e == r) {
+                    boolean d = done;
+                    boolean empty;
+                    try {
+                        empty = q.isEmpty();
+                    } catch (Throwable ex) {
+                        ExceptionHelper.throwIfFatal(ex);
+
+                        s.cancel();
+                        q.clear();
+
+                        doError(a, ex);
+                        return;
+                    }
+
+                    if (checkTerminated(d, empty, a)) {
+                        return;
+                    }
+                }
+
+                int w = wip;
+                if (missed == w) {
+                    produced = e;
+                    missed = WIP.addAndGet(this, -missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+
+        void runSyncBatch() {
+            int missed = 1;
+
+            final Subscriber<? super T> a = actual;
+            @SuppressWarnings("unchecked")
+            final Fuseable.BatchQueue<T> q = (Fuseable.BatchQueue<T>)queue;
+            final Object[] b = batch;
+
+            long e = produced;
+
+            for (;;) {
+
+                long r = requested;
+
+                while (e != r) {
+                    int n;
+
+                    try {
+                        n = q.poll(b, (int)Math.min(r - e, b.length));
+                    } catch (Throwable ex) {
+                        ExceptionHelper.throwIfFatal(ex);
+                        doError(a, ex);
+                        return;
+                    }
+
+                    if (cancelled) {
+                        Arrays.fill(b, 0, n, null);
+                        return;
+                    }
+                    if (n == 0) {
+                        doComplete(a);
+                        return;
+                    }
+
+                    for (int i = 0; i < n; i++) {
+                        @SuppressWarnings("unchecked")
+                        T v = (T)b[i];
+                        b[i] = null;
+
+                        a.onNext(v);
+
+                        if (cancelled) {
+                            Arrays.fill(b, i + 1, n, null);
+                            return;
+                        }
+                    }
+
+                    e += n;
+                }
+
+                if (e == r) {
+                    if (cancelled) {
+                        return;
+                    }
+
+                    boolean empty;
+
+                    try {
+                        empty = q.isEmpty();
+                    } catch (Throwable ex) {
+                        ExceptionHelper.throwIfFatal(ex);
+                        doError(a, ex);
+                        return;
+                    }
+
+                    if (empty) {
+                        doComplete(a);
+                        return;
+                    }
+                }
+
+                int w = wip;
+                if (missed == w) {
+                    produced = e;
+                    missed = WIP.addAndGet(this, -missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+
+        void runAsyncBatch() {
+            int missed = 1;
+
+            final Subscriber<? super T> a = actual;
+            @SuppressWarnings("unchecked")
+            final Fuseable.BatchQueue<T> q = (Fuseable.BatchQueue<T>)queue;
+            final Object[] b = batch;
+
+            long e = produced;
+
+            for (;;) {
+
+                long r = requested;
+
+                while (e != r) {
+                    boolean d = done;
+                    int n;
+
+                    try {
+                        n = q.poll(b, (int)Math.min(Math.min(r - e, limit - e), b.length));
+                    } catch (Throwable ex) {
+                        ExceptionHelper.throwIfFatal(ex);
+
+                        s.cancel();
+                        q.clear();
+
+                        doError(a, ex);
+                        return;
+                    }
+
+                    boolean empty = n == 0;
+
+                    if (checkTerminated(d, empty, a)) {
+                        Arrays.fill(b, 0, n, null);
+                        return;
+                    }
+
+                    if (empty) {
+                        starved();
+                        break;
+                    }
+
+                    for (int i = 0; i < n; i++) {
+                        @SuppressWarnings("unchecked")
+                        T v = (T)b[i];
+                        b[i] = null;
+
+                        a.onNext(v);
+
+                        // an error not delayed stops the batch as it would stop the regular loop
+                        if (checkTerminated(done, false, a)) {
+                            Arrays.fill(b, i + 1, n, null);
+                            return;
+                        }
+                    }
+
+                    e += n;
+                    if (e == limit) {
+                        if (r != Long.MAX_VALUE) {
+                            r = REQUESTED.addAndGet(this, -e);
+                        }
+                        replenish(e);
                         e = 0L;
                     }
                 }
@@ -478,9 +744,17 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                 runBackfused();
             } else
             if (sourceMode == Fuseable.SYNC) {
-                runSync();
+                if (batch != null) {
+                    runSyncBatch();
+                } else {
+                    runSync();
+                }
             } else {
-                runAsync();
+                if (batch != null) {
+                    runAsyncBatch();
+                } else {
+                    runAsync();
+                }
             }
         }
 
@@ -524,7 +798,8 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
 
         @Override
         public long getCapacity() {
-            return prefetch;
+            AdaptivePrefetch ap = adaptive;
+            return ap != null ? ap.window() : prefetch;
         }
 
         @Override
@@ -599,10 +874,13 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                 long p = produced + 1;
                 if (p == limit) {
                     produced = 0;
-                    s.request(p);
+                    replenish(p);
                 } else {
                     produced = p;
                 }
+            } else
+            if (v == null) {
+                starved();
             }
             return v;
         }
@@ -634,7 +912,10 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
         
         final int prefetch;
         
-        final int limit;
+        int limit;
+        
+        /** If not null, adjusts the prefetch amount and the limit at runtime. */
+        final AdaptivePrefetch adaptive;
 
         final Supplier<? extends Queue<T>> queueSupplier;
         
@@ -665,22 +946,32 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
         long consumed;
         
         boolean outputFused;
+        
+        /** If not null, the queue is a {@link Fuseable.BatchQueue} drained through this array. */
+        Object[] batch;
 
         public PublisherObserveOnConditionalSubscriber(
                 Fuseable.ConditionalSubscriber<? super T> actual,
                 Worker worker,
                 boolean delayError,
                 int prefetch,
+                int maxPrefetch,
                 Supplier<? extends Queue<T>> queueSupplier) {
             this.actual = actual;
             this.worker = worker;
             this.delayError = delayError;
             this.prefetch = prefetch;
             this.queueSupplier = queueSupplier;
-            if (prefetch != Integer.MAX_VALUE) {
-                this.limit = prefetch - (prefetch >> 2);
+            if (maxPrefetch != prefetch) {
+                this.adaptive = new AdaptivePrefetch(prefetch, maxPrefetch);
+                this.limit = adaptive.limit();
             } else {
-                this.limit = Integer.MAX_VALUE;
+                this.adaptive = null;
+                if (prefetch != Integer.MAX_VALUE) {
+                    this.limit = prefetch - (prefetch >> 2);
+                } else {
+                    this.limit = Integer.MAX_VALUE;
+                }
             }
         }
         
@@ -693,12 +984,18 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                     @SuppressWarnings("unchecked")
                     Fuseable.QueueSubscription<T> f = (Fuseable.QueueSubscription<T>) s;
                     
-                    int m = f.requestFusion(Fuseable.ANY | Fuseable.THREAD_BARRIER);
+                    int m = f.requestFusion(Fuseable.ANY | Fuseable.THREAD_BARRIER | Fuseable.BATCH);
+                    
+                    boolean batched = (m & Fuseable.BATCH) != 0;
+                    m &= ~Fuseable.BATCH;
                     
                     if (m == Fuseable.SYNC) {
                         sourceMode = Fuseable.SYNC;
                         queue = f;
                         done = true;
+                        if (batched) {
+                            batch = newBatch(prefetch);
+                        }
                         
                         actual.onSubscribe(this);
                         return;
@@ -706,6 +1003,9 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                     if (m == Fuseable.ASYNC) {
                         sourceMode = Fuseable.ASYNC;
                         queue = f;
+                        if (batched) {
+                            batch = newBatch(prefetch);
+                        }
                         
                         actual.onSubscribe(this);
                         
@@ -729,6 +1029,10 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                     return;
                 }
                 
+                if (queue instanceof Fuseable.BatchQueue) {
+                    batch = newBatch(prefetch);
+                }
+                
                 actual.onSubscribe(this);
 
                 initialRequest();
@@ -736,12 +1040,35 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
         }
 
         void initialRequest() {
+            if (adaptive != null) {
+                s.request(adaptive.initialRequest());
+            } else
             if (prefetch == Integer.MAX_VALUE) {
                 s.request(Long.MAX_VALUE);
             } else {
                 s.request(prefetch);
             }
         }
+        
+        void replenish(long n) {
+            AdaptivePrefetch ap = adaptive;
+            if (ap != null) {
+                // fused sources don't necessarily track their size
+                n = ap.replenish(n, sourceMode == Fuseable.ASYNC ? 0 : queue.size());
+                limit = ap.limit();
+                if (n == 0L) {
+                    return;
+                }
+            }
+            s.request(n);
+        }
+        
+        void starved() {
+            AdaptivePrefetch ap = adaptive;
+            if (ap != null) {
+                ap.starved();
+            }
+        }
 
         @Override
         public void onNext(T t) {
@@ -905,6 +1232,7 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                     }
                     
                     if (empty) {
+                        starved();
                         break;
                     }
 
@@ -915,7 +1243,189 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                     polled++;
                     
                     if (polled == limit) {
-                        s.request(polled);
+                        replenish(polled);
+                        polled = 0L;
+                    }
+                }
+                
+                if (emitted == r) {
+                    boolean d = done;
+                    boolean empty;
+                    try {
+                        empty = q.isEmpty();
+                    } catch (Throwable ex) {
+                        ExceptionHelper.throwIfFatal(ex);
+
+                        s.cancel();
+                        q.clear();
+                        
+                        doError(a, ex);
+                        return;
+                    }
+
+                    if (checkTerminated(d, empty, a)) {
+                        return;
+                    }
+                }
+                
+                int w = wip;
+                if (missed == w) {
+                    produced = emitted;
+                    consumed = polled;
+                    missed = WIP.addAndGet(this, -missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+
+        }
+        
+        void runSyncBatch() {
+            int missed = 1;
+            
+            final Fuseable.ConditionalSubscriber<? super T> a = actual;
+            @SuppressWarnings("unchecked")
+            final Fuseable.BatchQueue<T> q = (Fuseable.BatchQueue<T>)queue;
+            final Object[] b = batch;
+
+            long e = produced;
+
+            for (;;) {
+                
+                long r = requested;
+                
+                while (e != r) {
+                    int n;
+                    try {
+                        n = q.poll(b, (int)Math.min(r - e, b.length));
+                    } catch (Throwable ex) {
+                        ExceptionHelper.throwIfFatal(ex);
+                        doError(a, ex);
+                        return;
+                    }
+
+                    if (cancelled) {
+                        Arrays.fill(b, 0, n, null);
+                        return;
+                    }
+                    if (n == 0) {
+                        doComplete(a);
+                        return;
+                    }
+                    
+                    for (int i = 0; i < n; i++) {
+                        @SuppressWarnings("unchecked")
+                        T v = (T)b[i];
+                        b[i] = null;
+                        
+                        if (a.tryOnNext(v)) {
+                            e++;
+                        }
+                        
+                        if (cancelled) {
+                            Arrays.fill(b, i + 1, n, null);
+                            return;
+                        }
+                    }
+                }
+                
+                if (e == r) {
+                    if (cancelled) {
+                        return;
+                    }
+                    
+                    boolean empty;
+                    
+                    try {
+                        empty = q.isEmpty();
+                    } catch (Throwable ex) {
+                        ExceptionHelper.throwIfFatal(ex);
+                        doError(a, ex);
+                        return;
+                    }
+                    
+                    if (empty) {
+                        doComplete(a);
+                        return;
+                    }
+                }
+
+                int w = wip;
+                if (missed == w) {
+                    produced = e;
+                    missed = WIP.addAndGet(this, -missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+        
+        void runAsyncBatch() {
+            int missed = 1;
+            
+            final Fuseable.ConditionalSubscriber<? super T> a = actual;
+            @SuppressWarnings("unchecked")
+            final Fuseable.BatchQueue<T> q = (Fuseable.BatchQueue<T>)queue;
+            final Object[] b = batch;
+            
+            long emitted = produced;
+            long polled = consumed;
+            
+            for (;;) {
+                
+                long r = requested;
+                
+                while (emitted != r) {
+                    boolean d = done;
+                    int n;
+                    try {
+                        n = q.poll(b, (int)Math.min(Math.min(r - emitted, limit - polled), b.length));
+                    } catch (Throwable ex) {
+                        ExceptionHelper.throwIfFatal(ex);
+
+                        s.cancel();
+                        q.clear();
+                        
+                        doError(a, ex);
+                        return;
+                    }
+                    boolean empty = n == 0;
+                    
+                    if (checkTerminated(d, empty, a)) {
+                        Arrays.fill(b, 0, n, null);
+                        return;
+                    }
+                    
+                    if (empty) {
+                        starved();
+                        break;
+                    }
+
+                    for (int i = 0; i < n; i++) {
+                        @SuppressWarnings("unchecked")
+                        T v = (T)b[i];
+                        b[i] = null;
+                        
+                        if (a.tryOnNext(v)) {
+                            emitted++;
+                        }
+                        
+                        if (checkTerminated(done, false, a)) {
+                            Arrays.fill(b, i + 1, n, null);
+                            return;
+                        }
+                    }
+                    
+                    polled += n;
+                    
+                    if (polled == limit) {
+                        replenish(polled);
                         polled = 0L;
                     }
                 }
@@ -991,15 +1501,24 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                 runBackfused();
             } else
             if (sourceMode == Fuseable.SYNC) {
-                runSync();
+                if (batch != null) {
+                    runSyncBatch();
+                } else {
+                    runSync();
+                }
             } else {
-                runAsync();
+                if (batch != null) {
+                    runAsyncBatch();
+                } else {
+                    runAsync();
+                }
             }
         }
 
         @Override
         public long getCapacity() {
-            return prefetch;
+            AdaptivePrefetch ap = adaptive;
+            return ap != null ? ap.window() : prefetch;
         }
 
         @Override
@@ -1128,10 +1647,13 @@ public final class PublisherObserveOn<T> extends PublisherSource<T, T> implement
                 long p = consumed + 1;
                 if (p == limit) {
                     consumed = 0;
-                    s.request(p);
+                    replenish(p);
                 } else {
                     consumed = p;
                 }
+            } else
+            if (v == null) {
+                starved();
             }
             return v;
         }
@@ -1,5 +1,7 @@
 package rsc.publisher;
 
+import java.util.function.Supplier;
+
 import org.reactivestreams.*;
 
 import rsc.flow.Fuseable;
@@ -25,7 +27,11 @@ import rsc.util.ExceptionHelper;
  */
 public final class PublisherOnAssembly<T> extends PublisherSource<T, T> implements Fuseable {
 
-    final String stacktrace;
+    /** The readable stacktrace, resolved from the site on first use if captured lazily. */
+    String stacktrace;
+
+    /** The cheaply captured assembly call site if the stacktrace is resolved lazily, null otherwise. */
+    final Throwable site;
     
     /**
      * If set to true, the creation of PublisherOnAssembly will capture the raw
@@ -34,13 +40,27 @@ public final class PublisherOnAssembly<T> extends PublisherSource<T, T> implemen
     public static volatile boolean fullStackTrace;
 
     public PublisherOnAssembly(Publisher<? extends T> source) {
-        super(source);
-        this.stacktrace = takeStacktrace();
+        this(source, false);
     }
 
-    private String takeStacktrace() {
-        StackTraceElement[] stes = Thread.currentThread().getStackTrace();
+    /**
+     * Constructs the operator, capturing the stacktrace now or, if {@code lazy} is set,
+     * capturing only the call site now and producing the readable stacktrace when it is
+     * first needed, i.e., an error passes through.
+     * @param source the source to wrap
+     * @param lazy capture the call site only and resolve the stacktrace on demand
+     */
+    public PublisherOnAssembly(Publisher<? extends T> source, boolean lazy) {
+        super(source);
+        if (lazy) {
+            this.site = new AssemblySite();
+        } else {
+            this.site = null;
+            this.stacktrace = takeStacktrace(Thread.currentThread().getStackTrace());
+        }
+    }
 
+    static String takeStacktrace(StackTraceElement[] stes) {
         StringBuilder sb = new StringBuilder("Assembly trace:\n");
         
         for (StackTraceElement e : stes) {
@@ -55,6 +75,9 @@ public final class PublisherOnAssembly<T> extends PublisherSource<T, T> implemen
                 if (row.contains("PublisherOnAssembly.")) {
                     continue;
                 }
+                if (row.contains("AssemblySite.")) {
+                    continue;
+                }
                 if (row.contains(".junit.runner")) {
                     continue;
                 }
@@ -91,16 +114,22 @@ public final class PublisherOnAssembly<T> extends PublisherSource<T, T> implemen
      * @return the stacktrace
      */
     public String stacktrace() {
-        return stacktrace;
+        String st = stacktrace;
+        if (st == null) {
+            // racy but idempotent, Strings are safely published
+            st = takeStacktrace(site.getStackTrace());
+            stacktrace = st;
+        }
+        return st;
     }
     
     @Override
     public void subscribe(Subscriber<? super T> s) {
         if (s instanceof Fuseable.ConditionalSubscriber) {
             Fuseable.ConditionalSubscriber<? super T> cs = (Fuseable.ConditionalSubscriber<? super T>) s;
-            source.subscribe(new OnAssemblyConditionalSubscriber<>(cs, stacktrace));
+            source.subscribe(new OnAssemblyConditionalSubscriber<>(cs, this::stacktrace));
         } else {
-            source.subscribe(new OnAssemblySubscriber<>(s, stacktrace));
+            source.subscribe(new OnAssemblySubscriber<>(s, this::stacktrace));
         }
     }
     
@@ -122,10 +151,24 @@ public final class PublisherOnAssembly<T> extends PublisherSource<T, T> implemen
         }
     }
     
+    /**
+     * Captures the call site only; the VM resolves the stack frames when they are
+     * first requested.
+     */
+    static final class AssemblySite extends Throwable {
+
+        /** */
+        private static final long serialVersionUID = -3419424212564437441L;
+
+        AssemblySite() {
+            super(null, null, false, true);
+        }
+    }
+    
     static final class OnAssemblySubscriber<T> extends BasicFuseableSubscriber<T, T> {
-        final String stacktrace;
+        final Supplier<String> stacktrace;
         
-        public OnAssemblySubscriber(Subscriber<? super T> actual, String stacktrace) {
+        public OnAssemblySubscriber(Subscriber<? super T> actual, Supplier<String> stacktrace) {
             super(actual);
             this.stacktrace = stacktrace;
         }
@@ -137,7 +180,7 @@ public final class PublisherOnAssembly<T> extends PublisherSource<T, T> implemen
         
         @Override
         public void onError(Throwable t) {
-            t.addSuppressed(new OnAssemblyException(stacktrace));
+            t.addSuppressed(new OnAssemblyException(stacktrace.get()));
             actual.onError(t);
         }
         
@@ -157,7 +200,7 @@ public final class PublisherOnAssembly<T> extends PublisherSource<T, T> implemen
                 return qs.isEmpty();
             } catch (final Throwable ex) {
                 ExceptionHelper.throwIfFatal(ex);
-                ex.addSuppressed(new OnAssemblyException(stacktrace));
+                ex.addSuppressed(new OnAssemblyException(stacktrace.get()));
                 throw ex;
             }
         }
@@ -168,16 +211,16 @@ public final class PublisherOnAssembly<T> extends PublisherSource<T, T> implemen
                 return qs.poll();
             } catch (final Throwable ex) {
                 ExceptionHelper.throwIfFatal(ex);
-                ex.addSuppressed(new OnAssemblyException(stacktrace));
+                ex.addSuppressed(new OnAssemblyException(stacktrace.get()));
                 throw ex;
             }
         }
     }
     
     static final class OnAssemblyConditionalSubscriber<T> extends BasicFuseableConditionalSubscriber<T, T> {
-        final String stacktrace;
+        final Supplier<String> stacktrace;
         
-        public OnAssemblyConditionalSubscriber(ConditionalSubscriber<? super T> actual, String stacktrace) {
+        public OnAssemblyConditionalSubscriber(ConditionalSubscriber<? super T> actual, Supplier<String> stacktrace) {
             super(actual);
             this.stacktrace = stacktrace;
         }
@@ -194,7 +237,7 @@ public final class PublisherOnAssembly<T> extends PublisherSource<T, T> implemen
         
         @Override
         public void onError(Throwable t) {
-            t.addSuppressed(new OnAssemblyException(stacktrace));
+            t.addSuppressed(new OnAssemblyException(stacktrace.get()));
             actual.onError(t);
         }
         
@@ -214,7 +257,7 @@ public final class PublisherOnAssembly<T> extends PublisherSource<T, T> implemen
                 return qs.isEmpty();
             } catch (final Throwable ex) {
                 ExceptionHelper.throwIfFatal(ex);
-                ex.addSuppressed(new OnAssemblyException(stacktrace));
+                ex.addSuppressed(new OnAssemblyException(stacktrace.get()));
                 throw ex;
             }
         }
@@ -225,7 +268,7 @@ public final class PublisherOnAssembly<T> extends PublisherSource<T, T> implemen
                 return qs.poll();
             } catch (final Throwable ex) {
                 ExceptionHelper.throwIfFatal(ex);
-                ex.addSuppressed(new OnAssemblyException(stacktrace));
+                ex.addSuppressed(new OnAssemblyException(stacktrace.get()));
                 throw ex;
             }
         }
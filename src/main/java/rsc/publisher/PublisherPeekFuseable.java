@@ -271,7 +271,7 @@ public final class PublisherPeekFuseable<T> extends PublisherSource<T, T> implem
             if ((requestedMode & Fuseable.THREAD_BARRIER) != 0) {
                 m = Fuseable.NONE;
             } else {
-                m = s.requestFusion(requestedMode);
+                m = s.requestFusion(requestedMode & ~Fuseable.BATCH);
             }
             sourceMode = m;
             return m;
@@ -511,7 +511,7 @@ public final class PublisherPeekFuseable<T> extends PublisherSource<T, T> implem
             if ((requestedMode & Fuseable.THREAD_BARRIER) != 0) {
                 m = Fuseable.NONE;
             } else {
-                m = s.requestFusion(requestedMode);
+                m = s.requestFusion(requestedMode & ~Fuseable.BATCH);
             }
             sourceMode = m;
             return m;
@@ -751,7 +751,7 @@ public final class PublisherPublish<T, R> extends PublisherSource<T, R> implemen
         
         @Override
         public int requestFusion(int requestedMode) {
-            return s.requestFusion(requestedMode);
+            return s.requestFusion(requestedMode & ~Fuseable.BATCH);
         }
         
         @Override
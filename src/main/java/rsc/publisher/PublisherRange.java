@@ -62,7 +62,7 @@ extends Px<Integer>
     }
 
     static final class RangeSubscription
-            implements Trackable, Producer, SynchronousSubscription<Integer>  {
+            implements Trackable, Producer, SynchronousSubscription<Integer>, BatchQueue<Integer> {
 
         final Subscriber<? super Integer> actual;
 
@@ -200,6 +200,22 @@ extends Px<Integer>
             return (int)i;
         }
 
+        @Override
+        public int poll(Object[] target, int max) {
+            long i = index;
+            int n = (int)Math.min(end - i, max);
+            for (int j = 0; j < n; j++) {
+                target[j] = (int)(i + j);
+            }
+            index = i + n;
+            return n;
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return Fuseable.SYNC | (requestedMode & Fuseable.BATCH);
+        }
+
         @Override
         public boolean isEmpty() {
             return index == end;
@@ -217,7 +233,7 @@ extends Px<Integer>
     }
     
     static final class RangeSubscriptionConditional
-            implements Trackable, Producer, SynchronousSubscription<Integer> {
+            implements Trackable, Producer, SynchronousSubscription<Integer>, BatchQueue<Integer> {
 
         final ConditionalSubscriber<? super Integer> actual;
 
@@ -357,6 +373,22 @@ extends Px<Integer>
             return (int)i;
         }
 
+        @Override
+        public int poll(Object[] target, int max) {
+            long i = index;
+            int n = (int)Math.min(end - i, max);
+            for (int j = 0; j < n; j++) {
+                target[j] = (int)(i + j);
+            }
+            index = i + n;
+            return n;
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return Fuseable.SYNC | (requestedMode & Fuseable.BATCH);
+        }
+
         @Override
         public boolean isEmpty() {
             return index == end;
@@ -5,6 +5,7 @@ import java.util.Queue;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -349,9 +350,16 @@ public final class PublisherSwitchMap<T, R> extends PublisherSource<T, R> {
             return false;
         }
         
+        @SuppressWarnings("unchecked")
         void innerNext(PublisherSwitchMapInner<R> inner, R value) {
-            queue.offer(inner);
-            queue.offer(value);
+            Queue<Object> q = queue;
+            if (q instanceof BiPredicate) {
+                // an old and the new inner may emit concurrently, keep their pairs together
+                ((BiPredicate<Object, Object>)q).test(inner, value);
+            } else {
+                q.offer(inner);
+                q.offer(value);
+            }
             drain();
         }
         
@@ -506,7 +506,7 @@ public final class PublisherTake<T> extends PublisherSource<T, T> {
         
         @Override
         public int requestFusion(int requestedMode) {
-            int m = qs.requestFusion(requestedMode);
+            int m = qs.requestFusion(requestedMode & ~Fuseable.BATCH);
             this.inputMode = m;
             return m;
         }
@@ -367,7 +367,7 @@ extends Px<T>
         
         @Override
         public int requestFusion(int requestedMode) {
-            int m = s.requestFusion(requestedMode);
+            int m = s.requestFusion(requestedMode & ~Fuseable.BATCH);
             mode = m;
             return m;
         }
@@ -0,0 +1,396 @@
+package rsc.publisher;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import rsc.flow.Cancellation;
+import rsc.processor.UnicastProcessor;
+import rsc.scheduler.TimedScheduler;
+import rsc.util.BackpressureHelper;
+
+import rsc.util.ExceptionHelper;
+import rsc.subscriber.SubscriptionHelper;
+import rsc.util.UnsignalledExceptions;
+
+/**
+ * Splits the source sequence into continuous, non-overlapping windows which are
+ * closed periodically or when they reach a size limit, whichever happens first.
+ * <p>
+ * Each Subscriber uses a single periodic task of the TimedScheduler instead of a
+ * separate boundary Publisher and Subscriber. The period is not restarted when the
+ * size limit closes a window.
+ *
+ * @param <T> the input value type
+ */
+public final class PublisherWindowTimed<T> extends PublisherSource<T, Px<T>> {
+
+    final long timespan;
+
+    final TimeUnit unit;
+
+    final TimedScheduler timer;
+
+    final Supplier<? extends Queue<T>> processorQueueSupplier;
+
+    final Supplier<? extends Queue<Object>> drainQueueSupplier;
+
+    final int maxSize;
+    
+    public PublisherWindowTimed(Publisher<? extends T> source,
+            int maxSize, long timespan, TimeUnit unit, TimedScheduler timer,
+            Supplier<? extends Queue<T>> processorQueueSupplier,
+            Supplier<? extends Queue<Object>> drainQueueSupplier) {
+        super(source);
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize > 0 required but it was " + maxSize);
+        }
+        if (timespan <= 0L) {
+            throw new IllegalArgumentException("timespan > 0 required but it was " + timespan);
+        }
+        this.timespan = timespan;
+        this.unit = Objects.requireNonNull(unit, "unit");
+        this.timer = Objects.requireNonNull(timer, "timer");
+        this.processorQueueSupplier = Objects.requireNonNull(processorQueueSupplier, "processorQueueSupplier");
+        this.drainQueueSupplier = Objects.requireNonNull(drainQueueSupplier, "drainQueueSupplier");
+        this.maxSize = maxSize;
+    }
+
+
+    @Override
+    public long getPrefetch() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Px<T>> s) {
+
+        Queue<T> q;
+
+        try {
+            q = processorQueueSupplier.get();
+        } catch (Throwable e) {
+            SubscriptionHelper.error(s, e);
+            return;
+        }
+
+        if (q == null) {
+            SubscriptionHelper.error(s, new NullPointerException("The processorQueueSupplier returned a null queue"));
+            return;
+        }
+
+        Queue<Object> dq;
+
+        try {
+            dq = drainQueueSupplier.get();
+        } catch (Throwable e) {
+            SubscriptionHelper.error(s, e);
+            return;
+        }
+
+        if (dq == null) {
+            SubscriptionHelper.error(s, new NullPointerException("The drainQueueSupplier returned a null queue"));
+            return;
+        }
+
+        PublisherWindowTimedMain<T> main = new PublisherWindowTimedMain<>(s, processorQueueSupplier, q, dq, maxSize);
+
+        s.onSubscribe(main);
+
+        if (main.emit(main.window)) {
+            main.setTimer(timer.schedulePeriodically(main, timespan, timespan, unit));
+
+            source.subscribe(main);
+        }
+    }
+
+    static final class PublisherWindowTimedMain<T>
+            implements Subscriber<T>, Subscription, Cancellation, Runnable {
+
+        final Subscriber<? super Px<T>> actual;
+
+        final Supplier<? extends Queue<T>> processorQueueSupplier;
+
+        final Queue<Object> queue;
+
+        final int maxSize;
+
+        UnicastProcessor<T> window;
+
+        int size;
+
+        volatile Subscription s;
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<PublisherWindowTimedMain, Subscription> S =
+                AtomicReferenceFieldUpdater.newUpdater(PublisherWindowTimedMain.class, Subscription.class, "s");
+
+        volatile long requested;
+        @SuppressWarnings("rawtypes")
+        static final AtomicLongFieldUpdater<PublisherWindowTimedMain> REQUESTED =
+                AtomicLongFieldUpdater.newUpdater(PublisherWindowTimedMain.class, "requested");
+
+        volatile int wip;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<PublisherWindowTimedMain> WIP =
+                AtomicIntegerFieldUpdater.newUpdater(PublisherWindowTimedMain.class, "wip");
+
+        volatile Throwable error;
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<PublisherWindowTimedMain, Throwable> ERROR =
+                AtomicReferenceFieldUpdater.newUpdater(PublisherWindowTimedMain.class, Throwable.class, "error");
+
+        volatile int open;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<PublisherWindowTimedMain> OPEN =
+                AtomicIntegerFieldUpdater.newUpdater(PublisherWindowTimedMain.class, "open");
+
+        volatile int once;
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<PublisherWindowTimedMain> ONCE =
+                AtomicIntegerFieldUpdater.newUpdater(PublisherWindowTimedMain.class, "once");
+
+        volatile Cancellation timer;
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<PublisherWindowTimedMain, Cancellation> TIMER =
+                AtomicReferenceFieldUpdater.newUpdater(PublisherWindowTimedMain.class, Cancellation.class, "timer");
+
+        static final Cancellation CANCELLED = () -> { };
+
+        static final Object BOUNDARY_MARKER = new Object();
+        
+        static final Object DONE = new Object();
+
+        public PublisherWindowTimedMain(Subscriber<? super Px<T>> actual,
+                Supplier<? extends Queue<T>> processorQueueSupplier,
+                Queue<T> processorQueue, Queue<Object> queue, int maxSize) {
+            this.actual = actual;
+            this.processorQueueSupplier = processorQueueSupplier;
+            this.window = new UnicastProcessor<>(processorQueue, this);
+            this.open = 2;
+            this.queue = queue;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(S, this, s)) {
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            synchronized (this) {
+                queue.offer(t);
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            cancelTimer();
+            if (ExceptionHelper.addThrowable(ERROR, this, t)) {
+                drain();
+            } else {
+                UnsignalledExceptions.onErrorDropped(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            cancelTimer();
+            synchronized (this) {
+                queue.offer(DONE);
+            }
+            drain();
+        }
+
+        @Override
+        public void dispose() {
+            if (OPEN.decrementAndGet(this) == 0) {
+                cancelMain();
+                cancelTimer();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.getAndAddCap(REQUESTED, this, n);
+            }
+        }
+
+        void cancelMain() {
+            SubscriptionHelper.terminate(S, this);
+        }
+
+        @Override
+        public void cancel() {
+            if (ONCE.compareAndSet(this, 0, 1)) {
+                dispose();
+            }
+        }
+
+        void setTimer(Cancellation c) {
+            if (!TIMER.compareAndSet(this, null, c)) {
+                c.dispose();
+            }
+        }
+
+        void cancelTimer() {
+            Cancellation c = timer;
+            if (c != CANCELLED) {
+                c = TIMER.getAndSet(this, CANCELLED);
+                if (c != null && c != CANCELLED) {
+                    c.dispose();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                queue.offer(BOUNDARY_MARKER);
+            }
+
+            if (once != 0) {
+                cancelTimer();
+            }
+
+            drain();
+        }
+
+        void drain() {
+            if (WIP.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            final Subscriber<? super Px<T>> a = actual;
+            final Queue<Object> q = queue;
+            UnicastProcessor<T> w = window;
+
+            int missed = 1;
+
+            for (;;) {
+
+                for (;;) {
+                    if (error != null) {
+                        q.clear();
+                        Throwable e = ExceptionHelper.terminate(ERROR, this);
+                        if (e != ExceptionHelper.TERMINATED) {
+                            w.onError(e);
+                            
+                            a.onError(e);
+                        }
+                        return;
+                    }
+                    
+                    Object o = q.poll();
+                    
+                    if (o == null) {
+                        break;
+                    }
+                    
+                    if (o == DONE) {
+                        q.clear();
+                        
+                        w.onComplete();
+                        
+                        a.onComplete();
+                        return;
+                    }
+                    if (o != BOUNDARY_MARKER) {
+                        
+                        @SuppressWarnings("unchecked")
+                        T v = (T)o;
+                        w.onNext(v);
+                        
+                        int count = size + 1;
+                        if (count == maxSize) {
+                            o = BOUNDARY_MARKER;
+                        } else {
+                            size = count;
+                        }
+                    }
+                    if (o == BOUNDARY_MARKER) {
+                        w.onComplete();
+                        size = 0;
+                        
+                        if (once == 0) {
+                            if (requested != 0L) {
+                                Queue<T> pq;
+    
+                                try {
+                                    pq = processorQueueSupplier.get();
+                                } catch (Throwable e) {
+                                    q.clear();
+                                    cancelMain();
+                                    cancelTimer();
+                                    
+                                    a.onError(e);
+                                    return;
+                                }
+    
+                                if (pq == null) {
+                                    q.clear();
+                                    cancelMain();
+                                    cancelTimer();
+                                    
+                                    a.onError(new NullPointerException("The processorQueueSupplier returned a null queue"));
+                                    return;
+                                }
+                                
+                                OPEN.getAndIncrement(this);
+                                
+                                w = new UnicastProcessor<>(pq, this);
+                                window = w;
+                                
+                                a.onNext(w);
+                                
+                                if (requested != Long.MAX_VALUE) {
+                                    REQUESTED.decrementAndGet(this);
+                                }
+                            } else {
+                                q.clear();
+                                cancelMain();
+                                cancelTimer();
+                                
+                                a.onError(new IllegalStateException("Could not create new window due to lack of requests"));
+                                return;
+                            }
+                        }
+                    }
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        boolean emit(UnicastProcessor<T> w) {
+            long r = requested;
+            if (r != 0L) {
+                actual.onNext(w);
+                if (r != Long.MAX_VALUE) {
+                    REQUESTED.decrementAndGet(this);
+                }
+                return true;
+            } else {
+                cancel();
+
+                actual.onError(new IllegalStateException("Could not emit buffer due to lack of requests"));
+
+                return false;
+            }
+        }
+    }
+}
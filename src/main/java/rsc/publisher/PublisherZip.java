@@ -38,6 +38,9 @@ public final class PublisherZip<T, R> extends Px<R> implements MultiReceiver, Tr
     final Supplier<? extends Queue<T>> queueSupplier;
     
     final int prefetch;
+    
+    /** The maximum number of rows zipped at once when all sources are synchronously fused. */
+    static final int SYNC_BATCH_SIZE = 128;
 
     @SuppressWarnings("unchecked")
     public <U> PublisherZip(Publisher<? extends T> p1, Publisher<? extends U> p2, 
@@ -523,11 +526,26 @@ public final class PublisherZip<T, R> extends Px<R> implements MultiReceiver, Tr
         
         final Object[] current;
         
+        /** The zipper if it is known not to retain the array it is called with, null otherwise. */
+        final PairwiseZipper<R> pairwise;
+        
+        /** The number of rows polled at once when all sources are synchronously fused. */
+        final int batchSize;
+        
+        /** Set once all sources turned out to be synchronously fused, accessed from drain only. */
+        boolean syncFused;
+        
+        /** The per-source batches of values in sync-fused mode, accessed from drain only. */
+        Object[][] columns;
+        
+        @SuppressWarnings("unchecked")
         public PublisherZipCoordinator(Subscriber<? super R> actual, 
                 Function<? super Object[], ? extends R> zipper, int n, 
                 Supplier<? extends Queue<T>> queueSupplier, int prefetch) {
             this.actual = actual;
             this.zipper = zipper;
+            this.pairwise = zipper instanceof PairwiseZipper ? (PairwiseZipper<R>)zipper : null;
+            this.batchSize = Math.min(prefetch, SYNC_BATCH_SIZE);
             @SuppressWarnings("unchecked")
             PublisherZipInner<T>[] a = new PublisherZipInner[n];
             for (int i = 0; i < n; i++) {
@@ -634,6 +652,12 @@ public final class PublisherZip<T, R> extends Px<R> implements MultiReceiver, Tr
             if (WIP.getAndIncrement(this) != 0) {
                 return;
             }
+            
+            if (syncFused || isSyncFused()) {
+                syncFused = true;
+                drainSync();
+                return;
+            }
 
             final Subscriber<? super R> a = actual;
             final PublisherZipInner<T>[] qs = subscribers;
@@ -708,7 +732,7 @@ public final class PublisherZip<T, R> extends Px<R> implements MultiReceiver, Tr
                     R v;
                     
                     try {
-                        v = zipper.apply(values.clone());
+                        v = zipper.apply(pairwise != null ? values : values.clone());
                     } catch (Throwable ex) {
                         ExceptionHelper.throwIfFatal(ex);
                         
@@ -810,6 +834,212 @@ public final class PublisherZip<T, R> extends Px<R> implements MultiReceiver, Tr
                 }
             }
         }
+        
+        boolean isSyncFused() {
+            for (PublisherZipInner<T> inner : subscribers) {
+                if (inner.queue == null || inner.sourceMode != PublisherZipInner.SYNC) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * Drains synchronously fused sources: polls up to a batch of values from each
+         * source in turn into its column, then zips the rows of the batch in one go.
+         * <p>
+         * Sources before the shortest one may be polled for up to a batch of extra values
+         * when it ends, just like the prefetch does for regular sources.
+         */
+        void drainSync() {
+            final Subscriber<? super R> a = actual;
+            final PublisherZipInner<T>[] qs = subscribers;
+            final int n = qs.length;
+            final Object[] values = current;
+            final PairwiseZipper<R> pz = pairwise;
+            
+            Object[][] cols = columns;
+            if (cols == null) {
+                cols = new Object[n][batchSize];
+                columns = cols;
+            }
+            
+            int missed = 1;
+            
+            for (;;) {
+                
+                long r = requested;
+                long e = 0L;
+                
+                while (r != e) {
+                    
+                    if (cancelled) {
+                        columns = null;
+                        return;
+                    }
+                    
+                    if (error != null) {
+                        cancelAll();
+                        columns = null;
+                        
+                        Throwable ex = ExceptionHelper.terminate(ERROR, this);
+                        
+                        a.onError(ex);
+                        
+                        return;
+                    }
+                    
+                    int b = (int)Math.min(r - e, batchSize);
+                    boolean last = false;
+                    Throwable failure = null;
+                    
+                    for (int j = 0; j < n; j++) {
+                        Object[] col = cols[j];
+                        Queue<T> q = qs[j].queue;
+                        int i = 0;
+                        
+                        Object carried = values[j];
+                        if (carried != null) {
+                            values[j] = null;
+                            col[0] = carried;
+                            i = 1;
+                        }
+                        
+                        try {
+                            for (; i < b; i++) {
+                                T v = q.poll();
+                                if (v == null) {
+                                    break;
+                                }
+                                col[i] = v;
+                            }
+                        } catch (Throwable ex) {
+                            ExceptionHelper.throwIfFatal(ex);
+                            failure = ex;
+                            last = true;
+                            b = i;
+                            continue;
+                        }
+                        
+                        // an earlier row ends the sequence before a later failure does
+                        if (i < b) {
+                            failure = null;
+                            last = true;
+                            b = i;
+                        }
+                    }
+                    
+                    for (int i = 0; i < b; i++) {
+                        R v;
+                        
+                        try {
+                            if (pz != null) {
+                                v = pz.apply(cols, i);
+                            } else {
+                                Object[] row = new Object[n];
+                                for (int j = 0; j < n; j++) {
+                                    row[j] = cols[j][i];
+                                }
+                                v = zipper.apply(row);
+                            }
+                        } catch (Throwable ex) {
+                            ExceptionHelper.throwIfFatal(ex);
+                            
+                            failSync(a, ex);
+                            
+                            return;
+                        }
+                        
+                        if (v == null) {
+                            failSync(a, new NullPointerException("The zipper returned a null value"));
+                            
+                            return;
+                        }
+                        
+                        a.onNext(v);
+                        
+                        if (cancelled) {
+                            columns = null;
+                            return;
+                        }
+                    }
+                    
+                    e += b;
+                    
+                    if (last) {
+                        if (failure != null) {
+                            failSync(a, failure);
+                        } else {
+                            cancelAll();
+                            columns = null;
+                            
+                            a.onComplete();
+                        }
+                        return;
+                    }
+                }
+                
+                if (cancelled) {
+                    columns = null;
+                    return;
+                }
+                
+                if (error != null) {
+                    cancelAll();
+                    columns = null;
+                    
+                    Throwable ex = ExceptionHelper.terminate(ERROR, this);
+                    
+                    a.onError(ex);
+                    
+                    return;
+                }
+                
+                // complete without further requests if a source is already empty
+                for (int j = 0; j < n; j++) {
+                    if (values[j] == null) {
+                        T v;
+                        try {
+                            v = qs[j].queue.poll();
+                        } catch (Throwable ex) {
+                            ExceptionHelper.throwIfFatal(ex);
+                            
+                            failSync(a, ex);
+                            
+                            return;
+                        }
+                        
+                        if (v == null) {
+                            cancelAll();
+                            columns = null;
+                            
+                            a.onComplete();
+                            return;
+                        }
+                        values[j] = v;
+                    }
+                }
+                
+                if (e != 0L && r != Long.MAX_VALUE) {
+                    REQUESTED.addAndGet(this, -e);
+                }
+                
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+        
+        void failSync(Subscriber<? super R> a, Throwable ex) {
+            cancelAll();
+            columns = null;
+            
+            ExceptionHelper.addThrowable(ERROR, this, ex);
+            ex = ExceptionHelper.terminate(ERROR, this);
+            
+            a.onError(ex);
+        }
     }
     
     static final class PublisherZipInner<T> implements Subscriber<T>, Receiver, Producer,
@@ -998,6 +1228,21 @@ public final class PublisherZip<T, R> extends Px<R> implements MultiReceiver, Tr
             return (R)o;
         }
         
+        /**
+         * Zips the values at the given index of the columns without gathering them
+         * into an array first.
+         * @param columns the values of each source
+         * @param index the row index
+         * @return the zipped value
+         */
+        public R apply(Object[][] columns, int index) {
+            Object o = zippers[0].apply(columns[0][index], columns[1][index]);
+            for (int i = 1; i < zippers.length; i++) {
+                o = zippers[i].apply(o, columns[i + 1][index]);
+            }
+            return (R)o;
+        }
+        
         public PairwiseZipper then(BiFunction zipper) {
             BiFunction[] zippers = this.zippers;
             int n = zippers.length;
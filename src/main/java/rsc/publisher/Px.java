@@ -1,5 +1,7 @@
 package rsc.publisher;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -11,6 +13,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -20,6 +23,7 @@ import java.util.function.Function;
 import java.util.function.LongConsumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
 
@@ -40,6 +44,10 @@ import rsc.subscriber.EmptyAsyncSubscriber;
 import rsc.subscriber.LambdaSubscriber;
 import rsc.subscriber.PeekLastSubscriber;
 import rsc.test.TestSubscriber;
+import rsc.util.BloomKeySet;
+import rsc.util.LongOpenHashSet;
+import rsc.util.LruKeySet;
+import rsc.util.MpscLinkedArrayQueue;
 import rsc.util.SpscArrayQueue;
 import rsc.util.SpscLinkedArrayQueue;
 import rsc.util.UnsignalledExceptions;
@@ -77,10 +85,18 @@ public abstract class Px<T> implements Publisher<T> {
      */
     public static volatile boolean trackAssembly;
     
+    /**
+     * If {@code trackAssembly} is false and this is set to a positive N, about one in N
+     * operator assemblies is wrapped into a PublisherOnAssembly that captures only the
+     * call site and produces the readable stacktrace when an onError signal actually
+     * passes through it. Setting it to 1 tracks every assembly this way, 0 disables it.
+     */
+    public static volatile int trackAssemblySampling;
     
     /**
      * Wrap the source into a PublisherOnAssembly or PublisherCallableOnAssembly if 
-     * {@code trackAssembly} is set to true.
+     * {@code trackAssembly} is set to true or if the assembly is picked by
+     * {@code trackAssemblySampling}.
      * @param <T> the value type
      * @param source the source to wrap
      * @return the potentially wrapped source
@@ -92,12 +108,19 @@ public abstract class Px<T> implements Publisher<T> {
             }
             return new PublisherOnAssembly<>(source);
         }
+        if (sampleAssembly()) {
+            if (source instanceof Callable) {
+                return new PublisherCallableOnAssembly<>(source, true);
+            }
+            return new PublisherOnAssembly<>(source, true);
+        }
         return source;
     }
     
     /**
      * Wrap the source into a ConnectablePublisherOnAssembly if 
-     * {@code trackAssembly} is set to true.
+     * {@code trackAssembly} is set to true or if the assembly is picked by
+     * {@code trackAssemblySampling}.
      * @param <T> the value type
      * @param source the source to wrap
      * @return the potentially wrapped source
@@ -106,9 +129,17 @@ public abstract class Px<T> implements Publisher<T> {
         if (trackAssembly) {
             return new ConnectablePublisherOnAssembly<>(source);
         }
+        if (sampleAssembly()) {
+            return new ConnectablePublisherOnAssembly<>(source, true);
+        }
         return source;
     }
     
+    static boolean sampleAssembly() {
+        int n = trackAssemblySampling;
+        return n > 0 && (n == 1 || ThreadLocalRandom.current().nextInt(n) == 0);
+    }
+    
     static final Supplier<Queue<Object>> QUEUE_SUPPLIER = new Supplier<Queue<Object>>() {
         @Override
         public Queue<Object> get() {
@@ -116,6 +147,17 @@ public abstract class Px<T> implements Publisher<T> {
         }
     };
     
+    /**
+     * Supplies the unbounded queues of the operators which offer from multiple threads at once
+     * but poll from a single drain loop only (i.e., switchMap).
+     */
+    static final Supplier<Queue<Object>> MPSC_QUEUE_SUPPLIER = new Supplier<Queue<Object>>() {
+        @Override
+        public Queue<Object> get() {
+            return new MpscLinkedArrayQueue<>(BUFFER_SIZE);
+        }
+    };
+    
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public static <T> Supplier<Queue<T>> defaultQueueSupplier(final int capacity) {
         if (capacity == Integer.MAX_VALUE) {
@@ -129,6 +171,17 @@ public abstract class Px<T> implements Publisher<T> {
         };
     }
 
+    /**
+     * Returns a supplier of unbounded multi-producer, single-consumer queues; unlike the
+     * other default queues, they don't support iteration, contains or remove(Object).
+     * @param <T> the value type
+     * @return the supplier
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public static <T> Supplier<Queue<T>> defaultMpscQueueSupplier() {
+        return (Supplier)MPSC_QUEUE_SUPPLIER;
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public static <T> Supplier<Queue<T>> defaultUnboundedQueueSupplier(final int capacity) {
         if (capacity == Integer.MAX_VALUE) {
@@ -180,7 +233,7 @@ public abstract class Px<T> implements Publisher<T> {
     }
     
     public final <R> Px<R> switchMap(Function<? super T, ? extends Publisher<? extends R>> mapper) {
-        return onAssembly(new PublisherSwitchMap<>(this, mapper, defaultQueueSupplier(Integer.MAX_VALUE), BUFFER_SIZE));
+        return onAssembly(new PublisherSwitchMap<>(this, mapper, defaultMpscQueueSupplier(), BUFFER_SIZE));
     }
     
     public final Px<T> retryWhen(Function<? super Px<Throwable>, ? extends Publisher<? extends Object>> whenFunction) {
@@ -234,6 +287,10 @@ public abstract class Px<T> implements Publisher<T> {
         return onAssembly(new PublisherWindowBoundaryAndSize<>(this, other, defaultUnboundedQueueSupplier(BUFFER_SIZE), defaultUnboundedQueueSupplier(BUFFER_SIZE), maxSize));
     }
 
+    public final Px<Px<T>> window(int maxSize, long timespan, TimeUnit unit, TimedScheduler timer) {
+        return onAssembly(new PublisherWindowTimed<>(this, maxSize, timespan, unit, timer, defaultUnboundedQueueSupplier(BUFFER_SIZE), defaultUnboundedQueueSupplier(BUFFER_SIZE)));
+    }
+
     public final Px<T> accumulate(BiFunction<T, ? super T, T> accumulator) {
         return onAssembly(new PublisherAccumulate<>(this, accumulator));
     }
@@ -287,12 +344,69 @@ public abstract class Px<T> implements Publisher<T> {
     }
     
     public final <K> Px<T> distinct(Function<? super T, K> keyExtractor) {
+        return distinct(keyExtractor, () -> new HashSet<>());
+    }
+
+    /**
+     * Filters out the values whose key was added before to the collection, see {@link LruKeySet},
+     * {@link BloomKeySet} and {@link LongOpenHashSet} for collections with bounded or compact memory.
+     * @param <K> the key type
+     * @param <C> the collection type
+     * @param keyExtractor the function extracting the key from the values
+     * @param collectionSupplier the supplier of the collection, called for each subscriber,
+     * whose add() returning false indicates a duplicate
+     * @return the new Px instance
+     */
+    public final <K, C extends Collection<? super K>> Px<T> distinct(Function<? super T, K> keyExtractor, Supplier<C> collectionSupplier) {
         if (this instanceof Fuseable) {
-            return onAssembly(new PublisherDistinctFuseable<>(this, keyExtractor, () -> new HashSet<>()));
+            return onAssembly(new PublisherDistinctFuseable<>(this, keyExtractor, collectionSupplier));
         }
-        return onAssembly(new PublisherDistinct<>(this, keyExtractor, () -> new HashSet<>()));
+        return onAssembly(new PublisherDistinct<>(this, keyExtractor, collectionSupplier));
     }
-    
+
+    /**
+     * Filters out the values whose key is among the last maxKeys distinct keys seen.
+     * @param <K> the key type
+     * @param keyExtractor the function extracting the key from the values
+     * @param maxKeys the number of keys remembered
+     * @return the new Px instance
+     */
+    public final <K> Px<T> distinctLast(Function<? super T, K> keyExtractor, int maxKeys) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys > 0 required but it was " + maxKeys);
+        }
+        return distinct(keyExtractor, () -> new LruKeySet<>(maxKeys));
+    }
+
+    /**
+     * Filters out the values whose key was probably seen before, using a fixed amount of memory;
+     * some distinct values are dropped with about the given probability.
+     * @param <K> the key type
+     * @param keyExtractor the function extracting the key from the values
+     * @param expectedKeys the number of distinct keys expected
+     * @param falsePositiveRate the probability a distinct value is dropped, in (0, 1)
+     * @return the new Px instance
+     */
+    public final <K> Px<T> distinctApproximate(Function<? super T, K> keyExtractor, long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0L) {
+            throw new IllegalArgumentException("expectedKeys > 0 required but it was " + expectedKeys);
+        }
+        if (!(falsePositiveRate > 0d && falsePositiveRate < 1d)) {
+            throw new IllegalArgumentException("falsePositiveRate in (0, 1) required but it was " + falsePositiveRate);
+        }
+        return distinct(keyExtractor, () -> new BloomKeySet<>(expectedKeys, falsePositiveRate));
+    }
+
+    /**
+     * Filters out the values whose primitive long key was seen before.
+     * @param keyExtractor the function extracting the key from the values
+     * @return the new Px instance
+     */
+    public final Px<T> distinctLong(ToLongFunction<? super T> keyExtractor) {
+        Objects.requireNonNull(keyExtractor, "keyExtractor");
+        return distinct(v -> keyExtractor.applyAsLong(v), () -> new LongOpenHashSet());
+    }
+
     public final Px<T> distinctUntilChanged() {
         return distinctUntilChanged(v -> v);
     }
@@ -554,6 +668,14 @@ public abstract class Px<T> implements Publisher<T> {
         return onAssembly(new PublisherBufferBoundaryAndSize<>(this, other, bufferSupplier, maxSize, defaultUnboundedQueueSupplier(BUFFER_SIZE)));
     }
 
+    public final Px<List<T>> buffer(int maxSize, long timespan, TimeUnit unit, TimedScheduler timer) {
+        return onAssembly(new PublisherBufferTimed<>(this, maxSize, timespan, unit, timer, () -> new ArrayList<>(), defaultUnboundedQueueSupplier(BUFFER_SIZE)));
+    }
+
+    public final <C extends Collection<? super T>> Px<C> buffer(int maxSize, long timespan, TimeUnit unit, TimedScheduler timer, Supplier<C> bufferSupplier) {
+        return onAssembly(new PublisherBufferTimed<>(this, maxSize, timespan, unit, timer, bufferSupplier, defaultUnboundedQueueSupplier(BUFFER_SIZE)));
+    }
+
     public final <R> Px<R> flatMap(Function<? super T, ? extends Publisher<? extends R>> mapper) {
         return flatMap(mapper, false, Integer.MAX_VALUE, BUFFER_SIZE);
     }
@@ -570,6 +692,21 @@ public abstract class Px<T> implements Publisher<T> {
         return onAssembly(new PublisherFlatMap<>(this, mapper, delayError, maxConcurrency, defaultQueueSupplier(maxConcurrency), prefetch, defaultQueueSupplier(prefetch)));
     }
 
+    /**
+     * Maps the values into Publishers and merges them with inner subscribers adapting their
+     * prefetch amount between the given bounds at runtime, see {@link rsc.util.AdaptivePrefetch}.
+     * @param <R> the result value type
+     * @param mapper the function mapping each value into a Publisher
+     * @param delayError delay the errors until all sources terminated?
+     * @param maxConcurrency the maximum number of active inner Publishers
+     * @param minPrefetch the minimum and initial prefetch amount of an inner subscriber
+     * @param maxPrefetch the maximum prefetch amount of an inner subscriber
+     * @return the new Px instance
+     */
+    public final <R> Px<R> flatMap(Function<? super T, ? extends Publisher<? extends R>> mapper, boolean delayError, int maxConcurrency, int minPrefetch, int maxPrefetch) {
+        return onAssembly(new PublisherFlatMap<>(this, mapper, delayError, maxConcurrency, defaultQueueSupplier(maxConcurrency), minPrefetch, maxPrefetch, defaultUnboundedQueueSupplier(minPrefetch)));
+    }
+
     @SuppressWarnings("unchecked")
     public final <U, R> Px<R> zipWith(Publisher<? extends U> other, BiFunction<? super T, ? super U, ? extends R> zipper) {
         if (this instanceof PublisherZip) {
@@ -607,6 +744,29 @@ public abstract class Px<T> implements Publisher<T> {
         return onAssembly(new PublisherConcatMap<>(this, mapper, defaultUnboundedQueueSupplier(prefetch), prefetch, errorMode));
     }
 
+    public final <R> Px<R> concatMapEager(Function<? super T, ? extends Publisher<? extends R>> mapper) {
+        return concatMapEager(mapper, false, BUFFER_SIZE, BUFFER_SIZE);
+    }
+
+    public final <R> Px<R> concatMapEager(Function<? super T, ? extends Publisher<? extends R>> mapper, boolean delayError) {
+        return concatMapEager(mapper, delayError, BUFFER_SIZE, BUFFER_SIZE);
+    }
+
+    /**
+     * Maps the values into Publishers, subscribes to up to maxConcurrency of them at once
+     * and relays their values in order, buffering the values of the Publishers that are
+     * not the current one.
+     * @param <R> the result value type
+     * @param mapper the function mapping each value into a Publisher
+     * @param delayError delay the errors until all sources terminated?
+     * @param maxConcurrency the maximum number of active inner Publishers
+     * @param prefetch the number of values to prefetch from each inner Publisher
+     * @return the new Px instance
+     */
+    public final <R> Px<R> concatMapEager(Function<? super T, ? extends Publisher<? extends R>> mapper, boolean delayError, int maxConcurrency, int prefetch) {
+        return onAssembly(new PublisherConcatMapEager<>(this, mapper, maxConcurrency, prefetch, defaultQueueSupplier(prefetch), delayError));
+    }
+
     public final Px<T> observeOn(ExecutorService executor) {
         return observeOn(executor, true, BUFFER_SIZE);
     }
@@ -641,6 +801,24 @@ public abstract class Px<T> implements Publisher<T> {
         return onAssembly(new PublisherObserveOn<>(this, scheduler, delayError, prefetch, defaultQueueSupplier(prefetch)));
     }
 
+    /**
+     * Emits the events on the given Scheduler while adapting the amount requested from this
+     * Px between the given bounds at runtime, see {@link rsc.util.AdaptivePrefetch}.
+     * @param scheduler the scheduler to emit the events on
+     * @param delayError delay the error until all values have been emitted?
+     * @param minPrefetch the minimum and initial prefetch amount
+     * @param maxPrefetch the maximum prefetch amount
+     * @return the new Px instance
+     */
+    public final Px<T> observeOn(Scheduler scheduler, boolean delayError, int minPrefetch, int maxPrefetch) {
+        if (this instanceof Fuseable.ScalarCallable) {
+            @SuppressWarnings("unchecked")
+            T value = ((Fuseable.ScalarCallable<T>)this).call();
+            return onAssembly(new PublisherSubscribeOnValue<>(value, scheduler));
+        }
+        return onAssembly(new PublisherObserveOn<>(this, scheduler, delayError, minPrefetch, maxPrefetch, defaultUnboundedQueueSupplier(minPrefetch)));
+    }
+
     public final Px<T> subscribeOn(ExecutorService executor) {
         Scheduler fromExecutor = fromExecutor(executor);
         return subscribeOn(fromExecutor);
@@ -685,6 +863,14 @@ public abstract class Px<T> implements Publisher<T> {
         return onAssembly(new PublisherGroupBy<>(this, keySelector, valueSelector, defaultUnboundedQueueSupplier(BUFFER_SIZE), defaultUnboundedQueueSupplier(BUFFER_SIZE), BUFFER_SIZE));
     }
 
+    public final <K, V> Px<GroupedPublisher<K, V>> groupBy(Function<? super T, ? extends K> keySelector, Function<? super T, ? extends V> valueSelector, int maxGroups) {
+        return onAssembly(new PublisherGroupBy<>(this, keySelector, valueSelector, defaultUnboundedQueueSupplier(BUFFER_SIZE), defaultUnboundedQueueSupplier(BUFFER_SIZE), BUFFER_SIZE, maxGroups, Long.MAX_VALUE, null, null));
+    }
+
+    public final <K, V> Px<GroupedPublisher<K, V>> groupBy(Function<? super T, ? extends K> keySelector, Function<? super T, ? extends V> valueSelector, int maxGroups, long idleTimeout, TimeUnit unit, TimedScheduler timer) {
+        return onAssembly(new PublisherGroupBy<>(this, keySelector, valueSelector, defaultUnboundedQueueSupplier(BUFFER_SIZE), defaultUnboundedQueueSupplier(BUFFER_SIZE), BUFFER_SIZE, maxGroups, idleTimeout, unit, timer));
+    }
+
     public final <U> Px<Px<T>> windowBatch(int maxSize, Supplier<? extends Publisher<U>> boundarySupplier) {
         return onAssembly(new PublisherWindowBatch<>(this, boundarySupplier, defaultUnboundedQueueSupplier(BUFFER_SIZE), defaultUnboundedQueueSupplier(BUFFER_SIZE), maxSize));
     }
@@ -966,6 +1152,36 @@ public abstract class Px<T> implements Publisher<T> {
     public static <T> Px<T> fromCallable(Callable<? extends T> callable) {
         return onAssembly(new PublisherCallable<>(callable));
     }
+
+    /**
+     * Emits the records of the file separated by the delimiter as read-only slices of
+     * the memory-mapped file, see {@link PublisherFileRecords}.
+     * @param path the file to read
+     * @param delimiter the byte separating the records
+     * @return the new Px instance
+     */
+    public static Px<ByteBuffer> fromFileRecords(Path path, byte delimiter) {
+        return onAssembly(new PublisherFileRecords(path, delimiter));
+    }
+
+    public static Px<ByteBuffer> fromFileRecords(Path path, byte delimiter, int regionSize) {
+        return onAssembly(new PublisherFileRecords(path, delimiter, regionSize));
+    }
+
+    /**
+     * Emits the content of the file in windows of chunkSize bytes as read-only slices
+     * of the memory-mapped file, see {@link PublisherFileChunks}.
+     * @param path the file to read
+     * @param chunkSize the number of bytes per window
+     * @return the new Px instance
+     */
+    public static Px<ByteBuffer> fromFileChunks(Path path, int chunkSize) {
+        return onAssembly(new PublisherFileChunks(path, chunkSize));
+    }
+
+    public static Px<ByteBuffer> fromFileChunks(Path path, int chunkSize, int regionSize) {
+        return onAssembly(new PublisherFileChunks(path, chunkSize, regionSize));
+    }
     
     @SafeVarargs
     public static <T, R> Px<R> zip(Function<? super Object[], ? extends R> zipper, Publisher<? extends T>... sources) {
@@ -1034,7 +1250,23 @@ public abstract class Px<T> implements Publisher<T> {
         return onAssembly(new PublisherCombineLatest<T, R>(new Publisher[] { p1, p2 }, a -> combiner.apply((T)a[0], (U)a[1]),
                 defaultUnboundedQueueSupplier(BUFFER_SIZE), BUFFER_SIZE));
     }
-    
+
+    /**
+     * Combines the latest values of the sources without allocating per value; unless
+     * copyLatest is set, the combiner is called with the same array each time which it
+     * must not modify nor keep a reference to beyond its call.
+     * @param <T> the common value type of the sources
+     * @param <R> the result type
+     * @param combiner the function receiving the latest values
+     * @param copyLatest call the combiner with a copy of the latest values which it can keep?
+     * @param sources the sources
+     * @return the new Px instance
+     */
+    @SafeVarargs
+    public static <T, R> Px<R> combineLatest(Function<Object[], R> combiner, boolean copyLatest, Publisher<? extends T>... sources) {
+        return onAssembly(new PublisherCombineLatest<>(sources, combiner, BUFFER_SIZE, copyLatest));
+    }
+
     public static <T, S> Px<T> using(Callable<S> resourceSupplier, 
             Function<? super S, ? extends Publisher<? extends T>> sourceCreator, Consumer<? super S> disposer) {
         return using(resourceSupplier, sourceCreator, disposer, true);
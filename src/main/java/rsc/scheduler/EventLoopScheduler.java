@@ -0,0 +1,392 @@
+package rsc.scheduler;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+import rsc.flow.Cancellation;
+import rsc.util.MpscLinkedArrayQueue;
+import rsc.util.UnsignalledExceptions;
+
+/**
+ * Scheduler that hosts a fixed number of event loops, each owning a thread and a
+ * multi-producer single-consumer task queue, and is suited for a high rate of short tasks
+ * such as the drain loops of observeOn.
+ * <p>
+ * Unlike the ExecutorService-based schedulers, scheduling a task costs a small task object
+ * and an offer into an array-backed queue: there is no Future, no per-Worker task tracking
+ * and the loop thread is only woken up if it is parked. The loop runs the queued tasks
+ * back-to-back in batches and, when it runs out of tasks, waits for new ones according to
+ * its {@link IdleStrategy}.
+ * <p>
+ * A Worker is bound to one of the loops, which guarantees its tasks run in FIFO order and
+ * non-concurrently. Shutting down a Worker doesn't remove its pending tasks from the loop's
+ * queue, they are skipped when the loop reaches them.
+ * <p>
+ * The loop threads are started lazily on the first task submitted to them.
+ */
+public final class EventLoopScheduler implements Scheduler {
+
+    /**
+     * Determines what an event loop does when it finds its task queue empty.
+     */
+    public enum IdleStrategy {
+        /**
+         * Keep polling the queue; the lowest latency, but an idle loop keeps a CPU busy.
+         */
+        SPIN,
+        /**
+         * Yield the CPU between polls; low latency while letting other threads run, but
+         * an idle loop never sleeps.
+         */
+        YIELD,
+        /**
+         * Spin and yield for a short while, then park until a new task arrives; the
+         * only strategy where an idle loop doesn't consume CPU.
+         */
+        PARK
+    }
+
+    static final AtomicLong COUNTER = new AtomicLong();
+
+    static final ThreadFactory THREAD_FACTORY = r -> {
+        Thread t = new Thread(r, "event-loop-" + COUNTER.incrementAndGet());
+        return t;
+    };
+
+    static final ThreadFactory THREAD_FACTORY_DAEMON = r -> {
+        Thread t = new Thread(r, "event-loop-" + COUNTER.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    };
+
+    /** The maximum number of tasks run before the loop checks for termination again. */
+    static final int MAX_BATCH = 1024;
+
+    /** Empty polls spent spinning before the PARK strategy starts yielding. */
+    static final int SPIN_LIMIT = 128;
+
+    /** Empty polls spent spinning and yielding before the PARK strategy parks. */
+    static final int YIELD_LIMIT = SPIN_LIMIT + 16;
+
+    static final int QUEUE_LINK_SIZE = 256;
+
+    final int n;
+
+    final IdleStrategy idleStrategy;
+
+    final ThreadFactory threadFactory;
+
+    volatile EventLoop[] loops;
+    static final AtomicReferenceFieldUpdater<EventLoopScheduler, EventLoop[]> LOOPS =
+            AtomicReferenceFieldUpdater.newUpdater(EventLoopScheduler.class, EventLoop[].class, "loops");
+
+    static final EventLoop[] SHUTDOWN = new EventLoop[0];
+
+    static final EventLoop TERMINATED;
+    static {
+        TERMINATED = new EventLoop(IdleStrategy.PARK, THREAD_FACTORY_DAEMON);
+        TERMINATED.shutdown();
+    }
+
+    int roundRobin;
+
+    /**
+     * Constructs an EventLoopScheduler with as many parking event loops as there are
+     * available processors, running on non-daemon threads.
+     */
+    public EventLoopScheduler() {
+        this(Runtime.getRuntime().availableProcessors(), IdleStrategy.PARK, THREAD_FACTORY);
+    }
+
+    /**
+     * Constructs an EventLoopScheduler with the given number of parking event loops,
+     * running on non-daemon threads.
+     * @param n the number of event loops, positive
+     */
+    public EventLoopScheduler(int n) {
+        this(n, IdleStrategy.PARK, THREAD_FACTORY);
+    }
+
+    /**
+     * Constructs an EventLoopScheduler with the given number of event loops, running on
+     * non-daemon threads.
+     * @param n the number of event loops, positive
+     * @param idleStrategy what the event loops do when they run out of tasks
+     */
+    public EventLoopScheduler(int n, IdleStrategy idleStrategy) {
+        this(n, idleStrategy, THREAD_FACTORY);
+    }
+
+    /**
+     * Constructs an EventLoopScheduler.
+     * @param n the number of event loops, positive
+     * @param idleStrategy what the event loops do when they run out of tasks
+     * @param threadFactory the factory creating the thread of each event loop
+     */
+    public EventLoopScheduler(int n, IdleStrategy idleStrategy, ThreadFactory threadFactory) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n > 0 required but it was " + n);
+        }
+        this.n = n;
+        this.idleStrategy = Objects.requireNonNull(idleStrategy, "idleStrategy");
+        this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+        LOOPS.lazySet(this, create());
+    }
+
+    EventLoop[] create() {
+        EventLoop[] a = new EventLoop[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = new EventLoop(idleStrategy, threadFactory);
+        }
+        return a;
+    }
+
+    public int parallelism() {
+        return n;
+    }
+
+    public boolean isStarted() {
+        return loops != SHUTDOWN;
+    }
+
+    @Override
+    public void start() {
+        EventLoop[] b = null;
+        for (;;) {
+            EventLoop[] a = loops;
+            if (a != SHUTDOWN) {
+                return;
+            }
+
+            if (b == null) {
+                // the loops start their thread lazily so losing the race costs nothing to undo
+                b = create();
+            }
+
+            if (LOOPS.compareAndSet(this, a, b)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        EventLoop[] a = loops;
+        if (a != SHUTDOWN) {
+            a = LOOPS.getAndSet(this, SHUTDOWN);
+            if (a != SHUTDOWN) {
+                for (EventLoop loop : a) {
+                    loop.shutdown();
+                }
+            }
+        }
+    }
+
+    EventLoop pick() {
+        EventLoop[] a = loops;
+        if (a != SHUTDOWN) {
+            // ignoring the race condition here, its already random who gets which loop
+            int idx = roundRobin;
+            if (idx >= n) {
+                idx = 0;
+            }
+            roundRobin = idx + 1;
+            return a[idx];
+        }
+        return TERMINATED;
+    }
+
+    @Override
+    public Cancellation schedule(Runnable task) {
+        return pick().submit(new EventLoopTask(task, null));
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new EventLoopWorker(pick());
+    }
+
+    static final class EventLoop implements Runnable {
+
+        final Queue<EventLoopTask> queue;
+
+        final IdleStrategy idleStrategy;
+
+        final ThreadFactory threadFactory;
+
+        volatile Thread thread;
+
+        volatile boolean terminated;
+
+        volatile int once;
+        static final AtomicIntegerFieldUpdater<EventLoop> ONCE =
+                AtomicIntegerFieldUpdater.newUpdater(EventLoop.class, "once");
+
+        volatile int sleeping;
+        static final AtomicIntegerFieldUpdater<EventLoop> SLEEPING =
+                AtomicIntegerFieldUpdater.newUpdater(EventLoop.class, "sleeping");
+
+        public EventLoop(IdleStrategy idleStrategy, ThreadFactory threadFactory) {
+            this.idleStrategy = idleStrategy;
+            this.threadFactory = threadFactory;
+            this.queue = new MpscLinkedArrayQueue<>(QUEUE_LINK_SIZE);
+        }
+
+        Cancellation submit(EventLoopTask task) {
+            if (terminated) {
+                return REJECTED;
+            }
+            if (once == 0 && ONCE.compareAndSet(this, 0, 1)) {
+                Thread t = threadFactory.newThread(this);
+                thread = t;
+                t.start();
+            }
+
+            queue.offer(task);
+
+            if (sleeping != 0 && SLEEPING.compareAndSet(this, 1, 0)) {
+                LockSupport.unpark(thread);
+            }
+
+            if (terminated) {
+                // the loop clears the queue on its way out
+                return REJECTED;
+            }
+            return task;
+        }
+
+        void shutdown() {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            Thread t = thread;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+
+        @Override
+        public void run() {
+            final Queue<EventLoopTask> q = queue;
+            final IdleStrategy strategy = idleStrategy;
+            int idle = 0;
+
+            for (;;) {
+                if (terminated) {
+                    q.clear();
+                    return;
+                }
+
+                int c = 0;
+                while (c != MAX_BATCH) {
+                    EventLoopTask t = q.poll();
+                    if (t == null) {
+                        break;
+                    }
+                    t.run();
+                    c++;
+                }
+
+                if (c != 0) {
+                    idle = 0;
+                    continue;
+                }
+
+                // the queue may return null while an offer is in progress, only idle if it is really empty
+                if (!q.isEmpty()) {
+                    continue;
+                }
+
+                idle(strategy, ++idle);
+            }
+        }
+
+        void idle(IdleStrategy strategy, int idle) {
+            switch (strategy) {
+            case SPIN:
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            default:
+                if (idle <= SPIN_LIMIT) {
+                    break;
+                }
+                if (idle <= YIELD_LIMIT) {
+                    Thread.yield();
+                    break;
+                }
+                sleeping = 1;
+                if (!queue.isEmpty() || terminated) {
+                    sleeping = 0;
+                    break;
+                }
+                LockSupport.park(this);
+                sleeping = 0;
+            }
+        }
+    }
+
+    static final class EventLoopTask implements Runnable, Cancellation {
+
+        final Runnable task;
+
+        final EventLoopWorker parent;
+
+        volatile boolean cancelled;
+
+        public EventLoopTask(Runnable task, EventLoopWorker parent) {
+            this.task = Objects.requireNonNull(task, "task");
+            this.parent = parent;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            EventLoopWorker p = parent;
+            if (p != null && p.shutdown) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                UnsignalledExceptions.onErrorDropped(ex);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            cancelled = true;
+        }
+    }
+
+    static final class EventLoopWorker implements Worker {
+
+        final EventLoop loop;
+
+        volatile boolean shutdown;
+
+        public EventLoopWorker(EventLoop loop) {
+            this.loop = loop;
+        }
+
+        @Override
+        public Cancellation schedule(Runnable task) {
+            if (shutdown) {
+                return REJECTED;
+            }
+            return loop.submit(new EventLoopTask(task, this));
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+    }
+}
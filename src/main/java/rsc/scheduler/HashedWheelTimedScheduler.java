@@ -0,0 +1,545 @@
+package rsc.scheduler;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+import rsc.flow.Cancellation;
+import rsc.util.MpscLinkedArrayQueue;
+import rsc.util.OpenHashSet;
+import rsc.util.UnsignalledExceptions;
+
+/**
+ * A TimedScheduler backed by a hashed timing wheel running on a single thread, suitable for
+ * arming and disarming a massive number of (mostly cancelled) timeouts.
+ * <p>
+ * Scheduling and cancelling a task is O(1): new tasks and cancellations are handed to the wheel
+ * thread through multi-producer queues and are processed in batches once every tick. Tasks
+ * execute on the wheel thread, at most one tick duration late but never early, thus the tick
+ * duration determines the resolution of the timer. Non-delayed tasks wake up the wheel thread
+ * and are executed as soon as possible.
+ * <p>
+ * The design follows Varghese and Lauck's hashed timing wheel and Netty's
+ * <a href='https://github.com/netty/netty/blob/4.1/common/src/main/java/io/netty/util/HashedWheelTimer.java'>HashedWheelTimer</a>.
+ */
+public final class HashedWheelTimedScheduler implements TimedScheduler {
+
+    static final AtomicLong COUNTER = new AtomicLong();
+
+    static final ThreadFactory THREAD_FACTORY = r -> {
+        Thread t = new Thread(r, "HashedWheelTimedScheduler-" + COUNTER.incrementAndGet());
+        return t;
+    };
+
+    static final ThreadFactory THREAD_FACTORY_DAEMON = r -> {
+        Thread t = new Thread(r, "HashedWheelTimedScheduler-" + COUNTER.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    };
+
+    /** The maximum number of newly scheduled tasks moved into the wheel per tick. */
+    static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    final long tickNanos;
+
+    final Bucket[] wheel;
+
+    final int mask;
+
+    final long startTime;
+
+    final Queue<WheelTask> immediate;
+
+    final Queue<WheelTask> pending;
+
+    final Queue<WheelTask> cancelled;
+
+    final Thread thread;
+
+    volatile boolean terminated;
+
+    volatile int sleeping;
+    static final AtomicIntegerFieldUpdater<HashedWheelTimedScheduler> SLEEPING =
+            AtomicIntegerFieldUpdater.newUpdater(HashedWheelTimedScheduler.class, "sleeping");
+
+    /**
+     * Constructs a HashedWheelTimedScheduler with 1 millisecond resolution and 512 ticks per wheel
+     * running on a non-daemon thread.
+     */
+    public HashedWheelTimedScheduler() {
+        this(THREAD_FACTORY, 1, TimeUnit.MILLISECONDS, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    public HashedWheelTimedScheduler(boolean daemon) {
+        this(daemon ? THREAD_FACTORY_DAEMON : THREAD_FACTORY, 1, TimeUnit.MILLISECONDS, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    public HashedWheelTimedScheduler(long tickDuration, TimeUnit unit) {
+        this(THREAD_FACTORY, tickDuration, unit, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    /**
+     * Constructs a HashedWheelTimedScheduler.
+     *
+     * @param threadFactory the factory creating the wheel thread
+     * @param tickDuration the duration of a tick, the resolution of the timer
+     * @param unit the unit of the tick duration
+     * @param ticksPerWheel the number of buckets in the wheel, rounded up to the next power of 2;
+     * delays longer than {@code tickDuration * ticksPerWheel} make more rounds around the wheel
+     */
+    public HashedWheelTimedScheduler(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        Objects.requireNonNull(threadFactory, "threadFactory");
+        Objects.requireNonNull(unit, "unit");
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration > 0 required but it was " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel in (0, 2^30] required but it was " + ticksPerWheel);
+        }
+        int n = 1;
+        while (n < ticksPerWheel) {
+            n <<= 1;
+        }
+        Bucket[] w = new Bucket[n];
+        for (int i = 0; i < n; i++) {
+            w[i] = new Bucket();
+        }
+        this.wheel = w;
+        this.mask = n - 1;
+        this.tickNanos = Math.max(1L, unit.toNanos(tickDuration));
+        this.immediate = new MpscLinkedArrayQueue<>(256);
+        this.pending = new MpscLinkedArrayQueue<>(256);
+        this.cancelled = new MpscLinkedArrayQueue<>(256);
+        this.startTime = System.nanoTime();
+        Thread t = threadFactory.newThread(this::run);
+        this.thread = t;
+        t.start();
+    }
+
+    @Override
+    public Cancellation schedule(Runnable task) {
+        return submit(new WheelTask(task, this, null, 0L, 0L));
+    }
+
+    @Override
+    public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+        return submit(new WheelTask(task, this, null, unit.toNanos(delay), 0L));
+    }
+
+    @Override
+    public Cancellation schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return submit(new WheelTask(task, this, null, unit.toNanos(initialDelay), Math.max(1L, unit.toNanos(period))));
+    }
+
+    Cancellation submit(WheelTask wt) {
+        if (terminated) {
+            return REJECTED;
+        }
+        if (wt.deadline <= 0L) {
+            immediate.offer(wt);
+            if (sleeping != 0 && SLEEPING.compareAndSet(this, 1, 0)) {
+                LockSupport.unpark(thread);
+            }
+        } else {
+            long d = wt.deadline + nanoTime();
+            wt.deadline = d < 0L ? Long.MAX_VALUE : d;
+            pending.offer(wt);
+        }
+        return wt;
+    }
+
+    long nanoTime() {
+        return System.nanoTime() - startTime;
+    }
+
+    @Override
+    public void start() {
+        throw new UnsupportedOperationException("Not supported, yet.");
+    }
+
+    @Override
+    public void shutdown() {
+        if (terminated) {
+            return;
+        }
+        terminated = true;
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public TimedWorker createWorker() {
+        return new HashedWheelTimedWorker(this);
+    }
+
+    void run() {
+        final Bucket[] w = wheel;
+        final int m = mask;
+        final long tn = tickNanos;
+        long tick = 0L;
+
+        for (;;) {
+            long tickDeadline = (tick + 1) * tn;
+
+            for (;;) {
+                runImmediate();
+
+                if (terminated) {
+                    clearAll();
+                    return;
+                }
+
+                long sleep = tickDeadline - nanoTime();
+                if (sleep <= 0L) {
+                    break;
+                }
+
+                sleeping = 1;
+                if (!immediate.isEmpty() || terminated) {
+                    sleeping = 0;
+                    continue;
+                }
+                LockSupport.parkNanos(this, sleep);
+                sleeping = 0;
+            }
+
+            removeCancelled();
+
+            transferPending(tick);
+
+            expire(w[(int)tick & m], tick);
+
+            tick++;
+        }
+    }
+
+    void runImmediate() {
+        Queue<WheelTask> q = immediate;
+        long now = 0L;
+        for (;;) {
+            WheelTask wt = q.poll();
+            if (wt == null) {
+                break;
+            }
+            if (wt.period == 0L) {
+                wt.runOnce();
+            } else {
+                if (now == 0L) {
+                    now = nanoTime();
+                }
+                // the first run of a periodic task without initial delay, its next deadline is picked up by the wheel
+                wt.deadline = now;
+                if (wt.runPeriodic()) {
+                    pending.offer(wt);
+                }
+            }
+        }
+    }
+
+    void removeCancelled() {
+        Queue<WheelTask> q = cancelled;
+        for (;;) {
+            WheelTask wt = q.poll();
+            if (wt == null) {
+                break;
+            }
+            Bucket b = wt.bucket;
+            if (b != null) {
+                b.remove(wt);
+            }
+        }
+    }
+
+    void transferPending(long tick) {
+        Queue<WheelTask> q = pending;
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            WheelTask wt = q.poll();
+            if (wt == null) {
+                break;
+            }
+            if (wt.state == WheelTask.WAITING) {
+                insert(wt, tick);
+            }
+        }
+    }
+
+    /**
+     * Inserts the task into the bucket of its deadline given that the wheel visits
+     * the bucket of {@code fromTick} next.
+     * @param wt the task to insert
+     * @param fromTick the next tick the wheel is going to process
+     */
+    void insert(WheelTask wt, long fromTick) {
+        long calculated = Math.max(wt.deadline / tickNanos, fromTick);
+        wt.remainingRounds = (calculated - fromTick) / wheel.length;
+        wheel[(int)calculated & mask].add(wt);
+    }
+
+    void expire(Bucket b, long tick) {
+        WheelTask wt = b.head;
+        WheelTask reschedule = null;
+
+        while (wt != null) {
+            WheelTask next = wt.next;
+
+            if (wt.state != WheelTask.WAITING) {
+                b.remove(wt);
+            } else
+            if (wt.remainingRounds <= 0L) {
+                b.remove(wt);
+                if (wt.period == 0L) {
+                    wt.runOnce();
+                } else
+                if (wt.runPeriodic()) {
+                    wt.next = reschedule;
+                    reschedule = wt;
+                }
+            } else {
+                wt.remainingRounds--;
+            }
+
+            wt = next;
+        }
+
+        while (reschedule != null) {
+            WheelTask next = reschedule.next;
+            reschedule.next = null;
+            insert(reschedule, tick + 1);
+            reschedule = next;
+        }
+    }
+
+    void clearAll() {
+        for (Bucket b : wheel) {
+            b.head = null;
+            b.tail = null;
+        }
+        immediate.clear();
+        pending.clear();
+        cancelled.clear();
+    }
+
+    /**
+     * A doubly-linked list of tasks; accessed by the wheel thread only.
+     */
+    static final class Bucket {
+        WheelTask head;
+
+        WheelTask tail;
+
+        void add(WheelTask wt) {
+            wt.bucket = this;
+            WheelTask t = tail;
+            if (t == null) {
+                head = wt;
+            } else {
+                t.next = wt;
+                wt.prev = t;
+            }
+            tail = wt;
+        }
+
+        void remove(WheelTask wt) {
+            WheelTask p = wt.prev;
+            WheelTask n = wt.next;
+            if (p == null) {
+                head = n;
+            } else {
+                p.next = n;
+            }
+            if (n == null) {
+                tail = p;
+            } else {
+                n.prev = p;
+            }
+            wt.prev = null;
+            wt.next = null;
+            wt.bucket = null;
+        }
+    }
+
+    static final class WheelTask implements Cancellation {
+
+        static final int WAITING = 0;
+        static final int CANCELLED = 1;
+        static final int FINISHED = 2;
+
+        final Runnable task;
+
+        final HashedWheelTimedScheduler scheduler;
+
+        final HashedWheelTimedWorker parent;
+
+        final long period;
+
+        /** Relative to the scheduler's start time. */
+        long deadline;
+
+        long remainingRounds;
+
+        WheelTask prev;
+
+        WheelTask next;
+
+        Bucket bucket;
+
+        volatile int state;
+        static final AtomicIntegerFieldUpdater<WheelTask> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(WheelTask.class, "state");
+
+        public WheelTask(Runnable task, HashedWheelTimedScheduler scheduler, HashedWheelTimedWorker parent,
+                long delayNanos, long period) {
+            this.task = Objects.requireNonNull(task, "task");
+            this.scheduler = scheduler;
+            this.parent = parent;
+            this.deadline = delayNanos;
+            this.period = period;
+        }
+
+        void runOnce() {
+            if (STATE.compareAndSet(this, WAITING, FINISHED)) {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    UnsignalledExceptions.onErrorDropped(e);
+                }
+                if (parent != null) {
+                    parent.delete(this);
+                }
+            }
+        }
+
+        /**
+         * Runs the periodic task and moves its deadline forward.
+         * @return true if the task should be rescheduled
+         */
+        boolean runPeriodic() {
+            if (state != WAITING) {
+                return false;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                UnsignalledExceptions.onErrorDropped(e);
+                if (STATE.compareAndSet(this, WAITING, FINISHED) && parent != null) {
+                    parent.delete(this);
+                }
+                return false;
+            }
+            deadline += period;
+            return state == WAITING;
+        }
+
+        @Override
+        public void dispose() {
+            if (cancel()) {
+                if (parent != null) {
+                    parent.delete(this);
+                }
+            }
+        }
+
+        boolean cancel() {
+            if (STATE.compareAndSet(this, WAITING, CANCELLED)) {
+                scheduler.cancelled.offer(this);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "WheelTask[state=" + state + ", task=" + task + "]";
+        }
+    }
+
+    static final class HashedWheelTimedWorker implements TimedWorker {
+
+        final HashedWheelTimedScheduler scheduler;
+
+        OpenHashSet<WheelTask> tasks;
+
+        volatile boolean terminated;
+
+        public HashedWheelTimedWorker(HashedWheelTimedScheduler scheduler) {
+            this.scheduler = scheduler;
+            this.tasks = new OpenHashSet<>();
+        }
+
+        @Override
+        public Cancellation schedule(Runnable task) {
+            return submit(task, 0L, 0L);
+        }
+
+        @Override
+        public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+            return submit(task, unit.toNanos(delay), 0L);
+        }
+
+        @Override
+        public Cancellation schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            return submit(task, unit.toNanos(initialDelay), Math.max(1L, unit.toNanos(period)));
+        }
+
+        Cancellation submit(Runnable task, long delayNanos, long period) {
+            if (terminated) {
+                return REJECTED;
+            }
+
+            WheelTask wt = new WheelTask(task, scheduler, this, delayNanos, period);
+
+            synchronized (this) {
+                if (terminated) {
+                    return REJECTED;
+                }
+
+                tasks.add(wt);
+            }
+
+            Cancellation c = scheduler.submit(wt);
+            if (c == REJECTED) {
+                delete(wt);
+            }
+            return c;
+        }
+
+        void delete(WheelTask wt) {
+            synchronized (this) {
+                if (!terminated) {
+                    tasks.remove(wt);
+                }
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            if (terminated) {
+                return;
+            }
+
+            OpenHashSet<WheelTask> set;
+
+            synchronized (this) {
+                terminated = true;
+                set = tasks;
+                if (set == null) {
+                    return;
+                }
+                tasks = null;
+            }
+
+            if (!set.isEmpty()) {
+                Object[] a = set.keys();
+                for (Object o : a) {
+                    if (o != null) {
+                        ((WheelTask)o).cancel();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package rsc.scheduler;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.*;
+
+import rsc.flow.Cancellation;
+import rsc.util.ExceptionHelper;
+import rsc.util.MpscLinkedArrayQueue;
+import rsc.util.UnsignalledExceptions;
+
+/**
+ * Scheduler that runs tasks on virtual threads and is suited for blocking work, such as
+ * the blocking bridges or blocking user code inside subscribeOn, at a concurrency level
+ * where one platform thread per blocked source would be too expensive.
+ * <p>
+ * Each directly scheduled task and each active Worker drain runs on a new virtual thread.
+ * A Worker queues its tasks and runs them one after the other, in FIFO order and
+ * non-concurrently, on a virtual thread that only exists while there are tasks to run.
+ * Cancelling a running task or shutting down its Worker interrupts the thread.
+ * <p>
+ * Virtual threads require Java 21: the jar is a multi-release jar whose Java 21 section
+ * provides them. On older Java versions this Scheduler falls back to a cached pool of
+ * daemon platform threads, see {@link #isVirtual()}.
+ */
+public final class VirtualThreadScheduler implements Scheduler {
+
+    static final String DEFAULT_NAME = "virtual-";
+
+    final String name;
+
+    volatile ExecutorService executor;
+    static final AtomicReferenceFieldUpdater<VirtualThreadScheduler, ExecutorService> EXECUTOR =
+            AtomicReferenceFieldUpdater.newUpdater(VirtualThreadScheduler.class, ExecutorService.class, "executor");
+
+    static final ExecutorService SHUTDOWN;
+    static {
+        SHUTDOWN = VirtualThreads.newExecutor(DEFAULT_NAME);
+        SHUTDOWN.shutdownNow();
+    }
+
+    public VirtualThreadScheduler() {
+        this(DEFAULT_NAME);
+    }
+
+    /**
+     * Constructs a VirtualThreadScheduler.
+     * @param name the prefix of the names of the threads, followed by a sequence number
+     */
+    public VirtualThreadScheduler(String name) {
+        this.name = Objects.requireNonNull(name, "name");
+        EXECUTOR.lazySet(this, VirtualThreads.newExecutor(name));
+    }
+
+    /**
+     * Returns true if this Scheduler runs its tasks on virtual threads, false if it has fallen
+     * back to platform threads because the runtime is older than Java 21.
+     * @return true if the tasks run on virtual threads
+     */
+    public static boolean isVirtual() {
+        return VirtualThreads.isSupported();
+    }
+
+    public boolean isStarted() {
+        return executor != SHUTDOWN;
+    }
+
+    @Override
+    public void start() {
+        ExecutorService b = null;
+        for (;;) {
+            ExecutorService a = executor;
+            if (a != SHUTDOWN) {
+                if (b != null) {
+                    b.shutdownNow();
+                }
+                return;
+            }
+
+            if (b == null) {
+                b = VirtualThreads.newExecutor(name);
+            }
+
+            if (EXECUTOR.compareAndSet(this, a, b)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        ExecutorService a = executor;
+        if (a != SHUTDOWN) {
+            a = EXECUTOR.getAndSet(this, SHUTDOWN);
+            if (a != SHUTDOWN) {
+                a.shutdownNow();
+            }
+        }
+    }
+
+    @Override
+    public Cancellation schedule(Runnable task) {
+        VirtualTask vt = new VirtualTask(task);
+        try {
+            executor.execute(vt);
+        } catch (RejectedExecutionException ex) {
+            return REJECTED;
+        }
+        return vt;
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new VirtualWorker(executor);
+    }
+
+    static final class VirtualTask implements Runnable, Cancellation {
+
+        static final int READY = 0;
+        static final int RUNNING = 1;
+        static final int INTERRUPTING = 2;
+        static final int FINISHED = 3;
+        static final int CANCELLED = 4;
+
+        final Runnable task;
+
+        Thread runner;
+
+        volatile int state;
+        static final AtomicIntegerFieldUpdater<VirtualTask> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(VirtualTask.class, "state");
+
+        public VirtualTask(Runnable task) {
+            this.task = Objects.requireNonNull(task, "task");
+        }
+
+        @Override
+        public void run() {
+            runner = Thread.currentThread();
+            if (!STATE.compareAndSet(this, READY, RUNNING)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                ExceptionHelper.throwIfFatal(ex);
+                UnsignalledExceptions.onErrorDropped(ex);
+            } finally {
+                if (!STATE.compareAndSet(this, RUNNING, FINISHED)) {
+                    // make sure the interrupt of dispose() doesn't leak into the next task of the thread
+                    while (state == INTERRUPTING) {
+                        Thread.yield();
+                    }
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            for (;;) {
+                int s = state;
+                if (s == READY) {
+                    if (STATE.compareAndSet(this, READY, CANCELLED)) {
+                        return;
+                    }
+                } else
+                if (s == RUNNING) {
+                    if (STATE.compareAndSet(this, RUNNING, INTERRUPTING)) {
+                        runner.interrupt();
+                        state = CANCELLED;
+                        return;
+                    }
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    static final class VirtualWorker implements Worker, Runnable {
+
+        final ExecutorService executor;
+
+        final Queue<VirtualTask> queue;
+
+        volatile boolean shutdown;
+
+        /** The task currently running, interrupted if the worker is shut down. */
+        volatile VirtualTask current;
+
+        volatile int wip;
+        static final AtomicIntegerFieldUpdater<VirtualWorker> WIP =
+                AtomicIntegerFieldUpdater.newUpdater(VirtualWorker.class, "wip");
+
+        public VirtualWorker(ExecutorService executor) {
+            this.executor = executor;
+            this.queue = new MpscLinkedArrayQueue<>(16);
+        }
+
+        @Override
+        public Cancellation schedule(Runnable task) {
+            if (shutdown) {
+                return REJECTED;
+            }
+
+            VirtualTask vt = new VirtualTask(task);
+
+            queue.offer(vt);
+
+            if (WIP.getAndIncrement(this) == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    shutdown = true;
+                    queue.clear();
+                    return REJECTED;
+                }
+            }
+
+            return vt;
+        }
+
+        @Override
+        public void run() {
+            final Queue<VirtualTask> q = queue;
+            int missed = 1;
+
+            for (;;) {
+                for (;;) {
+                    if (shutdown) {
+                        q.clear();
+                        return;
+                    }
+
+                    VirtualTask vt = q.poll();
+                    if (vt == null) {
+                        break;
+                    }
+
+                    current = vt;
+                    vt.run();
+                    current = null;
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+
+            VirtualTask vt = current;
+            if (vt != null) {
+                vt.dispose();
+            }
+
+            if (WIP.getAndIncrement(this) == 0) {
+                queue.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package rsc.scheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the executors of the {@link VirtualThreadScheduler}.
+ * <p>
+ * This is the Java 8 variant which falls back to a cached pool of daemon platform threads;
+ * the Java 21 variant in {@code src/main/java21} replaces this class in the multi-release jar
+ * and starts a virtual thread per task.
+ */
+final class VirtualThreads {
+
+    static final AtomicLong COUNTER = new AtomicLong();
+
+    private VirtualThreads() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /**
+     * Returns true if the executors run the tasks on virtual threads.
+     * <p>
+     * Deliberately not a constant so it isn't inlined into the callers, which are
+     * compiled against the Java 8 variant of this class.
+     * @return true if the executors run the tasks on virtual threads
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Returns an executor that runs each task on its own (virtual) thread.
+     * @param name the prefix of the thread names
+     * @return the new executor
+     */
+    static ExecutorService newExecutor(String name) {
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, name + COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return Executors.newCachedThreadPool(factory);
+    }
+}
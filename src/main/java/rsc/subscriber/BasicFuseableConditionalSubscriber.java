@@ -76,7 +76,7 @@ extends BasicConditionalSubscriber<T, R> implements QueueSubscription<R> {
     protected final int transitiveAnyFusion(int mode) {
         QueueSubscription<R> qs = this.qs;
         if (qs != null) {
-            int m = qs.requestFusion(mode);
+            int m = qs.requestFusion(mode & ~Fuseable.BATCH);
             if (m != Fuseable.NONE) {
                 fusionMode = m;
             }
@@ -97,7 +97,7 @@ extends BasicConditionalSubscriber<T, R> implements QueueSubscription<R> {
         QueueSubscription<R> qs = this.qs;
         if (qs != null) {
             if ((mode & Fuseable.THREAD_BARRIER) == 0) {
-                int m = qs.requestFusion(mode);
+                int m = qs.requestFusion(mode & ~Fuseable.BATCH);
                 if (m != Fuseable.NONE) {
                     fusionMode = m;
                 }
@@ -74,7 +74,7 @@ public abstract class BasicFuseableSubscriber<T, R> extends BasicSubscriber<T, R
     protected final int transitiveAnyFusion(int mode) {
         QueueSubscription<R> qs = this.qs;
         if (qs != null) {
-            int m = qs.requestFusion(mode);
+            int m = qs.requestFusion(mode & ~Fuseable.BATCH);
             if (m != Fuseable.NONE) {
                 fusionMode = m;
             }
@@ -95,7 +95,7 @@ public abstract class BasicFuseableSubscriber<T, R> extends BasicSubscriber<T, R
         QueueSubscription<R> qs = this.qs;
         if (qs != null) {
             if ((mode & Fuseable.THREAD_BARRIER) == 0) {
-                int m = qs.requestFusion(mode);
+                int m = qs.requestFusion(mode & ~Fuseable.BATCH);
                 if (m != Fuseable.NONE) {
                     fusionMode = m;
                 }
@@ -1,18 +1,23 @@
 package rsc.subscriber;
 
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 import rsc.flow.Producer;
 import rsc.flow.Receiver;
 import rsc.flow.Trackable;
+import rsc.util.MpscLinkedArrayQueue;
 
 /**
  * Subscriber that makes sure signals are delivered sequentially in case the onNext, onError or onComplete methods are
  * called concurrently.
  * <p>
- * <p>
- * The implementation uses {@code synchronized (this)} to ensure mutual exclusion.
- * <p>
+ * The implementation is lock-free: the thread which increments the work-in-progress counter from zero
+ * emits directly and then drains what the other threads have queued up in the meantime into a
+ * multi-producer single-consumer queue, created lazily upon the first contention.
  * <p>
  * Note that the class implements Subscription to save on allocation.
  *
@@ -23,18 +28,25 @@ public final class SerializedSubscriber<T> implements Subscriber<T>, Subscriptio
 
     final Subscriber<? super T> actual;
 
-    boolean emitting;
+    volatile int wip;
+    @SuppressWarnings("rawtypes")
+    static final AtomicIntegerFieldUpdater<SerializedSubscriber> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(SerializedSubscriber.class, "wip");
+
+    volatile Queue<T> queue;
+    @SuppressWarnings("rawtypes")
+    static final AtomicReferenceFieldUpdater<SerializedSubscriber, Queue> QUEUE =
+            AtomicReferenceFieldUpdater.newUpdater(SerializedSubscriber.class, Queue.class, "queue");
 
-    boolean missed;
+    volatile int once;
+    @SuppressWarnings("rawtypes")
+    static final AtomicIntegerFieldUpdater<SerializedSubscriber> ONCE =
+            AtomicIntegerFieldUpdater.newUpdater(SerializedSubscriber.class, "once");
 
     volatile boolean done;
 
     volatile boolean cancelled;
 
-    LinkedArrayNode<T> head;
-
-    LinkedArrayNode<T> tail;
-
     Throwable error;
 
     Subscription s;
@@ -69,23 +81,21 @@ public final class SerializedSubscriber<T> implements Subscriber<T>, Subscriptio
             return;
         }
 
-        synchronized (this) {
-            if (isCancelled() || isTerminated()) {
+        if (wip == 0 && WIP.compareAndSet(this, 0, 1)) {
+            actual.onNext(t);
+
+            if (WIP.decrementAndGet(this) == 0) {
                 return;
             }
+        } else {
+            queue().offer(t);
 
-            if (emitting) {
-                serAdd(t);
-                missed = true;
+            if (WIP.getAndIncrement(this) != 0) {
                 return;
             }
-
-            emitting = true;
         }
 
-        actual.onNext(t);
-
-        serDrainLoop(actual);
+        drainLoop();
     }
 
     @Override
@@ -94,21 +104,14 @@ public final class SerializedSubscriber<T> implements Subscriber<T>, Subscriptio
             return;
         }
 
-        synchronized (this) {
-            if (isCancelled() || isTerminated()) {
-                return;
-            }
-
-            done = true;
+        if (ONCE.compareAndSet(this, 0, 1)) {
             error = t;
+            done = true;
 
-            if (emitting) {
-                missed = true;
-                return;
+            if (WIP.getAndIncrement(this) == 0) {
+                drainLoop();
             }
         }
-
-        actual.onError(t);
     }
 
     @Override
@@ -117,20 +120,13 @@ public final class SerializedSubscriber<T> implements Subscriber<T>, Subscriptio
             return;
         }
 
-        synchronized (this) {
-            if (isCancelled() || isTerminated()) {
-                return;
-            }
-
+        if (ONCE.compareAndSet(this, 0, 1)) {
             done = true;
 
-            if (emitting) {
-                missed = true;
-                return;
+            if (WIP.getAndIncrement(this) == 0) {
+                drainLoop();
             }
         }
-
-        actual.onComplete();
     }
 
     @Override
@@ -144,84 +140,59 @@ public final class SerializedSubscriber<T> implements Subscriber<T>, Subscriptio
         s.cancel();
     }
 
-    void serAdd(T value) {
-        LinkedArrayNode<T> t = tail;
-
-        if (t == null) {
-            t = new LinkedArrayNode<>(value);
-
-            head = t;
-            tail = t;
-        } else {
-            if (t.count == LinkedArrayNode.DEFAULT_CAPACITY) {
-                LinkedArrayNode<T> n = new LinkedArrayNode<>(value);
-
-                t.next = n;
-                tail = n ;
-            } else {
-                t.array[t.count++] = value;
+    Queue<T> queue() {
+        Queue<T> q = queue;
+        if (q == null) {
+            q = new MpscLinkedArrayQueue<>(16);
+            if (!QUEUE.compareAndSet(this, null, q)) {
+                q = queue;
             }
         }
+        return q;
     }
 
-    void serDrainLoop(Subscriber<? super T> actual) {
-        for (; ; ) {
+    void drainLoop() {
+        final Subscriber<? super T> a = actual;
+        int missed = 1;
 
-            if (isCancelled()) {
-                return;
-            }
+        for (;;) {
 
-            boolean d;
-            Throwable e;
-            LinkedArrayNode<T> n;
+            Queue<T> q = queue;
 
-            synchronized (this) {
+            for (;;) {
                 if (isCancelled()) {
+                    if (q != null) {
+                        q.clear();
+                    }
                     return;
                 }
 
-                if (!missed) {
-                    emitting = false;
-                    return;
-                }
-
-                missed = false;
+                boolean d = done;
 
-                d = isTerminated();
-                e = getError();
-                n = head;
+                T v = q != null ? q.poll() : null;
 
-                head = null;
-                tail = null;
-            }
+                boolean empty = v == null;
 
-            while (n != null) {
-
-                T[] arr = n.array;
-                int c = n.count;
-
-                for (int i = 0; i < c; i++) {
-
-                    if (isCancelled()) {
-                        return;
+                if (d && empty) {
+                    Throwable e = error;
+                    if (e != null) {
+                        a.onError(e);
+                    } else {
+                        a.onComplete();
                     }
-
-                    actual.onNext(arr[i]);
+                    return;
                 }
 
-                n = n.next;
-            }
+                if (empty) {
+                    break;
+                }
 
-            if (isCancelled()) {
-                return;
+                a.onNext(v);
             }
 
-            if (e != null) {
-                actual.onError(e);
-                return;
-            } else if (d) {
-                actual.onComplete();
-                return;
+            missed = WIP.addAndGet(this, -missed);
+            if (missed == 0) {
+                break;
             }
         }
     }
@@ -258,37 +229,15 @@ public final class SerializedSubscriber<T> implements Subscriber<T>, Subscriptio
 
     @Override
     public long getPending() {
-        LinkedArrayNode<T> node = tail;
-        if(node != null){
-            return node.count;
+        Queue<T> q = queue;
+        if (q != null) {
+            return q.size();
         }
         return 0;
     }
 
     @Override
     public long getCapacity() {
-        return LinkedArrayNode.DEFAULT_CAPACITY;
-    }
-
-    /**
-     * Node in a linked array list that is only appended.
-     *
-     * @param <T> the value type
-     */
-    static final class LinkedArrayNode<T> {
-
-        static final int DEFAULT_CAPACITY = 16;
-
-        final T[] array;
-        int count;
-
-        LinkedArrayNode<T> next;
-
-        @SuppressWarnings("unchecked")
-        public LinkedArrayNode(T value) {
-            array = (T[]) new Object[DEFAULT_CAPACITY];
-            array[0] = value;
-            count = 1;
-        }
+        return Long.MAX_VALUE;
     }
 }
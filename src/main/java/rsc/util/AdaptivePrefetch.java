@@ -0,0 +1,142 @@
+package rsc.util;
+
+/**
+ * Adjusts, between the given bounds, how many values a consumer keeps requested from
+ * its upstream based on what its drain loop observes.
+ * <p>
+ * If the drain loop found the queue empty while its downstream still had demand since
+ * the last replenishment, the window is doubled so the upstream can run further ahead.
+ * If at a replenishment most of the outstanding window is already sitting in the queue
+ * and draining the last batch took longer than the latency target, the consumer is the
+ * bottleneck and the window is shrunk by a quarter, limiting how many values wait queued.
+ * <p>
+ * Not thread-safe: it is meant to be owned by the (serialized) drain loop of an operator,
+ * which should use an unbounded queue, or one bounded by the maximum window, as the
+ * amount of queued values changes with the window.
+ */
+public final class AdaptivePrefetch {
+
+    /** The default time a batch should take to drain before the window is considered too big. */
+    public static final long DEFAULT_LATENCY_TARGET_NANOS = 100_000L;
+
+    final int minPrefetch;
+
+    final int maxPrefetch;
+
+    final long latencyTargetNanos;
+
+    int window;
+
+    int limit;
+
+    /** Requested from upstream but not consumed yet. */
+    long outstanding;
+
+    boolean starved;
+
+    long lastReplenish;
+
+    /**
+     * Constructs an AdaptivePrefetch starting with the minimum window and using the
+     * default latency target.
+     * @param minPrefetch the minimum window, positive
+     * @param maxPrefetch the maximum window, at least minPrefetch
+     */
+    public AdaptivePrefetch(int minPrefetch, int maxPrefetch) {
+        this(minPrefetch, maxPrefetch, DEFAULT_LATENCY_TARGET_NANOS);
+    }
+
+    /**
+     * Constructs an AdaptivePrefetch starting with the minimum window.
+     * @param minPrefetch the minimum window, positive
+     * @param maxPrefetch the maximum window, at least minPrefetch
+     * @param latencyTargetNanos the time in nanoseconds a batch should take to drain at most
+     * before the window is shrunk
+     */
+    public AdaptivePrefetch(int minPrefetch, int maxPrefetch, long latencyTargetNanos) {
+        if (minPrefetch <= 0) {
+            throw new IllegalArgumentException("minPrefetch > 0 required but it was " + minPrefetch);
+        }
+        if (maxPrefetch < minPrefetch) {
+            throw new IllegalArgumentException("maxPrefetch >= minPrefetch required but it was " + maxPrefetch);
+        }
+        this.minPrefetch = minPrefetch;
+        this.maxPrefetch = maxPrefetch;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.window = minPrefetch;
+        this.limit = limitOf(minPrefetch);
+    }
+
+    static int limitOf(int window) {
+        return window - (window >> 2);
+    }
+
+    /**
+     * Returns the amount to request first, the current window.
+     * @return the amount to request first
+     */
+    public int initialRequest() {
+        outstanding = window;
+        lastReplenish = System.nanoTime();
+        return window;
+    }
+
+    /**
+     * Returns how many values should be consumed before calling {@link #replenish(long, int)}.
+     * @return the current replenishment limit
+     */
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * Returns the current window.
+     * @return the current window
+     */
+    public int window() {
+        return window;
+    }
+
+    /**
+     * Indicates the drain loop found the queue empty while the downstream had demand.
+     */
+    public void starved() {
+        starved = true;
+    }
+
+    /**
+     * Adjusts the window and returns the amount to request from the upstream.
+     * @param consumed the number of values consumed since the last call
+     * @param queued the number of values currently in the queue
+     * @return the amount to request, may be zero
+     */
+    public long replenish(long consumed, int queued) {
+        long now = System.nanoTime();
+        long elapsed = now - lastReplenish;
+        lastReplenish = now;
+
+        long o = outstanding - consumed;
+        int w = window;
+
+        if (starved) {
+            starved = false;
+            w = (int)Math.min(maxPrefetch, (long)w << 1);
+        } else
+        if (queued >= o - (o >> 2) && elapsed > latencyTargetNanos) {
+            w = Math.max(minPrefetch, w - (w >> 2));
+        }
+
+        if (w != window) {
+            window = w;
+            limit = limitOf(w);
+        }
+
+        long n = w - o;
+        if (n <= 0L) {
+            outstanding = o;
+            return 0L;
+        }
+        outstanding = o + n;
+        return n;
+    }
+}
@@ -0,0 +1,149 @@
+package rsc.util;
+
+import java.util.*;
+
+/**
+ * An approximate, add-only set of keys backed by a Bloom filter in a {@code long[]}.
+ * <p>
+ * {@link #add(Object)} never reports a key added before as new, but it may report a
+ * new key as already present with about the false positive rate given, as long as no
+ * more keys than expected were added; beyond that the rate degrades gradually. The
+ * memory used is fixed, about {@code -expectedKeys * ln(rate) / ln(2)^2} bits, and
+ * doesn't depend on the key type. Used with distinct, duplicates are always filtered
+ * out and some distinct values may be dropped.
+ * <p>
+ * The bits are derived from the {@code hashCode()} of the keys, thus keys with the same
+ * hash code are not told apart. Iteration is not supported. Not thread-safe.
+ *
+ * @param <K> the key type
+ */
+public final class BloomKeySet<K> extends AbstractCollection<K> {
+
+    final long[] bits;
+
+    final int mask;
+
+    final int hashes;
+
+    int size;
+
+    /**
+     * Creates a BloomKeySet sized for the given number of keys and false positive rate.
+     * @param expectedKeys the number of keys expected, positive
+     * @param falsePositiveRate the probability a new key is reported as present, in (0, 1)
+     */
+    public BloomKeySet(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0L) {
+            throw new IllegalArgumentException("expectedKeys > 0 required but it was " + expectedKeys);
+        }
+        if (!(falsePositiveRate > 0d && falsePositiveRate < 1d)) {
+            throw new IllegalArgumentException("falsePositiveRate in (0, 1) required but it was " + falsePositiveRate);
+        }
+        double ln2 = Math.log(2);
+        double m = -expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2);
+        // the bit index is an int, round up to a power of 2 to replace the modulo with a mask
+        int words = PowerOf2.roundUp((int)Math.min(1 << 24, Math.max(1L, (long)Math.ceil(m / 64))));
+        this.bits = new long[words];
+        this.mask = words * 64 - 1;
+        this.hashes = (int)Math.max(1L, Math.min(16L, Math.round(m / expectedKeys * ln2)));
+    }
+
+    /**
+     * Adds the key to the filter.
+     * @param key the key to add
+     * @return true if the key was definitely not present, false if it was probably present
+     */
+    @Override
+    public boolean add(K key) {
+        long h = mix(key.hashCode());
+        int h1 = (int)h;
+        int h2 = (int)(h >>> 32) | 1;
+
+        long[] b = bits;
+        int m = mask;
+        boolean changed = false;
+
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & m;
+            int word = bit >>> 6;
+            long w = b[word];
+            long set = w | (1L << bit);
+            if (set != w) {
+                b[word] = set;
+                changed = true;
+            }
+        }
+        if (changed) {
+            size++;
+        }
+        return changed;
+    }
+
+    /**
+     * Returns true if the key was probably added before, false if it definitely wasn't.
+     * @param o the key to check
+     * @return true if the key was probably added before
+     */
+    @Override
+    public boolean contains(Object o) {
+        long h = mix(o.hashCode());
+        int h1 = (int)h;
+        int h2 = (int)(h >>> 32) | 1;
+
+        long[] b = bits;
+        int m = mask;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & m;
+            if ((b[bit >>> 6] & (1L << bit)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(bits, 0L);
+        size = 0;
+    }
+
+    /**
+     * @return the number of keys added that were reported as new
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        throw new UnsupportedOperationException("BloomKeySet can't be iterated");
+    }
+
+    @Override
+    public String toString() {
+        return "BloomKeySet{bits=" + bitCount() + ", hashes=" + hashes + ", size=" + size + "}";
+    }
+
+    /**
+     * @return the number of bits of the filter
+     */
+    public long bitCount() {
+        return mask + 1L;
+    }
+
+    /**
+     * @return the number of bits set per key
+     */
+    public int hashCount() {
+        return hashes;
+    }
+
+    static long mix(int x) {
+        long h = x * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,180 @@
+package rsc.util;
+
+import java.util.*;
+
+/**
+ * An open-addressing hash set of primitive {@code long} keys stored in a single
+ * {@code long[]}, without the entry nodes and boxed keys of a {@code HashSet<Long>}.
+ * <p>
+ * The {@link Collection} methods taking or returning {@code Long} unbox and box at the
+ * boundary only. Removal is not supported. Not thread-safe.
+ */
+public final class LongOpenHashSet extends AbstractSet<Long> {
+
+    final float loadFactor;
+
+    long[] keys;
+
+    int mask;
+
+    int maxSize;
+
+    int size;
+
+    /** The key 0 marks the free slots, thus its presence is tracked separately. */
+    boolean hasZero;
+
+    public LongOpenHashSet() {
+        this(16, 0.75f);
+    }
+
+    /**
+     * Creates a LongOpenHashSet with the initial capacity and load factor of 0.75f.
+     * @param capacity the initial capacity
+     */
+    public LongOpenHashSet(int capacity) {
+        this(capacity, 0.75f);
+    }
+
+    public LongOpenHashSet(int capacity, float loadFactor) {
+        this.loadFactor = loadFactor;
+        int c = PowerOf2.roundUp(Math.max(2, capacity));
+        this.mask = c - 1;
+        this.maxSize = (int)(loadFactor * c);
+        this.keys = new long[c];
+    }
+
+    /**
+     * Adds the key.
+     * @param key the key to add
+     * @return true if the key was not present
+     */
+    public boolean addLong(long key) {
+        if (key == 0L) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        final long[] a = keys;
+        final int m = mask;
+
+        int pos = mix(key) & m;
+        long curr;
+        while ((curr = a[pos]) != 0L) {
+            if (curr == key) {
+                return false;
+            }
+            pos = (pos + 1) & m;
+        }
+        a[pos] = key;
+        if (++size >= maxSize) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the key is present.
+     * @param key the key to look for
+     * @return true if the key is present
+     */
+    public boolean containsLong(long key) {
+        if (key == 0L) {
+            return hasZero;
+        }
+        final long[] a = keys;
+        final int m = mask;
+
+        int pos = mix(key) & m;
+        long curr;
+        while ((curr = a[pos]) != 0L) {
+            if (curr == key) {
+                return true;
+            }
+            pos = (pos + 1) & m;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean add(Long key) {
+        return addLong(key);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long && containsLong((Long)o);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        hasZero = false;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<Long>() {
+            final long[] a = keys;
+
+            int index = hasZero ? -1 : nextIndex(0);
+
+            int nextIndex(int i) {
+                while (i < a.length && a[i] == 0L) {
+                    i++;
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return index < a.length;
+            }
+
+            @Override
+            public Long next() {
+                int i = index;
+                if (i >= a.length) {
+                    throw new NoSuchElementException();
+                }
+                index = nextIndex(i + 1);
+                return i < 0 ? 0L : a[i];
+            }
+        };
+    }
+
+    void rehash() {
+        long[] a = keys;
+        int c = a.length << 1;
+        int m = c - 1;
+        long[] b = new long[c];
+
+        for (long k : a) {
+            if (k != 0L) {
+                int pos = mix(k) & m;
+                while (b[pos] != 0L) {
+                    pos = (pos + 1) & m;
+                }
+                b[pos] = k;
+            }
+        }
+
+        this.keys = b;
+        this.mask = m;
+        this.maxSize = (int)(loadFactor * c);
+    }
+
+    static int mix(long x) {
+        long h = x * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,82 @@
+package rsc.util;
+
+import java.util.*;
+
+/**
+ * A Set that remembers only the most recently added or re-added keys and forgets the
+ * least recently seen one when it would grow beyond its capacity.
+ * <p>
+ * Used with distinct, a key is filtered out only if it was seen among the last
+ * {@code capacity} distinct keys, thus the memory stays bounded on unbounded streams.
+ * Not thread-safe.
+ *
+ * @param <K> the key type
+ */
+public final class LruKeySet<K> extends AbstractSet<K> {
+
+    final int capacity;
+
+    final LinkedHashMap<K, Boolean> map;
+
+    /**
+     * Creates an LruKeySet that remembers up to the given number of keys.
+     * @param capacity the maximum number of keys remembered, positive
+     */
+    public LruKeySet(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+        }
+        this.capacity = capacity;
+        this.map = new LinkedHashMap<K, Boolean>(Math.min(capacity, 1 << 16), 0.75f, true) {
+            /** */
+            private static final long serialVersionUID = -2376508212399713573L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Boolean> eldest) {
+                return size() > LruKeySet.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Adds the key or, if it is already present, marks it as the most recently seen.
+     * @param key the key to add
+     * @return true if the key was not present
+     */
+    @Override
+    public boolean add(K key) {
+        return map.put(key, Boolean.TRUE) == null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return map.containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return map.remove(o) != null;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return map.keySet().iterator();
+    }
+
+    /**
+     * @return the maximum number of keys remembered
+     */
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,276 @@
+package rsc.util;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A bounded, array backed, multi-producer multi-consumer queue.
+ *
+ * This implementation is based on Dmitry Vyukov's bounded MPMC queue, see
+ * <a href='http://www.1024cores.net/home/lock-free-algorithms/queues/bounded-mpmc-queue'>Bounded MPMC queue</a>
+ * and JCTools' <a href='https://github.com/JCTools/JCTools/blob/master/jctools-core/src/main/java/org/jctools/queues/MpmcArrayQueue.java'>MpmcArrayQueue</a>.
+ * Each slot has a sequence number which tells producers and consumers whether the slot is
+ * available for them in the current round; both sides claim slots by CAS-ing their index.
+ *
+ * @param <T> the value type
+ */
+public final class MpmcArrayQueue<T> extends MpmcArrayQueueP3<T> implements Queue<T> {
+    /** */
+    private static final long serialVersionUID = -7466963479385582468L;
+
+    public MpmcArrayQueue(int capacity) {
+        super(PowerOf2.roundUp(Math.max(2, capacity)));
+    }
+
+    @Override
+    public boolean offer(T e) {
+        Objects.requireNonNull(e, "e");
+        final int m = mask;
+        final AtomicLongArray seq = sequence;
+
+        for (;;) {
+            long pi = producerIndex;
+            int offset = (int)pi & m;
+            long s = seq.get(offset);
+
+            if (s == pi) {
+                if (PRODUCER_INDEX.compareAndSet(this, pi, pi + 1)) {
+                    lazySet(offset, e);
+                    seq.lazySet(offset, pi + 1);
+                    return true;
+                }
+            } else
+            if (s < pi) {
+                // the slot hasn't been consumed in the previous round yet
+                if (pi - consumerIndex > m) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    @Override
+    public T poll() {
+        final int m = mask;
+        final AtomicLongArray seq = sequence;
+
+        for (;;) {
+            long ci = consumerIndex;
+            int offset = (int)ci & m;
+            long s = seq.get(offset);
+            long expected = ci + 1;
+
+            if (s == expected) {
+                if (CONSUMER_INDEX.compareAndSet(this, ci, expected)) {
+                    T v = get(offset);
+                    lazySet(offset, null);
+                    seq.lazySet(offset, ci + m + 1);
+                    return v;
+                }
+            } else
+            if (s < expected) {
+                // the slot hasn't been filled in this round yet
+                if (ci == producerIndex) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public T peek() {
+        final int m = mask;
+        final AtomicLongArray seq = sequence;
+
+        for (;;) {
+            long ci = consumerIndex;
+            int offset = (int)ci & m;
+            long s = seq.get(offset);
+
+            if (s == ci + 1) {
+                T v = get(offset);
+                if (ci == consumerIndex) {
+                    return v;
+                }
+            } else
+            if (s < ci + 1) {
+                if (ci == producerIndex) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return producerIndex == consumerIndex;
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null);
+    }
+
+    @Override
+    public int size() {
+        long ci = consumerIndex;
+        for (;;) {
+            long pi = producerIndex;
+            long ci2 = consumerIndex;
+            if (ci == ci2) {
+                return (int)(pi - ci);
+            }
+            ci = ci2;
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object[] toArray() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <R> R[] toArray(R[] a) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean add(T e) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public T remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public T element() {
+        throw new UnsupportedOperationException();
+    }
+}
+
+class MpmcArrayQueueCold<T> extends AtomicReferenceArray<T> {
+    /** */
+    private static final long serialVersionUID = -2870251359011932085L;
+
+    final int mask;
+
+    /** The round number of each slot: index for an empty slot, index + 1 for a full slot. */
+    final AtomicLongArray sequence;
+
+    public MpmcArrayQueueCold(int length) {
+        super(length);
+        mask = length - 1;
+        AtomicLongArray seq = new AtomicLongArray(length);
+        for (int i = 0; i < length; i++) {
+            seq.lazySet(i, i);
+        }
+        sequence = seq;
+    }
+}
+class MpmcArrayQueueP1<T> extends MpmcArrayQueueCold<T> {
+    /** */
+    private static final long serialVersionUID = 6380832396525093617L;
+
+    volatile long p00, p01, p02, p03, p04, p05, p06, p07;
+    volatile long p08, p09, p0A, p0B, p0C, p0D, p0E;
+
+    public MpmcArrayQueueP1(int length) {
+        super(length);
+    }
+}
+
+class MpmcArrayQueueProducer<T> extends MpmcArrayQueueP1<T> {
+
+    /** */
+    private static final long serialVersionUID = -6003409838766512567L;
+
+    public MpmcArrayQueueProducer(int length) {
+        super(length);
+    }
+
+    volatile long producerIndex;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<MpmcArrayQueueProducer> PRODUCER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(MpmcArrayQueueProducer.class, "producerIndex");
+
+}
+
+class MpmcArrayQueueP2<T> extends MpmcArrayQueueProducer<T> {
+    /** */
+    private static final long serialVersionUID = 2974263818384236306L;
+
+    volatile long p00, p01, p02, p03, p04, p05, p06, p07;
+    volatile long p08, p09, p0A, p0B, p0C, p0D, p0E;
+
+    public MpmcArrayQueueP2(int length) {
+        super(length);
+    }
+}
+
+class MpmcArrayQueueConsumer<T> extends MpmcArrayQueueP2<T> {
+
+    /** */
+    private static final long serialVersionUID = -5416718101004400924L;
+
+    public MpmcArrayQueueConsumer(int length) {
+        super(length);
+    }
+
+    volatile long consumerIndex;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<MpmcArrayQueueConsumer> CONSUMER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(MpmcArrayQueueConsumer.class, "consumerIndex");
+
+}
+
+class MpmcArrayQueueP3<T> extends MpmcArrayQueueConsumer<T> {
+    /** */
+    private static final long serialVersionUID = -1232361735389612217L;
+
+    volatile long p00, p01, p02, p03, p04, p05, p06, p07;
+    volatile long p08, p09, p0A, p0B, p0C, p0D, p0E;
+
+    public MpmcArrayQueueP3(int length) {
+        super(length);
+    }
+}
@@ -0,0 +1,269 @@
+package rsc.util;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.*;
+
+import rsc.flow.Fuseable;
+
+/**
+ * A bounded, array backed, multi-producer single-consumer queue.
+ *
+ * This implementation is based on JCTools' MPSC algorithms:
+ * <a href='https://github.com/JCTools/JCTools/blob/master/jctools-core/src/main/java/org/jctools/queues/MpscArrayQueue.java'>MpscArrayQueue</a>
+ * and <a href='https://github.com/JCTools/JCTools/blob/master/jctools-core/src/main/java/org/jctools/queues/atomic/MpscAtomicArrayQueue.java'>MpscAtomicArrayQueue</a>.
+ * Producers claim a slot by CAS-ing the producer index and the consumer index is
+ * only read by producers when the cached producer limit is reached.
+ * <p>
+ * The {@link #poll()} is relaxed: it may return null if a producer has claimed the next slot but
+ * hasn't stored its element yet; such producer will signal its consumer after the offer completes anyway.
+ *
+ * @param <T> the value type
+ */
+public final class MpscArrayQueue<T> extends MpscArrayQueueP3<T> implements Queue<T>, Fuseable.BatchQueue<T> {
+    /** */
+    private static final long serialVersionUID = -3546399407131497187L;
+
+    public MpscArrayQueue(int capacity) {
+        super(PowerOf2.roundUp(capacity));
+    }
+
+    @Override
+    public boolean offer(T e) {
+        Objects.requireNonNull(e, "e");
+        final int m = mask;
+
+        long limit = producerLimit;
+        long pi;
+
+        for (;;) {
+            pi = producerIndex;
+
+            if (pi >= limit) {
+                limit = consumerIndex + m + 1;
+                if (pi >= limit) {
+                    return false;
+                }
+                PRODUCER_LIMIT.lazySet(this, limit);
+            }
+
+            if (PRODUCER_INDEX.compareAndSet(this, pi, pi + 1)) {
+                break;
+            }
+        }
+
+        lazySet((int)pi & m, e);
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        long ci = consumerIndex;
+        int offset = (int)ci & mask;
+
+        T v = get(offset);
+        if (v != null) {
+            lazySet(offset, null);
+            CONSUMER_INDEX.lazySet(this, ci + 1);
+        }
+        return v;
+    }
+
+    @Override
+    public int poll(Object[] target, int max) {
+        long ci = consumerIndex;
+        int m = mask;
+        int n = 0;
+
+        while (n != max) {
+            int offset = (int)(ci + n) & m;
+            T v = get(offset);
+            if (v == null) {
+                break;
+            }
+            lazySet(offset, null);
+            target[n++] = v;
+        }
+        if (n != 0) {
+            CONSUMER_INDEX.lazySet(this, ci + n);
+        }
+        return n;
+    }
+
+    @Override
+    public T peek() {
+        int offset = (int)consumerIndex & mask;
+        return get(offset);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return producerIndex == consumerIndex;
+    }
+
+    @Override
+    public void clear() {
+        // poll() may return null for a claimed slot not stored yet, wait for it unless the queue is empty
+        while (poll() != null || !isEmpty());
+    }
+
+    @Override
+    public int size() {
+        long ci = consumerIndex;
+        for (;;) {
+            long pi = producerIndex;
+            long ci2 = consumerIndex;
+            if (ci == ci2) {
+                return (int)(pi - ci);
+            }
+            ci = ci2;
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object[] toArray() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <R> R[] toArray(R[] a) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean add(T e) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public T remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public T element() {
+        throw new UnsupportedOperationException();
+    }
+}
+
+class MpscArrayQueueCold<T> extends AtomicReferenceArray<T> {
+    /** */
+    private static final long serialVersionUID = 5232287312358938391L;
+
+    final int mask;
+
+    public MpscArrayQueueCold(int length) {
+        super(length);
+        mask = length - 1;
+    }
+}
+class MpscArrayQueueP1<T> extends MpscArrayQueueCold<T> {
+    /** */
+    private static final long serialVersionUID = -1391958427215384815L;
+
+    volatile long p00, p01, p02, p03, p04, p05, p06, p07;
+    volatile long p08, p09, p0A, p0B, p0C, p0D, p0E;
+
+    public MpscArrayQueueP1(int length) {
+        super(length);
+    }
+}
+
+class MpscArrayQueueProducer<T> extends MpscArrayQueueP1<T> {
+
+    /** */
+    private static final long serialVersionUID = 7412186532283766426L;
+
+    public MpscArrayQueueProducer(int length) {
+        super(length);
+        producerLimit = length;
+    }
+
+    volatile long producerIndex;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<MpscArrayQueueProducer> PRODUCER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(MpscArrayQueueProducer.class, "producerIndex");
+
+    /** Cached {@code consumerIndex + capacity} so producers don't have to read the consumer index all the time. */
+    volatile long producerLimit;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<MpscArrayQueueProducer> PRODUCER_LIMIT =
+            AtomicLongFieldUpdater.newUpdater(MpscArrayQueueProducer.class, "producerLimit");
+}
+
+class MpscArrayQueueP2<T> extends MpscArrayQueueProducer<T> {
+    /** */
+    private static final long serialVersionUID = -1107326476962637451L;
+
+    volatile long p00, p01, p02, p03, p04, p05, p06, p07;
+    volatile long p08, p09, p0A, p0B, p0C, p0D, p0E;
+
+    public MpscArrayQueueP2(int length) {
+        super(length);
+    }
+}
+
+class MpscArrayQueueConsumer<T> extends MpscArrayQueueP2<T> {
+
+    /** */
+    private static final long serialVersionUID = 1734375366404375424L;
+
+    public MpscArrayQueueConsumer(int length) {
+        super(length);
+    }
+
+    volatile long consumerIndex;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<MpscArrayQueueConsumer> CONSUMER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(MpscArrayQueueConsumer.class, "consumerIndex");
+
+}
+
+class MpscArrayQueueP3<T> extends MpscArrayQueueConsumer<T> {
+    /** */
+    private static final long serialVersionUID = 4508474232493289036L;
+
+    volatile long p00, p01, p02, p03, p04, p05, p06, p07;
+    volatile long p08, p09, p0A, p0B, p0C, p0D, p0E;
+
+    public MpscArrayQueueP3(int length) {
+        super(length);
+    }
+}
@@ -0,0 +1,307 @@
+package rsc.util;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.BiPredicate;
+
+import rsc.flow.Fuseable;
+
+/**
+ * An unbounded, array-backed multi-producer, single-consumer queue with a fixed link size.
+ *
+ * This implementation is inspired by JCTools' MPSC algorithms:
+ * <a href='https://github.com/JCTools/JCTools/blob/master/jctools-core/src/main/java/org/jctools/queues/MpscUnboundedArrayQueue.java'>MpscUnboundedArrayQueue</a>
+ * and <a href='https://github.com/JCTools/JCTools/blob/master/jctools-core/src/main/java/org/jctools/queues/atomic/MpscUnboundedAtomicArrayQueue.java'>MpscUnboundedAtomicArrayQueue</a>.
+ * Producers claim slots by CAS-ing the producer index, which is incremented by 2; its lowest bit
+ * indicates a producer is linking in the next array and others should spin until it is done.
+ * Each array is used exactly once, the element with index {@code i} lives in the array number
+ * {@code i / linkSize}, thus there is no need for a jump marker and the consumer switches arrays
+ * based on its index alone.
+ * <p>
+ * The {@link #poll()} is relaxed: it may return null if a producer has claimed the next slot but
+ * hasn't stored its element yet; such producer will signal its consumer after the offer completes anyway.
+ *
+ * @param <T> the value type
+ */
+public final class MpscLinkedArrayQueue<T> extends MpscLinkedArrayQueueP3<T> implements
+                                                                    BiPredicate<T, T>, Fuseable.BatchQueue<T> {
+
+    public MpscLinkedArrayQueue(int linkSize) {
+        super(PowerOf2.roundUp(Math.max(2, linkSize)));
+    }
+
+    @Override
+    public boolean offer(T e) {
+        Objects.requireNonNull(e);
+
+        final int m = mask;
+
+        for (;;) {
+            long pi = producerIndex;
+
+            if ((pi & 1L) != 0L) {
+                continue;
+            }
+
+            long i = pi >> 1;
+            int offset = (int)i & m;
+            AtomicReferenceArray<Object> a = producerArray;
+
+            if (offset == 0 && i != 0L) {
+                if (PRODUCER_INDEX.compareAndSet(this, pi, pi + 1)) {
+                    AtomicReferenceArray<Object> b = new AtomicReferenceArray<>(m + 2);
+                    b.lazySet(0, e);
+                    producerArray = b;
+                    a.lazySet(m + 1, b);
+                    PRODUCER_INDEX.lazySet(this, pi + 2);
+                    return true;
+                }
+            } else
+            if (PRODUCER_INDEX.compareAndSet(this, pi, pi + 2)) {
+                a.lazySet(offset, e);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Offer two elements at the same time, the consumer will see them next to each other.
+     * @param first the first value, not null
+     * @param second the second value, not null
+     * @return true if the queue accepted the two new values
+     */
+    @Override
+    public boolean test(T first, T second) {
+        Objects.requireNonNull(first);
+        Objects.requireNonNull(second);
+
+        final int m = mask;
+
+        for (;;) {
+            long pi = producerIndex;
+
+            if ((pi & 1L) != 0L) {
+                continue;
+            }
+
+            long i = pi >> 1;
+            int offset = (int)i & m;
+            AtomicReferenceArray<Object> a = producerArray;
+
+            if (offset == 0 && i != 0L) {
+                if (PRODUCER_INDEX.compareAndSet(this, pi, pi + 1)) {
+                    AtomicReferenceArray<Object> b = new AtomicReferenceArray<>(m + 2);
+                    b.lazySet(1, second);
+                    b.lazySet(0, first);
+                    producerArray = b;
+                    a.lazySet(m + 1, b);
+                    PRODUCER_INDEX.lazySet(this, pi + 4);
+                    return true;
+                }
+            } else
+            if (offset == m) {
+                if (PRODUCER_INDEX.compareAndSet(this, pi, pi + 1)) {
+                    AtomicReferenceArray<Object> b = new AtomicReferenceArray<>(m + 2);
+                    b.lazySet(0, second);
+                    producerArray = b;
+                    a.lazySet(m + 1, b);
+                    // the link has to be visible by the time the consumer sees the first value
+                    a.lazySet(offset, first);
+                    PRODUCER_INDEX.lazySet(this, pi + 4);
+                    return true;
+                }
+            } else
+            if (PRODUCER_INDEX.compareAndSet(this, pi, pi + 4)) {
+                a.lazySet(offset + 1, second);
+                a.lazySet(offset, first);
+                return true;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T poll() {
+        long ci = consumerIndex;
+        AtomicReferenceArray<Object> a = consumerArray;
+        int m = mask;
+
+        int offset = (int)ci & m;
+
+        if (offset == 0 && ci != 0L) {
+            AtomicReferenceArray<Object> b = (AtomicReferenceArray<Object>)a.get(m + 1);
+            if (b == null) {
+                return null;
+            }
+            a.lazySet(m + 1, null);
+            a = b;
+            consumerArray = b;
+        }
+
+        Object o = a.get(offset);
+
+        if (o == null) {
+            return null;
+        }
+        a.lazySet(offset, null);
+        CONSUMER_INDEX.lazySet(this, ci + 1);
+
+        return (T)o;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public int poll(Object[] target, int max) {
+        long ci = consumerIndex;
+        AtomicReferenceArray<Object> a = consumerArray;
+        int m = mask;
+        int n = 0;
+
+        while (n != max) {
+            int offset = (int)(ci + n) & m;
+
+            if (offset == 0 && ci + n != 0L) {
+                AtomicReferenceArray<Object> b = (AtomicReferenceArray<Object>)a.get(m + 1);
+                if (b == null) {
+                    break;
+                }
+                a.lazySet(m + 1, null);
+                a = b;
+                consumerArray = b;
+            }
+
+            Object o = a.get(offset);
+
+            if (o == null) {
+                break;
+            }
+            a.lazySet(offset, null);
+            target[n++] = o;
+        }
+
+        if (n != 0) {
+            CONSUMER_INDEX.lazySet(this, ci + n);
+        }
+        return n;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T peek() {
+        long ci = consumerIndex;
+        AtomicReferenceArray<Object> a = consumerArray;
+        int m = mask;
+
+        int offset = (int)ci & m;
+
+        if (offset == 0 && ci != 0L) {
+            a = (AtomicReferenceArray<Object>)a.get(m + 1);
+            if (a == null) {
+                return null;
+            }
+        }
+
+        return (T)a.get(offset);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return (producerIndex >> 1) == consumerIndex;
+    }
+
+    @Override
+    public int size() {
+        long ci = consumerIndex;
+        for (;;) {
+            long pi = producerIndex >> 1;
+            long ci2 = consumerIndex;
+            if (ci == ci2) {
+                return (int)(pi - ci);
+            }
+            ci = ci2;
+        }
+    }
+
+    @Override
+    public void clear() {
+        // poll() may return null for a claimed slot not stored yet, wait for it unless the queue is empty
+        while (poll() != null || !isEmpty());
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        throw new UnsupportedOperationException();
+    }
+}
+
+abstract class MpscLinkedArrayQueueCold<T> extends AbstractQueue<T> {
+
+    final int mask;
+
+    public MpscLinkedArrayQueueCold(int linkSize) {
+        this.mask = linkSize - 1;
+    }
+}
+
+abstract class MpscLinkedArrayQueueP1<T> extends MpscLinkedArrayQueueCold<T> {
+
+    volatile long p00, p01, p02, p03, p04, p05, p06, p07;
+    volatile long p08, p09, p0A, p0B, p0C, p0D, p0E;
+
+    public MpscLinkedArrayQueueP1(int linkSize) {
+        super(linkSize);
+    }
+}
+
+abstract class MpscLinkedArrayQueueProducer<T> extends MpscLinkedArrayQueueP1<T> {
+
+    /** Twice the number of claimed slots; the lowest bit is set while a new array is linked in. */
+    volatile long producerIndex;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<MpscLinkedArrayQueueProducer> PRODUCER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(MpscLinkedArrayQueueProducer.class, "producerIndex");
+
+    /** Written while holding the resize bit, read after the producerIndex and validated by the CAS. */
+    AtomicReferenceArray<Object> producerArray;
+
+    public MpscLinkedArrayQueueProducer(int linkSize) {
+        super(linkSize);
+    }
+}
+
+abstract class MpscLinkedArrayQueueP2<T> extends MpscLinkedArrayQueueProducer<T> {
+
+    volatile long p00, p01, p02, p03, p04, p05, p06, p07;
+    volatile long p08, p09, p0A, p0B, p0C, p0D, p0E;
+
+    public MpscLinkedArrayQueueP2(int linkSize) {
+        super(linkSize);
+    }
+}
+
+abstract class MpscLinkedArrayQueueConsumer<T> extends MpscLinkedArrayQueueP2<T> {
+
+    volatile long consumerIndex;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<MpscLinkedArrayQueueConsumer> CONSUMER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(MpscLinkedArrayQueueConsumer.class, "consumerIndex");
+
+    AtomicReferenceArray<Object> consumerArray;
+
+    public MpscLinkedArrayQueueConsumer(int linkSize) {
+        super(linkSize);
+        AtomicReferenceArray<Object> a = new AtomicReferenceArray<>(linkSize + 1);
+        this.consumerArray = a;
+        this.producerArray = a;
+    }
+}
+
+abstract class MpscLinkedArrayQueueP3<T> extends MpscLinkedArrayQueueConsumer<T> {
+
+    volatile long p00, p01, p02, p03, p04, p05, p06, p07;
+    volatile long p08, p09, p0A, p0B, p0C, p0D, p0E;
+
+    public MpscLinkedArrayQueueP3(int linkSize) {
+        super(linkSize);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Inspired by fastutils' OpenHashMap implementation at
+ * https://github.com/vigna/fastutil/blob/master/drv/OpenHashMap.drv
+ */
+
+package rsc.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A simple, non-thread-safe open hash map with linear probing and get, put, remove
+ * and clear capabilities only.
+ * <p>Doesn't support nor checks for {@code null} keys or values.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public final class OpenHashMap<K, V> {
+    final float loadFactor;
+    int mask;
+    int size;
+    int maxSize;
+    K[] keys;
+    V[] values;
+
+    public OpenHashMap() {
+        this(16, 0.75f);
+    }
+
+    /**
+     * Creates an OpenHashMap with the initial capacity and load factor of 0.75f.
+     * @param capacity the initial capacity
+     */
+    public OpenHashMap(int capacity) {
+        this(capacity, 0.75f);
+    }
+
+    @SuppressWarnings("unchecked")
+    public OpenHashMap(int capacity, float loadFactor) {
+        this.loadFactor = loadFactor;
+        int c = PowerOf2.roundUp(capacity);
+        this.mask = c - 1;
+        this.maxSize = (int)(loadFactor * c);
+        this.keys = (K[])new Object[c];
+        this.values = (V[])new Object[c];
+    }
+
+    public V get(K key) {
+        final K[] a = keys;
+        final int m = mask;
+
+        int pos = OpenHashSet.mix(key.hashCode()) & m;
+        for (;;) {
+            K curr = a[pos];
+            if (curr == null) {
+                return null;
+            }
+            if (curr == key || curr.equals(key)) {
+                return values[pos];
+            }
+            pos = (pos + 1) & m;
+        }
+    }
+
+    /**
+     * Maps the key to the value.
+     * @param key the key
+     * @param value the value
+     * @return the previous value mapped to the key or null if there was none
+     */
+    public V put(K key, V value) {
+        final K[] a = keys;
+        final int m = mask;
+
+        int pos = OpenHashSet.mix(key.hashCode()) & m;
+        for (;;) {
+            K curr = a[pos];
+            if (curr == null) {
+                break;
+            }
+            if (curr == key || curr.equals(key)) {
+                V old = values[pos];
+                values[pos] = value;
+                return old;
+            }
+            pos = (pos + 1) & m;
+        }
+        a[pos] = key;
+        values[pos] = value;
+        if (++size >= maxSize) {
+            rehash();
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping of the key.
+     * @param key the key
+     * @return the value mapped to the key or null if there was none
+     */
+    public V remove(K key) {
+        final K[] a = keys;
+        final int m = mask;
+        int pos = OpenHashSet.mix(key.hashCode()) & m;
+        for (;;) {
+            K curr = a[pos];
+            if (curr == null) {
+                return null;
+            }
+            if (curr == key || curr.equals(key)) {
+                V old = values[pos];
+                removeEntry(pos, a, values, m);
+                return old;
+            }
+            pos = (pos + 1) & m;
+        }
+    }
+
+    /**
+     * Removes the mapping of the key only if it is mapped to the given
+     * value instance.
+     * @param key the key
+     * @param value the value instance expected to be mapped to the key
+     * @return true if the mapping was removed
+     */
+    public boolean remove(K key, V value) {
+        final K[] a = keys;
+        final int m = mask;
+        int pos = OpenHashSet.mix(key.hashCode()) & m;
+        for (;;) {
+            K curr = a[pos];
+            if (curr == null) {
+                return false;
+            }
+            if (curr == key || curr.equals(key)) {
+                if (values[pos] != value) {
+                    return false;
+                }
+                removeEntry(pos, a, values, m);
+                return true;
+            }
+            pos = (pos + 1) & m;
+        }
+    }
+
+    void removeEntry(int pos, K[] a, V[] b, int m) {
+        size--;
+
+        int last;
+        int slot;
+        K curr;
+        for (;;) {
+            last = pos;
+            pos = (pos + 1) & m;
+            for (;;) {
+                curr = a[pos];
+                if (curr == null) {
+                    a[last] = null;
+                    b[last] = null;
+                    return;
+                }
+                slot = OpenHashSet.mix(curr.hashCode()) & m;
+
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+
+                pos = (pos + 1) & m;
+            }
+            a[last] = curr;
+            b[last] = b[pos];
+        }
+    }
+
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    void rehash() {
+        K[] a = keys;
+        V[] v = values;
+        int i = a.length;
+        int newCap = i << 1;
+        int m = newCap - 1;
+
+        K[] b = (K[])new Object[newCap];
+        V[] w = (V[])new Object[newCap];
+
+        for (int j = size; j-- != 0; ) {
+            while (a[--i] == null);
+            int pos = OpenHashSet.mix(a[i].hashCode()) & m;
+            if (b[pos] != null) {
+                for (;;) {
+                    pos = (pos + 1) & m;
+                    if (b[pos] == null) {
+                        break;
+                    }
+                }
+            }
+            b[pos] = a[i];
+            w[pos] = v[i];
+        }
+
+        this.mask = m;
+        this.maxSize = (int)(newCap * loadFactor);
+        this.keys = b;
+        this.values = w;
+    }
+
+    public void forEachValue(Consumer<? super V> consumer) {
+        for (V v : values) {
+            if (v != null) {
+                consumer.accept(v);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Object[] values() {
+        return values;
+    }
+}
@@ -6,6 +6,8 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.atomic.*;
 
+import rsc.flow.Fuseable;
+
 /**
  * A bounded, array backed, single-producer single-consumer queue.
  * 
@@ -18,7 +20,7 @@ import java.util.concurrent.atomic.*;
  * 
  * @param <T> the value type
  */
-public final class SpscArrayQueue<T> extends SpscArrayQueueP3<T> implements Queue<T> {
+public final class SpscArrayQueue<T> extends SpscArrayQueueP3<T> implements Queue<T>, Fuseable.BatchQueue<T> {
     /** */
     private static final long serialVersionUID = 494623116936946976L;
 
@@ -52,6 +54,27 @@ public final class SpscArrayQueue<T> extends SpscArrayQueueP3<T> implements Queu
         return v;
     }
     
+    @Override
+    public int poll(Object[] target, int max) {
+        long ci = consumerIndex;
+        int m = mask;
+        int n = 0;
+        
+        while (n != max) {
+            int offset = (int)(ci + n) & m;
+            T v = get(offset);
+            if (v == null) {
+                break;
+            }
+            lazySet(offset, null);
+            target[n++] = v;
+        }
+        if (n != 0) {
+            CONSUMER_INDEX.lazySet(this, ci + n);
+        }
+        return n;
+    }
+    
     @Override
     public T peek() {
         int offset = (int)consumerIndex & mask;
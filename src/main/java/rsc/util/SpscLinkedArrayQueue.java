@@ -4,6 +4,8 @@ import java.util.*;
 import java.util.concurrent.atomic.*;
 import java.util.function.BiPredicate;
 
+import rsc.flow.Fuseable;
+
 /**
  * An unbounded, array-backed single-producer, single-consumer queue with a fixed link size.
  *
@@ -17,7 +19,7 @@ import java.util.function.BiPredicate;
  * @param <T> the value type
  */
 public final class SpscLinkedArrayQueue<T> extends AbstractQueue<T> implements
-                                                                    BiPredicate<T, T> {
+                                                                    BiPredicate<T, T>, Fuseable.BatchQueue<T> {
 
     final int mask;
     
@@ -96,6 +98,39 @@ public final class SpscLinkedArrayQueue<T> extends AbstractQueue<T> implements
         return (T)o;
     }
     
+    @SuppressWarnings("unchecked")
+    @Override
+    public int poll(Object[] target, int max) {
+        long ci = consumerIndex;
+        AtomicReferenceArray<Object> a = consumerArray;
+        int m = mask;
+        int n = 0;
+        
+        while (n != max) {
+            int offset = (int)(ci + n) & m;
+            
+            Object o = a.get(offset);
+            
+            if (o == null) {
+                break;
+            }
+            if (o == NEXT) {
+                AtomicReferenceArray<Object> b = (AtomicReferenceArray<Object>)a.get(m + 1);
+                a.lazySet(m + 1, null);
+                o = b.get(offset);
+                a = b;
+            }
+            a.lazySet(offset, null);
+            target[n++] = o;
+        }
+        
+        if (n != 0) {
+            consumerArray = a;
+            CONSUMER_INDEX.lazySet(this, ci + n);
+        }
+        return n;
+    }
+    
     @SuppressWarnings("unchecked")
     @Override
     public T peek() {
@@ -0,0 +1,34 @@
+package rsc.scheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors of the {@link VirtualThreadScheduler}.
+ * <p>
+ * This is the Java 21 variant, packaged under {@code META-INF/versions/21} of the
+ * multi-release jar, which starts a new virtual thread per task.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /**
+     * Returns true if the executors run the tasks on virtual threads.
+     * @return true if the executors run the tasks on virtual threads
+     */
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Returns an executor that runs each task on its own (virtual) thread.
+     * @param name the prefix of the thread names
+     * @return the new executor
+     */
+    static ExecutorService newExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name, 1).factory());
+    }
+}
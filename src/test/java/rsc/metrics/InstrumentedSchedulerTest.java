@@ -0,0 +1,349 @@
+package rsc.metrics;
+
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+import rsc.flow.Cancellation;
+import rsc.scheduler.*;
+import rsc.scheduler.Scheduler.Worker;
+import rsc.scheduler.TimedScheduler.TimedWorker;
+import rsc.publisher.Px;
+import rsc.test.TestSubscriber;
+
+public class InstrumentedSchedulerTest {
+
+    @Test(expected = NullPointerException.class)
+    public void nullScheduler() {
+        new InstrumentedScheduler(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullTimedScheduler() {
+        new InstrumentedTimedScheduler(null);
+    }
+
+    @Test
+    public void histogramBuckets() {
+        for (long v = 0; v < 100_000; v++) {
+            int i = LatencyHistogram.indexOf(v);
+            Assert.assertTrue(v + " <= " + LatencyHistogram.upperBoundOf(i), v <= LatencyHistogram.upperBoundOf(i));
+            if (i > 0) {
+                Assert.assertTrue(v + " > " + LatencyHistogram.upperBoundOf(i - 1), v > LatencyHistogram.upperBoundOf(i - 1));
+            }
+        }
+        Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void histogramPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i * 1000L);
+        }
+
+        HistogramSnapshot s = h.snapshot();
+
+        Assert.assertEquals(1000, s.count());
+        Assert.assertEquals(1_000_000L, s.max());
+        Assert.assertEquals(500_500d, s.mean(), 0.1d);
+
+        long p50 = s.percentile(0.5);
+        Assert.assertTrue("" + p50, p50 >= 500_000L && p50 <= 500_000L * 9 / 8);
+        long p99 = s.percentile(0.99);
+        Assert.assertTrue("" + p99, p99 >= 990_000L && p99 <= 1_000_000L);
+        Assert.assertEquals(1_000_000L, s.percentile(1d));
+        Assert.assertEquals(0L, new LatencyHistogram().snapshot().percentile(0.99));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void histogramInvalidPercentile() {
+        new LatencyHistogram().snapshot().percentile(1.5);
+    }
+
+    @Test
+    public void countsTasks() {
+        InstrumentedScheduler s = new InstrumentedScheduler(ImmediateScheduler.instance());
+
+        s.schedule(() -> { });
+
+        Worker w = s.createWorker();
+        w.schedule(() -> { });
+        w.schedule(() -> { });
+
+        // the ImmediateScheduler drops the error after the instrumentation counted it
+        w.schedule(() -> { throw new IllegalStateException(); });
+
+        SchedulerSnapshot snapshot = s.snapshot();
+
+        Assert.assertEquals(snapshot.toString(), 4, snapshot.submitted());
+        Assert.assertEquals(4, snapshot.executed());
+        Assert.assertEquals(1, snapshot.failed());
+        Assert.assertEquals(0, snapshot.cancelled());
+        Assert.assertEquals(0, snapshot.pending());
+        Assert.assertEquals(4, snapshot.queueLatency().count());
+        Assert.assertEquals(4, snapshot.executionTime().count());
+        Assert.assertEquals(1, snapshot.threads().size());
+        Assert.assertEquals(Thread.currentThread().getName(), snapshot.threads().get(0).name());
+        Assert.assertEquals(4, snapshot.threads().get(0).tasks());
+    }
+
+    @Test
+    public void pendingAndQueueLatency() throws Exception {
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            InstrumentedScheduler s = new InstrumentedScheduler(new ExecutorServiceScheduler(exec));
+
+            Worker w = s.createWorker();
+
+            CountDownLatch block = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(10);
+
+            w.schedule(() -> {
+                try {
+                    block.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+
+            for (int i = 0; i < 9; i++) {
+                w.schedule(done::countDown);
+            }
+
+            Thread.sleep(20);
+
+            Assert.assertEquals(9, s.snapshot().pending());
+
+            block.countDown();
+
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            SchedulerSnapshot snapshot = waitExecuted(s, 10);
+
+            Assert.assertEquals(0, snapshot.pending());
+            Assert.assertTrue(snapshot.toString(), snapshot.queueLatency().max() >= TimeUnit.MILLISECONDS.toNanos(20));
+            Assert.assertTrue(snapshot.toString(), snapshot.executionTime().max() >= TimeUnit.MILLISECONDS.toNanos(20));
+
+            Assert.assertEquals(1, snapshot.threads().size());
+            double ratio = snapshot.threads().get(0).busyRatio();
+            Assert.assertTrue("" + ratio, ratio > 0d && ratio <= 1d);
+
+            w.shutdown();
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void cancelBeforeStart() throws Exception {
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            InstrumentedScheduler s = new InstrumentedScheduler(new ExecutorServiceScheduler(exec));
+
+            Worker w = s.createWorker();
+
+            CountDownLatch block = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+
+            w.schedule(() -> {
+                started.countDown();
+                try {
+                    block.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            int[] counter = { 0 };
+            Cancellation c = w.schedule(() -> counter[0]++);
+
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, s.snapshot().pending());
+
+            c.dispose();
+
+            SchedulerSnapshot snapshot = s.snapshot();
+            Assert.assertEquals(0, snapshot.pending());
+            Assert.assertEquals(1, snapshot.cancelled());
+
+            block.countDown();
+
+            waitExecuted(s, 1);
+
+            Assert.assertEquals(0, counter[0]);
+
+            w.shutdown();
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shutdownDropsPending() throws Exception {
+        SingleScheduler2 single = new SingleScheduler2();
+        try {
+            InstrumentedScheduler s = new InstrumentedScheduler(single);
+
+            Worker w = s.createWorker();
+
+            CountDownLatch block = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+
+            w.schedule(() -> {
+                started.countDown();
+                try {
+                    block.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            for (int i = 0; i < 5; i++) {
+                w.schedule(() -> { });
+            }
+
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(5, s.snapshot().pending());
+
+            w.shutdown();
+
+            Assert.assertEquals(0, s.snapshot().pending());
+
+            block.countDown();
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    public void deadThreadsPruned() throws Exception {
+        SchedulerMetrics metrics = new SchedulerMetrics(true);
+
+        for (int i = 0; i < 500; i++) {
+            Thread t = new Thread(() -> metrics.busy(0L, 1L));
+            t.start();
+            t.join();
+
+            Assert.assertTrue("registry size " + metrics.threads.size(), metrics.threads.size() <= SchedulerMetrics.MIN_PRUNE_THRESHOLD);
+        }
+
+        metrics.busy(0L, 1L);
+        
+        Assert.assertTrue(metrics.threads.containsKey(Thread.currentThread()));
+    }
+
+    @Test
+    public void rejected() {
+        InstrumentedScheduler s = new InstrumentedScheduler(ImmediateScheduler.instance());
+
+        Worker w = s.createWorker();
+        w.shutdown();
+
+        Assert.assertSame(Scheduler.REJECTED, w.schedule(() -> { }));
+
+        SchedulerSnapshot snapshot = s.snapshot();
+        Assert.assertEquals(0, snapshot.submitted());
+        Assert.assertEquals(0, snapshot.pending());
+    }
+
+    @Test
+    public void disabledPassesThrough() {
+        InstrumentedScheduler s = new InstrumentedScheduler(ImmediateScheduler.instance(), false);
+
+        Assert.assertFalse(s.isEnabled());
+
+        int[] counter = { 0 };
+
+        s.schedule(() -> counter[0]++);
+        s.createWorker().schedule(() -> counter[0]++);
+
+        Assert.assertEquals(2, counter[0]);
+        Assert.assertEquals(0, s.snapshot().submitted());
+
+        s.setEnabled(true);
+
+        s.schedule(() -> counter[0]++);
+
+        Assert.assertEquals(3, counter[0]);
+        Assert.assertEquals(1, s.snapshot().submitted());
+    }
+
+    @Test
+    public void observeOnPipeline() {
+        InstrumentedScheduler s = new InstrumentedScheduler(new ParallelScheduler(2));
+        try {
+            TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+            Px.range(1, 1000).hide().observeOn(s).subscribe(ts);
+
+            ts.assertTerminated(5, TimeUnit.SECONDS);
+            ts.assertValueCount(1000)
+            .assertNoError()
+            .assertComplete();
+
+            SchedulerSnapshot snapshot = s.snapshot();
+            Assert.assertTrue(snapshot.toString(), snapshot.submitted() >= 1);
+            Assert.assertEquals(0, snapshot.pending());
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void timedTasks() throws Exception {
+        SingleTimedScheduler timer = new SingleTimedScheduler();
+        try {
+            InstrumentedTimedScheduler s = new InstrumentedTimedScheduler(timer);
+
+            TimedWorker w = s.createWorker();
+
+            CountDownLatch delayed = new CountDownLatch(1);
+            w.schedule(delayed::countDown, 20, TimeUnit.MILLISECONDS);
+
+            Assert.assertEquals(1, s.snapshot().pending());
+
+            Assert.assertTrue(delayed.await(5, TimeUnit.SECONDS));
+
+            CountDownLatch periodic = new CountDownLatch(3);
+            Cancellation c = s.schedulePeriodically(periodic::countDown, 0, 5, TimeUnit.MILLISECONDS);
+
+            Assert.assertTrue(periodic.await(5, TimeUnit.SECONDS));
+
+            c.dispose();
+
+            SchedulerSnapshot snapshot = waitExecuted(s.snapshot(), s, 4);
+
+            Assert.assertEquals(snapshot.toString(), 2, snapshot.submitted());
+            Assert.assertEquals(0, snapshot.pending());
+            Assert.assertEquals(0, snapshot.cancelled());
+            // the latency is measured from the due time, not from the submission
+            Assert.assertTrue(snapshot.toString(), snapshot.queueLatency().percentile(0.5) < TimeUnit.MILLISECONDS.toNanos(20));
+
+            w.shutdown();
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    static SchedulerSnapshot waitExecuted(InstrumentedScheduler s, long n) throws InterruptedException {
+        SchedulerSnapshot snapshot = s.snapshot();
+        for (int i = 0; i < 500 && snapshot.executed() < n; i++) {
+            Thread.sleep(10);
+            snapshot = s.snapshot();
+        }
+        Assert.assertTrue(snapshot.toString(), snapshot.executed() >= n);
+        return snapshot;
+    }
+
+    static SchedulerSnapshot waitExecuted(SchedulerSnapshot snapshot, InstrumentedTimedScheduler s, long n) throws InterruptedException {
+        for (int i = 0; i < 500 && snapshot.executed() < n; i++) {
+            Thread.sleep(10);
+            snapshot = s.snapshot();
+        }
+        Assert.assertTrue(snapshot.toString(), snapshot.executed() >= n);
+        return snapshot;
+    }
+}
@@ -0,0 +1,166 @@
+package rsc.metrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.*;
+import org.reactivestreams.*;
+
+import rsc.flow.*;
+import rsc.publisher.Px;
+import rsc.scheduler.*;
+import rsc.test.TestSubscriber;
+
+public class PipelineSamplerTest {
+
+    @Test
+    public void sampleFindsSaturatedStage() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+
+        Px.range(1, 100).hide()
+        .observeOn(ImmediateScheduler.instance(), true, 16)
+        .subscribe(ts);
+
+        PipelineSnapshot s = PipelineSampler.sample(ts);
+
+        List<StageSnapshot> stages = s.stages();
+
+        Assert.assertTrue(stages.toString(), stages.size() >= 3);
+        Assert.assertTrue(s.toString(), s.toString().contains("TestSubscriber"));
+        Assert.assertTrue(s.toString(), s.toString().contains("PublisherHide"));
+
+        List<StageSnapshot> saturated = s.saturated();
+
+        Assert.assertEquals(s.toString(), 1, saturated.size());
+        Assert.assertTrue(saturated.get(0).name(), saturated.get(0).name().startsWith("PublisherObserveOn"));
+        Assert.assertEquals(16, saturated.get(0).pending());
+        Assert.assertFalse(s.isTerminated());
+
+        for (int i = 1; i < stages.size(); i++) {
+            Assert.assertTrue(stages.get(i - 1).level() <= stages.get(i).level());
+        }
+
+        ts.request(Long.MAX_VALUE);
+
+        ts.assertValueCount(100)
+        .assertComplete();
+
+        s = PipelineSampler.sample(ts);
+
+        Assert.assertTrue(s.saturated().isEmpty());
+    }
+
+    @Test
+    public void nonTrackableRoot() {
+        PipelineSnapshot s = PipelineSampler.sample(new Object());
+
+        Assert.assertEquals(1, s.stages().size());
+        Assert.assertFalse(s.stages().get(0).isTrackable());
+        Assert.assertFalse(s.isTerminated());
+    }
+
+    @Test
+    public void failingGetterRecordedAsUntrackable() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+
+        Px.range(1, 100).hide()
+        .observeOn(ImmediateScheduler.instance(), true, 16)
+        .subscribe(new FailingStage<>(ts));
+
+        PipelineSnapshot s = PipelineSampler.sample(ts);
+
+        StageSnapshot failing = null;
+        for (StageSnapshot stage : s.stages()) {
+            if (stage.name().endsWith("FailingStage")) {
+                failing = stage;
+            }
+        }
+
+        Assert.assertNotNull(s.toString(), failing);
+        Assert.assertFalse(failing.isTrackable());
+        Assert.assertEquals(-1L, failing.pending());
+        Assert.assertTrue(s.toString(), s.toString().contains("PublisherObserveOn"));
+    }
+
+    /**
+     * Relays the signals and throws from getPending() as an operator reading racy state might.
+     */
+    static final class FailingStage<T> implements Subscriber<T>, Trackable, Receiver, Producer {
+        final Subscriber<? super T> actual;
+
+        Subscription s;
+
+        FailingStage(Subscriber<? super T> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            this.s = s;
+            actual.onSubscribe(s);
+        }
+
+        @Override
+        public void onNext(T t) {
+            actual.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            actual.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            actual.onComplete();
+        }
+
+        @Override
+        public long getPending() {
+            throw new IllegalStateException("forced failure");
+        }
+
+        @Override
+        public Object upstream() {
+            return s;
+        }
+
+        @Override
+        public Object downstream() {
+            return actual;
+        }
+    }
+
+    @Test
+    public void periodicSampling() throws Exception {
+        SingleTimedScheduler timer = new SingleTimedScheduler();
+        try {
+            PipelineSampler sampler = new PipelineSampler(timer, 1, TimeUnit.MILLISECONDS);
+
+            TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+
+            Px.range(1, 100).hide()
+            .observeOn(ImmediateScheduler.instance(), true, 16)
+            .subscribe(ts);
+
+            Cancellation c = sampler.track(ts);
+
+            for (int i = 0; i < 1000 && sampler.snapshot().isEmpty(); i++) {
+                Thread.sleep(1);
+            }
+
+            List<PipelineSnapshot> list = sampler.snapshot();
+
+            Assert.assertEquals(1, list.size());
+            Assert.assertEquals(1, list.get(0).saturated().size());
+
+            c.dispose();
+
+            Assert.assertTrue(sampler.snapshot().isEmpty());
+
+            sampler.dispose();
+        } finally {
+            timer.shutdown();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -218,6 +219,152 @@ public class ParallelPublisherTest {
         ts.assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
     }
     
+    @Test
+    public void sortedMany() {
+        List<Integer> expected = new ArrayList<>();
+        Integer[] values = new Integer[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i * 7919) % values.length;
+            expected.add(i);
+        }
+        
+        for (int p = 1; p < 9; p++) {
+            TestSubscriber<Integer> ts = new TestSubscriber<>();
+            
+            Px.fromArray(values)
+            .parallel(p)
+            .sorted(Comparator.naturalOrder())
+            .subscribe(ts);
+            
+            ts.assertValueSequence(expected)
+            .assertNoError()
+            .assertComplete();
+        }
+    }
+
+    @Test
+    public void sortedEmpty() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        Px.<Integer>empty()
+        .parallel(4)
+        .sorted(Comparator.naturalOrder())
+        .subscribe(ts);
+        
+        ts.assertResult();
+    }
+
+    @Test
+    public void toSortedListEmpty() {
+        TestSubscriber<List<Integer>> ts = new TestSubscriber<>();
+        
+        Px.<Integer>empty()
+        .parallel(4)
+        .toSortedList(Comparator.naturalOrder())
+        .subscribe(ts);
+        
+        ts.assertResult(new ArrayList<>());
+    }
+
+    @Test
+    public void mergeSorted() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+        
+        ParallelPublisher.fromArray(Px.range(0, 100).map(v -> v * 3), 
+                Px.range(0, 100).map(v -> v * 3 + 1), Px.range(0, 100).map(v -> v * 3 + 2))
+        .mergeSorted(Comparator.naturalOrder(), 4)
+        .subscribe(ts);
+        
+        ts.assertNoValues();
+        
+        ts.request(5);
+        
+        ts.assertValues(0, 1, 2, 3, 4);
+        
+        ts.request(Long.MAX_VALUE);
+        
+        ts.assertValueCount(300)
+        .assertNoError()
+        .assertComplete();
+        
+        List<Integer> values = ts.values();
+        for (int i = 0; i < 300; i++) {
+            Assert.assertEquals(i, values.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void mergeSortedEmitsBeforeCompletion() {
+        DirectProcessor<Integer> dp1 = new DirectProcessor<>();
+        DirectProcessor<Integer> dp2 = new DirectProcessor<>();
+        
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        ParallelPublisher.fromArray(dp1, dp2)
+        .mergeSorted(Comparator.naturalOrder())
+        .subscribe(ts);
+        
+        dp1.onNext(1);
+        
+        ts.assertNoValues();
+        
+        dp2.onNext(2);
+        
+        ts.assertValues(1);
+        
+        dp1.onNext(3);
+        
+        ts.assertValues(1, 2);
+        
+        dp2.onComplete();
+        
+        ts.assertValues(1, 2, 3);
+        
+        dp1.onNext(4);
+        dp1.onComplete();
+        
+        ts.assertResult(1, 2, 3, 4);
+    }
+
+    @Test
+    public void mergeSortedError() {
+        DirectProcessor<Integer> dp1 = new DirectProcessor<>();
+        DirectProcessor<Integer> dp2 = new DirectProcessor<>();
+        
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        ParallelPublisher.fromArray(dp1, dp2)
+        .mergeSorted(Comparator.naturalOrder())
+        .subscribe(ts);
+        
+        dp1.onNext(1);
+        dp2.onError(new RuntimeException("forced failure"));
+        
+        ts.assertFailureMessage(RuntimeException.class, "forced failure");
+        
+        Assert.assertFalse("dp1 has downstreams?", dp1.hasDownstreams());
+    }
+
+    @Test
+    public void mergeSortedCancel() {
+        DirectProcessor<Integer> dp1 = new DirectProcessor<>();
+        DirectProcessor<Integer> dp2 = new DirectProcessor<>();
+        
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        ParallelPublisher.fromArray(dp1, dp2)
+        .mergeSorted(Comparator.naturalOrder())
+        .subscribe(ts);
+        
+        Assert.assertTrue("dp1 has no downstreams?", dp1.hasDownstreams());
+        Assert.assertTrue("dp2 has no downstreams?", dp2.hasDownstreams());
+        
+        ts.cancel();
+        
+        Assert.assertFalse("dp1 has downstreams?", dp1.hasDownstreams());
+        Assert.assertFalse("dp2 has downstreams?", dp2.hasDownstreams());
+    }
+    
     @Test
     public void collect() {
         Supplier<List<Integer>> as = () -> new ArrayList<>();
@@ -570,4 +717,78 @@ public class ParallelPublisherTest {
         
         ts.assertValue(1);
     }
+
+    @Test
+    public void workStealing() {
+        int ncpu = Math.max(8, Runtime.getRuntime().availableProcessors());
+        for (int i = 1; i < ncpu + 1; i++) {
+            
+            Scheduler scheduler = new ParallelScheduler(i);
+            
+            try {
+                TestSubscriber<Integer> ts = new TestSubscriber<>();
+                
+                ParallelPublisher.from(Px.range(1, 100_000), false, i)
+                .runOn(scheduler, 16, true)
+                .map(v -> v + 1)
+                .sequential()
+                .subscribe(ts);
+    
+                ts.assertTerminated(10, TimeUnit.SECONDS);
+                
+                ts
+                .assertValueCount(100_000)
+                .assertComplete()
+                .assertNoError()
+                ;
+                
+                Assert.assertEquals(100_000, new HashSet<>(ts.values()).size());
+            } finally {
+                scheduler.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void workStealingSlowValue() {
+        int n = 1000;
+        CountDownLatch others = new CountDownLatch(n - 1);
+        
+        Scheduler scheduler = new ParallelScheduler(4);
+        
+        try {
+            TestSubscriber<Integer> ts = new TestSubscriber<>();
+            
+            // the first value blocks its rail until all the other values have been processed,
+            // including those queued up behind it on the same rail
+            ParallelPublisher.from(Px.range(0, n), false, 4)
+            .runOn(scheduler, 16, true)
+            .map(v -> {
+                if (v == 0) {
+                    try {
+                        if (!others.await(5, TimeUnit.SECONDS)) {
+                            throw new IllegalStateException("Values stuck behind the slow value: " + others.getCount());
+                        }
+                    } catch (InterruptedException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                } else {
+                    others.countDown();
+                }
+                return v;
+            })
+            .sequential()
+            .subscribe(ts);
+            
+            ts.assertTerminated(10, TimeUnit.SECONDS);
+            
+            ts
+            .assertValueCount(n)
+            .assertComplete()
+            .assertNoError()
+            ;
+        } finally {
+            scheduler.shutdown();
+        }
+    }
 }
@@ -0,0 +1,23 @@
+package rsc.primitive;
+
+import org.junit.Test;
+
+import rsc.publisher.Px;
+
+public class DoublePxTest {
+
+    @Test
+    public void fromArray() {
+        DoublePx.fromArray(0.5, 1.5).map(v -> v * 2).boxed().test().assertResult(1.0, 3.0);
+    }
+
+    @Test
+    public void sumFused() {
+        DoublePx.fromArray(0.5, 1.5, 2.5, 3.5).filter(v -> v > 1).sum().boxed().test().assertResult(7.5);
+    }
+
+    @Test
+    public void sumNotFused() {
+        DoublePx.from(Px.fromArray(0.5, 1.5).hide()).sum().boxed().test().assertResult(2.0);
+    }
+}
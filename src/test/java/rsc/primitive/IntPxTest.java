@@ -0,0 +1,158 @@
+package rsc.primitive;
+
+import java.util.*;
+
+import org.junit.*;
+import org.reactivestreams.Subscription;
+
+import rsc.publisher.Px;
+import rsc.test.TestSubscriber;
+
+public class IntPxTest {
+
+    @Test
+    public void range() {
+        IntPx.range(1, 5).boxed().test().assertResult(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void rangeEmpty() {
+        IntPx.range(1, 0).boxed().test().assertResult();
+    }
+
+    @Test
+    public void rangeBackpressured() {
+        TestSubscriber<Integer> ts = IntPx.range(1, 5).boxed().test(0);
+
+        ts.assertNoValues();
+
+        ts.request(2);
+
+        ts.assertIncomplete(1, 2);
+
+        ts.request(3);
+
+        ts.assertResult(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void fromArray() {
+        IntPx.fromArray(1, 2, 3).boxed().test().assertResult(1, 2, 3);
+    }
+
+    @Test
+    public void mapFilter() {
+        IntPx.range(1, 10).map(v -> v * 2).filter(v -> v % 3 == 0).boxed().test().assertResult(6, 12, 18);
+    }
+
+    @Test
+    public void mapFilterBackpressured() {
+        TestSubscriber<Integer> ts = IntPx.range(1, 10).map(v -> v * 2).filter(v -> v % 3 == 0).boxed().test(1);
+
+        ts.assertIncomplete(6);
+
+        ts.request(2);
+
+        ts.assertIncomplete(6, 12, 18);
+
+        ts.request(1);
+
+        ts.assertResult(6, 12, 18);
+    }
+
+    @Test
+    public void sumFused() {
+        IntPx.range(1, 1000).map(v -> v * 2).filter(v -> v % 3 == 0).sum().boxed().test().assertResult(333_666);
+    }
+
+    @Test
+    public void sumNotFused() {
+        IntPx.from(Px.range(1, 1000).hide()).map(v -> v * 2).filter(v -> v % 3 == 0).sum().boxed().test()
+        .assertResult(333_666);
+    }
+
+    @Test
+    public void sumUnboxingFused() {
+        IntPx.from(Px.range(1, 1000)).sum().boxed().test().assertResult(500_500);
+    }
+
+    @Test
+    public void sumEmpty() {
+        IntPx.range(1, 0).sum().boxed().test().assertResult();
+    }
+
+    @Test
+    public void sumAllFiltered() {
+        IntPx.range(1, 10).filter(v -> false).sum().boxed().test().assertResult();
+    }
+
+    @Test
+    public void sumBackpressured() {
+        TestSubscriber<Integer> ts = IntPx.range(1, 10).sum().boxed().test(0);
+
+        ts.assertNoValues().assertNotComplete();
+
+        ts.request(1);
+
+        ts.assertResult(55);
+    }
+
+    @Test
+    public void reduce() {
+        IntPx.fromArray(3, 1, 4, 1, 5).reduce(Math::max).boxed().test().assertResult(5);
+    }
+
+    @Test
+    public void mapperCrashFused() {
+        IntPx.range(1, 10).map(v -> {
+            if (v == 5) {
+                throw new RuntimeException("forced failure");
+            }
+            return v;
+        }).sum().boxed().test().assertFailureMessage(RuntimeException.class, "forced failure");
+    }
+
+    @Test
+    public void mapperCrash() {
+        IntPx.range(1, 10).map(v -> {
+            if (v == 5) {
+                throw new RuntimeException("forced failure");
+            }
+            return v;
+        }).boxed().test().assertFailureMessage(RuntimeException.class, "forced failure", 1, 2, 3, 4);
+    }
+
+    @Test
+    public void primitiveSubscriber() {
+        List<Object> list = new ArrayList<>();
+
+        IntPx.range(1, 5).map(v -> v + 1).subscribe(new IntSubscriber() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(int t) {
+                list.add(t);
+            }
+
+            @Override
+            public void onNext(Integer t) {
+                throw new AssertionError("Boxed value received: " + t);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                list.add(t);
+            }
+
+            @Override
+            public void onComplete() {
+                list.add("Done");
+            }
+        });
+
+        Assert.assertEquals(Arrays.asList(2, 3, 4, 5, 6, "Done"), list);
+    }
+}
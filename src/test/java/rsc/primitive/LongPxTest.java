@@ -0,0 +1,34 @@
+package rsc.primitive;
+
+import org.junit.Test;
+
+import rsc.publisher.Px;
+
+public class LongPxTest {
+
+    @Test
+    public void range() {
+        LongPx.range(1, 5).boxed().test().assertResult(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    public void rangeUpToMaxValue() {
+        LongPx.range(Long.MAX_VALUE - 1, 2).boxed().test().assertResult(Long.MAX_VALUE - 1, Long.MAX_VALUE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rangeOverflow() {
+        LongPx.range(Long.MAX_VALUE - 1, 3);
+    }
+
+    @Test
+    public void sumFused() {
+        LongPx.range(1, 1000).map(v -> v * 1_000_000L).filter(v -> v % 2_000_000 == 0).sum().boxed().test()
+        .assertResult(250_500_000_000L);
+    }
+
+    @Test
+    public void sumNotFused() {
+        LongPx.from(Px.range(1, 1000).map(v -> (long)v).hide()).sum().boxed().test().assertResult(500_500L);
+    }
+}
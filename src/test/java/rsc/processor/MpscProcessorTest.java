@@ -0,0 +1,251 @@
+package rsc.processor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rsc.flow.Cancellation;
+import rsc.flow.Fuseable;
+import rsc.publisher.Px;
+import rsc.test.TestSubscriber;
+import rsc.util.ConstructorTestBuilder;
+import rsc.util.MpscLinkedArrayQueue;
+
+public class MpscProcessorTest {
+
+    @Test
+    public void constructors() {
+        ConstructorTestBuilder ctb = new ConstructorTestBuilder(MpscProcessor.class);
+
+        ctb.addInt("capacity", 1, Integer.MAX_VALUE);
+        ctb.addRef("queue", new ConcurrentLinkedQueue<>());
+        ctb.addRef("onTerminate", (Cancellation)() -> { });
+
+        ctb.test();
+    }
+
+    @Test
+    public void secondSubscriberRejectedProperly() {
+        MpscProcessor<Integer> mp = new MpscProcessor<>();
+
+        mp.subscribe();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        mp.subscribe(ts);
+
+        ts.assertNoValues()
+        .assertError(IllegalStateException.class)
+        .assertNotComplete();
+    }
+
+    @Test
+    public void normal() {
+        MpscProcessor<Integer> mp = new MpscProcessor<>();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        mp.subscribe(ts);
+
+        Px.range(1, 5).subscribe(mp);
+
+        ts.assertResult(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void normalBackpressured() {
+        MpscProcessor<Integer> mp = new MpscProcessor<>();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+
+        mp.subscribe(ts);
+
+        Px.range(1, 5).subscribe(mp);
+
+        ts.assertNoValues()
+        .assertNoError()
+        .assertNotComplete();
+
+        ts.request(2);
+
+        ts.assertValues(1, 2)
+        .assertNoError()
+        .assertNotComplete();
+
+        ts.request(3);
+
+        ts.assertResult(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void normalFused() {
+        MpscProcessor<Integer> mp = new MpscProcessor<>();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        ts.requestedFusionMode(Fuseable.ANY);
+
+        mp.subscribe(ts);
+
+        Px.range(1, 5).subscribe(mp);
+
+        ts.assertFusionMode(Fuseable.ASYNC)
+        .assertResult(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void error() {
+        MpscProcessor<Integer> mp = new MpscProcessor<>();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        mp.subscribe(ts);
+
+        mp.onNext(1);
+        mp.onError(new RuntimeException("forced failure"));
+        mp.onError(new RuntimeException("second failure"));
+        mp.onComplete();
+
+        ts.assertValues(1)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @Test
+    public void boundedOverflow() {
+        MpscProcessor<Integer> mp = new MpscProcessor<>(4);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+
+        mp.subscribe(ts);
+
+        Px.range(1, 10).subscribe(mp);
+
+        ts.request(10);
+
+        ts.assertValues(1, 2, 3, 4)
+        .assertError(IllegalStateException.class)
+        .assertErrorMessage("The queue is full");
+    }
+
+    @Test
+    public void onTerminateCalledOnCancel() {
+        int[] calls = { 0 };
+        MpscProcessor<Integer> mp = new MpscProcessor<>(new MpscLinkedArrayQueue<>(16), () -> calls[0]++);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        mp.subscribe(ts);
+
+        mp.onNext(1);
+
+        ts.cancel();
+
+        mp.onNext(2);
+        mp.onComplete();
+
+        ts.assertValues(1)
+        .assertNoError()
+        .assertNotComplete();
+
+        Assert.assertEquals(1, calls[0]);
+        Assert.assertTrue(mp.isCancelled());
+    }
+
+    void concurrentProducers(boolean fused) throws Exception {
+        int threads = 4;
+        int n = 100_000;
+
+        MpscProcessor<Integer> mp = new MpscProcessor<>();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        if (fused) {
+            ts.requestedFusionMode(Fuseable.ANY);
+        }
+
+        mp.subscribe(ts);
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int base = t * n;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < n; i++) {
+                        mp.onNext(base + i);
+                    }
+                } catch (InterruptedException ex) {
+                    // not expected
+                }
+                finish.countDown();
+            }).start();
+        }
+
+        start.countDown();
+
+        Assert.assertTrue(finish.await(10, TimeUnit.SECONDS));
+
+        mp.onComplete();
+
+        ts.assertTerminated(10, TimeUnit.SECONDS);
+
+        ts.assertValueCount(threads * n)
+        .assertNoError()
+        .assertComplete();
+
+        // values of each producer stay in their relative order
+        List<Integer> values = ts.values();
+        int[] last = new int[threads];
+        Arrays.fill(last, -1);
+        for (Integer v : values) {
+            int t = v / n;
+            Assert.assertTrue(v + " after " + last[t], v > last[t]);
+            last[t] = v;
+        }
+    }
+
+    @Test
+    public void concurrentProducers() throws Exception {
+        concurrentProducers(false);
+    }
+
+    @Test
+    public void concurrentProducersFused() throws Exception {
+        concurrentProducers(true);
+    }
+
+    @Test
+    public void concurrentTerminals() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            MpscProcessor<Integer> mp = new MpscProcessor<>();
+
+            TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+            mp.subscribe(ts);
+
+            Thread t = new Thread(() -> {
+                mp.onNext(1);
+                mp.onComplete();
+            });
+            t.start();
+
+            mp.onNext(2);
+            mp.onComplete();
+
+            t.join();
+
+            ts.assertTerminated(5, TimeUnit.SECONDS);
+
+            ts.assertNoError()
+            .assertComplete();
+
+            Assert.assertTrue(ts.values().size() <= 2);
+        }
+    }
+}
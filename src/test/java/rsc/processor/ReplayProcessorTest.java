@@ -1,9 +1,13 @@
 package rsc.processor;
 
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import rsc.flow.Cancellation;
 import rsc.flow.Fuseable;
+import rsc.scheduler.TimedScheduler;
 import rsc.test.TestSubscriber;
 
 public class ReplayProcessorTest {
@@ -280,4 +284,226 @@ public class ReplayProcessorTest {
         .assertComplete();
     }
 
+    /** A TimedScheduler whose notion of current time is moved manually. */
+    static final class ManualTimer implements TimedScheduler {
+        long now;
+
+        @Override
+        public Cancellation schedule(Runnable task) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Cancellation schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long now(TimeUnit unit) {
+            return unit.convert(now, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public TimedWorker createWorker() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    public void sizeBound() {
+        ReplayProcessor<Integer> rp = new ReplayProcessor<>(16, Long.MAX_VALUE, null, null);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0L);
+
+        rp.subscribe(ts);
+
+        for (int i = 0; i < 1000; i++) {
+            rp.onNext(i);
+        }
+        rp.onComplete();
+
+        ts.request(1000);
+
+        ts.assertValueCount(1000)
+        .assertNoError()
+        .assertComplete();
+
+        ts = new TestSubscriber<>(0L);
+
+        rp.subscribe(ts);
+
+        ts.assertNoValues();
+
+        ts.request(2);
+
+        ts.assertValues(984, 985);
+
+        ts.request(14);
+
+        ts.assertValueCount(16)
+        .assertNoError()
+        .assertComplete();
+
+        Assert.assertEquals(999, ts.values().get(15).intValue());
+    }
+
+    @Test
+    public void timeBound() {
+        ManualTimer timer = new ManualTimer();
+        ReplayProcessor<Integer> rp = new ReplayProcessor<>(Integer.MAX_VALUE, 100, TimeUnit.MILLISECONDS, timer);
+
+        rp.onNext(1);
+        timer.now = 50;
+        rp.onNext(2);
+        timer.now = 100;
+        rp.onNext(3);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        rp.subscribe(ts);
+
+        ts.assertValues(2, 3);
+
+        timer.now = 160;
+
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>();
+
+        rp.subscribe(ts2);
+
+        ts2.assertValues(3);
+
+        timer.now = 300;
+
+        TestSubscriber<Integer> ts3 = new TestSubscriber<>();
+
+        rp.subscribe(ts3);
+
+        ts3.assertNoValues();
+
+        rp.onNext(4);
+        rp.onComplete();
+
+        ts.assertResult(2, 3, 4);
+        ts2.assertResult(3, 4);
+        ts3.assertResult(4);
+    }
+
+    @Test
+    public void sizeAndTimeBound() {
+        ManualTimer timer = new ManualTimer();
+        ReplayProcessor<Integer> rp = new ReplayProcessor<>(3, 100, TimeUnit.MILLISECONDS, timer);
+
+        for (int i = 0; i < 10; i++) {
+            timer.now = i * 20;
+            rp.onNext(i);
+        }
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        rp.subscribe(ts);
+
+        ts.assertValues(7, 8, 9);
+
+        timer.now = 250;
+
+        rp.onComplete();
+
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>();
+
+        rp.subscribe(ts2);
+
+        ts2.assertResult(8, 9);
+    }
+
+    @Test
+    public void timeBoundManyChunks() {
+        ManualTimer timer = new ManualTimer();
+        ReplayProcessor<Integer> rp = new ReplayProcessor<>(Integer.MAX_VALUE, 1000, TimeUnit.MILLISECONDS, timer);
+
+        for (int i = 0; i < 10_000; i++) {
+            timer.now = i;
+            rp.onNext(i);
+        }
+        rp.onComplete();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        rp.subscribe(ts);
+
+        ts.assertValueCount(1000)
+        .assertNoError()
+        .assertComplete();
+
+        Assert.assertEquals(9000, ts.values().get(0).intValue());
+        Assert.assertEquals(9999, ts.values().get(999).intValue());
+    }
+
+    @Test
+    public void fusedSizeAndTimeBoundAfterLong() {
+        ManualTimer timer = new ManualTimer();
+        ReplayProcessor<Integer> rp = new ReplayProcessor<>(200, 1000, TimeUnit.MILLISECONDS, timer);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        ts.requestedFusionMode(Fuseable.ASYNC);
+
+        for (int i = 0; i < 256; i++) {
+            rp.onNext(i);
+        }
+        rp.onComplete();
+
+        rp.subscribe(ts);
+
+        ts
+        .assertFuseableSource()
+        .assertFusionMode(Fuseable.ASYNC)
+        .assertValueCount(200)
+        .assertNoError()
+        .assertComplete();
+
+        Assert.assertEquals(56, ts.values().get(0).intValue());
+    }
+
+    @Test
+    public void fusedSizeAndTimeBoundLong() {
+        ManualTimer timer = new ManualTimer();
+        ReplayProcessor<Integer> rp = new ReplayProcessor<>(16, 1000, TimeUnit.MILLISECONDS, timer);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        ts.requestedFusionMode(Fuseable.ASYNC);
+
+        rp.subscribe(ts);
+
+        for (int i = 0; i < 256; i++) {
+            rp.onNext(i);
+        }
+        rp.onComplete();
+
+        Assert.assertFalse("Has subscribers?", rp.hasDownstreams());
+
+        ts
+        .assertFuseableSource()
+        .assertFusionMode(Fuseable.ASYNC)
+        .assertValueCount(256)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void sizeAndTimeBoundError() {
+        ReplayProcessor<Integer> rp = new ReplayProcessor<>(16, Long.MAX_VALUE, null, null);
+
+        rp.onNext(1);
+        rp.onError(new RuntimeException("forced failure"));
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        rp.subscribe(ts);
+
+        ts.assertFailureMessage(RuntimeException.class, "forced failure", 1);
+    }
 }
@@ -0,0 +1,253 @@
+package rsc.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rsc.publisher.Px;
+import rsc.scheduler.ImmediateScheduler;
+import rsc.scheduler.ParallelScheduler;
+import rsc.test.TestSubscriber;
+import rsc.util.ConstructorTestBuilder;
+
+public class RingBufferProcessorTest {
+
+    @Test
+    public void constructors() {
+        ConstructorTestBuilder ctb = new ConstructorTestBuilder(RingBufferProcessor.class);
+
+        ctb.addRef("scheduler", ImmediateScheduler.instance());
+        ctb.addInt("capacity", 1, Integer.MAX_VALUE);
+
+        ctb.test();
+    }
+
+    @Test
+    public void normal() {
+        RingBufferProcessor<Integer> rp = new RingBufferProcessor<>(ImmediateScheduler.instance(), 16);
+
+        TestSubscriber<Integer> ts1 = new TestSubscriber<>();
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>();
+
+        rp.subscribe(ts1);
+        rp.subscribe(ts2);
+
+        Px.range(1, 100).subscribe(rp);
+
+        ts1.assertValueCount(100)
+        .assertNoError()
+        .assertComplete();
+
+        ts2.assertValueCount(100)
+        .assertNoError()
+        .assertComplete();
+
+        Assert.assertFalse(rp.hasDownstreams());
+    }
+
+    @Test
+    public void slowestSubscriberBoundsUpstream() {
+        RingBufferProcessor<Integer> rp = new RingBufferProcessor<>(ImmediateScheduler.instance(), 16);
+
+        TestSubscriber<Integer> ts1 = new TestSubscriber<>();
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>(0);
+
+        rp.subscribe(ts1);
+        rp.subscribe(ts2);
+
+        List<Long> requests = new ArrayList<>();
+
+        Px.range(1, 100).doOnRequest(requests::add).subscribe(rp);
+
+        ts1.assertValueCount(16)
+        .assertNoError()
+        .assertNotComplete();
+
+        ts2.assertNoValues();
+
+        Assert.assertEquals(16L, rp.getPending());
+
+        ts2.request(10);
+
+        ts2.assertValues(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+        ts1.assertValueCount(26);
+
+        ts2.request(Long.MAX_VALUE);
+
+        ts1.assertValueCount(100)
+        .assertNoError()
+        .assertComplete();
+
+        ts2.assertValueCount(100)
+        .assertNoError()
+        .assertComplete();
+
+        long sum = 0;
+        for (long r : requests) {
+            sum += r;
+        }
+        Assert.assertTrue(requests.toString(), sum >= 100 && sum <= 100 + 16);
+    }
+
+    @Test
+    public void lateSubscriberGetsNewValuesOnly() {
+        RingBufferProcessor<Integer> rp = new RingBufferProcessor<>(ImmediateScheduler.instance(), 16);
+
+        TestSubscriber<Integer> ts1 = new TestSubscriber<>();
+
+        rp.subscribe(ts1);
+
+        rp.onNext(1);
+        rp.onNext(2);
+
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>();
+
+        rp.subscribe(ts2);
+
+        rp.onNext(3);
+        rp.onComplete();
+
+        ts1.assertResult(1, 2, 3);
+        ts2.assertResult(3);
+    }
+
+    @Test
+    public void upstreamFlowsWithoutSubscribers() {
+        RingBufferProcessor<Integer> rp = new RingBufferProcessor<>(ImmediateScheduler.instance(), 16);
+
+        Px.range(0, 1000).subscribe(rp);
+
+        Assert.assertTrue(rp.isTerminated());
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        rp.subscribe(ts);
+
+        ts.assertNoValues()
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void upstreamFlowsAfterLastSubscriberCancels() {
+        RingBufferProcessor<Integer> rp = new RingBufferProcessor<>(ImmediateScheduler.instance(), 16);
+
+        TestSubscriber<Integer> ts1 = new TestSubscriber<>(0);
+
+        rp.subscribe(ts1);
+
+        Px.range(0, 1000).subscribe(rp);
+
+        Assert.assertFalse(rp.isTerminated());
+
+        ts1.cancel();
+
+        Assert.assertTrue(rp.isTerminated());
+
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>();
+
+        rp.subscribe(ts2);
+
+        ts2.assertNoValues()
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void terminatedLateSubscriber() {
+        RingBufferProcessor<Integer> rp = new RingBufferProcessor<>(ImmediateScheduler.instance(), 16);
+
+        rp.onNext(1);
+        rp.onError(new RuntimeException("forced failure"));
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        rp.subscribe(ts);
+
+        ts.assertNoValues()
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @Test
+    public void overflowWithoutUpstream() {
+        RingBufferProcessor<Integer> rp = new RingBufferProcessor<>(ImmediateScheduler.instance(), 4);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+
+        rp.subscribe(ts);
+
+        for (int i = 1; i <= 5; i++) {
+            rp.onNext(i);
+        }
+
+        ts.request(10);
+
+        ts.assertValues(1, 2, 3, 4)
+        .assertError(IllegalStateException.class)
+        .assertErrorMessage("The ring buffer is full");
+    }
+
+    @Test
+    public void cancelledSubscriberReleasesProducer() {
+        RingBufferProcessor<Integer> rp = new RingBufferProcessor<>(ImmediateScheduler.instance(), 16);
+
+        TestSubscriber<Integer> ts1 = new TestSubscriber<>();
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>(0);
+
+        rp.subscribe(ts1);
+        rp.subscribe(ts2);
+
+        Px.range(1, 100).subscribe(rp);
+
+        ts1.assertValueCount(16);
+
+        ts2.cancel();
+
+        ts1.assertValueCount(100)
+        .assertNoError()
+        .assertComplete();
+
+        ts2.assertNoValues()
+        .assertNoError()
+        .assertNotComplete();
+    }
+
+    @Test
+    public void manyAsyncSubscribers() {
+        ParallelScheduler scheduler = new ParallelScheduler(4);
+        try {
+            for (int round = 0; round < 20; round++) {
+                RingBufferProcessor<Integer> rp = new RingBufferProcessor<>(scheduler, 32);
+
+                List<TestSubscriber<Integer>> list = new ArrayList<>();
+                for (int i = 0; i < 16; i++) {
+                    TestSubscriber<Integer> ts = new TestSubscriber<>();
+                    list.add(ts);
+                    rp.subscribe(ts);
+                }
+
+                Px.range(0, 10_000).subscribe(rp);
+
+                for (TestSubscriber<Integer> ts : list) {
+                    ts.assertTerminated(5, TimeUnit.SECONDS);
+
+                    ts.assertValueCount(10_000)
+                    .assertNoError()
+                    .assertComplete();
+
+                    List<Integer> values = ts.values();
+                    for (int i = 0; i < values.size(); i++) {
+                        Assert.assertEquals(i, values.get(i).intValue());
+                    }
+                }
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
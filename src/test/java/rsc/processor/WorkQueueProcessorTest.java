@@ -0,0 +1,199 @@
+package rsc.processor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rsc.publisher.Px;
+import rsc.scheduler.ImmediateScheduler;
+import rsc.scheduler.ParallelScheduler;
+import rsc.test.TestSubscriber;
+import rsc.util.ConstructorTestBuilder;
+
+public class WorkQueueProcessorTest {
+
+    @Test
+    public void constructors() {
+        ConstructorTestBuilder ctb = new ConstructorTestBuilder(WorkQueueProcessor.class);
+
+        ctb.addRef("scheduler", ImmediateScheduler.instance());
+        ctb.addInt("capacity", 1, Integer.MAX_VALUE);
+
+        ctb.test();
+    }
+
+    @Test
+    public void singleSubscriber() {
+        WorkQueueProcessor<Integer> wp = new WorkQueueProcessor<>(ImmediateScheduler.instance(), 16);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        wp.subscribe(ts);
+
+        Px.range(1, 100).subscribe(wp);
+
+        ts.assertValueCount(100)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void valuesGoToOneSubscriberEach() {
+        WorkQueueProcessor<Integer> wp = new WorkQueueProcessor<>(ImmediateScheduler.instance(), 16);
+
+        TestSubscriber<Integer> ts1 = new TestSubscriber<>(0);
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>(0);
+
+        wp.subscribe(ts1);
+        wp.subscribe(ts2);
+
+        Px.range(1, 10).subscribe(wp);
+
+        ts1.request(3);
+
+        ts1.assertValues(1, 2, 3);
+
+        ts2.request(2);
+
+        ts2.assertValues(4, 5);
+
+        ts1.request(Long.MAX_VALUE);
+
+        ts1.assertValues(1, 2, 3, 6, 7, 8, 9, 10)
+        .assertNoError()
+        .assertComplete();
+
+        ts2.assertValues(4, 5)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void valuesWaitForSubscriber() {
+        WorkQueueProcessor<Integer> wp = new WorkQueueProcessor<>(ImmediateScheduler.instance(), 16);
+
+        List<Long> requests = new ArrayList<>();
+
+        Px.range(1, 100).doOnRequest(requests::add).subscribe(wp);
+
+        Assert.assertEquals(16L, wp.getPending());
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        wp.subscribe(ts);
+
+        ts.assertValueCount(100)
+        .assertNoError()
+        .assertComplete();
+
+        Assert.assertEquals(16L, requests.get(0).longValue());
+    }
+
+    @Test
+    public void error() {
+        WorkQueueProcessor<Integer> wp = new WorkQueueProcessor<>(ImmediateScheduler.instance(), 16);
+
+        TestSubscriber<Integer> ts1 = new TestSubscriber<>();
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>();
+
+        wp.subscribe(ts1);
+        wp.subscribe(ts2);
+
+        wp.onNext(1);
+        wp.onError(new RuntimeException("forced failure"));
+
+        ts1.assertValues(1)
+        .assertErrorMessage("forced failure");
+
+        ts2.assertNoValues()
+        .assertErrorMessage("forced failure");
+
+        TestSubscriber<Integer> ts3 = new TestSubscriber<>();
+
+        wp.subscribe(ts3);
+
+        ts3.assertNoValues()
+        .assertErrorMessage("forced failure");
+    }
+
+    @Test
+    public void overflowWithoutUpstream() {
+        WorkQueueProcessor<Integer> wp = new WorkQueueProcessor<>(ImmediateScheduler.instance(), 4);
+
+        for (int i = 1; i <= 5; i++) {
+            wp.onNext(i);
+        }
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        wp.subscribe(ts);
+
+        ts.assertValues(1, 2, 3, 4)
+        .assertError(IllegalStateException.class)
+        .assertErrorMessage("The queue is full");
+    }
+
+    @Test
+    public void cancelledSubscriberLeavesValuesToOthers() {
+        WorkQueueProcessor<Integer> wp = new WorkQueueProcessor<>(ImmediateScheduler.instance(), 16);
+
+        TestSubscriber<Integer> ts1 = new TestSubscriber<>(1);
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>(0);
+
+        wp.subscribe(ts1);
+        wp.subscribe(ts2);
+
+        Px.range(1, 5).subscribe(wp);
+
+        ts1.assertValues(1);
+
+        ts1.cancel();
+
+        ts2.request(Long.MAX_VALUE);
+
+        ts2.assertResult(2, 3, 4, 5);
+    }
+
+    @Test
+    public void competingAsyncSubscribers() {
+        ParallelScheduler scheduler = new ParallelScheduler(4);
+        try {
+            for (int round = 0; round < 20; round++) {
+                WorkQueueProcessor<Integer> wp = new WorkQueueProcessor<>(scheduler, 32);
+
+                List<TestSubscriber<Integer>> list = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    TestSubscriber<Integer> ts = new TestSubscriber<>();
+                    list.add(ts);
+                    wp.subscribe(ts);
+                }
+
+                int n = 10_000;
+
+                Px.range(0, n).subscribe(wp);
+
+                Set<Integer> set = new HashSet<>();
+                int count = 0;
+                for (TestSubscriber<Integer> ts : list) {
+                    ts.assertTerminated(5, TimeUnit.SECONDS);
+
+                    ts.assertNoError()
+                    .assertComplete();
+
+                    set.addAll(ts.values());
+                    count += ts.values().size();
+                }
+
+                Assert.assertEquals(n, count);
+                Assert.assertEquals(n, set.size());
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
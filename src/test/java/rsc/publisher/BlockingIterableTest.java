@@ -6,11 +6,16 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.Spliterator;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Test;
+import rsc.processor.DirectProcessor;
+import rsc.scheduler.ParallelScheduler;
 import rsc.util.ConstructorTestBuilder;
 
 public class BlockingIterableTest {
@@ -94,4 +99,159 @@ public class BlockingIterableTest {
         Assert.assertTrue("No maximum?", opt.isPresent());
         Assert.assertEquals((Integer)n, opt.get());
     }
+
+    @Test
+    public void rangeSpliteratorSized() {
+        Spliterator<Integer> sp = Px.range(1, 1000).stream().spliterator();
+
+        Assert.assertTrue(sp.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        Assert.assertEquals(1000, sp.getExactSizeIfKnown());
+
+        Spliterator<Integer> prefix = sp.trySplit();
+
+        Assert.assertEquals(500, prefix.getExactSizeIfKnown());
+        Assert.assertEquals(500, sp.getExactSizeIfKnown());
+
+        List<Integer> values = new ArrayList<>();
+        prefix.tryAdvance(values::add);
+        sp.tryAdvance(values::add);
+
+        Assert.assertEquals(Arrays.asList(1, 501), values);
+    }
+
+    @Test
+    public void arraySpliteratorSized() {
+        Spliterator<Integer> sp = Px.fromArray(1, 2, 3, 4, 5).stream().spliterator();
+
+        Assert.assertTrue(sp.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        Assert.assertEquals(5, sp.getExactSizeIfKnown());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void arrayNullElement() {
+        Px.fromArray(1, null, 3).stream().forEach(v -> { });
+    }
+
+    @Test
+    public void callableSpliteratorSized() {
+        Assert.assertEquals(1, Px.just(1).stream().spliterator().getExactSizeIfKnown());
+        Assert.assertEquals(0, PublisherEmpty.<Integer>instance().stream().spliterator().getExactSizeIfKnown());
+
+        Assert.assertEquals(Arrays.asList(1), Px.just(1).parallelStream().collect(Collectors.toList()));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void callableError() {
+        Px.fromCallable(() -> { throw new Exception("forced failure"); }).stream().forEach(v -> { });
+    }
+
+    @Test
+    public void callableErrorCounted() {
+        try {
+            Px.fromCallable(() -> { throw new IllegalStateException("forced failure"); }).stream().count();
+            Assert.fail("Should have thrown");
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("forced failure", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void callableReturnsNull() {
+        try {
+            new PublisherCallable<>(() -> null).stream().count();
+            Assert.fail("Should have thrown");
+        } catch (NullPointerException ex) {
+            Assert.assertEquals("The callable returned null", ex.getMessage());
+        }
+
+        try {
+            new PublisherCallable<>(() -> null).toIterable().iterator().next();
+            Assert.fail("Should have thrown");
+        } catch (NullPointerException ex) {
+            Assert.assertEquals("The callable returned null", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void emptyStream() {
+        Assert.assertEquals(0L, Px.empty().stream().count());
+        Assert.assertEquals(0L, Px.empty().parallelStream().count());
+    }
+
+    @Test(timeout = 5000)
+    public void parallelStreamKeepsOrder() {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            expected.add(i);
+        }
+
+        Assert.assertEquals(expected, Px.range(0, 100_000).parallelStream().collect(Collectors.toList()));
+
+        Assert.assertEquals(expected, Px.fromIterable(expected).map(v -> v).parallelStream().collect(Collectors.toList()));
+
+        Assert.assertEquals(expected, Px.fromIterable(expected).hide().parallelStream().collect(Collectors.toList()));
+    }
+
+    @Test(timeout = 5000)
+    public void syncFusedPolledDirectly() {
+        Spliterator<Integer> sp = Px.range(0, 3000).map(v -> v + 1).stream().spliterator();
+
+        Assert.assertFalse(sp.hasCharacteristics(Spliterator.SIZED));
+
+        Spliterator<Integer> prefix = sp.trySplit();
+
+        Assert.assertEquals(1024, prefix.getExactSizeIfKnown());
+
+        List<Integer> values = new ArrayList<>();
+        sp.tryAdvance(values::add);
+
+        Assert.assertEquals(Arrays.asList(1025), values);
+    }
+
+    @Test(timeout = 5000)
+    public void asyncSplitsPrefetched() {
+        ParallelScheduler scheduler = new ParallelScheduler(1);
+        try {
+            int n = 10_000;
+
+            long sum = Px.range(1, n).subscribeOn(scheduler).parallelStream(128)
+                    .mapToLong(v -> v).sum();
+
+            Assert.assertEquals((long)n * (n + 1) / 2, sum);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void asyncSplitTakesAvailable() {
+        DirectProcessor<Integer> dp = new DirectProcessor<>();
+
+        Spliterator<Integer> sp = dp.stream(16).spliterator();
+
+        dp.onNext(1);
+        dp.onNext(2);
+        dp.onNext(3);
+
+        Spliterator<Integer> prefix = sp.trySplit();
+
+        Assert.assertEquals(3, prefix.getExactSizeIfKnown());
+
+        dp.onComplete();
+
+        Assert.assertNull(sp.trySplit());
+    }
+
+    @Test(timeout = 5000)
+    public void closeCancels() {
+        DirectProcessor<Integer> dp = new DirectProcessor<>();
+
+        Stream<Integer> s = dp.stream();
+
+        Assert.assertTrue(dp.hasDownstreams());
+
+        s.close();
+
+        Assert.assertFalse(dp.hasDownstreams());
+    }
 }
@@ -0,0 +1,272 @@
+package rsc.publisher;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import org.junit.*;
+
+import rsc.flow.Cancellation;
+import rsc.processor.DirectProcessor;
+import rsc.scheduler.*;
+import rsc.test.TestSubscriber;
+import rsc.util.ConstructorTestBuilder;
+
+public class PublisherBufferTimedTest {
+
+    @Test
+    public void constructors() {
+        ConstructorTestBuilder ctb = new ConstructorTestBuilder(PublisherBufferTimed.class);
+        
+        ctb.addRef("source", PublisherNever.instance());
+        ctb.addInt("maxSize", 1, Integer.MAX_VALUE);
+        ctb.addLong("timespan", 1, Long.MAX_VALUE);
+        ctb.addRef("unit", TimeUnit.MILLISECONDS);
+        ctb.addRef("timer", new ManualTimer());
+        ctb.addRef("bufferSupplier", (Supplier<List<Object>>)() -> new ArrayList<>());
+        ctb.addRef("queueSupplier", (Supplier<Queue<Object>>)() -> new ConcurrentLinkedQueue<>());
+        
+        ctb.test();
+    }
+
+    /**
+     * Captures the periodic task so the tests can trigger the period manually.
+     */
+    static final class ManualTimer implements TimedScheduler {
+        Runnable task;
+
+        boolean cancelled;
+
+        @Override
+        public Cancellation schedule(Runnable task) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Cancellation schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            this.task = task;
+            return () -> cancelled = true;
+        }
+
+        @Override
+        public TimedWorker createWorker() {
+            throw new UnsupportedOperationException();
+        }
+
+        void tick() {
+            task.run();
+        }
+    }
+
+    @Test
+    public void withMaxSize() {
+        TestSubscriber<List<Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+
+        new PublisherRange(1, 10).buffer(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+        
+        ts.assertValues(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6), Arrays.asList(7, 8, 9), Arrays.asList(10))
+        .assertNoError()
+        .assertComplete();
+
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void mixed() {
+        TestSubscriber<List<Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        
+        sp1.buffer(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+
+        sp1.onNext(1);
+        sp1.onNext(2);
+        timer.tick();
+        
+        sp1.onNext(3);
+        sp1.onNext(4);
+        sp1.onNext(5);
+        sp1.onNext(6);
+        timer.tick();
+        
+        sp1.onNext(7);
+        sp1.onNext(8);
+        sp1.onNext(9);
+        timer.tick();
+        
+        sp1.onNext(10);
+        sp1.onComplete();
+        
+        ts.assertValues(
+                Arrays.asList(1, 2), 
+                Arrays.asList(3, 4, 5), 
+                Arrays.asList(6),
+                Arrays.asList(7, 8, 9),
+                Arrays.asList(10)
+            )
+        .assertNoError()
+        .assertComplete();
+
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void sizeLimitEmitsWithoutTick() {
+        TestSubscriber<List<Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        
+        sp1.buffer(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+
+        sp1.onNext(1);
+        sp1.onNext(2);
+        sp1.onNext(3);
+        
+        ts.assertValues(Arrays.asList(1, 2, 3))
+        .assertNoError()
+        .assertNotComplete();
+        
+        sp1.onNext(4);
+        timer.tick();
+        timer.tick();
+        
+        ts.assertValues(Arrays.asList(1, 2, 3), Arrays.asList(4))
+        .assertNoError()
+        .assertNotComplete();
+    }
+
+    @Test
+    public void emptyPeriodSkipped() {
+        TestSubscriber<List<Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        
+        sp1.buffer(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+
+        timer.tick();
+        sp1.onNext(1);
+        timer.tick();
+        timer.tick();
+        
+        ts.assertValues(Arrays.asList(1))
+        .assertNoError()
+        .assertNotComplete();
+    }
+
+    @Test
+    public void error() {
+        TestSubscriber<List<Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        
+        sp1.buffer(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+
+        sp1.onNext(1);
+        sp1.onError(new RuntimeException("forced failure"));
+        
+        ts.assertNoValues()
+        .assertError(RuntimeException.class)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void cancel() {
+        TestSubscriber<List<Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        
+        sp1.buffer(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+
+        Assert.assertTrue(sp1.hasDownstreams());
+
+        ts.cancel();
+
+        Assert.assertFalse(sp1.hasDownstreams());
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void bufferSupplierThrowsOnPeriod() {
+        TestSubscriber<List<Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        int[] count = { 0 };
+        
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        
+        sp1.buffer(3, 1, TimeUnit.SECONDS, timer, () -> {
+            if (count[0]++ == 1) {
+                throw new RuntimeException("forced failure");
+            }
+            return new ArrayList<>();
+        }).subscribe(ts);
+
+        sp1.onNext(1);
+        timer.tick();
+        
+        ts.assertNoValues()
+        .assertError(RuntimeException.class)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+
+        Assert.assertFalse(sp1.hasDownstreams());
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void missingBackpressure() {
+        TestSubscriber<List<Integer>> ts = new TestSubscriber<>(0);
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        
+        sp1.buffer(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+
+        sp1.onNext(1);
+        timer.tick();
+        
+        ts.assertNoValues()
+        .assertError(IllegalStateException.class)
+        .assertNotComplete();
+
+        Assert.assertFalse(sp1.hasDownstreams());
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void realTimer() {
+        SingleTimedScheduler timer = new SingleTimedScheduler();
+        try {
+            TestSubscriber<List<Integer>> ts = new TestSubscriber<>();
+
+            DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+
+            sp1.buffer(1000, 10, TimeUnit.MILLISECONDS, timer).subscribe(ts);
+
+            sp1.onNext(1);
+
+            ts.awaitAndAssertValueCount(1)
+            .assertValues(Arrays.asList(1))
+            .assertNoError();
+
+            sp1.onComplete();
+
+            ts.assertComplete();
+        } finally {
+            timer.shutdown();
+        }
+    }
+}
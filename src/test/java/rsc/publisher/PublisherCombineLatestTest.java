@@ -439,4 +439,249 @@ public class PublisherCombineLatestTest {
         .assertFusionMode(Fuseable.ASYNC)
         .assertResult(12, 22, 32, 33);
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void sharedNormal() {
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        DirectProcessor<Integer> sp2 = new DirectProcessor<>();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        new PublisherCombineLatest<Integer, Integer>(new Publisher[] { sp1, sp2 }, a -> (Integer)a[0] * 10 + (Integer)a[1], 128, false).subscribe(ts);
+
+        sp1.onNext(1);
+        sp1.onNext(2);
+
+        ts.assertNoValues();
+
+        sp2.onNext(1);
+        sp2.onNext(2);
+
+        ts.assertValues(21, 22);
+
+        sp1.onComplete();
+
+        sp2.onNext(3);
+
+        ts.assertValues(21, 22, 23)
+        .assertNotComplete();
+
+        sp2.onComplete();
+
+        ts.assertResult(21, 22, 23);
+    }
+
+    @Test
+    public void sharedArrayReused() {
+        Set<Object[]> arrays = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.combineLatest(a -> {
+            arrays.add(a);
+            return (Integer)a[0] + (Integer)a[1];
+        }, false, Px.range(1, 3), Px.range(10, 3)).subscribe(ts);
+
+        ts.assertResult(13, 14, 15);
+
+        Assert.assertEquals(1, arrays.size());
+    }
+
+    @Test
+    public void copyLatest() {
+        TestSubscriber<List<Object>> ts = new TestSubscriber<>();
+
+        Px.combineLatest(a -> Arrays.asList(a), true, Px.range(1, 3), Px.range(10, 2)).subscribe(ts);
+
+        ts.assertResult(Arrays.asList(3, 10), Arrays.asList(3, 11));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void sharedIterable() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        new PublisherCombineLatest<Integer, Integer>(Arrays.asList(Px.just(1), Px.range(10, 3)),
+                a -> (Integer)a[0] + (Integer)a[1], 128, false).subscribe(ts);
+
+        ts.assertResult(11, 12, 13);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void sharedManySources() {
+        Publisher<Integer>[] sources = new Publisher[32];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = Px.range(0, 100);
+        }
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.combineLatest(a -> {
+            int sum = 0;
+            for (Object o : a) {
+                sum += (Integer)o;
+            }
+            return sum;
+        }, false, sources).subscribe(ts);
+
+        ts.assertValueCount(100)
+        .assertNoError()
+        .assertComplete();
+
+        Assert.assertEquals(31 * 99, ts.values().get(0).intValue());
+        Assert.assertEquals(32 * 99, ts.values().get(99).intValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void sharedBackpressured() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+
+        new PublisherCombineLatest<Integer, Integer>(new Publisher[] { Px.range(1, 100), Px.range(1000, 10) },
+                a -> (Integer)a[0] + (Integer)a[1], 16, false).subscribe(ts);
+
+        ts.assertNoValues();
+
+        ts.request(3);
+
+        ts.assertValues(1100, 1101, 1102)
+        .assertNotComplete();
+
+        ts.request(10);
+
+        ts.assertValueCount(10)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void sharedUnpairedKeepsRequesting() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        DirectProcessor<Integer> sp2 = new DirectProcessor<>();
+
+        new PublisherCombineLatest<Integer, Integer>(new Publisher[] { sp1, sp2 }, a -> (Integer)a[0] + (Integer)a[1], 16, false).subscribe(ts);
+
+        for (int i = 0; i < 100; i++) {
+            sp1.onNext(i);
+        }
+
+        ts.assertNoValues()
+        .assertNoError()
+        .assertNotComplete();
+
+        sp2.onNext(100);
+
+        ts.assertValue(199)
+        .assertNoError()
+        .assertNotComplete();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void sharedEmptyAndError() {
+        TestSubscriber<Object> ts = new TestSubscriber<>();
+
+        new PublisherCombineLatest<Object, Object>(new Publisher[] { PublisherNever.instance(), PublisherEmpty.instance() },
+                a -> a[0], 128, false).subscribe(ts);
+
+        ts.assertResult();
+
+        ts = new TestSubscriber<>();
+
+        new PublisherCombineLatest<Object, Object>(new Publisher[] { PublisherNever.instance(), new PublisherError<>(new RuntimeException("forced failure")) },
+                a -> a[0], 128, false).subscribe(ts);
+
+        ts.assertNoValues()
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void sharedCombinerThrows() {
+        DirectProcessor<Integer> sp2 = new DirectProcessor<>();
+
+        TestSubscriber<Object> ts = new TestSubscriber<>();
+
+        new PublisherCombineLatest<>(new Publisher[] { new PublisherJust<>(1), sp2 }, a -> { throw new RuntimeException("forced failure"); }, 128, false).subscribe(ts);
+
+        sp2.onNext(2);
+
+        Assert.assertFalse(sp2.hasDownstreams());
+
+        ts.assertNoValues()
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void sharedFallsBackToLinkedQueue() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        new PublisherCombineLatest<Integer, Integer>(new Publisher[] { Px.range(1, 3), Px.range(10, 3) },
+                a -> (Integer)a[0] + (Integer)a[1], Integer.MAX_VALUE, false).subscribe(ts);
+
+        ts.assertResult(13, 14, 15);
+    }
+
+    @Test
+    public void sharedFused() {
+        DirectProcessor<Integer> dp1 = new DirectProcessor<>();
+        DirectProcessor<Integer> dp2 = new DirectProcessor<>();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        ts.requestedFusionMode(Fuseable.ANY);
+
+        Px.combineLatest(a -> (Integer)a[0] + (Integer)a[1], false, dp1, dp2)
+        .subscribe(ts);
+
+        dp1.onNext(1);
+        dp1.onNext(2);
+
+        dp2.onNext(10);
+        dp2.onNext(20);
+        dp2.onNext(30);
+
+        dp1.onNext(3);
+
+        dp1.onComplete();
+        dp2.onComplete();
+
+        ts.assertFuseableSource()
+        .assertFusionMode(Fuseable.ASYNC)
+        .assertResult(12, 22, 32, 33);
+    }
+
+    @Test
+    public void sharedAsyncInterleavedRacing() {
+        SingleTimedScheduler exec1 = new SingleTimedScheduler();
+        SingleTimedScheduler exec2 = new SingleTimedScheduler();
+
+        try {
+            TestSubscriber<String> ts = new TestSubscriber<>();
+
+            Px<Long> interval1 = Px.interval(20, TimeUnit.MILLISECONDS, exec1).take(10);
+            Px<Long> interval2 = Px.interval(20, TimeUnit.MILLISECONDS, exec2).take(10);
+
+            Px.combineLatest(a -> a[0] + "" + a[1], false, interval1, interval2).subscribe(ts);
+
+            if (!ts.await(5, TimeUnit.SECONDS)) {
+                ts.cancel();
+                Assert.fail("TestSubscriber timed out");
+            }
+
+            ts.assertValueCount(19)
+            .assertNoError()
+            .assertComplete();
+        } finally {
+            exec1.shutdown();
+            exec2.shutdown();
+        }
+    }
 }
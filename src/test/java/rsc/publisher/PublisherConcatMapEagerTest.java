@@ -0,0 +1,286 @@
+package rsc.publisher;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import org.junit.*;
+import org.reactivestreams.Publisher;
+
+import rsc.processor.*;
+import rsc.scheduler.ParallelScheduler;
+import rsc.test.TestSubscriber;
+import rsc.util.ConstructorTestBuilder;
+
+public class PublisherConcatMapEagerTest {
+
+    @Test
+    public void constructors() {
+        ConstructorTestBuilder ctb = new ConstructorTestBuilder(PublisherConcatMapEager.class);
+
+        ctb.addRef("source", PublisherNever.instance());
+        ctb.addRef("mapper", (Function<Object, Publisher<Object>>)v -> PublisherNever.instance());
+        ctb.addInt("maxConcurrency", 1, Integer.MAX_VALUE);
+        ctb.addInt("prefetch", 1, Integer.MAX_VALUE);
+        ctb.addRef("queueSupplier", (Supplier<Queue<Object>>)() -> new ConcurrentLinkedQueue<>());
+
+        ctb.test();
+    }
+
+    @Test
+    public void normal() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(1, 2).concatMapEager(v -> Px.range(v, 2)).subscribe(ts);
+
+        ts.assertResult(1, 2, 2, 3);
+    }
+
+    @Test
+    public void normalHidden() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(1, 2).hide().concatMapEager(v -> Px.range(v, 2).hide()).subscribe(ts);
+
+        ts.assertResult(1, 2, 2, 3);
+    }
+
+    @Test
+    public void normalLongRun() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(1, 1000).concatMapEager(v -> Px.range(v, 1000)).subscribe(ts);
+
+        ts.assertValueCount(1_000_000)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void normalLongRunJust() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(1, 1000_000).concatMapEager(v -> Px.just(v)).subscribe(ts);
+
+        ts.assertValueCount(1_000_000)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void normalLongRunHidden() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(1, 1000).hide().concatMapEager(v -> Px.range(v, 1000).hide(), false, 4, 16).subscribe(ts);
+
+        ts.assertValueCount(1_000_000)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void backpressured() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+
+        Px.range(1, 3).concatMapEager(v -> Px.range(v * 10, 3)).subscribe(ts);
+
+        ts.assertNoValues()
+        .assertNotComplete();
+
+        ts.request(4);
+
+        ts.assertIncomplete(10, 11, 12, 20);
+
+        ts.request(5);
+
+        ts.assertResult(10, 11, 12, 20, 21, 22, 30, 31, 32);
+    }
+
+    @Test
+    public void subscribesEagerlyAndKeepsOrder() {
+        UnicastProcessor<Integer> up1 = new UnicastProcessor<>(new ConcurrentLinkedQueue<>());
+        DirectProcessor<Integer> dp2 = new DirectProcessor<>();
+        DirectProcessor<Integer> dp3 = new DirectProcessor<>();
+
+        List<Publisher<Integer>> sources = Arrays.asList(up1, dp2, dp3);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(0, 3).concatMapEager(sources::get).subscribe(ts);
+
+        Assert.assertTrue("dp2 not subscribed", dp2.hasDownstreams());
+        Assert.assertTrue("dp3 not subscribed", dp3.hasDownstreams());
+
+        dp3.onNext(30);
+        dp2.onNext(20);
+        dp3.onNext(31);
+        dp3.onComplete();
+
+        ts.assertNoValues();
+
+        up1.onNext(10);
+
+        ts.assertValues(10);
+
+        up1.onComplete();
+
+        ts.assertValues(10, 20);
+
+        dp2.onNext(21);
+        dp2.onComplete();
+
+        ts.assertResult(10, 20, 21, 30, 31);
+    }
+
+    @Test
+    public void maxConcurrency() {
+        DirectProcessor<Integer> dp1 = new DirectProcessor<>();
+        DirectProcessor<Integer> dp2 = new DirectProcessor<>();
+        DirectProcessor<Integer> dp3 = new DirectProcessor<>();
+
+        List<Publisher<Integer>> sources = Arrays.asList(dp1, dp2, dp3);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(0, 3).concatMapEager(sources::get, false, 2, 16).subscribe(ts);
+
+        Assert.assertTrue(dp1.hasDownstreams());
+        Assert.assertTrue(dp2.hasDownstreams());
+        Assert.assertFalse(dp3.hasDownstreams());
+
+        dp1.onComplete();
+
+        Assert.assertTrue(dp3.hasDownstreams());
+
+        dp2.onComplete();
+        dp3.onNext(3);
+        dp3.onComplete();
+
+        ts.assertResult(3);
+    }
+
+    @Test
+    public void mainError() {
+        DirectProcessor<Integer> main = new DirectProcessor<>();
+        DirectProcessor<Integer> inner = new DirectProcessor<>();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        main.concatMapEager(v -> inner).subscribe(ts);
+
+        main.onNext(1);
+
+        Assert.assertTrue(inner.hasDownstreams());
+
+        main.onError(new RuntimeException("forced failure"));
+
+        Assert.assertFalse(inner.hasDownstreams());
+
+        ts.assertNoValues()
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @Test
+    public void innerErrorDelayed() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(1, 3).concatMapEager(v -> v == 2
+                ? Px.range(20, 2).concatWith(Px.<Integer>error(new RuntimeException("forced failure")))
+                : Px.range(v * 10, 2), true).subscribe(ts);
+
+        ts.assertValues(10, 11, 20, 21, 30, 31)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @Test
+    public void innerErrorImmediate() {
+        DirectProcessor<Integer> dp1 = new DirectProcessor<>();
+        DirectProcessor<Integer> dp2 = new DirectProcessor<>();
+
+        List<Publisher<Integer>> sources = Arrays.asList(dp1, dp2);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(0, 2).concatMapEager(sources::get).subscribe(ts);
+
+        dp1.onNext(1);
+        dp2.onError(new RuntimeException("forced failure"));
+
+        Assert.assertFalse(dp1.hasDownstreams());
+
+        ts.assertValues(1)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @Test
+    public void mapperThrows() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(1, 3).concatMapEager(v -> {
+            if (v == 2) {
+                throw new RuntimeException("forced failure");
+            }
+            return Px.just(v);
+        }).subscribe(ts);
+
+        ts.assertValues(1)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @Test
+    public void mapperReturnsNull() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(1, 3).<Integer>concatMapEager(v -> null).subscribe(ts);
+
+        ts.assertNoValues()
+        .assertError(NullPointerException.class)
+        .assertNotComplete();
+    }
+
+    @Test
+    public void cancel() {
+        DirectProcessor<Integer> dp1 = new DirectProcessor<>();
+        DirectProcessor<Integer> dp2 = new DirectProcessor<>();
+
+        List<Publisher<Integer>> sources = Arrays.asList(dp1, dp2);
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(0, 2).concatMapEager(sources::get).subscribe(ts);
+
+        dp2.onNext(2);
+
+        ts.cancel();
+
+        Assert.assertFalse(dp1.hasDownstreams());
+        Assert.assertFalse(dp2.hasDownstreams());
+    }
+
+    @Test
+    public void asyncInnersKeepOrder() {
+        ParallelScheduler s = new ParallelScheduler(4);
+        try {
+            TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+            Px.range(0, 16).concatMapEager(v -> Px.range(v * 1000, 1000).subscribeOn(s), false, 4, 32).subscribe(ts);
+
+            ts.assertTerminated(5, TimeUnit.SECONDS);
+
+            ts.assertValueCount(16_000)
+            .assertNoError()
+            .assertComplete();
+
+            List<Integer> values = ts.values();
+            for (int i = 0; i < values.size(); i++) {
+                Assert.assertEquals(i, values.get(i).intValue());
+            }
+        } finally {
+            s.shutdown();
+        }
+    }
+}
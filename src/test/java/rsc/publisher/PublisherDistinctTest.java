@@ -1,10 +1,13 @@
 package rsc.publisher;
 
 import java.util.HashSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.junit.Assert;
 import org.junit.Test;
 import rsc.flow.Fuseable;
 import rsc.processor.ReplayProcessor;
+import rsc.processor.UnicastProcessor;
 import rsc.test.TestSubscriber;
 
 public class PublisherDistinctTest {
@@ -237,4 +240,83 @@ public class PublisherDistinctTest {
           .assertNotComplete()
           .assertError(NullPointerException.class);
     }
+
+    @Test
+    public void distinctLastForgetsOldKeys() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.fromArray(1, 2, 1, 3, 4, 1, 2, 4).hide().distinctLast(k -> k, 2).subscribe(ts);
+
+        // the duplicate 1 refreshes it, then 3 and 4 push both 1 and 2 out
+        ts.assertResult(1, 2, 3, 4, 1, 2, 4);
+    }
+
+    @Test
+    public void distinctLastFused() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        ts.requestedFusionMode(Fuseable.ANY);
+
+        Px.fromArray(1, 1, 2, 2, 1).distinctLast(k -> k, 1).subscribe(ts);
+
+        ts.assertFuseableSource()
+          .assertFusionMode(Fuseable.SYNC)
+          .assertResult(1, 2, 1);
+    }
+
+    @Test
+    public void distinctLastConditional() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(1, 100).map(v -> v % 10).hide().distinctLast(k -> k, 16).filter(v -> v % 2 == 0).subscribe(ts);
+
+        ts.assertResult(2, 4, 6, 8, 0);
+    }
+
+    @Test
+    public void distinctApproximate() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        ts.requestedFusionMode(Fuseable.ANY);
+
+        Px.range(0, 20_000).map(v -> v % 10_000).distinctApproximate(k -> k, 10_000, 0.001).subscribe(ts);
+
+        ts.assertFusionMode(Fuseable.SYNC)
+          .assertNoError()
+          .assertComplete();
+
+        int n = ts.values().size();
+        Assert.assertTrue("" + n, n <= 10_000 && n >= 9_950);
+        Assert.assertEquals(n, new HashSet<>(ts.values()).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void distinctApproximateInvalidRate() {
+        Px.range(1, 10).distinctApproximate(k -> k, 10, 1d);
+    }
+
+    @Test
+    public void distinctLong() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.fromArray(0, 1, 0, 2, 1, 3).hide().distinctLong(v -> v * 1_000_000_000_000L).subscribe(ts);
+
+        ts.assertResult(0, 1, 2, 3);
+    }
+
+    @Test
+    public void distinctLongAsyncFused() {
+        UnicastProcessor<Integer> up = new UnicastProcessor<>(new ConcurrentLinkedQueue<>());
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        ts.requestedFusionMode(Fuseable.ANY);
+
+        up.distinctLong(v -> v).subscribe(ts);
+
+        up.onNext(1);
+        up.onNext(1);
+        up.onNext(2);
+        up.onComplete();
+
+        ts.assertFusionMode(Fuseable.ASYNC)
+          .assertResult(1, 2);
+    }
 }
@@ -0,0 +1,189 @@
+package rsc.publisher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+
+import rsc.flow.Fuseable;
+import rsc.test.TestSubscriber;
+
+public class PublisherFileChunksTest {
+
+    Path file;
+
+    @Before
+    public void before() throws IOException {
+        file = Files.createTempFile("chunks", ".bin");
+    }
+
+    @After
+    public void after() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    void write(String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    List<String> chunks(int chunkSize, int regionSize) {
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>();
+
+        new PublisherFileChunks(file, chunkSize, regionSize).subscribe(ts);
+
+        ts.assertComplete()
+          .assertNoError();
+
+        return PublisherFileRecordsTest.strings(ts.values());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullPath() {
+        new PublisherFileChunks(null, 16);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroChunkSize() {
+        new PublisherFileChunks(file, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void regionSmallerThanChunk() {
+        new PublisherFileChunks(file, 16, 15);
+    }
+
+    @Test
+    public void normal() throws IOException {
+        write("abcdefghij");
+
+        Assert.assertEquals(Arrays.asList("abc", "def", "ghi", "j"), chunks(3, 1024));
+    }
+
+    @Test
+    public void exactMultiple() throws IOException {
+        write("abcdef");
+
+        Assert.assertEquals(Arrays.asList("ab", "cd", "ef"), chunks(2, 2));
+    }
+
+    @Test
+    public void regionRoundedDownToChunks() throws IOException {
+        write("abcdefghij");
+
+        for (int r = 3; r <= 12; r++) {
+            Assert.assertEquals("regionSize = " + r, Arrays.asList("abc", "def", "ghi", "j"), chunks(3, r));
+        }
+    }
+
+    @Test
+    public void chunkLargerThanFile() throws IOException {
+        write("abc");
+
+        Assert.assertEquals(Arrays.asList("abc"), chunks(1024, 4096));
+    }
+
+    @Test
+    public void empty() {
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>(0);
+
+        new PublisherFileChunks(file, 16).subscribe(ts);
+
+        ts.assertNoValues()
+          .assertComplete()
+          .assertNoError();
+    }
+
+    @Test
+    public void missingFile() throws IOException {
+        Files.delete(file);
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>();
+
+        new PublisherFileChunks(file, 16).subscribe(ts);
+
+        ts.assertNoValues()
+          .assertNotComplete()
+          .assertError(NoSuchFileException.class);
+    }
+
+    @Test
+    public void backpressured() throws IOException {
+        write("abcdefg");
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>(0);
+
+        new PublisherFileChunks(file, 2, 4).subscribe(ts);
+
+        ts.assertNoValues()
+          .assertNotComplete();
+
+        ts.request(3);
+
+        Assert.assertEquals(Arrays.asList("ab", "cd", "ef"), PublisherFileRecordsTest.strings(ts.values()));
+        ts.assertNotComplete();
+
+        ts.request(1);
+
+        Assert.assertEquals(Arrays.asList("ab", "cd", "ef", "g"), PublisherFileRecordsTest.strings(ts.values()));
+        ts.assertComplete()
+          .assertNoError();
+    }
+
+    @Test
+    public void syncFused() throws IOException {
+        write("abcdefg");
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>();
+        ts.requestedFusionMode(Fuseable.ANY);
+
+        new PublisherFileChunks(file, 2, 4).subscribe(ts);
+
+        ts.assertFuseableSource()
+          .assertFusionMode(Fuseable.SYNC)
+          .assertComplete()
+          .assertNoError();
+
+        Assert.assertEquals(Arrays.asList("ab", "cd", "ef", "g"), PublisherFileRecordsTest.strings(ts.values()));
+    }
+
+    @Test
+    public void sizeCountsRemainingChunks() throws IOException {
+        write("abcdefg");
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>(0);
+
+        PublisherFileChunks.FileChunksSubscription s = new PublisherFileChunks.FileChunksSubscription(
+                ts, FileChannel.open(file, StandardOpenOption.READ), 7, 2, 4);
+
+        ts.onSubscribe(s);
+
+        Assert.assertEquals(4, s.size());
+
+        ts.request(1);
+
+        Assert.assertEquals(3, s.size());
+
+        ts.request(3);
+
+        Assert.assertEquals(0, s.size());
+        ts.assertComplete();
+    }
+
+    @Test
+    public void contentIntact() throws IOException {
+        byte[] data = new byte[100_000];
+        new Random(0).nextBytes(data);
+        Files.write(file, data);
+
+        byte[] copy = Px.fromFileChunks(file, 1000, 4096)
+                .reduce(() -> ByteBuffer.allocate(data.length), (a, b) -> a.put(b))
+                .blockingFirst()
+                .array();
+
+        Assert.assertArrayEquals(data, copy);
+    }
+}
@@ -0,0 +1,303 @@
+package rsc.publisher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+
+import rsc.flow.Fuseable;
+import rsc.test.TestSubscriber;
+
+public class PublisherFileRecordsTest {
+
+    Path file;
+
+    @Before
+    public void before() throws IOException {
+        file = Files.createTempFile("records", ".txt");
+    }
+
+    @After
+    public void after() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    void write(String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    static String string(ByteBuffer b) {
+        byte[] a = new byte[b.remaining()];
+        b.duplicate().get(a);
+        return new String(a, StandardCharsets.ISO_8859_1);
+    }
+
+    static List<String> strings(List<ByteBuffer> list) {
+        List<String> result = new ArrayList<>();
+        for (ByteBuffer b : list) {
+            result.add(string(b));
+        }
+        return result;
+    }
+
+    List<String> records(int regionSize) {
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>();
+
+        new PublisherFileRecords(file, (byte)'\n', regionSize).subscribe(ts);
+
+        ts.assertComplete()
+          .assertNoError();
+
+        return strings(ts.values());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullPath() {
+        new PublisherFileRecords(null, (byte)'\n');
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroRegionSize() {
+        new PublisherFileRecords(file, (byte)'\n', 0);
+    }
+
+    @Test
+    public void normal() throws IOException {
+        write("a\nbb\nccc\n");
+
+        Assert.assertEquals(Arrays.asList("a", "bb", "ccc"), records(1024));
+    }
+
+    @Test
+    public void noTrailingDelimiter() throws IOException {
+        write("a\nbb\nccc");
+
+        Assert.assertEquals(Arrays.asList("a", "bb", "ccc"), records(1024));
+    }
+
+    @Test
+    public void consecutiveDelimiters() throws IOException {
+        write("\na\n\n\nb\n");
+
+        Assert.assertEquals(Arrays.asList("", "a", "", "", "b"), records(1024));
+    }
+
+    @Test
+    public void onlyDelimiter() throws IOException {
+        write("\n");
+
+        Assert.assertEquals(Arrays.asList(""), records(1024));
+    }
+
+    @Test
+    public void empty() {
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>(0);
+
+        new PublisherFileRecords(file, (byte)'\n').subscribe(ts);
+
+        ts.assertNoValues()
+          .assertComplete()
+          .assertNoError();
+    }
+
+    @Test
+    public void missingFile() throws IOException {
+        Files.delete(file);
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>();
+
+        new PublisherFileRecords(file, (byte)'\n').subscribe(ts);
+
+        ts.assertNoValues()
+          .assertNotComplete()
+          .assertError(NoSuchFileException.class);
+    }
+
+    @Test
+    public void recordsCrossRegions() throws IOException {
+        write("a\nbb\nccc\ndddd\n\neeeee");
+
+        List<String> expected = Arrays.asList("a", "bb", "ccc", "dddd", "", "eeeee");
+        for (int r = 1; r <= 24; r++) {
+            Assert.assertEquals("regionSize = " + r, expected, records(r));
+        }
+    }
+
+    @Test
+    public void recordLongerThanRegion() throws IOException {
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            b.append((char)('a' + i % 26));
+        }
+        String line = b.toString();
+        write("x\n" + line + "\ny");
+
+        Assert.assertEquals(Arrays.asList("x", line, "y"), records(16));
+    }
+
+    @Test
+    public void randomContent() throws IOException {
+        Random random = new Random(0);
+        StringBuilder b = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int n = random.nextInt(40);
+            StringBuilder line = new StringBuilder();
+            for (int j = 0; j < n; j++) {
+                // include bytes that differ from the delimiter in one bit only
+                line.append("abc\u000b\u008aÿ".charAt(random.nextInt(6)));
+            }
+            expected.add(line.toString());
+            b.append(line).append('\n');
+        }
+        write(b.toString());
+
+        for (int r : new int[] { 1, 7, 8, 64, 1000, 1 << 20 }) {
+            Assert.assertEquals("regionSize = " + r, expected, records(r));
+        }
+    }
+
+    @Test
+    public void otherDelimiter() throws IOException {
+        write("a,b\n,,c");
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>();
+
+        new PublisherFileRecords(file, (byte)',', 3).subscribe(ts);
+
+        Assert.assertEquals(Arrays.asList("a", "b\n", "", "c"), strings(ts.values()));
+    }
+
+    @Test
+    public void slicesAreReadOnlyViews() throws IOException {
+        write("ab\ncd");
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>();
+
+        new PublisherFileRecords(file, (byte)'\n').subscribe(ts);
+
+        for (ByteBuffer b : ts.values()) {
+            Assert.assertTrue(b.isReadOnly());
+            Assert.assertEquals(0, b.position());
+            Assert.assertEquals(2, b.limit());
+            Assert.assertEquals(2, b.capacity());
+        }
+    }
+
+    @Test
+    public void backpressured() throws IOException {
+        write("a\nb\nc\nd");
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>(0);
+
+        new PublisherFileRecords(file, (byte)'\n', 2).subscribe(ts);
+
+        ts.assertNoValues()
+          .assertNotComplete()
+          .assertNoError();
+
+        ts.request(2);
+
+        Assert.assertEquals(Arrays.asList("a", "b"), strings(ts.values()));
+        ts.assertNotComplete();
+
+        ts.request(2);
+
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), strings(ts.values()));
+        ts.assertComplete()
+          .assertNoError();
+    }
+
+    @Test
+    public void completesWithoutExtraRequest() throws IOException {
+        write("a\nb\n");
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>(2);
+
+        new PublisherFileRecords(file, (byte)'\n').subscribe(ts);
+
+        ts.assertValueCount(2)
+          .assertComplete()
+          .assertNoError();
+    }
+
+    @Test
+    public void cancelled() throws IOException {
+        write("a\nb\nc\n");
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<ByteBuffer>() {
+            @Override
+            public void onNext(ByteBuffer t) {
+                super.onNext(t);
+                cancel();
+            }
+        };
+
+        new PublisherFileRecords(file, (byte)'\n').subscribe(ts);
+
+        ts.assertValueCount(1)
+          .assertNotComplete()
+          .assertNoError();
+    }
+
+    @Test
+    public void syncFused() throws IOException {
+        write("a\nbb\nccc");
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>();
+        ts.requestedFusionMode(Fuseable.ANY);
+
+        new PublisherFileRecords(file, (byte)'\n', 4).subscribe(ts);
+
+        ts.assertFuseableSource()
+          .assertFusionMode(Fuseable.SYNC)
+          .assertComplete()
+          .assertNoError();
+
+        Assert.assertEquals(Arrays.asList("a", "bb", "ccc"), strings(ts.values()));
+    }
+
+    @Test
+    public void mappedAsRequested() throws IOException {
+        write("a\nb\nc\nd\n");
+
+        TestSubscriber<ByteBuffer> ts = new TestSubscriber<>(0);
+
+        PublisherFileRecords.FileRecordsSubscription s = new PublisherFileRecords.FileRecordsSubscription(
+                ts, FileChannel.open(file, StandardOpenOption.READ), 8, (byte)'\n', 4);
+
+        ts.onSubscribe(s);
+
+        Assert.assertNull(s.region);
+
+        ts.request(1);
+
+        Assert.assertEquals(0L, s.regionStart);
+
+        ts.request(2);
+
+        Assert.assertEquals(4L, s.regionStart);
+    }
+
+    @Test
+    public void indexOfWords() {
+        ByteBuffer b = ByteBuffer.allocate(32).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 32; i++) {
+            b.put(i, (byte)0x0B);
+        }
+        Assert.assertEquals(-1, PublisherFileRecords.indexOf(b, 0, 32, (byte)0x0A));
+
+        for (int i = 0; i < 32; i++) {
+            b.put(i, (byte)0x0A);
+            for (int from = 0; from <= i; from++) {
+                Assert.assertEquals(i, PublisherFileRecords.indexOf(b, from, 32, (byte)0x0A));
+            }
+            Assert.assertEquals(-1, PublisherFileRecords.indexOf(b, 0, i, (byte)0x0A));
+            b.put(i, (byte)0x0B);
+        }
+    }
+}
@@ -22,6 +22,7 @@ public class PublisherFlatMapTest {
         ctb.addRef("source", PublisherNever.instance());
         ctb.addRef("mapper", (Function<Object, Publisher<Object>>)v -> PublisherNever.instance());
         ctb.addInt("prefetch", 1, Integer.MAX_VALUE);
+        ctb.addInt("maxPrefetch", 1, Integer.MAX_VALUE);
         ctb.addInt("maxConcurrency", 1, Integer.MAX_VALUE);
         ctb.addRef("mainQueueSupplier", (Supplier<Queue<Object>>)() -> new ConcurrentLinkedQueue<>());
         ctb.addRef("innerQueueSupplier", (Supplier<Queue<Object>>)() -> new ConcurrentLinkedQueue<>());
@@ -726,4 +727,162 @@ public class PublisherFlatMapTest {
         }
     }
 
+    @Test
+    public void adaptive() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        Px.range(1, 1000).flatMap(v -> Px.range(v, 100).hide(), false, 4, 8, 256).subscribe(ts);
+        
+        ts.assertValueCount(100_000)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void adaptiveGrowsWhenStarved() {
+        List<Long> requests = new ArrayList<>();
+        
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        Px.just(1).hide().flatMap(v -> Px.range(1, 10_000).doOnRequest(requests::add).hide(), false, 1, 8, 256).subscribe(ts);
+        
+        ts.assertValueCount(10_000)
+        .assertNoError()
+        .assertComplete();
+        
+        List<Integer> values = ts.values();
+        for (int i = 0; i < values.size(); i++) {
+            Assert.assertEquals(i + 1, values.get(i).intValue());
+        }
+        
+        Assert.assertEquals(8L, requests.get(0).longValue());
+        
+        long max = 0L;
+        for (long r : requests) {
+            max = Math.max(max, r);
+        }
+        Assert.assertTrue(requests.toString(), max > 8L && max <= 256L);
+    }
+
+    @Test
+    public void adaptiveBackpressured() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+        
+        Px.range(1, 1000).flatMap(v -> Px.range(v, 2).hide(), false, 4, 8, 256).subscribe(ts);
+        
+        ts.assertNoValues()
+        .assertNoError()
+        .assertNotComplete();
+        
+        ts.request(1000);
+
+        ts.assertValueCount(1000)
+        .assertNoError()
+        .assertNotComplete();
+
+        ts.request(1000);
+
+        ts.assertValueCount(2000)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void adaptiveAsync() {
+        Scheduler s = new SingleScheduler();
+        try {
+            TestSubscriber<Integer> ts = new TestSubscriber<>();
+            
+            Px.range(1, 100).flatMap(v -> Px.range(v, 1000).subscribeOn(s), false, 8, 8, 256).subscribe(ts);
+            
+            ts.assertTerminated(5, TimeUnit.SECONDS);
+            
+            ts.assertValueCount(100_000)
+            .assertNoError()
+            .assertComplete();
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void innerCompleteAfterDrainRemovedInner() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        PublisherFlatMap.PublisherFlatMapMain<Integer, Integer> main = new PublisherFlatMap.PublisherFlatMapMain<>(
+                ts, v -> PublisherNever.instance(), false, 4,
+                ConcurrentLinkedQueue::new, 4, 4, ConcurrentLinkedQueue::new);
+
+        new DirectProcessor<Integer>().subscribe(main);
+
+        PublisherFlatMap.PublisherFlatMapInner<Integer> inner = new PublisherFlatMap.PublisherFlatMapInner<>(main, 4);
+        main.add(inner);
+        new DirectProcessor<Integer>().subscribe(inner);
+
+        // the inner's onComplete sets the done flag before calling innerComplete,
+        // a drain loop running in between sees the flag and removes the inner
+        inner.done = true;
+        main.drain();
+
+        Assert.assertNull(main.get()[inner.index]);
+
+        main.innerComplete(inner);
+
+        // removing the inner twice would have put its slot twice into the free list
+        Set<Integer> indexes = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            PublisherFlatMap.PublisherFlatMapInner<Integer> next = new PublisherFlatMap.PublisherFlatMapInner<>(main, 4);
+            main.add(next);
+
+            Assert.assertTrue("slot " + next.index + " handed out twice", indexes.add(next.index));
+            Assert.assertSame(next, main.get()[next.index]);
+        }
+
+        ts.assertNoValues()
+        .assertNoError()
+        .assertNotComplete();
+    }
+
+    @Test
+    public void batchedInnerCancelledMidBatch() {
+        TestSubscriber<Integer> ts = new TestSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer t) {
+                super.onNext(t);
+                if (t == 3) {
+                    cancel();
+                }
+            }
+        };
+
+        new PublisherRange(1, 2).flatMap(v -> new PublisherRange(1, 10)).subscribe(ts);
+
+        ts.assertValues(1, 2, 3)
+        .assertNoError()
+        .assertNotComplete();
+    }
+
+    @Test
+    public void batchedInnerMainErrorMidBatch() {
+        DirectProcessor<Integer> dp = new DirectProcessor<>();
+
+        TestSubscriber<Integer> ts = new TestSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer t) {
+                super.onNext(t);
+                if (t == 3) {
+                    dp.onError(new RuntimeException("forced failure"));
+                }
+            }
+        };
+
+        dp.flatMap(v -> new PublisherRange(1, 10)).subscribe(ts);
+
+        dp.onNext(1);
+
+        ts.assertValues(1, 2, 3)
+        .assertError(RuntimeException.class)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
 }
@@ -1,5 +1,6 @@
 package rsc.publisher;
 
+import java.util.*;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -9,6 +10,8 @@ import org.junit.Test;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
+import rsc.processor.DirectProcessor;
+import rsc.publisher.PublisherBufferTimedTest.ManualTimer;
 import rsc.publisher.PublisherConcatMap.ErrorMode;
 import rsc.subscriber.SubscriptionHelper;
 import rsc.test.TestSubscriber;
@@ -27,6 +30,10 @@ public class PublisherGroupByTest {
         ctb.addRef("mainQueueSupplier", Px.defaultQueueSupplier(1));
         ctb.addRef("groupQueueSupplier", Px.defaultQueueSupplier(1));
         ctb.addInt("prefetch", 1, Integer.MAX_VALUE);
+        ctb.addInt("maxGroups", 1, Integer.MAX_VALUE);
+        ctb.addLong("idleTimeout", 1, Long.MAX_VALUE);
+        ctb.addRef("unit", TimeUnit.MILLISECONDS);
+        ctb.addRef("timer", new ManualTimer());
         
         ctb.test();
     }
@@ -640,4 +647,232 @@ public class PublisherGroupByTest {
         .assertNoError();
     }
 
+    @Test
+    public void maxGroupsEvictsLeastRecentlyActive() {
+        TestSubscriber<GroupedPublisher<Integer, Integer>> ts = new TestSubscriber<>();
+        
+        Px.fromArray(1, 2, 1, 3, 1, 4).groupBy(k -> k, v -> v, 2).subscribe(ts);
+        
+        ts.assertValueCount(4)
+        .assertNoError()
+        .assertComplete();
+        
+        int[][] expected = { { 1, 1, 1 }, { 2 }, { 3 }, { 4 } };
+        
+        for (int i = 0; i < expected.length; i++) {
+            TestSubscriber<Integer> tsi = new TestSubscriber<>();
+            ts.values().get(i).subscribe(tsi);
+            tsi.assertValueCount(expected[i].length)
+            .assertNoError()
+            .assertComplete();
+            Assert.assertEquals(expected[i][0], tsi.values().get(0).intValue());
+        }
+    }
+
+    @Test
+    public void maxGroupsCompletesEvictedGroupImmediately() {
+        TestSubscriber<GroupedPublisher<Integer, Integer>> ts = new TestSubscriber<>();
+        
+        DirectProcessor<Integer> dp = new DirectProcessor<>();
+        
+        dp.groupBy(k -> k % 3, v -> v, 2).subscribe(ts);
+        
+        dp.onNext(0);
+        dp.onNext(1);
+        
+        TestSubscriber<Integer> ts0 = new TestSubscriber<>();
+        ts.values().get(0).subscribe(ts0);
+        
+        ts0.assertValues(0)
+        .assertNotComplete();
+        
+        dp.onNext(2);
+        
+        ts0.assertValues(0)
+        .assertNoError()
+        .assertComplete();
+        
+        dp.onNext(3);
+        
+        ts.assertValueCount(4)
+        .assertNotComplete();
+        
+        dp.onComplete();
+        
+        ts.assertComplete();
+    }
+
+    @Test
+    public void idleGroupsEvicted() {
+        TestSubscriber<GroupedPublisher<Integer, Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> dp = new DirectProcessor<>();
+        
+        dp.groupBy(k -> k, v -> v, Integer.MAX_VALUE, 10, TimeUnit.MILLISECONDS, timer).subscribe(ts);
+        
+        dp.onNext(1);
+        dp.onNext(2);
+        
+        TestSubscriber<Integer> ts1 = new TestSubscriber<>();
+        ts.values().get(0).subscribe(ts1);
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>();
+        ts.values().get(1).subscribe(ts2);
+        
+        timer.tick();
+        dp.onNext(1);
+        timer.tick();
+        
+        ts1.assertNotComplete();
+        ts2.assertNotComplete();
+        
+        timer.tick();
+        
+        ts1.assertValues(1, 1)
+        .assertNotComplete();
+        ts2.assertValues(2)
+        .assertNoError()
+        .assertComplete();
+        
+        timer.tick();
+        
+        ts1.assertValues(1, 1)
+        .assertNoError()
+        .assertComplete();
+        
+        dp.onNext(1);
+        
+        ts.assertValueCount(3)
+        .assertNotComplete();
+        
+        Assert.assertFalse(timer.cancelled);
+        
+        dp.onComplete();
+        
+        ts.assertComplete();
+        
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void idleTimerCancelledWithAllGroups() {
+        TestSubscriber<GroupedPublisher<Integer, Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> dp = new DirectProcessor<>();
+        
+        dp.groupBy(k -> k, v -> v, Integer.MAX_VALUE, 10, TimeUnit.MILLISECONDS, timer).subscribe(ts);
+        
+        dp.onNext(1);
+        
+        ts.values().get(0).subscribe(new TestSubscriber<>()); 
+        
+        ts.cancel();
+        
+        Assert.assertTrue(dp.hasDownstreams());
+        Assert.assertFalse(timer.cancelled);
+        
+        timer.tick();
+        timer.tick();
+        timer.tick();
+        
+        Assert.assertFalse(dp.hasDownstreams());
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void evictedGroupReplenishesBufferedValues() {
+        TestSubscriber<GroupedPublisher<Integer, Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        
+        new PublisherGroupBy<Integer, Integer, Integer>(Px.range(0, 100).hide(), k -> k % 3, v -> v, 
+                Px.defaultUnboundedQueueSupplier(4), Px.defaultUnboundedQueueSupplier(4), 4, 
+                Integer.MAX_VALUE, 10, TimeUnit.MILLISECONDS, timer).subscribe(ts);
+        
+        List<TestSubscriber<Integer>> groups = new ArrayList<>();
+        
+        for (int i = 0; i < 100 && ts.completions() == 0; i++) {
+            // the groups are evicted with the prefetched values still buffered
+            timer.tick();
+            timer.tick();
+            timer.tick();
+            
+            while (groups.size() < ts.values().size()) {
+                TestSubscriber<Integer> tsg = new TestSubscriber<>();
+                groups.add(tsg);
+                ts.values().get(groups.size() - 1).subscribe(tsg);
+            }
+        }
+        
+        ts.assertNoError()
+        .assertComplete();
+        
+        int count = 0;
+        for (TestSubscriber<Integer> tsg : groups) {
+            tsg.assertNoError()
+            .assertComplete();
+            count += tsg.values().size();
+        }
+        
+        Assert.assertEquals(100, count);
+    }
+
+    @Test
+    public void cancelledGroupRecreated() {
+        TestSubscriber<GroupedPublisher<Integer, Integer>> ts = new TestSubscriber<>();
+        
+        DirectProcessor<Integer> dp = new DirectProcessor<>();
+        
+        dp.groupBy(k -> k % 2).subscribe(ts);
+        
+        dp.onNext(1);
+        
+        TestSubscriber<Integer> ts1 = new TestSubscriber<>();
+        ts.values().get(0).subscribe(ts1);
+        
+        ts1.cancel();
+        
+        dp.onNext(3);
+        dp.onNext(2);
+        dp.onComplete();
+        
+        ts.assertValueCount(3)
+        .assertNoError()
+        .assertComplete();
+        
+        ts1.assertValues(1);
+        
+        TestSubscriber<Integer> ts2 = new TestSubscriber<>();
+        ts.values().get(1).subscribe(ts2);
+        ts2.assertResult(3);
+    }
+
+    @Test
+    public void manyGroupsSomeCancelled() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        // the keys of the cancelled groups keep coming back, getting fresh groups
+        Px.range(0, 10_000)
+        .groupBy(i -> i % 1000)
+        .flatMap(g -> g.key() % 3 == 0 ? g.take(1) : g)
+        .subscribe(ts);
+        
+        ts.assertValueCount(10_000)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void manyGroupsBounded() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        Px.range(0, 10_000)
+        .groupBy(i -> i % 1000, v -> v, 100)
+        .flatMap(g -> g)
+        .subscribe(ts);
+        
+        ts.assertValueCount(10_000)
+        .assertNoError()
+        .assertComplete();
+    }
 }
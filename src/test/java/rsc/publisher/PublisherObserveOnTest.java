@@ -1,13 +1,15 @@
 package rsc.publisher;
 
-import java.util.Arrays;
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.*;
 
+import rsc.flow.Fuseable;
 import rsc.processor.*;
 import rsc.scheduler.ExecutorServiceScheduler;
+import rsc.scheduler.ImmediateScheduler;
 import rsc.test.TestSubscriber;
 import rsc.util.*;
 
@@ -33,6 +35,7 @@ public class PublisherObserveOnTest {
         ctb.addRef("executor", exec);
         ctb.addRef("scheduler", new ExecutorServiceScheduler(ForkJoinPool.commonPool()));
         ctb.addInt("prefetch", 1, Integer.MAX_VALUE);
+        ctb.addInt("maxPrefetch", 1, Integer.MAX_VALUE);
         ctb.addRef("queueSupplier", Px.defaultQueueSupplier(Integer.MAX_VALUE));
         
         ctb.test();
@@ -535,6 +538,114 @@ public class PublisherObserveOnTest {
         .assertNotComplete();
     }
 
+    @Test
+    public void syncSourceCrashMidBatch() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        Px.fromIterable(() -> new Iterator<Integer>() {
+            int count;
+            
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+            
+            @Override
+            public Integer next() {
+                if (++count == 4) {
+                    throw new IllegalStateException("forced failure");
+                }
+                return count;
+            }
+        }).observeOn(exec).subscribe(ts);
+
+        ts.await(5, TimeUnit.SECONDS);
+        
+        ts.assertValues(1, 2, 3)
+        .assertError(IllegalStateException.class)
+        .assertNotComplete();
+    }
+
+    @Test
+    public void syncSourceBatchBackpressured() throws Exception {
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+        
+        Px.range(1, 1_000).observeOn(exec).subscribe(ts);
+        
+        ts.request(1);
+        
+        Thread.sleep(100);
+        
+        ts.assertValue(1)
+        .assertNoError()
+        .assertNotComplete();
+        
+        ts.request(499);
+        
+        Thread.sleep(100);
+        
+        ts.assertValueCount(500)
+        .assertNoError()
+        .assertNotComplete();
+        
+        ts.request(500);
+        
+        ts.await(5, TimeUnit.SECONDS);
+        
+        ts.assertValueCount(1_000)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void errorStopsBatch() {
+        DirectProcessor<Integer> dp = new DirectProcessor<>();
+        
+        TestSubscriber<Integer> ts = new TestSubscriber<Integer>(0) {
+            @Override
+            public void onNext(Integer t) {
+                super.onNext(t);
+                dp.onError(new RuntimeException("forced failure"));
+            }
+        };
+        
+        dp.observeOn(ImmediateScheduler.instance(), false).subscribe(ts);
+        
+        dp.onNext(1);
+        dp.onNext(2);
+        dp.onNext(3);
+        
+        ts.request(3);
+        
+        ts.assertValue(1)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @Test
+    public void errorStopsBatchConditional() {
+        DirectProcessor<Integer> dp = new DirectProcessor<>();
+        
+        TestSubscriber<Integer> ts = new TestSubscriber<Integer>(0) {
+            @Override
+            public void onNext(Integer t) {
+                super.onNext(t);
+                dp.onError(new RuntimeException("forced failure"));
+            }
+        };
+        
+        dp.observeOn(ImmediateScheduler.instance(), false).filter(v -> true).subscribe(ts);
+        
+        dp.onNext(1);
+        dp.onNext(2);
+        dp.onNext(3);
+        
+        ts.request(3);
+        
+        ts.assertValue(1)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
     @Test
     public void mappedsyncSourceWithNull() {
         TestSubscriber<Integer> ts = new TestSubscriber<>();
@@ -863,4 +974,136 @@ public class PublisherObserveOnTest {
         }
     }
 
+    @Test
+    public void adaptive() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        Px.range(1, 1_000_000).hide().observeOn(new ExecutorServiceScheduler(exec), false, 16, 1024).subscribe(ts);
+        
+        ts.assertTerminated(5, TimeUnit.SECONDS);
+        
+        ts.assertValueCount(1_000_000)
+        .assertNoError()
+        .assertComplete();
+        
+        List<Integer> values = ts.values();
+        for (int i = 0; i < values.size(); i++) {
+            Assert.assertEquals(i + 1, values.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void adaptiveGrowsWhenStarved() {
+        List<Long> requests = new ArrayList<>();
+        
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        Px.range(1, 10_000).doOnRequest(requests::add).hide()
+        .observeOn(ImmediateScheduler.instance(), false, 16, 256).subscribe(ts);
+        
+        ts.assertValueCount(10_000)
+        .assertNoError()
+        .assertComplete();
+        
+        Assert.assertEquals(16L, requests.get(0).longValue());
+        
+        long max = 0L;
+        long sum = 0L;
+        for (long r : requests) {
+            max = Math.max(max, r);
+            sum += r;
+        }
+        Assert.assertTrue(requests.toString(), max > 16L && max <= 256L);
+        Assert.assertTrue(requests.toString(), sum >= 10_000L && sum <= 10_000L + 256L);
+    }
+
+    @Test
+    public void adaptiveBackpressured() throws Exception {
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+        
+        Px.range(1, 100_000).hide().observeOn(new ExecutorServiceScheduler(exec), false, 16, 1024).subscribe(ts);
+        
+        ts.assertNoValues()
+        .assertNoError()
+        .assertNotComplete();
+        
+        ts.request(50_000);
+        
+        Thread.sleep(250);
+        
+        ts.assertValueCount(50_000)
+        .assertNoError()
+        .assertNotComplete();
+
+        ts.request(50_000);
+
+        ts.assertTerminated(5, TimeUnit.SECONDS);
+        
+        ts.assertValueCount(100_000)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void adaptiveSyncFused() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        Px.range(1, 1_000_000).observeOn(new ExecutorServiceScheduler(exec), false, 16, 1024).subscribe(ts);
+        
+        ts.assertTerminated(5, TimeUnit.SECONDS);
+        
+        ts.assertValueCount(1_000_000)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void adaptiveAsyncFused() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        UnicastProcessor<Integer> up = new UnicastProcessor<>(new SpscLinkedArrayQueue<>(1024));
+        
+        for (int i = 0; i < 100_000; i++) {
+            up.onNext(i);
+        }
+        up.onComplete();
+        
+        up.observeOn(new ExecutorServiceScheduler(exec), false, 16, 1024).subscribe(ts);
+        
+        ts.assertTerminated(5, TimeUnit.SECONDS);
+        
+        ts.assertValueCount(100_000)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void adaptiveConditional() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        Px.range(1, 100_000).hide().observeOn(new ExecutorServiceScheduler(exec), false, 16, 1024)
+        .filter(v -> (v & 1) == 0).subscribe(ts);
+        
+        ts.assertTerminated(5, TimeUnit.SECONDS);
+        
+        ts.assertValueCount(50_000)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void adaptiveOutputFused() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        ts.requestedFusionMode(Fuseable.ANY);
+        
+        Px.range(1, 100_000).hide().observeOn(new ExecutorServiceScheduler(exec), false, 16, 1024).subscribe(ts);
+        
+        ts.assertTerminated(5, TimeUnit.SECONDS);
+        
+        ts.assertFusionMode(Fuseable.ASYNC)
+        .assertValueCount(100_000)
+        .assertNoError()
+        .assertComplete();
+    }
+
 }
@@ -58,4 +58,75 @@ public class PublisherOnAssemblyTest {
             Px.trackAssembly = ta;
         }
     }
+
+    @Test
+    public void checkRecordedLazily() {
+        boolean ta = Px.trackAssembly;
+        int tas = Px.trackAssemblySampling;
+        try {
+            Px.trackAssembly = false;
+            Px.trackAssemblySampling = 1;
+            
+            TestSubscriber<Object> ts = new TestSubscriber<>();
+            
+            Px.error(new Exception()).subscribe(ts);
+            
+            ts.assertError(Exception.class);
+            
+            Throwable e = ts.errors().get(0);
+            
+            Throwable[] suppressed = e.getSuppressed();
+            
+            Assert.assertEquals(Arrays.toString(suppressed), 1, suppressed.length);
+            
+            String stacktrace = suppressed[0].getMessage();
+            
+            Assert.assertTrue(stacktrace, stacktrace.contains("checkRecordedLazily") 
+                    && stacktrace.contains("PublisherOnAssemblyTest"));
+            Assert.assertFalse(stacktrace, stacktrace.contains("AssemblySite"));
+        } finally {
+            Px.trackAssembly = ta;
+            Px.trackAssemblySampling = tas;
+        }
+    }
+    
+    @Test
+    public void lazyResolvesOnDemand() {
+        PublisherOnAssembly<Integer> p = new PublisherOnAssembly<>(Px.range(1, 5), true);
+        
+        Assert.assertNull(p.stacktrace);
+        
+        String stacktrace = p.stacktrace();
+        
+        Assert.assertTrue(stacktrace, stacktrace.contains("lazyResolvesOnDemand"));
+        Assert.assertSame(stacktrace, p.stacktrace());
+        
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+        
+        p.subscribe(ts);
+        
+        ts.assertResult(1, 2, 3, 4, 5);
+    }
+    
+    @Test
+    public void sampledSkipsSome() {
+        boolean ta = Px.trackAssembly;
+        int tas = Px.trackAssemblySampling;
+        try {
+            Px.trackAssembly = false;
+            Px.trackAssemblySampling = 1_000_000;
+            
+            int tracked = 0;
+            for (int i = 0; i < 1000; i++) {
+                if (Px.range(1, 5).map(v -> v) instanceof PublisherOnAssembly) {
+                    tracked++;
+                }
+            }
+            
+            Assert.assertTrue("" + tracked, tracked < 1000);
+        } finally {
+            Px.trackAssembly = ta;
+            Px.trackAssemblySampling = tas;
+        }
+    }
 }
@@ -0,0 +1,201 @@
+package rsc.publisher;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import org.junit.*;
+import org.reactivestreams.Publisher;
+
+import rsc.processor.DirectProcessor;
+import rsc.publisher.PublisherBufferTimedTest.ManualTimer;
+import rsc.scheduler.SingleTimedScheduler;
+import rsc.test.TestSubscriber;
+import rsc.util.ConstructorTestBuilder;
+
+public class PublisherWindowTimedTest {
+
+    @Test
+    public void constructors() {
+        ConstructorTestBuilder ctb = new ConstructorTestBuilder(PublisherWindowTimed.class);
+        
+        ctb.addRef("source", PublisherNever.instance());
+        ctb.addInt("maxSize", 1, Integer.MAX_VALUE);
+        ctb.addLong("timespan", 1, Long.MAX_VALUE);
+        ctb.addRef("unit", TimeUnit.MILLISECONDS);
+        ctb.addRef("timer", new ManualTimer());
+        ctb.addRef("processorQueueSupplier", (Supplier<Queue<Object>>)() -> new ConcurrentLinkedQueue<>());
+        ctb.addRef("drainQueueSupplier", (Supplier<Queue<Object>>)() -> new ConcurrentLinkedQueue<>());
+        
+        ctb.test();
+    }
+
+    static <T> TestSubscriber<T> toList(Publisher<T> windows) {
+        TestSubscriber<T> ts = new TestSubscriber<>();
+        windows.subscribe(ts);
+        return ts;
+    }
+
+    @SafeVarargs
+    static <T> void expect(TestSubscriber<Px<T>> ts, int index, T... values) {
+        toList(ts.values().get(index))
+        .assertValues(values)
+        .assertComplete()
+        .assertNoError();
+    }
+
+    @Test
+    public void withMaxSize() {
+        TestSubscriber<Px<Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+
+        new PublisherRange(1, 10).window(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+
+        ts.assertValueCount(4)
+        .assertNoError()
+        .assertComplete();
+
+        expect(ts, 0, 1, 2, 3);
+        expect(ts, 1, 4, 5, 6);
+        expect(ts, 2, 7, 8, 9);
+        expect(ts, 3, 10);
+
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void mixed() {
+        TestSubscriber<Px<Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        
+        sp1.window(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+
+        sp1.onNext(1);
+        sp1.onNext(2);
+        timer.tick();
+        
+        sp1.onNext(3);
+        sp1.onNext(4);
+        sp1.onNext(5);
+        sp1.onNext(6);
+        timer.tick();
+        
+        sp1.onNext(7);
+        timer.tick();
+        
+        sp1.onComplete();
+        
+        ts.assertValueCount(5)
+        .assertNoError()
+        .assertComplete();
+
+        expect(ts, 0, 1, 2);
+        expect(ts, 1, 3, 4, 5);
+        expect(ts, 2, 6);
+        expect(ts, 3, 7);
+        expect(ts, 4);
+
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void error() {
+        TestSubscriber<Px<Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        
+        sp1.window(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+
+        sp1.onNext(1);
+        sp1.onError(new RuntimeException("forced failure"));
+        
+        ts.assertValueCount(1)
+        .assertError(RuntimeException.class)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+
+        toList(ts.values().get(0))
+        .assertValues(1)
+        .assertError(RuntimeException.class)
+        .assertNotComplete();
+
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void cancelMainKeepsWindowOpen() {
+        TestSubscriber<Px<Integer>> ts = new TestSubscriber<>();
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        
+        sp1.window(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+
+        TestSubscriber<Integer> tsw = toList(ts.values().get(0));
+
+        ts.cancel();
+
+        Assert.assertTrue(sp1.hasDownstreams());
+        Assert.assertFalse(timer.cancelled);
+
+        sp1.onNext(1);
+        timer.tick();
+
+        tsw.assertValues(1)
+        .assertNoError()
+        .assertComplete();
+
+        Assert.assertFalse(sp1.hasDownstreams());
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void missingBackpressure() {
+        TestSubscriber<Px<Integer>> ts = new TestSubscriber<>(1);
+        ManualTimer timer = new ManualTimer();
+        
+        DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+        
+        sp1.window(3, 1, TimeUnit.SECONDS, timer).subscribe(ts);
+
+        timer.tick();
+        
+        ts.assertValueCount(1)
+        .assertError(IllegalStateException.class)
+        .assertNotComplete();
+
+        Assert.assertFalse(sp1.hasDownstreams());
+        Assert.assertTrue(timer.cancelled);
+    }
+
+    @Test
+    public void realTimer() {
+        SingleTimedScheduler timer = new SingleTimedScheduler();
+        try {
+            TestSubscriber<Px<Integer>> ts = new TestSubscriber<>();
+
+            DirectProcessor<Integer> sp1 = new DirectProcessor<>();
+
+            sp1.window(1000, 10, TimeUnit.MILLISECONDS, timer).subscribe(ts);
+
+            TestSubscriber<Integer> tsw = toList(ts.values().get(0));
+
+            ts.awaitAndAssertValueCount(2)
+            .assertNoError();
+
+            Assert.assertTrue(tsw.await(5, TimeUnit.SECONDS));
+
+            tsw.assertNoError()
+            .assertComplete();
+
+            sp1.onComplete();
+
+            ts.assertComplete();
+        } finally {
+            timer.shutdown();
+        }
+    }
+}
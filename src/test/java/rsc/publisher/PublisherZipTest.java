@@ -531,4 +531,176 @@ public class PublisherZipTest {
         .assertNoError()
         .assertComplete();
     }
+
+    @Test
+    public void syncBatchLongRun() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(0, 1000).zipWith(Px.range(0, 1000), (a, b) -> a + b).subscribe(ts);
+
+        ts.assertValueCount(1000)
+        .assertNoError()
+        .assertComplete();
+
+        List<Integer> values = ts.values();
+        for (int i = 0; i < values.size(); i++) {
+            Assert.assertEquals(2 * i, values.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void syncBatchBackpressured() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+
+        Px.range(0, 300).zipWith(Px.range(0, 300), (a, b) -> a + b).subscribe(ts);
+
+        ts.assertNoValues()
+        .assertNotComplete();
+
+        ts.request(1);
+
+        ts.assertIncomplete(0);
+
+        ts.request(199);
+
+        ts.assertValueCount(200)
+        .assertNotComplete();
+
+        ts.request(100);
+
+        ts.assertValueCount(300)
+        .assertNoError()
+        .assertComplete();
+
+        List<Integer> values = ts.values();
+        for (int i = 0; i < values.size(); i++) {
+            Assert.assertEquals(2 * i, values.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void syncBatchCompletesWithoutRequest() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>(0);
+
+        Px.range(0, 300).zipWith(Px.range(0, 200), (a, b) -> a + b).subscribe(ts);
+
+        ts.request(200);
+
+        ts.assertValueCount(200)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void syncBatchDifferentLength() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(0, 1000).zipWith(Px.range(0, 130), (a, b) -> a + b).subscribe(ts);
+
+        ts.assertValueCount(130)
+        .assertNoError()
+        .assertComplete();
+
+        Assert.assertEquals(258, ts.values().get(129).intValue());
+    }
+
+    @Test
+    public void syncBatchThreeSources() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(0, 500)
+        .zipWith(Px.fromArray(1, 2, 3, 4, 5), (a, b) -> a + b)
+        .zipWith(Px.fromIterable(Arrays.asList(10, 20, 30, 40)), (a, b) -> a + b)
+        .subscribe(ts);
+
+        ts.assertResult(11, 23, 35, 47);
+    }
+
+    @Test
+    public void syncBatchArrayZipperGetsDistinctRows() {
+        TestSubscriber<Object[]> ts = new TestSubscriber<>();
+
+        Px.zip(a -> a, Px.range(0, 200), Px.range(1000, 200)).subscribe(ts);
+
+        ts.assertValueCount(200)
+        .assertNoError()
+        .assertComplete();
+
+        List<Object[]> values = ts.values();
+        for (int i = 0; i < values.size(); i++) {
+            Assert.assertArrayEquals(new Object[] { i, 1000 + i }, values.get(i));
+        }
+    }
+
+    @Test
+    public void syncBatchPollFailsAfterEarlierRows() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(0, 200)
+        .<Integer, Integer>zipWith(Px.range(0, 200).map(v -> {
+            if (v == 150) {
+                throw new RuntimeException("forced failure");
+            }
+            return v;
+        }), (a, b) -> a + b)
+        .subscribe(ts);
+
+        ts.assertValueCount(150)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @Test
+    public void syncBatchEndBeforeLaterFailure() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(0, 200).map(v -> {
+            if (v == 100) {
+                throw new RuntimeException("forced failure");
+            }
+            return v;
+        })
+        .zipWith(Px.range(0, 50), (a, b) -> a + b)
+        .subscribe(ts);
+
+        ts.assertValueCount(50)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void syncBatchZipperThrows() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(0, 200).<Integer, Integer>zipWith(Px.range(0, 200), (a, b) -> {
+            if (a == 140) {
+                throw new RuntimeException("forced failure");
+            }
+            return a + b;
+        })
+        .subscribe(ts);
+
+        ts.assertValueCount(140)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @Test
+    public void syncBatchCancelInOnNext() {
+        TestSubscriber<Integer> ts = new TestSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer t) {
+                super.onNext(t);
+                if (t == 20) {
+                    cancel();
+                }
+            }
+        };
+
+        Px.range(0, 200).zipWith(Px.range(0, 200), (a, b) -> a + b).subscribe(ts);
+
+        ts.assertValueCount(11)
+        .assertNoError()
+        .assertNotComplete();
+    }
 }
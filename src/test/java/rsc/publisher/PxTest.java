@@ -1,5 +1,8 @@
 package rsc.publisher;
 
+import java.util.Queue;
+
+import org.junit.Assert;
 import org.junit.Test;
 
 import rsc.subscriber.SubscriptionHelper;
@@ -46,4 +49,20 @@ public class PxTest {
         .assertNotComplete();
     }
 
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void unboundedDefaultQueuesSupportTheFullQueueApi() {
+        for (Queue<Integer> q : new Queue[] { Px.<Integer>defaultQueueSupplier(Integer.MAX_VALUE).get(),
+                Px.<Integer>defaultUnboundedQueueSupplier(Integer.MAX_VALUE).get() }) {
+            q.offer(1);
+            q.offer(2);
+            
+            Assert.assertTrue(q.contains(2));
+            Assert.assertEquals(2, q.toArray().length);
+            Assert.assertEquals((Integer)1, q.iterator().next());
+            Assert.assertTrue(q.remove((Object)1));
+            Assert.assertEquals((Integer)2, q.poll());
+        }
+    }
 }
@@ -0,0 +1,270 @@
+package rsc.scheduler;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+
+import rsc.flow.Cancellation;
+import rsc.publisher.Px;
+import rsc.scheduler.EventLoopScheduler.IdleStrategy;
+import rsc.test.TestSubscriber;
+import rsc.util.ConstructorTestBuilder;
+
+public class EventLoopSchedulerTest {
+
+    @Test
+    public void constructors() {
+        ConstructorTestBuilder ctb = new ConstructorTestBuilder(EventLoopScheduler.class);
+
+        ctb.addInt("n", 1, Integer.MAX_VALUE);
+        ctb.addRef("idleStrategy", IdleStrategy.PARK);
+        ctb.addRef("threadFactory", EventLoopScheduler.THREAD_FACTORY_DAEMON);
+
+        ctb.test();
+    }
+
+    @Test(timeout = 5000)
+    public void direct() throws Exception {
+        EventLoopScheduler scheduler = new EventLoopScheduler(2);
+        try {
+            AtomicInteger counter = new AtomicInteger();
+
+            Runnable r = () -> counter.getAndIncrement();
+
+            int n = 10_000;
+
+            for (int i = 0; i < n; i++) {
+                scheduler.schedule(r);
+            }
+
+            while (counter.get() != n) {
+                Thread.sleep(1);
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    void fifo(IdleStrategy strategy) throws Exception {
+        EventLoopScheduler scheduler = new EventLoopScheduler(2, strategy);
+        try {
+            for (int j = 0; j < 20; j++) {
+                Queue<Integer> queue = new ConcurrentLinkedQueue<>();
+
+                CountDownLatch cdl = new CountDownLatch(1);
+
+                int n = 10_000;
+
+                Scheduler.Worker w = scheduler.createWorker();
+                try {
+                    for (int i = 0; i < n; i++) {
+                        int k = i;
+                        w.schedule(() -> queue.offer(k));
+                    }
+                    w.schedule(cdl::countDown);
+
+                    if (!cdl.await(5, TimeUnit.SECONDS)) {
+                        Assert.fail("Timed out: " + queue.size() + " of " + n + " @ " + j);
+                    }
+
+                    for (int i = 0; i < n; i++) {
+                        Assert.assertEquals(i, queue.poll().intValue());
+                    }
+                } finally {
+                    w.shutdown();
+                }
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void fifoSpin() throws Exception {
+        fifo(IdleStrategy.SPIN);
+    }
+
+    @Test
+    public void fifoYield() throws Exception {
+        fifo(IdleStrategy.YIELD);
+    }
+
+    @Test
+    public void fifoPark() throws Exception {
+        fifo(IdleStrategy.PARK);
+    }
+
+    @Test
+    public void wakesUpParkedLoop() throws Exception {
+        EventLoopScheduler scheduler = new EventLoopScheduler(1);
+        try {
+            Scheduler.Worker w = scheduler.createWorker();
+
+            for (int i = 0; i < 100; i++) {
+                CountDownLatch cdl = new CountDownLatch(1);
+
+                w.schedule(cdl::countDown);
+
+                Assert.assertTrue("Round " + i, cdl.await(5, TimeUnit.SECONDS));
+
+                if (i % 10 == 0) {
+                    // give the loop time to park
+                    Thread.sleep(5);
+                }
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void cancelledTaskIsSkipped() throws Exception {
+        EventLoopScheduler scheduler = new EventLoopScheduler(1);
+        try {
+            Scheduler.Worker w = scheduler.createWorker();
+
+            CountDownLatch block = new CountDownLatch(1);
+            CountDownLatch cdl = new CountDownLatch(1);
+            AtomicInteger counter = new AtomicInteger();
+
+            w.schedule(() -> {
+                try {
+                    block.await();
+                } catch (InterruptedException ex) {
+                    // ignored
+                }
+            });
+            Cancellation c = w.schedule(counter::getAndIncrement);
+            w.schedule(cdl::countDown);
+
+            c.dispose();
+            block.countDown();
+
+            Assert.assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(0, counter.get());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void workerShutdownSkipsPendingTasks() throws Exception {
+        EventLoopScheduler scheduler = new EventLoopScheduler(1);
+        try {
+            Scheduler.Worker w1 = scheduler.createWorker();
+            Scheduler.Worker w2 = scheduler.createWorker();
+
+            CountDownLatch block = new CountDownLatch(1);
+            CountDownLatch cdl = new CountDownLatch(1);
+            AtomicInteger counter = new AtomicInteger();
+
+            w1.schedule(() -> {
+                try {
+                    block.await();
+                } catch (InterruptedException ex) {
+                    // ignored
+                }
+            });
+            w1.schedule(counter::getAndIncrement);
+            w2.schedule(cdl::countDown);
+
+            w1.shutdown();
+            block.countDown();
+
+            Assert.assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(0, counter.get());
+
+            Assert.assertSame(Scheduler.REJECTED, w1.schedule(counter::getAndIncrement));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void crashingTaskDoesntStopLoop() throws Exception {
+        EventLoopScheduler scheduler = new EventLoopScheduler(1);
+        try {
+            Scheduler.Worker w = scheduler.createWorker();
+
+            CountDownLatch cdl = new CountDownLatch(1);
+
+            w.schedule(() -> {
+                throw new RuntimeException("forced failure");
+            });
+            w.schedule(cdl::countDown);
+
+            Assert.assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void shutdownAndRestart() throws Exception {
+        EventLoopScheduler scheduler = new EventLoopScheduler(2);
+        try {
+            Scheduler.Worker w = scheduler.createWorker();
+
+            scheduler.shutdown();
+
+            Assert.assertFalse(scheduler.isStarted());
+            Assert.assertSame(Scheduler.REJECTED, scheduler.schedule(() -> { }));
+            Assert.assertSame(Scheduler.REJECTED, w.schedule(() -> { }));
+            Assert.assertSame(Scheduler.REJECTED, scheduler.createWorker().schedule(() -> { }));
+
+            scheduler.start();
+
+            Assert.assertTrue(scheduler.isStarted());
+
+            CountDownLatch cdl = new CountDownLatch(1);
+
+            Assert.assertNotSame(Scheduler.REJECTED, scheduler.schedule(cdl::countDown));
+
+            Assert.assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void observeOn() {
+        EventLoopScheduler scheduler = new EventLoopScheduler(2);
+        try {
+            for (int i = 0; i < 10; i++) {
+                TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+                Px.range(1, 100_000).hide().observeOn(scheduler).subscribe(ts);
+
+                ts.assertTerminated(5, TimeUnit.SECONDS);
+
+                ts.assertValueCount(100_000)
+                .assertNoError()
+                .assertComplete();
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void subscribeOnObserveOn() {
+        EventLoopScheduler scheduler = new EventLoopScheduler(2);
+        try {
+            for (int i = 0; i < 10; i++) {
+                TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+                Px.range(1, 100_000).subscribeOn(scheduler).observeOn(scheduler).subscribe(ts);
+
+                ts.assertTerminated(5, TimeUnit.SECONDS);
+
+                ts.assertValueCount(100_000)
+                .assertNoError()
+                .assertComplete();
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package rsc.scheduler;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+
+import rsc.flow.Cancellation;
+import rsc.scheduler.TimedScheduler.TimedWorker;
+
+public class HashedWheelTimedSchedulerTest {
+
+    static TimedScheduler scheduler;
+    
+    TimedWorker worker;
+    
+    @BeforeClass
+    public static void beforeClass() {
+        scheduler = new HashedWheelTimedScheduler(Executors.defaultThreadFactory(), 1, TimeUnit.MILLISECONDS, 16);
+    }
+    
+    @AfterClass
+    public static void afterClass() {
+        scheduler.shutdown();
+    }
+    
+    @Before
+    public void before() {
+        worker = scheduler.createWorker();
+    }
+    
+    @After
+    public void after() {
+        worker.shutdown();
+    }
+    
+    @Test
+    public void fifo() throws Exception {
+        Queue<Integer> queue = new ConcurrentLinkedQueue<>();
+        
+        CountDownLatch cdl = new CountDownLatch(1);
+        
+        int n = 10_000;
+        
+        for (int i = 0; i < n; i++) {
+            int j = i;
+            worker.schedule(() -> queue.offer(j));
+        }
+        worker.schedule(cdl::countDown);
+        
+        if (!cdl.await(5, TimeUnit.SECONDS)) {
+            Assert.fail("Timeout " + queue.size());
+        }
+        
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(i, queue.poll().intValue());
+        }        
+    }
+
+    @Test
+    public void delayed() throws Exception {
+        Queue<Integer> queue = new ConcurrentLinkedQueue<>();
+        
+        CountDownLatch cdl = new CountDownLatch(1);
+        
+        int n = 10_000;
+        
+        for (int i = 0; i < n; i++) {
+            int j = i;
+            worker.schedule(() -> queue.offer(j), 100, TimeUnit.MILLISECONDS);
+        }
+        worker.schedule(cdl::countDown, 250, TimeUnit.MILLISECONDS);
+        
+        if (!cdl.await(5, TimeUnit.SECONDS)) {
+            Assert.fail("Timeout " + queue.size());
+        }
+        
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(i, queue.poll().intValue());
+        }        
+    }
+
+    @Test
+    public void neverEarly() throws Exception {
+        long[] delays = { 1, 5, 15, 16, 17, 40 };
+        
+        CountDownLatch cdl = new CountDownLatch(delays.length);
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        
+        for (long d : delays) {
+            long start = System.nanoTime();
+            scheduler.schedule(() -> {
+                long elapsed = System.nanoTime() - start;
+                if (elapsed < TimeUnit.MILLISECONDS.toNanos(d)) {
+                    errors.add("Delay " + d + " ms elapsed after " + elapsed + " ns");
+                }
+                cdl.countDown();
+            }, d, TimeUnit.MILLISECONDS);
+        }
+        
+        Assert.assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Collections.emptyList(), errors);
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        
+        int n = 10_000;
+        
+        List<Cancellation> list = new ArrayList<>();
+        
+        for (int i = 0; i < n; i++) {
+            list.add(scheduler.schedule(count::getAndIncrement, 50, TimeUnit.MILLISECONDS));
+        }
+        
+        for (Cancellation c : list) {
+            c.dispose();
+        }
+        
+        CountDownLatch cdl = new CountDownLatch(1);
+        scheduler.schedule(cdl::countDown, 100, TimeUnit.MILLISECONDS);
+        
+        Assert.assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, count.get());
+    }
+
+    @Test
+    public void fifoPeriodic() throws Exception {
+        Queue<Integer> queue = new ConcurrentLinkedQueue<>();
+        
+        CountDownLatch cdl = new CountDownLatch(1);
+        
+        int n = 100;
+
+        worker.schedulePeriodically(new Runnable() {
+            int i;
+            @Override
+            public void run() {
+                queue.offer(i++);
+                if (i == n) {
+                    worker.shutdown();
+                    cdl.countDown();
+                }
+            }
+        }, 1, 1, TimeUnit.MILLISECONDS);
+
+        if (!cdl.await(5, TimeUnit.SECONDS)) {
+            Assert.fail("Timeout: " + queue.size());
+        }
+        
+        Thread.sleep(50);
+        
+        Assert.assertEquals(n, queue.size());
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(i, queue.poll().intValue());
+        }        
+    }
+
+    @Test
+    public void periodicNoInitialDelay() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        CountDownLatch cdl = new CountDownLatch(3);
+        
+        Cancellation c = scheduler.schedulePeriodically(() -> {
+            count.getAndIncrement();
+            cdl.countDown();
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        
+        try {
+            Assert.assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        } finally {
+            c.dispose();
+        }
+    }
+
+    @Test
+    public void shutdown() throws Exception {
+        
+        AtomicInteger count = new AtomicInteger();
+        
+        worker.schedule(() -> count.getAndIncrement(), 100, TimeUnit.MILLISECONDS);
+        worker.schedulePeriodically(() -> count.getAndIncrement(), 100, 100, TimeUnit.MILLISECONDS);
+        
+        worker.shutdown();
+        
+        Thread.sleep(250);
+        
+        Assert.assertEquals(0, count.get());
+        
+        Assert.assertSame(Scheduler.REJECTED, worker.schedule(() -> { }));
+    }
+
+    @Test
+    public void schedulerShutdown() throws Exception {
+        TimedScheduler s = new HashedWheelTimedScheduler(true);
+        
+        AtomicInteger count = new AtomicInteger();
+        
+        s.schedule(() -> count.getAndIncrement(), 50, TimeUnit.MILLISECONDS);
+        
+        s.shutdown();
+        
+        Thread.sleep(100);
+        
+        Assert.assertEquals(0, count.get());
+        Assert.assertSame(Scheduler.REJECTED, s.schedule(() -> { }));
+    }
+}
@@ -0,0 +1,232 @@
+package rsc.scheduler;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+
+import rsc.flow.Cancellation;
+import rsc.publisher.Px;
+import rsc.test.TestSubscriber;
+import rsc.util.ConstructorTestBuilder;
+
+public class VirtualThreadSchedulerTest {
+
+    VirtualThreadScheduler scheduler;
+
+    @Before
+    public void before() {
+        scheduler = new VirtualThreadScheduler();
+    }
+
+    @After
+    public void after() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void constructors() {
+        ConstructorTestBuilder ctb = new ConstructorTestBuilder(VirtualThreadScheduler.class);
+
+        ctb.addRef("name", "test-");
+
+        ctb.test();
+    }
+
+    @Test(timeout = 5000)
+    public void direct() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+
+        int n = 1000;
+
+        for (int i = 0; i < n; i++) {
+            scheduler.schedule(counter::getAndIncrement);
+        }
+
+        while (counter.get() != n) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void workerFifo() throws Exception {
+        for (int j = 0; j < 20; j++) {
+            Queue<Integer> queue = new ConcurrentLinkedQueue<>();
+
+            CountDownLatch cdl = new CountDownLatch(1);
+
+            int n = 10_000;
+
+            Scheduler.Worker w = scheduler.createWorker();
+            try {
+                for (int i = 0; i < n; i++) {
+                    int k = i;
+                    w.schedule(() -> queue.offer(k));
+                }
+                w.schedule(cdl::countDown);
+
+                if (!cdl.await(5, TimeUnit.SECONDS)) {
+                    Assert.fail("Timed out: " + queue.size() + " of " + n + " @ " + j);
+                }
+
+                for (int i = 0; i < n; i++) {
+                    Assert.assertEquals(i, queue.poll().intValue());
+                }
+            } finally {
+                w.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void workerTasksDontOverlap() throws Exception {
+        Scheduler.Worker w = scheduler.createWorker();
+        try {
+            AtomicInteger active = new AtomicInteger();
+            AtomicInteger overlaps = new AtomicInteger();
+            CountDownLatch cdl = new CountDownLatch(100);
+
+            for (int i = 0; i < 100; i++) {
+                w.schedule(() -> {
+                    if (active.getAndIncrement() != 0) {
+                        overlaps.getAndIncrement();
+                    }
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                    active.getAndDecrement();
+                    cdl.countDown();
+                });
+            }
+
+            Assert.assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(0, overlaps.get());
+        } finally {
+            w.shutdown();
+        }
+    }
+
+    @Test
+    public void cancelRunningTaskInterrupts() throws Exception {
+        Scheduler.Worker w = scheduler.createWorker();
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            CountDownLatch next = new CountDownLatch(1);
+            AtomicInteger nextInterrupted = new AtomicInteger();
+
+            Cancellation c = w.schedule(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException ex) {
+                    interrupted.countDown();
+                }
+            });
+            w.schedule(() -> {
+                if (Thread.currentThread().isInterrupted()) {
+                    nextInterrupted.getAndIncrement();
+                }
+                next.countDown();
+            });
+
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            c.dispose();
+
+            Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(next.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(0, nextInterrupted.get());
+        } finally {
+            w.shutdown();
+        }
+    }
+
+    @Test
+    public void workerShutdownInterruptsAndDropsPending() throws Exception {
+        Scheduler.Worker w = scheduler.createWorker();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger counter = new AtomicInteger();
+
+        w.schedule(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+        });
+        w.schedule(counter::getAndIncrement);
+
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        w.shutdown();
+
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+
+        Thread.sleep(50);
+
+        Assert.assertEquals(0, counter.get());
+        Assert.assertSame(Scheduler.REJECTED, w.schedule(counter::getAndIncrement));
+    }
+
+    @Test
+    public void shutdownAndRestart() throws Exception {
+        Scheduler.Worker w = scheduler.createWorker();
+
+        scheduler.shutdown();
+
+        Assert.assertFalse(scheduler.isStarted());
+        Assert.assertSame(Scheduler.REJECTED, scheduler.schedule(() -> { }));
+        Assert.assertSame(Scheduler.REJECTED, w.schedule(() -> { }));
+
+        scheduler.start();
+
+        Assert.assertTrue(scheduler.isStarted());
+
+        CountDownLatch cdl = new CountDownLatch(1);
+
+        scheduler.createWorker().schedule(cdl::countDown);
+
+        Assert.assertTrue(cdl.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void concurrentBlockingSources() {
+        int n = 500;
+
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        Px.range(0, n)
+        .flatMap(v -> Px.fromCallable(() -> {
+            Thread.sleep(100);
+            return v;
+        }).subscribeOn(scheduler), false, n)
+        .subscribe(ts);
+
+        // one after the other, this would take 50 seconds
+        ts.assertTerminated(10, TimeUnit.SECONDS);
+
+        ts.assertValueCount(n)
+        .assertNoError()
+        .assertComplete();
+    }
+
+    @Test
+    public void blockingIterable() {
+        List<Integer> list = new ArrayList<>();
+
+        for (Integer v : Px.range(1, 1000).subscribeOn(scheduler).toIterable()) {
+            list.add(v);
+        }
+
+        Assert.assertEquals(1000, list.size());
+        Assert.assertEquals(1, list.get(0).intValue());
+        Assert.assertEquals(1000, list.get(999).intValue());
+    }
+}
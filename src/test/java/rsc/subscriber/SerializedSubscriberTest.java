@@ -0,0 +1,174 @@
+package rsc.subscriber;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+import org.reactivestreams.*;
+
+import rsc.test.TestSubscriber;
+
+public class SerializedSubscriberTest {
+
+    @Test
+    public void normal() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        SerializedSubscriber<Integer> s = new SerializedSubscriber<>(ts);
+        s.onSubscribe(SubscriptionHelper.empty());
+
+        s.onNext(1);
+        s.onNext(2);
+        s.onComplete();
+        s.onNext(3);
+        s.onError(new RuntimeException());
+
+        ts.assertResult(1, 2);
+    }
+
+    @Test
+    public void error() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        SerializedSubscriber<Integer> s = new SerializedSubscriber<>(ts);
+        s.onSubscribe(SubscriptionHelper.empty());
+
+        s.onNext(1);
+        s.onError(new RuntimeException("forced failure"));
+        s.onComplete();
+
+        ts.assertValues(1)
+        .assertErrorMessage("forced failure")
+        .assertNotComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void reentrantOnNextQueued() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        SerializedSubscriber<Integer>[] ref = new SerializedSubscriber[1];
+
+        SerializedSubscriber<Integer> s = new SerializedSubscriber<>(new Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                ts.onSubscribe(s);
+            }
+
+            @Override
+            public void onNext(Integer t) {
+                if (t == 1) {
+                    ref[0].onNext(2);
+                    ref[0].onComplete();
+                    ts.assertNoValues();
+                }
+                ts.onNext(t);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                ts.onError(t);
+            }
+
+            @Override
+            public void onComplete() {
+                ts.onComplete();
+            }
+        });
+        ref[0] = s;
+        s.onSubscribe(SubscriptionHelper.empty());
+
+        s.onNext(1);
+
+        ts.assertResult(1, 2);
+    }
+
+    @Test
+    public void concurrentProducers() throws Exception {
+        int threads = 4;
+        int count = 100_000;
+
+        AtomicInteger inside = new AtomicInteger();
+        int[] last = new int[threads];
+        int[] received = { 0 };
+        Throwable[] failure = { null };
+        CountDownLatch done = new CountDownLatch(1);
+
+        SerializedSubscriber<Integer> s = new SerializedSubscriber<>(new Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+            }
+
+            @Override
+            public void onNext(Integer t) {
+                if (inside.getAndIncrement() != 0) {
+                    failure[0] = new IllegalStateException("Concurrent onNext");
+                }
+                int thread = t % threads;
+                int index = t / threads;
+                if (last[thread] != index) {
+                    failure[0] = new IllegalStateException("Out of order: " + t);
+                }
+                last[thread] = index + 1;
+                received[0]++;
+                inside.decrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                failure[0] = t;
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+        s.onSubscribe(SubscriptionHelper.empty());
+
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            Future<?>[] futures = new Future<?>[threads];
+            for (int j = 0; j < threads; j++) {
+                int thread = j;
+                futures[j] = exec.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < count; i++) {
+                        s.onNext(i * threads + thread);
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> f : futures) {
+                f.get(10, TimeUnit.SECONDS);
+            }
+
+            s.onComplete();
+
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            Assert.assertNull(failure[0]);
+            Assert.assertEquals(threads * count, received[0]);
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void cancel() {
+        TestSubscriber<Integer> ts = new TestSubscriber<>();
+
+        SerializedSubscriber<Integer> s = new SerializedSubscriber<>(ts);
+        s.onSubscribe(SubscriptionHelper.empty());
+
+        s.onNext(1);
+        ts.cancel();
+        s.onNext(2);
+        s.onComplete();
+
+        ts.assertValues(1)
+        .assertNoError()
+        .assertNotComplete();
+    }
+}
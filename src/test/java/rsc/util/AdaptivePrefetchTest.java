@@ -0,0 +1,107 @@
+package rsc.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptivePrefetchTest {
+
+    @Test
+    public void constructors() {
+        ConstructorTestBuilder ctb = new ConstructorTestBuilder(AdaptivePrefetch.class);
+
+        ctb.addInt("minPrefetch", 1, Integer.MAX_VALUE);
+        ctb.addInt("maxPrefetch", 1, Integer.MAX_VALUE);
+        ctb.addLong("latencyTargetNanos", Long.MIN_VALUE, Long.MAX_VALUE);
+
+        ctb.test();
+    }
+
+    @Test
+    public void startsAtMinimum() {
+        AdaptivePrefetch ap = new AdaptivePrefetch(16, 256);
+
+        Assert.assertEquals(16, ap.initialRequest());
+        Assert.assertEquals(16, ap.window());
+        Assert.assertEquals(12, ap.limit());
+    }
+
+    @Test
+    public void growsWhenStarvedUpToMaximum() {
+        AdaptivePrefetch ap = new AdaptivePrefetch(16, 100, Long.MAX_VALUE);
+
+        ap.initialRequest();
+
+        ap.starved();
+        Assert.assertEquals(12 + 16, ap.replenish(12, 0));
+        Assert.assertEquals(32, ap.window());
+        Assert.assertEquals(24, ap.limit());
+
+        ap.starved();
+        Assert.assertEquals(24 + 32, ap.replenish(24, 0));
+        Assert.assertEquals(64, ap.window());
+
+        ap.starved();
+        Assert.assertEquals(48 + 36, ap.replenish(48, 0));
+        Assert.assertEquals(100, ap.window());
+
+        ap.starved();
+        Assert.assertEquals(75, ap.replenish(75, 0));
+        Assert.assertEquals(100, ap.window());
+    }
+
+    @Test
+    public void steadyWhenNeitherStarvedNorBacklogged() {
+        AdaptivePrefetch ap = new AdaptivePrefetch(16, 256, 0L);
+
+        ap.initialRequest();
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(12, ap.replenish(12, 1));
+            Assert.assertEquals(16, ap.window());
+        }
+    }
+
+    @Test
+    public void shrinksWhenBackloggedDownToMinimum() {
+        AdaptivePrefetch ap = new AdaptivePrefetch(16, 256, -1L);
+
+        ap.initialRequest();
+
+        for (int i = 0; i < 4; i++) {
+            ap.starved();
+            ap.replenish(ap.limit(), 0);
+        }
+
+        Assert.assertEquals(256, ap.window());
+
+        // all 64 outstanding values are sitting in the queue: the consumer is the bottleneck
+        Assert.assertEquals(128L, ap.replenish(192, 64));
+        Assert.assertEquals(192, ap.window());
+
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(0L, ap.replenish(0, 192));
+        }
+
+        Assert.assertEquals(16, ap.window());
+        Assert.assertEquals(12, ap.limit());
+    }
+
+    @Test
+    public void neverRequestsBeyondWindow() {
+        AdaptivePrefetch ap = new AdaptivePrefetch(8, 64, -1L);
+
+        long outstanding = ap.initialRequest();
+
+        for (int i = 0; i < 1000; i++) {
+            if (i % 3 == 0) {
+                ap.starved();
+            }
+            long consumed = Math.min(outstanding, ap.limit());
+            outstanding -= consumed;
+            outstanding += ap.replenish(consumed, (int)(outstanding * (i % 2)));
+
+            Assert.assertTrue(outstanding + " > 64", outstanding <= 64);
+            Assert.assertTrue(ap.window() >= 8 && ap.window() <= 64);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package rsc.util;
+
+import org.junit.*;
+
+public class BloomKeySetTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroExpectedKeys() {
+        new BloomKeySet<>(0, 0.01);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidRate() {
+        new BloomKeySet<>(10, 0d);
+    }
+
+    @Test
+    public void sizing() {
+        BloomKeySet<Object> set = new BloomKeySet<>(1_000_000, 0.01);
+
+        // about 9.6 bits and 7 hashes per key for 1%
+        Assert.assertTrue(set.toString(), set.bitCount() >= 9_585_059L);
+        Assert.assertEquals(7, set.hashCount());
+    }
+
+    @Test
+    public void noFalseNegatives() {
+        BloomKeySet<Integer> set = new BloomKeySet<>(10_000, 0.01);
+
+        int added = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (set.add(i)) {
+                added++;
+            }
+        }
+        for (int i = 0; i < 10_000; i++) {
+            Assert.assertTrue(set.contains(i));
+            Assert.assertFalse(set.add(i));
+        }
+
+        Assert.assertEquals(added, set.size());
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (set.contains(i)) {
+                falsePositives++;
+            }
+        }
+        // the filter is rounded up to a power of 2 so it does at least as well as asked
+        Assert.assertTrue("" + falsePositives, falsePositives < 1_500);
+
+        set.clear();
+
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertFalse(set.contains(1));
+    }
+}
@@ -0,0 +1,48 @@
+package rsc.util;
+
+import java.util.*;
+
+import org.junit.*;
+
+public class LongOpenHashSetTest {
+
+    @Test
+    public void addContains() {
+        LongOpenHashSet set = new LongOpenHashSet(2);
+
+        Assert.assertTrue(set.addLong(0L));
+        Assert.assertFalse(set.addLong(0L));
+        Assert.assertTrue(set.addLong(-1L));
+        Assert.assertTrue(set.add(Long.MIN_VALUE));
+        Assert.assertFalse(set.add(-1L));
+
+        Assert.assertEquals(3, set.size());
+        Assert.assertTrue(set.containsLong(0L));
+        Assert.assertTrue(set.contains(Long.MIN_VALUE));
+        Assert.assertFalse(set.contains(1L));
+        Assert.assertFalse(set.contains("0"));
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList(0L, -1L, Long.MIN_VALUE)), new HashSet<>(set));
+
+        set.clear();
+
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertFalse(set.containsLong(0L));
+        Assert.assertFalse(set.iterator().hasNext());
+    }
+
+    @Test
+    public void matchesHashSet() {
+        LongOpenHashSet set = new LongOpenHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long v = random.nextInt(50_000) * 4096L;
+            Assert.assertEquals(expected.add(v), set.addLong(v));
+        }
+
+        Assert.assertEquals(expected.size(), set.size());
+        Assert.assertEquals(expected, new HashSet<>(set));
+    }
+}
@@ -0,0 +1,36 @@
+package rsc.util;
+
+import java.util.*;
+
+import org.junit.*;
+
+public class LruKeySetTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroCapacity() {
+        new LruKeySet<>(0);
+    }
+
+    @Test
+    public void evictsLeastRecentlySeen() {
+        LruKeySet<Integer> set = new LruKeySet<>(3);
+
+        Assert.assertTrue(set.add(1));
+        Assert.assertTrue(set.add(2));
+        Assert.assertTrue(set.add(3));
+        Assert.assertFalse(set.add(1));
+
+        Assert.assertTrue(set.add(4));
+
+        Assert.assertEquals(3, set.size());
+        Assert.assertFalse(set.contains(2));
+        Assert.assertEquals(Arrays.asList(3, 1, 4), new ArrayList<>(set));
+
+        Assert.assertTrue(set.add(2));
+        Assert.assertFalse(set.contains(3));
+
+        set.clear();
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertEquals(3, set.capacity());
+    }
+}
@@ -0,0 +1,152 @@
+package rsc.util;
+
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+public class MpmcArrayQueueTest {
+
+    MpmcArrayQueue<Integer> queue;
+    
+    @Before
+    public void before() {
+        queue = new MpmcArrayQueue<>(16);
+    }
+    
+    @Test
+    public void offerTakeOneByOne() {
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(0, queue.size());
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(queue.offer(i));
+            Assert.assertFalse(queue.isEmpty());
+            Assert.assertEquals(1, queue.size());
+            
+            Assert.assertEquals((Integer)i, queue.peek());
+            Assert.assertEquals((Integer)i, queue.poll());
+            Assert.assertTrue(queue.isEmpty());
+            Assert.assertEquals(0, queue.size());
+        }
+    }
+    
+    @Test
+    public void full() {
+        for (int i = 0; i < 16; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        
+        Assert.assertFalse(queue.offer(16));
+        Assert.assertEquals(16, queue.size());
+        
+        Assert.assertEquals((Integer)0, queue.poll());
+        
+        Assert.assertTrue(queue.offer(16));
+        Assert.assertFalse(queue.offer(17));
+        
+        for (int i = 1; i < 17; i++) {
+            Assert.assertEquals((Integer)i, queue.poll());
+        }
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+    
+    @Test
+    public void multipleProducers() throws Exception {
+        int n = 4;
+        int count = 25_000;
+        
+        ExecutorService exec = Executors.newFixedThreadPool(n);
+        
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            
+            for (int k = 0; k < n; k++) {
+                int base = k * count;
+                exec.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        while (!queue.offer(base + i)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+            
+            start.countDown();
+            
+            int[] last = new int[n];
+            for (int k = 0; k < n; k++) {
+                last[k] = k * count - 1;
+            }
+            
+            long end = System.currentTimeMillis() + 10_000;
+            int received = 0;
+            while (received != n * count) {
+                Integer v = queue.poll();
+                if (v == null) {
+                    Assert.assertTrue("Timed out, received: " + received, System.currentTimeMillis() < end);
+                    Thread.yield();
+                    continue;
+                }
+                int k = v / count;
+                Assert.assertEquals(last[k] + 1, v.intValue());
+                last[k] = v;
+                received++;
+            }
+            
+            Assert.assertTrue(queue.isEmpty());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void multipleConsumers() throws Exception {
+        int n = 4;
+        int count = 25_000;
+        
+        ExecutorService exec = Executors.newFixedThreadPool(n);
+        
+        try {
+            int[] received = new int[n * count];
+            CountDownLatch done = new CountDownLatch(n);
+            
+            for (int k = 0; k < n; k++) {
+                exec.execute(() -> {
+                    int c = 0;
+                    long end = System.currentTimeMillis() + 10_000;
+                    while (c != count && System.currentTimeMillis() < end) {
+                        Integer v = queue.poll();
+                        if (v != null) {
+                            received[v]++;
+                            c++;
+                        } else {
+                            Thread.yield();
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            
+            for (int i = 0; i < n * count; i++) {
+                while (!queue.offer(i)) {
+                    Thread.yield();
+                }
+            }
+            
+            Assert.assertTrue(done.await(15, TimeUnit.SECONDS));
+            
+            for (int i = 0; i < n * count; i++) {
+                Assert.assertEquals("" + i, 1, received[i]);
+            }
+            Assert.assertTrue(queue.isEmpty());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package rsc.util;
+
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+public class MpscArrayQueueTest {
+
+    MpscArrayQueue<Integer> queue;
+    
+    @Before
+    public void before() {
+        queue = new MpscArrayQueue<>(16);
+    }
+    
+    @Test
+    public void offerTakeOneByOne() {
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(0, queue.size());
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(queue.offer(i));
+            Assert.assertFalse(queue.isEmpty());
+            Assert.assertEquals(1, queue.size());
+            
+            Assert.assertEquals((Integer)i, queue.peek());
+            Assert.assertEquals((Integer)i, queue.poll());
+            Assert.assertTrue(queue.isEmpty());
+            Assert.assertEquals(0, queue.size());
+        }
+    }
+    
+    @Test
+    public void full() {
+        for (int i = 0; i < 16; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        
+        Assert.assertFalse(queue.offer(16));
+        Assert.assertEquals(16, queue.size());
+        
+        Assert.assertEquals((Integer)0, queue.poll());
+        
+        Assert.assertTrue(queue.offer(16));
+        Assert.assertFalse(queue.offer(17));
+        
+        for (int i = 1; i < 17; i++) {
+            Assert.assertEquals((Integer)i, queue.poll());
+        }
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+    
+    @Test
+    public void batchPoll() {
+        int j = 0;
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 13; i++) {
+                Assert.assertTrue(queue.offer(round * 13 + i));
+            }
+            
+            Object[] batch = new Object[16];
+            
+            for (;;) {
+                int n = queue.poll(batch, 7);
+                if (n == 0) {
+                    break;
+                }
+                for (int k = 0; k < n; k++) {
+                    Assert.assertEquals(j++, batch[k]);
+                }
+            }
+        }
+        
+        Assert.assertEquals(39, j);
+        Assert.assertTrue(queue.isEmpty());
+    }
+    
+    @Test
+    public void multipleProducers() throws Exception {
+        int n = 4;
+        int count = 25_000;
+        
+        ExecutorService exec = Executors.newFixedThreadPool(n);
+        
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            
+            for (int k = 0; k < n; k++) {
+                int base = k * count;
+                exec.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        while (!queue.offer(base + i)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+            
+            start.countDown();
+            
+            int[] last = new int[n];
+            for (int k = 0; k < n; k++) {
+                last[k] = k * count - 1;
+            }
+            
+            long end = System.currentTimeMillis() + 10_000;
+            int received = 0;
+            while (received != n * count) {
+                Integer v = queue.poll();
+                if (v == null) {
+                    Assert.assertTrue("Timed out, received: " + received, System.currentTimeMillis() < end);
+                    Thread.yield();
+                    continue;
+                }
+                int k = v / count;
+                Assert.assertEquals(last[k] + 1, v.intValue());
+                last[k] = v;
+                received++;
+            }
+            
+            Assert.assertTrue(queue.isEmpty());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void clearWaitsForClaimedSlot() throws Exception {
+        queue.offer(1);
+
+        // claim the next slot like a producer preempted between the claim and the store
+        long pi = MpscArrayQueueProducer.PRODUCER_INDEX.getAndIncrement(queue);
+
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            exec.submit(() -> {
+                Thread.sleep(50);
+                queue.lazySet((int)pi & queue.mask, 2);
+                return null;
+            });
+
+            queue.clear();
+
+            Assert.assertTrue(queue.isEmpty());
+            Assert.assertNull(queue.poll());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package rsc.util;
+
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+public class MpscLinkedArrayQueueTest {
+
+    MpscLinkedArrayQueue<Integer> queue;
+    
+    @Before
+    public void before() {
+        queue = new MpscLinkedArrayQueue<>(16);
+    }
+    
+    @Test
+    public void offerTakeOneByOne() {
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(0, queue.size());
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(queue.offer(i));
+            Assert.assertFalse(queue.isEmpty());
+            Assert.assertEquals(1, queue.size());
+            
+            Assert.assertEquals((Integer)i, queue.peek());
+            Assert.assertEquals((Integer)i, queue.poll());
+            Assert.assertTrue(queue.isEmpty());
+            Assert.assertEquals(0, queue.size());
+        }
+    }
+    
+    @Test
+    public void grow() {
+        
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(queue.offer(i));
+            Assert.assertFalse(queue.isEmpty());
+            Assert.assertEquals(1 + i, queue.size());
+        }
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals((Integer)i, queue.peek());
+            Assert.assertEquals((Integer)i, queue.poll());
+        }
+
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(0, queue.size());
+    }
+    
+    @Test
+    public void pairs() {
+        for (int i = 0; i < 100; i += 2) {
+            Assert.assertTrue(queue.test(i, i + 1));
+            if (i % 3 == 0) {
+                Assert.assertTrue(queue.offer(-1));
+            }
+        }
+        
+        for (int i = 0; i < 100; i += 2) {
+            Assert.assertEquals((Integer)i, queue.poll());
+            Assert.assertEquals((Integer)(i + 1), queue.poll());
+            if (i % 3 == 0) {
+                Assert.assertEquals((Integer)(-1), queue.poll());
+            }
+        }
+        
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+    
+    @Test
+    public void batchPoll() {
+        for (int i = 0; i < 40; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        
+        Object[] batch = new Object[16];
+        
+        int j = 0;
+        for (;;) {
+            int n = queue.poll(batch, 7);
+            if (n == 0) {
+                break;
+            }
+            for (int k = 0; k < n; k++) {
+                Assert.assertEquals(j++, batch[k]);
+            }
+        }
+        
+        Assert.assertEquals(40, j);
+        Assert.assertTrue(queue.isEmpty());
+    }
+    
+    @Test
+    public void multipleProducers() throws Exception {
+        int n = 4;
+        int count = 25_000;
+        
+        ExecutorService exec = Executors.newFixedThreadPool(n);
+        
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            
+            for (int k = 0; k < n; k++) {
+                int base = k * count;
+                exec.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        queue.offer(base + i);
+                    }
+                });
+            }
+            
+            start.countDown();
+            
+            int[] last = new int[n];
+            for (int k = 0; k < n; k++) {
+                last[k] = k * count - 1;
+            }
+            
+            long end = System.currentTimeMillis() + 10_000;
+            int received = 0;
+            while (received != n * count) {
+                Integer v = queue.poll();
+                if (v == null) {
+                    Assert.assertTrue("Timed out, received: " + received, System.currentTimeMillis() < end);
+                    Thread.yield();
+                    continue;
+                }
+                int k = v / count;
+                Assert.assertEquals(last[k] + 1, v.intValue());
+                last[k] = v;
+                received++;
+            }
+            
+            Assert.assertTrue(queue.isEmpty());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void clearWaitsForClaimedSlot() throws Exception {
+        queue.offer(1);
+
+        // claim the next slot like a producer preempted between the claim and the store
+        long pi = MpscLinkedArrayQueueProducer.PRODUCER_INDEX.getAndAdd(queue, 2) >> 1;
+
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            exec.submit(() -> {
+                Thread.sleep(50);
+                queue.producerArray.lazySet((int)pi & queue.mask, 2);
+                return null;
+            });
+
+            queue.clear();
+
+            Assert.assertTrue(queue.isEmpty());
+            Assert.assertNull(queue.poll());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package rsc.util;
+
+import java.util.*;
+
+import org.junit.*;
+
+public class OpenHashMapTest {
+
+    @Test
+    public void putGetRemove() {
+        OpenHashMap<Integer, String> map = new OpenHashMap<>();
+
+        Assert.assertNull(map.put(1, "1"));
+        Assert.assertEquals("1", map.put(1, "one"));
+        Assert.assertEquals("one", map.get(1));
+        Assert.assertNull(map.get(2));
+        Assert.assertEquals(1, map.size());
+
+        Assert.assertFalse(map.remove(1, "1"));
+        Assert.assertEquals("one", map.get(1));
+
+        Assert.assertEquals("one", map.remove(1));
+        Assert.assertNull(map.remove(1));
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void matchesHashMap() {
+        OpenHashMap<Integer, Integer> map = new OpenHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        Random rnd = new Random(1);
+
+        for (int i = 0; i < 100_000; i++) {
+            Integer k = rnd.nextInt(2000) - 1000;
+            if (rnd.nextBoolean()) {
+                Assert.assertEquals(expected.put(k, i), map.put(k, i));
+            } else {
+                Assert.assertEquals(expected.remove(k), map.remove(k));
+            }
+            Assert.assertEquals(expected.size(), map.size());
+        }
+
+        for (int k = -1000; k < 1000; k++) {
+            Assert.assertEquals(expected.get(k), map.get(k));
+        }
+
+        List<Integer> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        Assert.assertEquals(expected.size(), values.size());
+
+        map.clear();
+
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(1));
+    }
+}
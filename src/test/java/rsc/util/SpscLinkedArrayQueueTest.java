@@ -45,4 +45,30 @@ public class SpscLinkedArrayQueueTest {
         Assert.assertTrue(queue.isEmpty());
         Assert.assertEquals(0, queue.size());
     }
+    
+    @Test
+    public void batchPoll() {
+        for (int i = 0; i < 40; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        
+        Object[] batch = new Object[16];
+        
+        int j = 0;
+        for (;;) {
+            int n = queue.poll(batch, 7);
+            if (n == 0) {
+                break;
+            }
+            Assert.assertTrue("" + n, n <= 7);
+            for (int k = 0; k < n; k++) {
+                Assert.assertEquals(j++, batch[k]);
+            }
+        }
+        
+        Assert.assertEquals(40, j);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(0, queue.size());
+        Assert.assertNull(queue.poll());
+    }
 }